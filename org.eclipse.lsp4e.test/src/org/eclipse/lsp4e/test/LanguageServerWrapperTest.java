@@ -16,7 +16,12 @@
 import static org.hamcrest.Matchers.matchesPattern;
 import static org.junit.Assert.*;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
@@ -25,17 +30,40 @@
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServiceAccessor;
+import org.eclipse.lsp4e.RequestLimits;
+import org.eclipse.lsp4e.RequestLimits.RequestClass;
+import org.eclipse.lsp4e.ResponsivenessWatchdog;
+import org.eclipse.lsp4e.ServerCapabilitiesSnapshots;
 import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
 import org.eclipse.lsp4e.test.utils.TestUtils;
 import org.eclipse.lsp4e.tests.mock.MockConnectionProviderMultiRootFolders;
+import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
+import org.eclipse.lsp4e.tests.mock.MockTextDocumentService;
+import org.eclipse.lsp4j.DocumentLink;
+import org.eclipse.lsp4j.DocumentLinkParams;
+import org.eclipse.lsp4j.Hover;
+import org.eclipse.lsp4j.HoverParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.ServerCapabilities;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.ui.IEditorPart;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
 public class LanguageServerWrapperTest extends AbstractTestWithProject {
 
+	private static final String SERVER_ID = "org.eclipse.lsp4e.test.server";
+
 	private IProject project2;
 
 	@Before
@@ -68,6 +96,207 @@ public void testConnect() throws Exception {
 		TestUtils.closeEditor(editor2, false);
 	}
 
+	@Test
+	public void testKnownCapabilitiesAnswerWhileInitializing() throws Exception {
+		IFile testFile = TestUtils.createUniqueTestFile(project, "");
+		IEditorPart editor = TestUtils.openEditor(testFile);
+		try {
+			List<LanguageServerWrapper> wrappers = LanguageServiceAccessor.getLSWrappers(testFile, request -> true);
+			assertEquals(1, wrappers.size());
+			LanguageServerWrapper wrapper = wrappers.get(0);
+			// the capabilities are recorded once the server is initialized
+			wrapper.getInitializedServer().get(5, TimeUnit.SECONDS);
+
+			MockLanguageServer.INSTANCE.setTimeToProceedQueries(5_000);
+			wrapper.restart();
+			long start = System.currentTimeMillis();
+			wrappers = LanguageServiceAccessor.getLSWrappers(testFile,
+					capabilities -> capabilities.getHoverProvider() != null);
+			// answered from the capabilities of the previous run, without waiting for initialize
+			assertEquals(1, wrappers.size());
+			assertTrue(System.currentTimeMillis() - start < 2_500);
+		} finally {
+			MockLanguageServer.INSTANCE.setTimeToProceedQueries(0);
+			TestUtils.closeEditor(editor, false);
+		}
+	}
+
+	@Test
+	public void testBackgroundRequestDeferredWhileServerLags() throws Exception {
+		final var slowHover = new CompletableFuture<Hover>();
+		MockLanguageServer.INSTANCE.setTextDocumentService(new MockTextDocumentService(MockLanguageServer.INSTANCE::buildMaybeDelayedFuture) {
+			@Override
+			public CompletableFuture<Hover> hover(HoverParams position) {
+				return slowHover;
+			}
+		});
+		MockLanguageServer.INSTANCE.setDocumentLinks(List.of(new DocumentLink(new Range(new Position(0, 9), new Position(0, 15)), "file://test0")));
+
+		IFile testFile = TestUtils.createUniqueTestFile(project, "not_link <link>");
+		IEditorPart editor = TestUtils.openEditor(testFile);
+		// a single outstanding interactive request makes the server lag
+		RequestLimits.setLimit(SERVER_ID, RequestClass.INTERACTIVE, 1);
+		try {
+			LanguageServerWrapper wrapper = LanguageServiceAccessor.getLSWrappers(testFile, request -> true).get(0);
+			final var document = new TextDocumentIdentifier(LSPEclipseUtils.toUri(testFile).toString());
+			final long deferred = getDeferredRequests();
+
+			wrapper.execute(ls -> ls.getTextDocumentService().hover(new HoverParams(document, new Position(0, 0))));
+			CompletableFuture<List<DocumentLink>> links = wrapper.execute(ls -> ls.getTextDocumentService().documentLink(new DocumentLinkParams(document)));
+
+			waitForAndAssertCondition(5_000, () -> getDeferredRequests() > deferred);
+			assertFalse(links.isDone());
+
+			// sent once the server caught up
+			slowHover.complete(null);
+			assertEquals(1, links.get(5, TimeUnit.SECONDS).size());
+		} finally {
+			RequestLimits.resetLimit(SERVER_ID, RequestClass.INTERACTIVE);
+			slowHover.complete(null);
+			TestUtils.closeEditor(editor, false);
+		}
+	}
+
+	@Test
+	public void testDeferredRequestShedOnDocumentChange() throws Exception {
+		final var slowHover = new CompletableFuture<Hover>();
+		MockLanguageServer.INSTANCE.setTextDocumentService(new MockTextDocumentService(MockLanguageServer.INSTANCE::buildMaybeDelayedFuture) {
+			@Override
+			public CompletableFuture<Hover> hover(HoverParams position) {
+				return slowHover;
+			}
+		});
+
+		IFile testFile = TestUtils.createUniqueTestFile(project, "not_link <link>");
+		ITextViewer viewer = TestUtils.openTextViewer(testFile);
+		RequestLimits.setLimit(SERVER_ID, RequestClass.INTERACTIVE, 1);
+		try {
+			LanguageServerWrapper wrapper = LanguageServiceAccessor.getLSWrappers(testFile, request -> true).get(0);
+			final var document = new TextDocumentIdentifier(LSPEclipseUtils.toUri(testFile).toString());
+			final long deferred = getDeferredRequests();
+			final RequestLimits.Stats stats = RequestLimits.getStats(SERVER_ID);
+			final long shed = stats == null ? 0 : stats.shed();
+
+			wrapper.execute(ls -> ls.getTextDocumentService().hover(new HoverParams(document, new Position(0, 0))));
+			CompletableFuture<List<DocumentLink>> links = wrapper.execute(ls -> ls.getTextDocumentService().documentLink(new DocumentLinkParams(document)));
+			waitForAndAssertCondition(5_000, () -> getDeferredRequests() > deferred);
+
+			// the editors ask again for the changed document, the deferred request is answered with no result
+			viewer.getDocument().set("changed <link>");
+			assertNull(links.get(5, TimeUnit.SECONDS));
+			assertFalse(slowHover.isDone());
+			assertTrue(RequestLimits.getStats(SERVER_ID).shed() > shed);
+		} finally {
+			RequestLimits.resetLimit(SERVER_ID, RequestClass.INTERACTIVE);
+			slowHover.complete(null);
+		}
+	}
+
+	@Test
+	public void testUnresponsiveServerDegraded() throws Exception {
+		final var slowHover = new CompletableFuture<Hover>();
+		MockLanguageServer.INSTANCE.setTextDocumentService(new MockTextDocumentService(MockLanguageServer.INSTANCE::buildMaybeDelayedFuture) {
+			@Override
+			public CompletableFuture<Hover> hover(HoverParams position) {
+				return slowHover;
+			}
+		});
+
+		IFile testFile = TestUtils.createUniqueTestFile(project, "Here is some content");
+		IEditorPart editor = TestUtils.openEditor(testFile);
+		IPreferenceStore store = LanguageServerPlugin.getDefault().getPreferenceStore();
+		store.setValue(ResponsivenessWatchdog.UNRESPONSIVE_MS, 500);
+		try {
+			LanguageServerWrapper wrapper = LanguageServiceAccessor.getLSWrappers(testFile, request -> true).get(0);
+			wrapper.getInitializedServer().get(5, TimeUnit.SECONDS);
+			assertFalse(wrapper.isDegraded());
+
+			final var document = new TextDocumentIdentifier(LSPEclipseUtils.toUri(testFile).toString());
+			CompletableFuture<Hover> hover = wrapper.execute(ls -> ls.getTextDocumentService().hover(new HoverParams(document, new Position(0, 0))));
+			waitForAndAssertCondition(5_000, wrapper::isDegraded);
+
+			// not degraded anymore once it answers
+			slowHover.complete(null);
+			hover.get(5, TimeUnit.SECONDS);
+			waitForAndAssertCondition(5_000, () -> !wrapper.isDegraded());
+		} finally {
+			store.setToDefault(ResponsivenessWatchdog.UNRESPONSIVE_MS);
+			slowHover.complete(null);
+			TestUtils.closeEditor(editor, false);
+		}
+	}
+
+	@Test
+	public void testStopSendsShutdown() throws Exception {
+		IFile testFile = TestUtils.createUniqueTestFile(project, "Here is some content");
+		IEditorPart editor = TestUtils.openEditor(testFile);
+		try {
+			LanguageServerWrapper wrapper = LanguageServiceAccessor.getLSWrappers(testFile, request -> true).get(0);
+			wrapper.getInitializedServer().get(5, TimeUnit.SECONDS);
+			assertTrue(MockLanguageServer.INSTANCE.isRunning());
+
+			// the shutdown request goes through the message wrapper of the stopped session
+			wrapper.stop();
+			waitForAndAssertCondition(2_000, () -> !MockLanguageServer.INSTANCE.isRunning());
+		} finally {
+			TestUtils.closeEditor(editor, false);
+		}
+	}
+
+	private static long getDeferredRequests() {
+		final RequestLimits.Stats stats = RequestLimits.getStats(SERVER_ID);
+		return stats == null ? 0 : stats.deferred();
+	}
+
+	@Test
+	public void testKnownCapabilitiesLoadedFromDisk() throws Exception {
+		IFile testFile = TestUtils.createUniqueTestFile(project, "");
+		IEditorPart editor = TestUtils.openEditor(testFile);
+		LanguageServerWrapper wrapper = LanguageServiceAccessor.getLSWrappers(testFile, request -> true).get(0);
+		Path snapshotFile = getCapabilitiesSnapshotFile(wrapper);
+		try {
+			wrapper.getInitializedServer().get(5, TimeUnit.SECONDS);
+			waitForAndAssertCondition(5_000, () -> Files.exists(snapshotFile));
+
+			ServerCapabilitiesSnapshots.clearCache();
+			ServerCapabilities capabilities = ServerCapabilitiesSnapshots.get(wrapper.serverDefinition);
+			assertNotNull(capabilities);
+			assertEquals(wrapper.getServerCapabilities().getHoverProvider(), capabilities.getHoverProvider());
+		} finally {
+			TestUtils.closeEditor(editor, false);
+		}
+	}
+
+	@Test
+	public void testKnownCapabilitiesRejectedOnVersionMismatch() throws Exception {
+		IFile testFile = TestUtils.createUniqueTestFile(project, "");
+		IEditorPart editor = TestUtils.openEditor(testFile);
+		LanguageServerWrapper wrapper = LanguageServiceAccessor.getLSWrappers(testFile, request -> true).get(0);
+		Path snapshotFile = getCapabilitiesSnapshotFile(wrapper);
+		try {
+			wrapper.getInitializedServer().get(5, TimeUnit.SECONDS);
+			waitForAndAssertCondition(5_000, () -> Files.exists(snapshotFile));
+
+			// as if saved by another version of the language server
+			JsonObject snapshot = JsonParser.parseString(Files.readString(snapshotFile)).getAsJsonObject();
+			snapshot.addProperty("version", "0.0.0.other");
+			Files.writeString(snapshotFile, snapshot.toString());
+
+			ServerCapabilitiesSnapshots.clearCache();
+			assertNull(ServerCapabilitiesSnapshots.get(wrapper.serverDefinition));
+		} finally {
+			ServerCapabilitiesSnapshots.clearCache();
+			Files.deleteIfExists(snapshotFile);
+			TestUtils.closeEditor(editor, false);
+		}
+	}
+
+	private static Path getCapabilitiesSnapshotFile(LanguageServerWrapper wrapper) {
+		return LanguageServerPlugin.getDefault().getStateLocation().append("serverCapabilities")
+				.append(URLEncoder.encode(wrapper.serverDefinition.id, StandardCharsets.UTF_8) + ".json").toFile()
+				.toPath();
+	}
+
 	/**
 	 * Check if {@code isActive()} is correctly synchronized with  {@code stop()}
 	 * @see <a href="https://github.com/eclipse-lsp4e/lsp4e/pull/688">GitHub Pull Request #688</a>
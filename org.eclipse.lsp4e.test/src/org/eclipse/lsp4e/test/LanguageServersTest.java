@@ -134,6 +134,71 @@ public synchronized CompletableFuture<Hover> hover(HoverParams position) {
 		assertFalse(hovers.contains(null));
 	}
 
+	@Test
+	public void testStreamAll() throws Exception {
+		final var hoverCount = new AtomicInteger();
+		final var slowHover = new CompletableFuture<Hover>();
+		MockLanguageServer.INSTANCE.setTextDocumentService(new MockTextDocumentService(MockLanguageServer.INSTANCE::buildMaybeDelayedFuture) {
+			@Override
+			public synchronized void didChange(DidChangeTextDocumentParams params) {
+				super.didChange(params);
+			}
+
+			@Override
+			public synchronized CompletableFuture<Hover> hover(HoverParams position) {
+				final var hoverResponse = new Hover(List.of(Either.forLeft("HoverContent" + hoverCount.incrementAndGet())), new Range(new Position(0,  0), new Position(0, 10)));
+				if (hoverCount.get() == 1) {
+					return CompletableFuture.completedFuture(hoverResponse);
+				}
+				return slowHover.thenApply(h -> hoverResponse);
+			}
+		});
+
+		IFile testFile = TestUtils.createUniqueTestFileMultiLS(project, "Here is some content");
+		ITextViewer viewer = TestUtils.openTextViewer(testFile);
+		final IDocument document = viewer.getDocument();
+
+		final var params = new HoverParams();
+		final var position = new Position();
+		position.setCharacter(10);
+		position.setLine(0);
+		params.setPosition(position);
+
+		final var hovers = new Vector<String>();
+		CompletableFuture<@Nullable Void> result = LanguageServers.forDocument(document)
+				.withCapability(ServerCapabilities::getHoverProvider)
+				.streamAll(ls -> ls.getTextDocumentService().hover(params).thenApply(h -> h.getContents().getLeft().get(0).getLeft()),
+						hovers::add, ForkJoinPool.commonPool());
+
+		// the fast server's result is delivered without waiting for the slow one
+		waitForAndAssertCondition(5_000, () -> hovers.contains("HoverContent1"));
+		assertFalse(result.isDone());
+
+		slowHover.complete(null);
+		result.get(5, TimeUnit.SECONDS);
+		assertEquals(2, hovers.size());
+		assertTrue(hovers.contains("HoverContent2"));
+	}
+
+	@Test
+	public void testStreamAllCancellation() throws Exception {
+		IFile testFile = TestUtils.createUniqueTestFile(project, "Here is some content");
+		ITextViewer viewer = TestUtils.openTextViewer(testFile);
+		final IDocument document = viewer.getDocument();
+		MockLanguageServer.INSTANCE.setTimeToProceedQueries(3000);
+
+		final var received = new AtomicInteger();
+		CompletableFuture<@Nullable Void> result = LanguageServers.forDocument(document)
+				.streamAll(ls -> ls.getTextDocumentService().references(new ReferenceParams()),
+						locations -> received.incrementAndGet(), ForkJoinPool.commonPool());
+		Thread.sleep(500);
+		result.cancel(false);
+
+		waitForAndAssertCondition(3_000, () -> !MockConnectionProvider.cancellations.isEmpty());
+		Thread.sleep(3000);
+		assertEquals(0, received.get());
+	}
+
 	@Test
 	public void testComputeAll() throws Exception {
 		final var hoverCount = new AtomicInteger();
@@ -135,6 +135,44 @@ public void testCodeActionsQuickAssist() throws CoreException {
 		checkCompletionContent(completionProposalList);
 	}
 
+	@Test
+	public void testQuickAssistCodeActionsCachedPerDocumentVersion() throws CoreException {
+		MockLanguageServer.reset();
+		IFile f = TestUtils.createUniqueTestFile(project, "error");
+
+		final var tEdit = new TextEdit(new Range(new Position(0, 0), new Position(0, 5)), "fixed");
+		final var wEdit = new WorkspaceEdit(Collections.singletonMap(f.getLocationURI().toString(), List.of(tEdit)));
+		MockLanguageServer.INSTANCE.setCodeActions(List
+				.of(Either.forLeft(new Command(
+				"fixme",
+				"edit",
+				List.of(wEdit))
+			)
+		));
+		final var editor = (AbstractTextEditor)TestUtils.openEditor(f);
+		final Set<Shell> beforeShells = Arrays.stream(editor.getSite().getShell().getDisplay().getShells()).filter(Shell::isVisible).collect(Collectors.toSet());
+		editor.selectAndReveal(3, 0);
+		final var action = (TextOperationAction) editor.getAction(ITextEditorActionConstants.QUICK_ASSIST);
+		action.update();
+		action.run();
+		Shell completionShell= TestUtils.findNewShell(beforeShells, editor.getSite().getShell().getDisplay());
+		checkCompletionContent(TestUtils.findCompletionSelectionControl(completionShell));
+
+		// invoking quick assist again on the same selection reuses the code actions
+		action.run();
+		waitForAndAssertCondition(1_000, () -> {
+			final Shell shell = TestUtils.findNewShell(beforeShells, editor.getSite().getShell().getDisplay());
+			return shell != null && TestUtils.findCompletionSelectionControl(shell).getItemCount() == 1;
+		});
+		assertEquals(1, MockLanguageServer.INSTANCE.getTextDocumentService().codeActionRequests);
+
+		// a modified document gets new code actions
+		editor.getDocumentProvider().getDocument(editor.getEditorInput()).set("errors");
+		editor.selectAndReveal(3, 0);
+		action.run();
+		waitForAndAssertCondition(1_000, () -> MockLanguageServer.INSTANCE.getTextDocumentService().codeActionRequests >= 2);
+	}
+
 	@Test
 	public void testSlowCodeActionsQuickAssist() throws CoreException {
 		MockLanguageServer.reset();
@@ -183,6 +221,31 @@ public void testCodeActionLiteralWorkspaceEdit() throws CoreException {
 		assertResolution(editor, m, "fixed");
 	}
 
+	@Test
+	public void testCodeActionsOfMarkersOnSameLineRequestedOnce() throws CoreException {
+		IFile f = TestUtils.createUniqueTestFile(project, "error warning");
+
+		final var error = new Diagnostic(new Range(new Position(0, 0), new Position(0, 5)), "error", DiagnosticSeverity.Error, null);
+		final var warning = new Diagnostic(new Range(new Position(0, 6), new Position(0, 13)), "warning", DiagnosticSeverity.Warning, null);
+		final var fixError = new CodeAction("fix error");
+		fixError.setDiagnostics(List.of(error));
+		final var fixWarning = new CodeAction("fix warning");
+		fixWarning.setDiagnostics(List.of(warning));
+		MockLanguageServer.INSTANCE.setCodeActions(List.of(Either.forRight(fixError), Either.forRight(fixWarning)));
+		MockLanguageServer.INSTANCE.setDiagnostics(List.of(error, warning));
+		TestUtils.openEditor(f);
+
+		waitForAndAssertCondition(2_000, () -> f.findMarkers(LSPDiagnosticsToMarkers.LS_DIAGNOSTIC_MARKER_TYPE, true,
+				IResource.DEPTH_ZERO).length == 2);
+		for (IMarker m : f.findMarkers(LSPDiagnosticsToMarkers.LS_DIAGNOSTIC_MARKER_TYPE, true, IResource.DEPTH_ZERO)) {
+			final String expectedLabel = "fix " + m.getAttribute(IMarker.MESSAGE);
+			assertTrue("Resolution not found within expected time.", waitForCondition(2_000,
+					() -> IDE.getMarkerHelpRegistry().getResolutions(m).length == 1
+							&& IDE.getMarkerHelpRegistry().getResolutions(m)[0].getLabel().equals(expectedLabel)));
+		}
+		assertEquals(1, MockLanguageServer.INSTANCE.getTextDocumentService().codeActionRequests);
+	}
+
 	@Test
 	public void testNoCodeActionOnReadOnlySource() throws CoreException {
 		IFile f = TestUtils.createUniqueTestFile(project, "error");
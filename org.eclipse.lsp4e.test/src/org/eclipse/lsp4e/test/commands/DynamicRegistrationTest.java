@@ -11,15 +11,18 @@
  *******************************************************************************/
 package org.eclipse.lsp4e.test.commands;
 
+import static org.eclipse.lsp4e.test.utils.TestUtils.waitForAndAssertCondition;
 import static org.eclipse.lsp4e.test.utils.TestUtils.waitForCondition;
 import static org.junit.Assert.*;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServers;
@@ -27,7 +30,11 @@
 import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
 import org.eclipse.lsp4e.test.utils.TestUtils;
 import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
+import org.eclipse.lsp4j.DidChangeWatchedFilesParams;
+import org.eclipse.lsp4j.DidChangeWatchedFilesRegistrationOptions;
 import org.eclipse.lsp4j.ExecuteCommandOptions;
+import org.eclipse.lsp4j.FileChangeType;
+import org.eclipse.lsp4j.FileSystemWatcher;
 import org.eclipse.lsp4j.Registration;
 import org.eclipse.lsp4j.RegistrationParams;
 import org.eclipse.lsp4j.ServerCapabilities;
@@ -35,6 +42,8 @@
 import org.eclipse.lsp4j.UnregistrationParams;
 import org.eclipse.lsp4j.WorkspaceFoldersOptions;
 import org.eclipse.lsp4j.WorkspaceServerCapabilities;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.lsp4j.services.LanguageClient;
 import org.junit.Before;
 import org.junit.Test;
@@ -45,6 +54,7 @@ public class DynamicRegistrationTest extends AbstractTestWithProject {
 
 	private static final String WORKSPACE_EXECUTE_COMMAND = "workspace/executeCommand";
 	private static final String WORKSPACE_DID_CHANGE_FOLDERS = "workspace/didChangeWorkspaceFolders";
+	private static final String WORKSPACE_DID_CHANGE_WATCHED_FILES = "workspace/didChangeWatchedFiles";
 
 	@Before
 	public void setUp() throws Exception {
@@ -76,6 +86,23 @@ public void testCommandRegistration() throws Exception {
 		assertFalse(LanguageServiceAccessor.hasActiveLanguageServers(handlesCommand("test.command.2")));
 	}
 
+	@Test
+	public void testRegistrationRoutedAtOnce() throws Exception {
+		IDocument document = LSPEclipseUtils.getDocument(project.getFile("shouldUseExtension.lspt"));
+		assertNotNull(document);
+		// unknown capabilities are optimistically matching until the server is initialized
+		waitForAndAssertCondition(5_000,
+				() -> !LanguageServers.forDocument(document).withFilter(handlesCommand("test.command")).anyMatching());
+
+		UUID registration = registerCommands("test.command");
+		try {
+			assertTrue(LanguageServers.forDocument(document).withFilter(handlesCommand("test.command")).anyMatching());
+		} finally {
+			unregister(registration);
+		}
+		assertFalse(LanguageServers.forDocument(document).withFilter(handlesCommand("test.command")).anyMatching());
+	}
+
 	@Test
 	public void testWorkspaceFoldersRegistration() throws Exception {
 		assertTrue(LanguageServiceAccessor.hasActiveLanguageServers(c -> true));
@@ -92,6 +119,33 @@ public void testWorkspaceFoldersRegistration() throws Exception {
 		assertTrue(LanguageServiceAccessor.hasActiveLanguageServers(c -> !hasWorkspaceFolderSupport(c)));
 	}
 
+	@Test
+	public void testWatchedFilesRegistration() throws Exception {
+		List<DidChangeWatchedFilesParams> events = MockLanguageServer.INSTANCE.getWorkspaceService()
+				.getWatchedFilesEvents();
+
+		UUID registration = registerWatchedFiles("**/*.txt");
+		try {
+			ResourcesPlugin.getWorkspace().run(monitor -> {
+				for (int i = 0; i < 20; i++) {
+					TestUtils.createFile(project, "watched" + i + ".txt", "");
+				}
+				TestUtils.createFile(project, "notWatched.lspt", "");
+			}, null);
+
+			waitForAndAssertCondition(5_000, () -> events.stream().mapToInt(e -> e.getChanges().size()).sum() == 20);
+			// files created at once are notified at once
+			assertEquals(1, events.size());
+			assertTrue(events.get(0).getChanges().stream()
+					.allMatch(e -> e.getType() == FileChangeType.Created && e.getUri().endsWith(".txt")));
+		} finally {
+			unregister(registration);
+		}
+
+		TestUtils.createFile(project, "notWatchedAnymore.txt", "");
+		assertFalse(waitForCondition(1_000, () -> events.size() > 1));
+	}
+
 	//////////////////////////////////////////////////////////////////////////////////
 
 	private void unregister(UUID registration) throws Exception {
@@ -112,6 +166,19 @@ private UUID registerWorkspaceFolders() throws Exception {
 		return id;
 	}
 
+	private UUID registerWatchedFiles(String globPattern) throws Exception {
+		UUID id = UUID.randomUUID();
+		LanguageClient client = getMockClient();
+		final var registration = new Registration();
+		registration.setId(id.toString());
+		registration.setMethod(WORKSPACE_DID_CHANGE_WATCHED_FILES);
+		// glob patterns are Eithers, which need the LSP4J type adapters
+		registration.setRegisterOptions(new MessageJsonHandler(Collections.emptyMap()).getGson().toJsonTree(
+				new DidChangeWatchedFilesRegistrationOptions(List.of(new FileSystemWatcher(Either.forLeft(globPattern))))));
+		client.registerCapability(new RegistrationParams(List.of(registration))).get(1, TimeUnit.SECONDS);
+		return id;
+	}
+
 	private UUID registerCommands(String... command) throws Exception {
 		UUID id = UUID.randomUUID();
 		LanguageClient client = getMockClient();
@@ -30,12 +30,15 @@
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.ITextOperationTarget;
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
+import org.eclipse.jface.text.source.ISourceViewer;
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServersRegistry;
 import org.eclipse.lsp4e.LanguageServersRegistry.LanguageServerDefinition;
 import org.eclipse.lsp4e.LanguageServiceAccessor;
+import org.eclipse.lsp4e.operations.completion.ContributionMetrics;
 import org.eclipse.lsp4e.operations.completion.LSCompletionProposal;
 import org.eclipse.lsp4e.test.utils.TestUtils;
 import org.eclipse.lsp4e.tests.mock.MockConnectionProvider;
@@ -55,7 +58,9 @@
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.ST;
 import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.TableItem;
 import org.eclipse.ui.tests.harness.util.DisplayHelper;
@@ -576,4 +581,96 @@ public void testCancellation() throws Exception {
 		CompletableFuture.runAsync(() -> contentAssistProcessor.computeCompletionProposals(viewer, 1));
 		DisplayHelper.waitAndAssertCondition(viewer.getTextWidget().getDisplay(), () -> assertEquals(1, MockConnectionProvider.cancellations.size()));
 	}
+
+	@Test
+	public void testCompleteListFilteredAgainWhileTyping() throws Exception {
+		final var range = new Range(new Position(0, 0), new Position(0, 1));
+		MockLanguageServer.INSTANCE.setCompletionList(new CompletionList(false, List.of(
+				createCompletionItem("FirstClass", CompletionItemKind.Class, range),
+				createCompletionItem("FirstInterface", CompletionItemKind.Interface, range),
+				createCompletionItem("Second", CompletionItemKind.Class, range))));
+
+		ITextViewer viewer = TestUtils.openTextViewer(TestUtils.createUniqueTestFile(project, "F"));
+		ICompletionProposal[] proposals = contentAssistProcessor.computeCompletionProposals(viewer, 1);
+		assertEquals(2, proposals.length);
+
+		// typing the word further is answered from the complete list
+		MockLanguageServer.INSTANCE.setCompletionList(new CompletionList(false, List.of(new CompletionItem("Other"))));
+		viewer.getDocument().replace(1, 0, "irstI");
+		proposals = contentAssistProcessor.computeCompletionProposals(viewer, 6);
+		assertEquals(1, proposals.length);
+		assertEquals("FirstInterface", proposals[0].getDisplayString());
+
+		// leaving the word asks the language server again
+		viewer.getDocument().replace(6, 0, " ");
+		proposals = contentAssistProcessor.computeCompletionProposals(viewer, 7);
+		assertEquals(1, proposals.length);
+		assertEquals("Other", proposals[0].getDisplayString());
+	}
+
+	@Test
+	public void testLateLanguageServerStillContributes() throws Exception {
+		final var range = new Range(new Position(0, 0), new Position(0, 1));
+		MockLanguageServer.INSTANCE.setCompletionList(new CompletionList(false, List.of(
+				createCompletionItem("FirstClass", CompletionItemKind.Class, range))));
+		MockLanguageServer.INSTANCE.setTimeToProceedQueries(1000);
+		final ContributionMetrics.Stats before = ContributionMetrics.get("org.eclipse.lsp4e.test.server");
+		final long lateBefore = before == null ? 0 : before.lateContributions();
+
+		ITextViewer viewer = TestUtils.openTextViewer(TestUtils.createUniqueTestFile(project, "F"));
+		// the only language server is late, so its proposals are awaited
+		ICompletionProposal[] proposals = contentAssistProcessor.computeCompletionProposals(viewer, 1);
+		assertEquals(1, proposals.length);
+		assertEquals("FirstClass", proposals[0].getDisplayString());
+		final ContributionMetrics.Stats after = ContributionMetrics.get("org.eclipse.lsp4e.test.server");
+		assertNotNull(after);
+		assertEquals(lateBefore + 1, after.lateContributions());
+	}
+
+	@Test
+	public void testSlowLanguageServerNotAwaitedPastDeadline() throws Exception {
+		MockLanguageServer.INSTANCE.setCompletionList(new CompletionList(false, List.of(new CompletionItem("a"))));
+		MockLanguageServer.INSTANCE.setTimeToProceedQueries(10_000);
+
+		ITextViewer viewer = TestUtils.openTextViewer(TestUtils.createUniqueTestFile(project, "a"));
+		final long start = System.currentTimeMillis();
+		ICompletionProposal[] proposals = contentAssistProcessor.computeCompletionProposals(viewer, 1);
+		final long elapsedMs = System.currentTimeMillis() - start;
+
+		assertEquals(0, proposals.length);
+		assertTrue("Waited " + elapsedMs + "ms", elapsedMs < 8_000);
+	}
+
+	@Test
+	public void testCompleteListDroppedAtSessionEnd() throws Exception {
+		final var range = new Range(new Position(0, 0), new Position(0, 1));
+		MockLanguageServer.INSTANCE.setCompletionList(new CompletionList(false, List.of(
+				createCompletionItem("FirstClass", CompletionItemKind.Class, range),
+				createCompletionItem("FirstInterface", CompletionItemKind.Interface, range))));
+
+		ITextViewer viewer = TestUtils.openTextViewer(TestUtils.createUniqueTestFile(project, "F"));
+		ICompletionProposal[] proposals = contentAssistProcessor.computeCompletionProposals(viewer, 1);
+		assertEquals(2, proposals.length);
+
+		// a content assist session of the viewer starts and ends
+		final Display display = viewer.getTextWidget().getDisplay();
+		final var shellsBefore = Set.of(display.getShells());
+		viewer.setSelectedRange(1, 0);
+		((ITextOperationTarget) viewer).doOperation(ISourceViewer.CONTENTASSIST_PROPOSALS);
+		waitForAndAssertCondition(5_000, display, () -> Arrays.stream(display.getShells())
+				.anyMatch(shell -> !shellsBefore.contains(shell) && shell.isVisible()));
+		final var event = new Event();
+		event.character = SWT.ESC;
+		viewer.getTextWidget().notifyListeners(ST.VerifyKey, event);
+		waitForAndAssertCondition(5_000, display, () -> Arrays.stream(display.getShells())
+				.filter(shell -> !shellsBefore.contains(shell)).noneMatch(Shell::isVisible));
+
+		// the next completion while typing the same word asks the language server again
+		MockLanguageServer.INSTANCE.setCompletionList(new CompletionList(false, List.of(
+				createCompletionItem("FirstOther", CompletionItemKind.Class, range))));
+		viewer.getDocument().replace(1, 0, "irst");
+		proposals = contentAssistProcessor.computeCompletionProposals(viewer, 5);
+		assertEquals(1, proposals.length);
+		assertEquals("FirstOther", proposals[0].getDisplayString());
+	}
 }
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.test.completion;
+
+import static org.eclipse.lsp4e.test.utils.TestUtils.waitForAndAssertCondition;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jface.text.ITextOperationTarget;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.contentassist.ICompletionProposal;
+import org.eclipse.jface.text.source.ISourceViewer;
+import org.eclipse.lsp4e.operations.completion.LSCompletionProposal;
+import org.eclipse.lsp4e.test.utils.TestUtils;
+import org.eclipse.lsp4e.tests.mock.MockConnectionProvider;
+import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionItemKind;
+import org.eclipse.lsp4j.CompletionList;
+import org.eclipse.lsp4j.CompletionOptions;
+import org.eclipse.lsp4j.ServerCapabilities;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.ST;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompletionItemResolverTest extends AbstractCompletionTest {
+
+	private ITextViewer viewer;
+
+	@Override
+	protected ServerCapabilities getServerCapabilities() {
+		final ServerCapabilities capabilities = MockLanguageServer.defaultServerCapabilities();
+		capabilities.setCompletionProvider(new CompletionOptions(true, null));
+		return capabilities;
+	}
+
+	@Before
+	public void setUpItems() throws Exception {
+		final var items = new ArrayList<CompletionItem>();
+		for (int i = 0; i < 20; i++) {
+			final var item = new CompletionItem("Item" + (char) ('A' + i));
+			item.setKind(CompletionItemKind.Class);
+			items.add(item);
+		}
+		MockLanguageServer.INSTANCE.setCompletionList(new CompletionList(false, items));
+		viewer = TestUtils.openTextViewer(TestUtils.createUniqueTestFile(project, ""));
+	}
+
+	@Test
+	public void testTopProposalsPrefetched() throws Exception {
+		final ICompletionProposal[] proposals = contentAssistProcessor.computeCompletionProposals(viewer, 0);
+		assertEquals(20, proposals.length);
+
+		waitForAndAssertCondition(5_000, () -> getResolvedLabels().size() == 10);
+		Thread.sleep(200);
+		assertEquals(labels(proposals, 0, 10), Set.copyOf(getResolvedLabels()));
+	}
+
+	@Test
+	public void testNextProposalsPrefetchedOnSelection() throws Exception {
+		final ICompletionProposal[] proposals = contentAssistProcessor.computeCompletionProposals(viewer, 0);
+		waitForAndAssertCondition(5_000, () -> getResolvedLabels().size() == 10);
+
+		((LSCompletionProposal) proposals[12]).selected(viewer, false);
+
+		waitForAndAssertCondition(5_000, () -> getResolvedLabels().size() == 16);
+		Thread.sleep(200);
+		final Set<String> expected = labels(proposals, 0, 10);
+		expected.addAll(labels(proposals, 12, 18));
+		assertEquals(expected, Set.copyOf(getResolvedLabels()));
+	}
+
+	@Test
+	public void testPrefetchRequestsLimited() throws Exception {
+		MockLanguageServer.INSTANCE.setTimeToProceedQueries(1_000);
+		contentAssistProcessor.computeCompletionProposals(viewer, 0);
+
+		waitForAndAssertCondition(5_000, () -> getResolvedLabels().size() == 3);
+		Thread.sleep(500);
+		assertEquals("Only 3 resolve requests should be pending at once", 3, getResolvedLabels().size());
+		waitForAndAssertCondition(10_000, () -> getResolvedLabels().size() == 10);
+	}
+
+	@Test
+	public void testPrefetchedResolutionReused() throws Exception {
+		final ICompletionProposal[] proposals = contentAssistProcessor.computeCompletionProposals(viewer, 0);
+		waitForAndAssertCondition(5_000, () -> getResolvedLabels().size() == 10);
+
+		final var proposal = (LSCompletionProposal) proposals[0];
+		final String info = proposal.getAdditionalProposalInfo(new NullProgressMonitor());
+
+		assertTrue(info, info.contains("Documentation of " + proposal.getDisplayString()));
+		assertEquals(10, getResolvedLabels().size());
+	}
+
+	@Test
+	public void testPendingResolutionsCancelledOnApply() throws Exception {
+		MockLanguageServer.INSTANCE.setTimeToProceedQueries(3_000);
+		final ICompletionProposal[] proposals = contentAssistProcessor.computeCompletionProposals(viewer, 0);
+		waitForAndAssertCondition(5_000, () -> getResolvedLabels().size() == 3);
+
+		((LSCompletionProposal) proposals[0]).apply(viewer, '\n', 0, 0);
+
+		waitForAndAssertCondition("$/cancelRequest not sent", 5_000,
+				() -> !MockConnectionProvider.cancellations.isEmpty());
+		Thread.sleep(500);
+		assertEquals(3, getResolvedLabels().size());
+	}
+
+	@Test
+	public void testPendingResolutionsCancelledAtSessionEnd() throws Exception {
+		MockLanguageServer.INSTANCE.setTimeToProceedQueries(5_000);
+		contentAssistProcessor.computeCompletionProposals(viewer, 0);
+		waitForAndAssertCondition(10_000, () -> getResolvedLabels().size() == 3);
+		MockLanguageServer.INSTANCE.setTimeToProceedQueries(0);
+
+		// a content assist session of the viewer starts and ends
+		final Display display = viewer.getTextWidget().getDisplay();
+		final var shellsBefore = Set.of(display.getShells());
+		((ITextOperationTarget) viewer).doOperation(ISourceViewer.CONTENTASSIST_PROPOSALS);
+		waitForAndAssertCondition(5_000, display, () -> Arrays.stream(display.getShells())
+				.anyMatch(shell -> !shellsBefore.contains(shell) && shell.isVisible()));
+		final var event = new Event();
+		event.character = SWT.ESC;
+		viewer.getTextWidget().notifyListeners(ST.VerifyKey, event);
+
+		waitForAndAssertCondition("$/cancelRequest not sent", 5_000,
+				() -> !MockConnectionProvider.cancellations.isEmpty());
+	}
+
+	private static List<String> getResolvedLabels() {
+		return MockLanguageServer.INSTANCE.getTextDocumentService().getResolvedCompletionItemLabels();
+	}
+
+	private static Set<String> labels(ICompletionProposal[] proposals, int from, int to) {
+		return Arrays.stream(proposals, from, to).map(ICompletionProposal::getDisplayString)
+				.collect(Collectors.toSet());
+	}
+}
@@ -40,6 +40,19 @@ public void testItemOrdering() throws Exception {
 				new String[] { "BA", "BB", "AB", "CB" });
 	}
 
+	@Test
+	public void testOnlyMatchingItemsInLargeList() throws Exception {
+		final var completions = new ArrayList<String>();
+		for (int i = 0; i < 5000; i++) {
+			completions.add("qwerty" + i);
+		}
+		completions.add(1234, "atest");
+		completions.add(42, "test");
+		completions.add("testa");
+		confirmCompletionResults(completions.toArray(String[]::new), "test", 4,
+				new String[] { "test", "testa", "atest" });
+	}
+
 	@Test
 	public void testOrderByCategory() throws Exception {
 		// Category 1 before Category 2 (testa)
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.test.completion;
+
+import static org.junit.Assert.*;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.lsp4e.operations.completion.CompletionProposalTools;
+import org.junit.Test;
+
+public class CompletionProposalToolsTest {
+
+	@Test
+	public void testScoreOfFilterMatch() {
+		assertEquals(5, CompletionProposalTools.getScoreOfFilterMatch("abc", "xaxxbc"));
+		assertEquals(5, CompletionProposalTools.getScoreOfFilterMatch("ABC", "xaxxbc"));
+		assertEquals(0, CompletionProposalTools.getScoreOfFilterMatch("foo", "foo"));
+		assertEquals(1, CompletionProposalTools.getScoreOfFilterMatch("foo", "xfoo"));
+		assertEquals(6, CompletionProposalTools.getScoreOfFilterMatch("foo", "fxoxo"));
+		assertEquals(-1, CompletionProposalTools.getScoreOfFilterMatch("foo", "bar"));
+		assertEquals(0, CompletionProposalTools.getScoreOfFilterMatch("", "bar"));
+	}
+
+	@Test
+	public void testCategoryOfFilterMatch() {
+		assertEquals(1, CompletionProposalTools.getCategoryOfFilterMatch("foo", "foo"));
+		assertEquals(2, CompletionProposalTools.getCategoryOfFilterMatch("foo", "foo.bar"));
+		assertEquals(3, CompletionProposalTools.getCategoryOfFilterMatch("foo", "xfoo"));
+		assertEquals(4, CompletionProposalTools.getCategoryOfFilterMatch("abc", "xaxxbc"));
+		assertEquals(5, CompletionProposalTools.getCategoryOfFilterMatch("foo", "bar"));
+		assertEquals(5, CompletionProposalTools.getCategoryOfFilterMatch("", "bar"));
+	}
+
+	@Test
+	public void testSubstringFoundOrderedInString() {
+		assertTrue(CompletionProposalTools.isSubstringFoundOrderedInString("aBc", "xAxxbC"));
+		assertTrue(CompletionProposalTools.isSubstringFoundOrderedInString("", "bar"));
+		assertFalse(CompletionProposalTools.isSubstringFoundOrderedInString("cba", "abc"));
+	}
+
+	@Test
+	public void testFilterFromDocument() throws Exception {
+		final var document = new Document("x.getFoo");
+		assertEquals("getFoo", CompletionProposalTools.getFilterFromDocument(document, 8, "getFooBar", 0));
+		assertEquals("gF", CompletionProposalTools.getFilterFromDocument(new Document("x.gF"), 4, "getFoo", 0));
+		assertEquals("", CompletionProposalTools.getFilterFromDocument(document, 2, "getFoo", 2));
+	}
+
+	@Test
+	public void testLongFilterFromDocument() throws Exception {
+		final String identifier = "getSomethingWithAVeryLongName";
+		final var document = new Document("x." + identifier + "Suffix");
+		assertEquals(identifier, CompletionProposalTools.getFilterFromDocument(document, 2 + identifier.length(),
+				identifier.toUpperCase(), 2));
+		assertEquals(0, CompletionProposalTools.getScoreOfFilterMatch(identifier, identifier + "AndMore"));
+		assertEquals(2, CompletionProposalTools.getCategoryOfFilterMatch(identifier, identifier + ".more"));
+	}
+}
@@ -26,7 +26,9 @@
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
@@ -125,6 +127,23 @@ public void testWorkspaceEditMultipleChanges() throws Exception {
 				editor.getDocumentProvider().getDocument(editor.getEditorInput()).get());
 	}
 
+	@Test
+	public void testWorkspaceEditInSeveralClosedFiles() throws Exception {
+		final var changes = new HashMap<String, List<TextEdit>>();
+		final var files = new ArrayList<IFile>();
+		for (int i = 0; i < 5; i++) {
+			IFile f = TestUtils.createFile(project, "several" + i, "Here\nHere2");
+			files.add(f);
+			changes.put(LSPEclipseUtils.toUri(f).toString(), List.of(
+					new TextEdit(new Range(new Position(1, 0), new Position(1, 0)), "abc"),
+					new TextEdit(new Range(new Position(0, 0), new Position(0, 4)), "There")));
+		}
+		LSPEclipseUtils.applyWorkspaceEdit(new WorkspaceEdit(changes));
+		for (IFile f : files) {
+			assertEquals("There\nabcHere2", new String(Files.readAllBytes(f.getLocation().toFile().toPath())));
+		}
+	}
+
 	@Test
 	public void testWorkspaceEdit_CreateAndPopulateFile() throws Exception {
 		IFile file = project.getFile("test-file.test");
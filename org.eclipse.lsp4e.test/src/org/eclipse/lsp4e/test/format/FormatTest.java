@@ -14,14 +14,23 @@
 import static org.eclipse.lsp4e.test.utils.TestUtils.*;
 import static org.junit.Assert.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
+import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.e4.core.commands.ExpressionContext;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.ITextSelection;
@@ -30,6 +39,7 @@
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.VersionedEdits;
+import org.eclipse.lsp4e.operations.format.LSPFormatFilesHandler;
 import org.eclipse.lsp4e.operations.format.LSPFormatter;
 import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
 import org.eclipse.lsp4e.test.utils.TestUtils;
@@ -39,6 +49,8 @@
 import org.eclipse.lsp4j.ServerCapabilities;
 import org.eclipse.lsp4j.TextEdit;
 import org.eclipse.ui.IEditorPart;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.services.IEvaluationService;
 import org.eclipse.ui.texteditor.ITextEditor;
 import org.junit.Test;
 
@@ -257,4 +269,41 @@ public void testOutdatedFormatting()
 
 		TestUtils.closeEditor(editor, false);
 	}
+
+	@Test
+	public void testFormatFiles() throws Exception {
+		MockLanguageServer.INSTANCE.setFormattingTextEdits(
+				List.of(new TextEdit(new Range(new Position(0, 0), new Position(0, 0)), "formatted ")));
+
+		// more files than formatted in parallel, one of them open in an editor
+		final var files = new LinkedHashSet<IFile>();
+		for (int i = 0; i < 20; i++) {
+			files.add(TestUtils.createUniqueTestFile(project, "text " + i));
+		}
+		final IFile openFile = files.iterator().next();
+		final IEditorPart editor = TestUtils.openEditor(openFile);
+
+		final var handler = new LSPFormatFilesHandler() {
+			@Override
+			protected Set<IFile> getSelectedFiles(ExpressionContext ctx) {
+				return files;
+			}
+		};
+		final var evaluationService = PlatformUI.getWorkbench().getService(IEvaluationService.class);
+		handler.execute(new ExecutionEvent(null, new HashMap<>(), null, evaluationService.getCurrentState()));
+
+		int i = 0;
+		for (final IFile file : files) {
+			final String expected = "formatted text " + i++;
+			waitForAndAssertCondition(5_000, () -> expected.equals(getContents(file)));
+		}
+		assertEquals("formatted text 0", LSPEclipseUtils.getTextViewer(editor).getDocument().get());
+		TestUtils.closeEditor(editor, false);
+	}
+
+	private static String getContents(IFile file) throws CoreException, IOException {
+		try (InputStream contents = file.getContents()) {
+			return new String(contents.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
 }
@@ -24,6 +24,7 @@
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.TextSelection;
 import org.eclipse.jface.text.source.Annotation;
 import org.eclipse.jface.text.source.IAnnotationModel;
 import org.eclipse.jface.text.source.ISourceViewer;
@@ -37,6 +38,7 @@
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.ui.IEditorReference;
+import org.eclipse.ui.tests.harness.util.DisplayHelper;
 import org.junit.Assert;
 import org.junit.Assume;
 import org.junit.Test;
@@ -75,6 +77,68 @@ public void testHighlight() throws CoreException {
 		}
 	}
 
+	@Test
+	public void testHighlightReusedWhileCaretStaysInRange() throws CoreException {
+		checkGenericEditorVersion();
+
+		// only the position 0:1 has highlights, 0:4 would clear them if requested
+		MockLanguageServer.INSTANCE.setDocumentHighlights(Map.ofEntries( //
+				Map.entry(new Position(0, 1), List.of( //
+						new DocumentHighlight(new Range(new Position(0, 0), new Position(0, 6)), DocumentHighlightKind.Read)
+				))));
+
+		final IFile testFile = TestUtils.createUniqueTestFile(project, "  READ WRITE TEXT");
+		final var viewer = (ISourceViewer) TestUtils.openTextViewer(testFile);
+		final var annotationModel = viewer.getAnnotationModel();
+
+		viewer.getTextWidget().setCaretOffset(1);
+
+		waitForAndAssertCondition(3_000, () -> {
+			assertAnnotationExists(annotationModel, HighlightReconcilingStrategy.READ_ANNOTATION_TYPE, 0, 6);
+			return true;
+		});
+
+		// the caret stays in the highlighted range of the same document version
+		viewer.getTextWidget().setCaretOffset(4);
+		DisplayHelper.sleep(viewer.getTextWidget().getDisplay(), 500);
+		assertAnnotationExists(annotationModel, HighlightReconcilingStrategy.READ_ANNOTATION_TYPE, 0, 6);
+
+		// the caret leaves the highlighted range
+		viewer.getTextWidget().setCaretOffset(10);
+		waitForAndAssertCondition(3_000, () -> {
+			assertAnnotationDoesNotExist(annotationModel, HighlightReconcilingStrategy.READ_ANNOTATION_TYPE, 0, 6);
+			return true;
+		});
+	}
+
+	@Test
+	public void testHighlightKeptWhenCaretComesBackInRange() throws CoreException {
+		checkGenericEditorVersion();
+
+		// only the position 0:1 has highlights, 0:10 would clear them if requested
+		MockLanguageServer.INSTANCE.setDocumentHighlights(Map.ofEntries( //
+				Map.entry(new Position(0, 1), List.of( //
+						new DocumentHighlight(new Range(new Position(0, 0), new Position(0, 6)), DocumentHighlightKind.Read)
+				))));
+
+		final IFile testFile = TestUtils.createUniqueTestFile(project, "  READ WRITE TEXT");
+		final var viewer = (ISourceViewer) TestUtils.openTextViewer(testFile);
+		final var annotationModel = viewer.getAnnotationModel();
+
+		viewer.getTextWidget().setCaretOffset(1);
+
+		waitForAndAssertCondition(3_000, () -> {
+			assertAnnotationExists(annotationModel, HighlightReconcilingStrategy.READ_ANNOTATION_TYPE, 0, 6);
+			return true;
+		});
+
+		// the caret leaves the highlighted range and comes back before the highlights are requested
+		viewer.getSelectionProvider().setSelection(new TextSelection(10, 0));
+		viewer.getSelectionProvider().setSelection(new TextSelection(4, 0));
+		DisplayHelper.sleep(viewer.getTextWidget().getDisplay(), 500);
+		assertAnnotationExists(annotationModel, HighlightReconcilingStrategy.READ_ANNOTATION_TYPE, 0, 6);
+	}
+
 	@Test
 	public void testCheckIfOtherAnnotationsRemains() throws CoreException {
 		checkGenericEditorVersion();
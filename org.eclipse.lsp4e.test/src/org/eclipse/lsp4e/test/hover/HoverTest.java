@@ -31,6 +31,7 @@
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.Region;
 import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.RequestDeadlines;
 import org.eclipse.lsp4e.operations.hover.LSPTextHover;
 import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
 import org.eclipse.lsp4e.test.utils.TestUtils;
@@ -96,6 +97,62 @@ public void testHoverInfo() throws CoreException {
 		assertTrue(hover.getHoverInfo(viewer, new Region(0, 10)).contains("HoverContent"));
 	}
 
+	@Test
+	public void testHoverDeadlineLearnedFromLatencies() throws Exception {
+		final var range = new Range(new Position(0, 0), new Position(0, 10));
+		MockLanguageServer.INSTANCE.setHover(new Hover(List.of(Either.forLeft("HoverContent")), range));
+
+		IFile file = TestUtils.createUniqueTestFile(project, "HoverRange Other Text");
+		ITextViewer viewer = TestUtils.openTextViewer(file);
+		for (int i = 0; i < 6; i++) {
+			// a new version of the document asks the language server again
+			viewer.getDocument().replace(viewer.getDocument().getLength(), 0, " ");
+			assertTrue(hover.getHoverInfo(viewer, new Region(0, 10)).contains("HoverContent"));
+		}
+
+		RequestDeadlines.Stats stats = RequestDeadlines.getStats("org.eclipse.lsp4e.test.server", "textDocument/hover");
+		assertNotNull(stats);
+		assertTrue(stats.samples() >= 6);
+		assertTrue(stats.p50Ms() <= stats.p95Ms());
+		assertTrue(stats.deadlineMs() >= RequestDeadlines.getFloor("textDocument/hover"));
+		assertTrue(stats.deadlineMs() <= RequestDeadlines.getCap("textDocument/hover"));
+		assertTrue(RequestDeadlines.get(viewer.getDocument(), "textDocument/hover") >= stats.deadlineMs());
+	}
+
+	@Test
+	public void testDeadlineOfUiThreadNotBeyondDefault() throws Exception {
+		IFile file = TestUtils.createUniqueTestFile(project, "HoverRange Other Text");
+		ITextViewer viewer = TestUtils.openTextViewer(file);
+		RequestDeadlines.setCap("textDocument/hover", 5000);
+		RequestDeadlines.setFloor("textDocument/hover", 5000);
+		try {
+			// the test runs in the UI thread
+			assertEquals(RequestDeadlines.getPolicy("textDocument/hover").defaultMs(),
+					RequestDeadlines.get(viewer.getDocument(), "textDocument/hover"));
+		} finally {
+			RequestDeadlines.setFloor("textDocument/hover", RequestDeadlines.getPolicy("textDocument/hover").floorMs());
+			RequestDeadlines.setCap("textDocument/hover", RequestDeadlines.getPolicy("textDocument/hover").capMs());
+		}
+	}
+
+	@Test
+	public void testHoverCachedPerDocumentVersion() throws Exception {
+		final var range = new Range(new Position(0, 0), new Position(0, 10));
+		MockLanguageServer.INSTANCE.setHover(new Hover(List.of(Either.forLeft("FirstContent")), range));
+
+		IFile file = TestUtils.createUniqueTestFile(project, "HoverRange Other Text");
+		ITextViewer viewer = TestUtils.openTextViewer(file);
+		assertTrue(hover.getHoverInfo(viewer, new Region(0, 10)).contains("FirstContent"));
+
+		// hovering the same word again reuses the hover
+		MockLanguageServer.INSTANCE.setHover(new Hover(List.of(Either.forLeft("SecondContent")), range));
+		assertTrue(new LSPTextHover().getHoverInfo(viewer, new Region(3, 0)).contains("FirstContent"));
+
+		// a new version of the document asks the language server again
+		viewer.getDocument().replace(21, 0, " More");
+		assertTrue(hover.getHoverInfo(viewer, new Region(0, 10)).contains("SecondContent"));
+	}
+
 	@Test
 	public void testHoverInfoEmptyContentList() throws CoreException {
 		final var hoverResponse = new Hover(Collections.emptyList(), new Range(new Position(0,  0), new Position(0, 10)));
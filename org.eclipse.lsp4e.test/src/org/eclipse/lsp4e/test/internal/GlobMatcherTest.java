@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.test.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.lsp4e.internal.GlobMatcher;
+import org.junit.Test;
+
+public class GlobMatcherTest {
+
+	@Test
+	public void testStar() {
+		final var glob = GlobMatcher.compile("*.java");
+		assertTrue(glob.matches("A.java"));
+		assertFalse(glob.matches("src/A.java"));
+		assertFalse(glob.matches("A.javax"));
+	}
+
+	@Test
+	public void testGlobStar() {
+		final var glob = GlobMatcher.compile("**/*.java");
+		assertTrue(glob.matches("A.java"));
+		assertTrue(glob.matches("/home/user/project/src/A.java"));
+		assertFalse(glob.matches("/home/user/project/src/A.class"));
+
+		final var folder = GlobMatcher.compile("**/node_modules/**");
+		assertTrue(folder.matches("/project/node_modules"));
+		assertTrue(folder.matches("/project/node_modules/a/index.js"));
+		assertFalse(folder.matches("/project/node_modules2/index.js"));
+
+		final var middle = GlobMatcher.compile("src/**/Test.java");
+		assertTrue(middle.matches("src/Test.java"));
+		assertTrue(middle.matches("src/a/b/Test.java"));
+		assertFalse(middle.matches("test/a/Test.java"));
+	}
+
+	@Test
+	public void testQuestionMarkAndRanges() {
+		assertTrue(GlobMatcher.compile("?.txt").matches("a.txt"));
+		assertFalse(GlobMatcher.compile("?.txt").matches("ab.txt"));
+		assertTrue(GlobMatcher.compile("[a-c].txt").matches("b.txt"));
+		assertFalse(GlobMatcher.compile("[!a-c].txt").matches("b.txt"));
+		assertTrue(GlobMatcher.compile("[!a-c].txt").matches("d.txt"));
+	}
+
+	@Test
+	public void testAlternatives() {
+		final var glob = GlobMatcher.compile("**/*.{ts,js}");
+		assertTrue(glob.matches("/project/a.ts"));
+		assertTrue(glob.matches("/project/a.js"));
+		assertFalse(glob.matches("/project/a.css"));
+		assertFalse(glob.matches("/project/a.ts,js"));
+	}
+
+	@Test
+	public void testRegexCharactersAreLiteral() {
+		final var glob = GlobMatcher.compile("**/a+b(1).txt");
+		assertTrue(glob.matches("/project/a+b(1).txt"));
+		assertFalse(glob.matches("/project/aab1.txt"));
+		assertFalse(GlobMatcher.compile("*.txt").matches("atxt"));
+	}
+
+	@Test(expected = PatternSyntaxException.class)
+	public void testUnclosedAlternatives() {
+		GlobMatcher.compile("*.{ts,js");
+	}
+}
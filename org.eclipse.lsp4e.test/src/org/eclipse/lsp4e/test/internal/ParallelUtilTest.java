@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.test.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.lsp4e.internal.ParallelUtil;
+import org.junit.Test;
+
+public class ParallelUtilTest {
+
+	private static final List<Integer> ITEMS = IntStream.range(0, 50).boxed().toList();
+
+	@Test
+	public void testAllItemsProcessed() {
+		final Set<Integer> processed = ConcurrentHashMap.newKeySet();
+		ParallelUtil.forEach(ITEMS, 4, null, processed::add);
+		assertEquals(Set.copyOf(ITEMS), processed);
+	}
+
+	@Test
+	public void testParallelismBounded() {
+		final var running = new AtomicInteger();
+		final var maxRunning = new AtomicInteger();
+		final Set<String> threads = ConcurrentHashMap.newKeySet();
+		ParallelUtil.forEach(ITEMS, 3, null, item -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			threads.add(Thread.currentThread().getName());
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			running.decrementAndGet();
+		});
+		assertTrue("At most 3 items should be processed at once, not " + maxRunning.get(), maxRunning.get() <= 3);
+		assertTrue("Items should be processed by several threads: " + threads, threads.size() > 1);
+	}
+
+	@Test
+	public void testItemsSkippedOnceCancelled() {
+		final var monitor = new NullProgressMonitor();
+		final var processed = new AtomicInteger();
+		ParallelUtil.forEach(ITEMS, 1, monitor, item -> {
+			if (processed.incrementAndGet() == 10) {
+				monitor.setCanceled(true);
+			}
+		});
+		assertEquals(10, processed.get());
+	}
+
+	@Test
+	public void testFailingItemDoesNotStopOthers() {
+		final Set<Integer> processed = ConcurrentHashMap.newKeySet();
+		ParallelUtil.forEach(ITEMS, 4, null, item -> {
+			if (item % 10 == 0) {
+				throw new IllegalStateException("Failure expected by the test");
+			}
+			processed.add(item);
+		});
+		assertEquals(ITEMS.stream().filter(item -> item % 10 != 0).collect(Collectors.toSet()), processed);
+	}
+}
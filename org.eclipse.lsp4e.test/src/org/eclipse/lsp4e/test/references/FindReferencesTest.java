@@ -15,15 +15,23 @@
 import static org.eclipse.lsp4e.test.utils.TestUtils.waitForAndAssertCondition;
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.Vector;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.core.commands.ExecutionEvent;
+import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.LocationKind;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.lsp4e.internal.Pair;
 import org.eclipse.lsp4e.operations.references.LSFindReferences;
+import org.eclipse.lsp4e.operations.references.LSSearchQuery;
 import org.eclipse.lsp4e.operations.references.LSSearchResult;
 import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
 import org.eclipse.lsp4e.test.utils.TestUtils;
@@ -128,6 +136,42 @@ public void testFindReferencesIsNonBlocking() throws Exception {
 				0, uiFreezeCount);
 	}
 
+	@Test
+	public void testFindReferencesInManyFiles() throws Exception {
+		final IFile openFile = TestUtils.createUniqueTestFile(project, "word1 word2\nword3 word2");
+		final var textViewer = TestUtils.openTextViewer(openFile);
+		final var files = new ArrayList<IFile>();
+		files.add(openFile);
+		for (int i = 0; i < 19; i++) {
+			files.add(TestUtils.createUniqueTestFile(project, "word1 word2\nword3 word2"));
+		}
+		final var locations = new ArrayList<Location>();
+		for (final IFile file : files) {
+			locations.add(new Location(file.getLocationURI().toString(), new Range(new Position(0, 6), new Position(0, 11))));
+			locations.add(new Location(file.getLocationURI().toString(), new Range(new Position(1, 6), new Position(1, 11))));
+		}
+		MockLanguageServer.INSTANCE.getTextDocumentService().setMockReferences(locations.toArray(Location[]::new));
+
+		final var query = new LSSearchQuery(6, textViewer.getDocument());
+		final CompletableFuture<IStatus> status = CompletableFuture.supplyAsync(() -> query.run(new NullProgressMonitor()));
+		waitForAndAssertCondition(5_000, status::isDone);
+		assertTrue(status.join().isOK());
+
+		// the locations of each file are resolved together, on the document of the file
+		final LSSearchResult result = query.getSearchResult();
+		assertEquals(40, result.getMatchCount());
+		for (final IFile file : files) {
+			final var matches = result.getMatches(file);
+			assertEquals(2, matches.length);
+			assertEquals(Set.of(6, 18), Set.of(matches[0].getOffset(), matches[1].getOffset()));
+			if (!file.equals(openFile)) {
+				// documents loaded for the search are released
+				assertNull(FileBuffers.getTextFileBufferManager().getTextFileBuffer(file.getFullPath(), LocationKind.IFILE));
+			}
+		}
+		assertNotNull(FileBuffers.getTextFileBufferManager().getTextFileBuffer(openFile.getFullPath(), LocationKind.IFILE));
+	}
+
 	private EventLoopMonitorThread initFreezeMonitor(int uiFreezeThreshold) {
 		final var args = new EventLoopMonitorThread.Parameters();
 		args.longEventWarningThreshold = uiFreezeThreshold;
@@ -15,6 +15,7 @@
 
 import java.io.File;
 import java.nio.file.Files;
+import java.util.List;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -27,6 +28,7 @@
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.TextEdit;
 import org.eclipse.ltk.core.refactoring.PerformChangeOperation;
+import org.eclipse.ltk.core.refactoring.TextEditBasedChangeGroup;
 import org.junit.Test;
 
 public class LSPTextChangeTest extends AbstractTestWithProject {
@@ -42,6 +44,42 @@ public void testPerformOperationWorkspaceFile() throws Exception {
 		assertEquals(edit.getNewText(), document.get());
 	}
 
+	@Test
+	public void testPerformOperationWithSeveralEdits() throws Exception {
+		IFile file = TestUtils.createUniqueTestFile(project, "old old\nold");
+		// positions are relative to the document before the change, whatever the order of the edits
+		final var edits = List.of( //
+				new TextEdit(new Range(new Position(0, 0), new Position(0, 3)), "new"),
+				new TextEdit(new Range(new Position(1, 0), new Position(1, 3)), "newer"),
+				new TextEdit(new Range(new Position(0, 4), new Position(0, 7)), "new"));
+		final var operation = new PerformChangeOperation(new LSPTextChange("test", LSPEclipseUtils.toUri(file), edits));
+		operation.run(new NullProgressMonitor());
+		IDocument document = LSPEclipseUtils.getDocument(file);
+		assertNotNull(document);
+		assertEquals("new new\nnewer", document.get());
+	}
+
+	@Test
+	public void testPerformOperationWithUncheckedEdit() throws Exception {
+		IFile file = TestUtils.createUniqueTestFile(project, "old old\nold");
+		final var edits = List.of( //
+				new TextEdit(new Range(new Position(0, 0), new Position(0, 3)), "new"),
+				new TextEdit(new Range(new Position(1, 0), new Position(1, 3)), "newer"),
+				new TextEdit(new Range(new Position(0, 4), new Position(0, 7)), "new"));
+		final var change = new LSPTextChange("test", LSPEclipseUtils.toUri(file), edits);
+		// the preview creates a group per edit, which can be unchecked
+		assertEquals("new new\nnewer", change.getPreviewDocument(new NullProgressMonitor()).get());
+		TextEditBasedChangeGroup[] groups = change.getChangeGroups();
+		assertEquals(3, groups.length);
+		groups[1].setEnabled(false);
+
+		final var operation = new PerformChangeOperation(change);
+		operation.run(new NullProgressMonitor());
+		IDocument document = LSPEclipseUtils.getDocument(file);
+		assertNotNull(document);
+		assertEquals("new new\nold", document.get());
+	}
+
 	@Test
 	public void testRefactoringPreview() throws Exception {
 		IFile file = TestUtils.createUniqueTestFile(project, "old");
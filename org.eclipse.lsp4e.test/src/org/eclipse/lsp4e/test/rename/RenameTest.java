@@ -23,6 +23,8 @@
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.core.commands.Command;
@@ -34,12 +36,14 @@
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jface.dialogs.Dialog;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.operations.rename.LSPRenameProcessor;
 import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
 import org.eclipse.lsp4e.test.utils.TestUtils;
+import org.eclipse.lsp4e.tests.mock.MockConnectionProvider;
 import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
@@ -138,6 +142,69 @@ public void testPrepareRenameRefactoring() throws Exception {
 		assertEquals("new", document.get());
 	}
 
+	@Test
+	public void testRenameRefactoringWithSlowServer() throws Exception {
+		IFile file = TestUtils.createUniqueTestFile(project, "old");
+		MockLanguageServer.INSTANCE.getTextDocumentService().setRenameEdit(createSimpleMockRenameEdit(LSPEclipseUtils.toUri(file)));
+		IDocument document = LSPEclipseUtils.getDocument(file);
+		assertNotNull(document);
+		final var processor = new LSPRenameProcessor(document, 0);
+		processor.setNewName("new");
+		// longer than the former fixed deadline of prepareRename and rename
+		MockLanguageServer.INSTANCE.setTimeToProceedQueries(1_500);
+		try {
+			final var processorBasedRefactoring = new ProcessorBasedRefactoring(processor);
+			RefactoringStatus status = processorBasedRefactoring.checkAllConditions(new NullProgressMonitor());
+			assertTrue(status.isOK());
+			processorBasedRefactoring.createChange(new NullProgressMonitor()).perform(new NullProgressMonitor());
+		} finally {
+			MockLanguageServer.INSTANCE.setTimeToProceedQueries(0);
+		}
+		assertEquals("new", document.get());
+	}
+
+	@Test(expected = OperationCanceledException.class)
+	public void testRenameRefactoringCancelled() throws Exception {
+		IFile file = TestUtils.createUniqueTestFile(project, "old");
+		MockLanguageServer.INSTANCE.getTextDocumentService().setRenameEdit(createSimpleMockRenameEdit(LSPEclipseUtils.toUri(file)));
+		IDocument document = LSPEclipseUtils.getDocument(file);
+		assertNotNull(document);
+		final var processor = new LSPRenameProcessor(document, 0);
+		processor.setNewName("new");
+		MockLanguageServer.INSTANCE.setTimeToProceedQueries(3_000);
+		final var monitor = new NullProgressMonitor();
+		// cancelled while the language server computes the rename
+		CompletableFuture.delayedExecutor(300, TimeUnit.MILLISECONDS).execute(() -> monitor.setCanceled(true));
+		final long start = System.currentTimeMillis();
+		try {
+			processor.checkInitialConditions(monitor);
+		} finally {
+			assertTrue(System.currentTimeMillis() - start < 2_000);
+			waitForAndAssertCondition(2_000, () -> !MockConnectionProvider.cancellations.isEmpty());
+			MockLanguageServer.INSTANCE.setTimeToProceedQueries(0);
+			assertEquals("old", document.get());
+		}
+	}
+
+	@Test(expected = OperationCanceledException.class)
+	public void testRenameRefactoringCancelledBeforeRequest() throws Exception {
+		IFile file = TestUtils.createUniqueTestFile(project, "old");
+		MockLanguageServer.INSTANCE.getTextDocumentService().setRenameEdit(createSimpleMockRenameEdit(LSPEclipseUtils.toUri(file)));
+		IDocument document = LSPEclipseUtils.getDocument(file);
+		assertNotNull(document);
+		final var processor = new LSPRenameProcessor(document, 0);
+		processor.setNewName("new");
+		final var monitor = new NullProgressMonitor();
+		monitor.setCanceled(true);
+		try {
+			processor.checkInitialConditions(monitor);
+		} finally {
+			// nothing was sent to the language server
+			assertTrue(MockConnectionProvider.cancellations.isEmpty());
+			assertEquals("old", document.get());
+		}
+	}
+
 	@Test
 	public void testPrepareRenameRefactoringError() throws Exception {
 		IFile file = TestUtils.createUniqueTestFile(project, "old");
@@ -13,10 +13,13 @@
 
 import static org.junit.Assert.*;
 
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import org.eclipse.lsp4e.outline.SymbolsModel;
+import org.eclipse.lsp4e.outline.SymbolsModel.DocumentSymbolWithURI;
 import org.eclipse.lsp4e.test.utils.AbstractTest;
 import org.eclipse.lsp4j.DocumentSymbol;
 import org.eclipse.lsp4j.Location;
@@ -157,6 +160,167 @@ public void testGetParentNullResponse() {
 		assertEquals(null, symbolsModel.getParent(null));
 	}
 
+	@Test
+	public void testUpdateWithDeltaUnchangedSymbols() {
+		final var symbolsModel = new SymbolsModel();
+		symbolsModel.setUri(URI.create("file://test"));
+		symbolsModel.update(List.of(Either.forRight(createDocumentSymbol("Class", 0, //
+				createDocumentSymbol("method", 1)))));
+
+		SymbolsModel.Delta delta = symbolsModel.updateWithDelta(List.of(Either.forRight(createDocumentSymbol("Class", 0, //
+				createDocumentSymbol("method", 1)))));
+
+		assertTrue(delta.isEmpty());
+	}
+
+	@Test
+	public void testUpdateWithDeltaMovedChild() {
+		final var symbolsModel = new SymbolsModel();
+		symbolsModel.setUri(URI.create("file://test"));
+		symbolsModel.update(List.of(Either.forRight(createDocumentSymbol("Class", 0, //
+				createDocumentSymbol("method", 1), createDocumentSymbol("field", 2)))));
+
+		SymbolsModel.Delta delta = symbolsModel.updateWithDelta(List.of(Either.forRight(createDocumentSymbol("Class", 0, //
+				createDocumentSymbol("method", 1), createDocumentSymbol("field", 3)))));
+
+		assertFalse(delta.isRefreshAll());
+		assertEquals(1, delta.getElementsToRefresh().size());
+		final var refreshed = (DocumentSymbolWithURI) delta.getElementsToRefresh().get(0);
+		assertEquals("field", refreshed.symbol.getName());
+		assertEquals(3, refreshed.symbol.getRange().getStart().getLine());
+	}
+
+	@Test
+	public void testUpdateWithDeltaAddedChild() {
+		final var symbolsModel = new SymbolsModel();
+		symbolsModel.setUri(URI.create("file://test"));
+		symbolsModel.update(List.of(Either.forRight(createDocumentSymbol("Class", 0, //
+				createDocumentSymbol("method", 1)))));
+
+		SymbolsModel.Delta delta = symbolsModel.updateWithDelta(List.of(Either.forRight(createDocumentSymbol("Class", 0, //
+				createDocumentSymbol("method", 1), createDocumentSymbol("field", 2)))));
+
+		assertFalse(delta.isRefreshAll());
+		assertEquals(1, delta.getElementsToRefresh().size());
+		assertEquals("Class", ((DocumentSymbolWithURI) delta.getElementsToRefresh().get(0)).symbol.getName());
+	}
+
+	@Test
+	public void testUpdateWithDeltaAmbiguousSymbols() {
+		final var symbolsModel = new SymbolsModel();
+		symbolsModel.setUri(URI.create("file://test"));
+		symbolsModel.update(List.of( //
+				Either.forRight(createDocumentSymbol("A", 0, createDocumentSymbol("toString", 1))), //
+				Either.forRight(createDocumentSymbol("B", 2, createDocumentSymbol("toString", 3)))));
+
+		SymbolsModel.Delta delta = symbolsModel.updateWithDelta(List.of( //
+				Either.forRight(createDocumentSymbol("A", 0, createDocumentSymbol("toString", 1))), //
+				Either.forRight(createDocumentSymbol("B", 2, createDocumentSymbol("toString", 4)))));
+
+		// the changed "toString" cannot be told apart from the one in "A" by the viewer
+		assertFalse(delta.isRefreshAll());
+		assertEquals(1, delta.getElementsToRefresh().size());
+		assertEquals("B", ((DocumentSymbolWithURI) delta.getElementsToRefresh().get(0)).symbol.getName());
+	}
+
+	@Test
+	public void testSymbolElementComparer() {
+		final var comparer = new SymbolsModel.SymbolElementComparer();
+		final URI uri = URI.create("file://test");
+		final var symbol = new DocumentSymbolWithURI(createDocumentSymbol("method", 1), uri);
+		final var movedSymbol = new DocumentSymbolWithURI(createDocumentSymbol("method", 5), uri);
+		final var otherSymbol = new DocumentSymbolWithURI(createDocumentSymbol("field", 1), uri);
+
+		assertTrue(comparer.equals(symbol, movedSymbol));
+		assertEquals(comparer.hashCode(symbol), comparer.hashCode(movedSymbol));
+		assertFalse(comparer.equals(symbol, otherSymbol));
+	}
+
+	@Test
+	public void testSymbolElementComparerTellsOverloadsApart() {
+		final var symbolsModel = new SymbolsModel();
+		symbolsModel.setUri(URI.create("file://test"));
+		final var comparer = new SymbolsModel.SymbolElementComparer(symbolsModel);
+		symbolsModel.update(List.of(Either.forRight(createDocumentSymbol("Class", 0, //
+				createDocumentSymbol("method", 1), createDocumentSymbol("method", 2)))));
+		final Object[] overloads = symbolsModel.getChildren(symbolsModel.getElements()[0]);
+
+		assertFalse(comparer.equals(overloads[0], overloads[1]));
+
+		// the overloads moved in the document
+		symbolsModel.update(List.of(Either.forRight(createDocumentSymbol("Class", 0, //
+				createDocumentSymbol("method", 3), createDocumentSymbol("method", 5)))));
+		final Object[] movedOverloads = symbolsModel.getChildren(symbolsModel.getElements()[0]);
+
+		assertTrue(comparer.equals(overloads[0], movedOverloads[0]));
+		assertEquals(comparer.hashCode(overloads[0]), comparer.hashCode(movedOverloads[0]));
+		assertTrue(comparer.equals(overloads[1], movedOverloads[1]));
+		assertFalse(comparer.equals(overloads[0], movedOverloads[1]));
+	}
+
+	@Test
+	public void testSymbolElementComparerTellsSymbolInformationOverloadsApart() {
+		final var symbolsModel = new SymbolsModel();
+		final var comparer = new SymbolsModel.SymbolElementComparer(symbolsModel);
+		symbolsModel.update(List.of( //
+				Either.forLeft(createSymbolInformation("method", SymbolKind.Method, new Range(new Position(1, 0), new Position(1, 10)))), //
+				Either.forLeft(createSymbolInformation("method", SymbolKind.Method, new Range(new Position(2, 0), new Position(2, 10))))));
+		final Object[] overloads = symbolsModel.getElements();
+
+		assertFalse(comparer.equals(overloads[0], overloads[1]));
+
+		symbolsModel.update(List.of( //
+				Either.forLeft(createSymbolInformation("method", SymbolKind.Method, new Range(new Position(3, 0), new Position(3, 10)))), //
+				Either.forLeft(createSymbolInformation("method", SymbolKind.Method, new Range(new Position(5, 0), new Position(5, 10))))));
+		final Object[] movedOverloads = symbolsModel.getElements();
+
+		assertTrue(comparer.equals(overloads[0], movedOverloads[0]));
+		assertTrue(comparer.equals(overloads[1], movedOverloads[1]));
+		assertFalse(comparer.equals(overloads[1], movedOverloads[0]));
+	}
+
+	@Test
+	public void testGetSymbolAtDocumentSymbols() {
+		final var symbolsModel = new SymbolsModel();
+		symbolsModel.setUri(URI.create("file://test"));
+		final DocumentSymbol method = createDocumentSymbol("method", 2);
+		final DocumentSymbol field = createDocumentSymbol("field", 4);
+		final var clazz = new DocumentSymbol("Class", SymbolKind.Class, new Range(new Position(1, 0), new Position(5, 1)),
+				new Range(new Position(1, 6), new Position(1, 11)), null, List.of(method, field));
+		symbolsModel.update(List.of(Either.forRight(clazz)));
+
+		assertEquals(method, ((DocumentSymbolWithURI) symbolsModel.getSymbolAt(2, 5)).symbol);
+		assertEquals(field, ((DocumentSymbolWithURI) symbolsModel.getSymbolAt(4, 0)).symbol);
+		assertEquals(clazz, ((DocumentSymbolWithURI) symbolsModel.getSymbolAt(3, 0)).symbol);
+		assertNull(symbolsModel.getSymbolAt(0, 0));
+		assertNull(symbolsModel.getSymbolAt(6, 0));
+	}
+
+	@Test
+	public void testGetSymbolAtSymbolInformation() {
+		final var items = new ArrayList<SymbolInformation>();
+		items.add(createSymbolInformation("Namespace", SymbolKind.Namespace, new Range(new Position(0, 0), new Position(10, 0))));
+		items.add(createSymbolInformation("Class", SymbolKind.Class, new Range(new Position(1, 0), new Position(9, 0))));
+		items.add(createSymbolInformation("Method", SymbolKind.Method, new Range(new Position(2, 0), new Position(3, 0))));
+		items.add(createSymbolInformation("Field", SymbolKind.Field, new Range(new Position(5, 0), new Position(5, 10))));
+
+		final var symbolsModel = new SymbolsModel();
+		final var eitherItems = new ArrayList<Either<SymbolInformation, DocumentSymbol>>(items.size());
+		items.forEach(item -> eitherItems.add(Either.forLeft(item)));
+		symbolsModel.update(eitherItems);
+
+		assertEquals(items.get(2), symbolsModel.getSymbolAt(2, 4));
+		assertEquals(items.get(1), symbolsModel.getSymbolAt(4, 0));
+		assertEquals(items.get(3), symbolsModel.getSymbolAt(5, 10));
+		assertEquals(items.get(0), symbolsModel.getSymbolAt(9, 5));
+		assertNull(symbolsModel.getSymbolAt(11, 0));
+	}
+
+	private DocumentSymbol createDocumentSymbol(String name, int line, DocumentSymbol... children) {
+		final var range = new Range(new Position(line, 0), new Position(line, 10));
+		return new DocumentSymbol(name, SymbolKind.Method, range, range, null, List.of(children));
+	}
+
 	private SymbolInformation createSymbolInformation(String name, SymbolKind kind, Range range) {
 		final var symbolInformation = new SymbolInformation();
 		symbolInformation.setName(name);
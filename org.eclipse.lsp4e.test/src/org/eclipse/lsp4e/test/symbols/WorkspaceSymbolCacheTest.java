@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.test.symbols;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4e.LanguageServiceAccessor;
+import org.eclipse.lsp4e.operations.symbols.WorkspaceSymbolCache;
+import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
+import org.eclipse.lsp4e.test.utils.TestUtils;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolKind;
+import org.eclipse.lsp4j.WorkspaceSymbol;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WorkspaceSymbolCacheTest extends AbstractTestWithProject {
+
+	private LanguageServerWrapper wrapper;
+
+	@Before
+	public void setUp() throws Exception {
+		IFile file = TestUtils.createUniqueTestFile(project, "");
+		wrapper = LanguageServiceAccessor.getLSWrappers(file, capabilities -> true).get(0);
+	}
+
+	@Test
+	public void testNarrowerQueryAnsweredFromCache() {
+		final var cache = new WorkspaceSymbolCache();
+		cache.put(wrapper, "foo", List.of(createSymbol("foo"), createSymbol("fooBar"), createSymbol("FooBaz")));
+
+		assertEquals(3, cache.get(wrapper, "foo").size());
+		assertEquals(List.of("fooBar", "FooBaz"), cache.get(wrapper, "fooba").stream().map(WorkspaceSymbol::getName).toList());
+		assertEquals(List.of(), cache.get(wrapper, "foox"));
+	}
+
+	@Test
+	public void testOtherQueryNotAnsweredFromCache() {
+		final var cache = new WorkspaceSymbolCache();
+		cache.put(wrapper, "foo", List.of(createSymbol("foo")));
+
+		assertNull(cache.get(wrapper, "fo"));
+		assertNull(cache.get(wrapper, "bar"));
+	}
+
+	@Test
+	public void testEmptyQueryNotCached() {
+		final var cache = new WorkspaceSymbolCache();
+		cache.put(wrapper, "", List.of(createSymbol("foo")));
+
+		assertNull(cache.get(wrapper, "foo"));
+	}
+
+	@Test
+	public void testPossiblyTruncatedAnswerNotCached() {
+		final var symbols = new ArrayList<WorkspaceSymbol>();
+		for (int i = 0; i < 100; i++) {
+			symbols.add(createSymbol("foo" + i));
+		}
+		final var cache = new WorkspaceSymbolCache();
+		cache.put(wrapper, "foo", symbols);
+
+		// the language server may know symbols matching "foo1" beyond the ones it returned
+		assertNull(cache.get(wrapper, "foo"));
+		assertNull(cache.get(wrapper, "foo1"));
+	}
+
+	private static WorkspaceSymbol createSymbol(String name) {
+		final var range = new Range(new Position(0, 0), new Position(0, name.length()));
+		return new WorkspaceSymbol(name, SymbolKind.Class, Either.forLeft(new Location("file://test", range)));
+	}
+}
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.test.symbols;
+
+import static org.eclipse.lsp4e.test.utils.TestUtils.waitForAndAssertCondition;
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4e.LanguageServiceAccessor;
+import org.eclipse.lsp4e.operations.symbols.WorkspaceSymbolSearch;
+import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
+import org.eclipse.lsp4e.test.utils.TestUtils;
+import org.eclipse.lsp4e.tests.mock.MockConnectionProvider;
+import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolKind;
+import org.eclipse.lsp4j.WorkspaceSymbol;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WorkspaceSymbolSearchTest extends AbstractTestWithProject {
+
+	private LanguageServerWrapper wrapper;
+	private final List<WorkspaceSymbol> received = new CopyOnWriteArrayList<>();
+
+	@Before
+	public void setUp() throws Exception {
+		IFile file = TestUtils.createUniqueTestFile(project, "");
+		wrapper = LanguageServiceAccessor.getLSWrappers(file, capabilities -> true).get(0);
+		MockLanguageServer.INSTANCE.getWorkspaceService().setWorkspaceSymbols(List.of(createSymbol("foo")));
+	}
+
+	@Test
+	public void testDebouncedSearchSent() {
+		new WorkspaceSymbolSearch("foo", null, 200, received::addAll).send(List.of(wrapper));
+
+		waitForAndAssertCondition(5_000, () -> received.size() == 1);
+		assertEquals(List.of("foo"), MockLanguageServer.INSTANCE.getWorkspaceService().getSymbolQueries());
+		assertEquals("foo", received.get(0).getName());
+	}
+
+	@Test
+	public void testDebouncedSearchCancelledBeforeSent() throws InterruptedException {
+		final var search = new WorkspaceSymbolSearch("foo", null, 500, received::addAll).send(List.of(wrapper));
+		search.cancel();
+
+		// the search which followed reached the language server, the cancelled one never will
+		new WorkspaceSymbolSearch("foob", null, 500, symbols -> {}).send(List.of(wrapper));
+		waitForAndAssertCondition(5_000,
+				() -> !MockLanguageServer.INSTANCE.getWorkspaceService().getSymbolQueries().isEmpty());
+		Thread.sleep(200);
+		assertEquals(List.of("foob"), MockLanguageServer.INSTANCE.getWorkspaceService().getSymbolQueries());
+		assertTrue(received.isEmpty());
+	}
+
+	@Test
+	public void testSentSearchCancelled() throws InterruptedException {
+		MockLanguageServer.INSTANCE.setTimeToProceedQueries(3_000);
+		final var search = new WorkspaceSymbolSearch("foo", received::addAll).send(List.of(wrapper));
+		waitForAndAssertCondition(5_000,
+				() -> !MockLanguageServer.INSTANCE.getWorkspaceService().getSymbolQueries().isEmpty());
+
+		search.cancel();
+
+		waitForAndAssertCondition("$/cancelRequest not sent", 5_000, //
+				() -> !MockConnectionProvider.cancellations.isEmpty());
+		Thread.sleep(3_500);
+		assertTrue(received.isEmpty());
+	}
+
+	@Test
+	public void testSymbolsReceivedWhenAwaited() throws InterruptedException {
+		MockLanguageServer.INSTANCE.setTimeToProceedQueries(200);
+		final var search = new WorkspaceSymbolSearch("foo", received::addAll).send(List.of(wrapper));
+
+		assertTrue(search.await(new NullProgressMonitor(), 5_000));
+		// the search is cancelled as soon as awaited, as the quick access does
+		search.cancel();
+
+		assertEquals(1, received.size());
+		assertEquals("foo", received.get(0).getName());
+	}
+
+	private static WorkspaceSymbol createSymbol(String name) {
+		final var range = new Range(new Position(0, 0), new Position(0, name.length()));
+		return new WorkspaceSymbol(name, SymbolKind.Class, Either.forLeft(new Location("file://test", range)));
+	}
+}
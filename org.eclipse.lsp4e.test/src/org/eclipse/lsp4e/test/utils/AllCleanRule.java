@@ -19,6 +19,7 @@
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.lsp4e.ConnectDocumentToLanguageServerSetupParticipant;
 import org.eclipse.lsp4e.LanguageServiceAccessor;
+import org.eclipse.lsp4e.RequestDeadlines;
 import org.eclipse.lsp4e.tests.mock.MockConnectionProvider;
 import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
 import org.eclipse.lsp4e.ui.UI;
@@ -70,6 +71,7 @@ private void clear() {
 		}
 		MockLanguageServer.INSTANCE.waitBeforeTearDown();
 		LanguageServiceAccessor.clearStartedServers();
+		RequestDeadlines.clearLatencies();
 		MockLanguageServer.reset(this.serverConfigurer);
 		MockConnectionProvider.cancellations.clear();
 		TestUtils.tearDown();
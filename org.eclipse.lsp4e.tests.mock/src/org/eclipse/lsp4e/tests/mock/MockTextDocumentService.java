@@ -110,6 +110,7 @@ public class MockTextDocumentService implements TextDocumentService {
 	private Function<?, ? extends CompletableFuture<?>> _futureFactory;
 	private final List<LanguageClient> remoteProxies = new CopyOnWriteArrayList<>();
 	private Location[] mockReferences = new Location[0];
+	private final List<String> resolvedCompletionItemLabels = new CopyOnWriteArrayList<>();
 	private List<Diagnostic> diagnostics;
 	private List<Either<Command, CodeAction>> mockCodeActions;
 	private List<ColorInformation> mockDocumentColors;
@@ -145,7 +146,13 @@ public CompletableFuture<Either<List<CompletionItem>, CompletionList>> completio
 
 	@Override
 	public CompletableFuture<CompletionItem> resolveCompletionItem(CompletionItem unresolved) {
-		return CompletableFuture.completedFuture(null);
+		resolvedCompletionItemLabels.add(unresolved.getLabel());
+		unresolved.setDocumentation("Documentation of " + unresolved.getLabel());
+		return futureFactory(unresolved);
+	}
+
+	public List<String> getResolvedCompletionItemLabels() {
+		return resolvedCompletionItemLabels;
 	}
 
 	@Override
@@ -263,7 +270,7 @@ public CompletableFuture<WorkspaceEdit> rename(RenameParams params) {
 	@Override
 	public CompletableFuture<Either3<Range, PrepareRenameResult, PrepareRenameDefaultBehavior>> prepareRename(
 			PrepareRenameParams params) {
-		return CompletableFuture.completedFuture(this.mockPrepareRenameResult);
+		return futureFactory(this.mockPrepareRenameResult);
 	}
 
 	@Override
@@ -15,6 +15,7 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 
 import org.eclipse.lsp4j.DidChangeConfigurationParams;
@@ -32,6 +33,9 @@ public class MockWorkspaceService implements WorkspaceService {
 	private Function<?, ?> _futureFactory;
 	private CompletableFuture<ExecuteCommandParams> executedCommand = new CompletableFuture<>();
 	private List<DidChangeWorkspaceFoldersParams> workspaceFoldersEvents = new ArrayList<>();
+	private List<DidChangeWatchedFilesParams> watchedFilesEvents = new CopyOnWriteArrayList<>();
+	private List<? extends WorkspaceSymbol> workspaceSymbols;
+	private List<String> symbolQueries = new CopyOnWriteArrayList<>();
 
 	public <U> MockWorkspaceService(Function<U, CompletableFuture<U>> futureFactory) {
 		this._futureFactory = futureFactory;
@@ -54,7 +58,19 @@ private <U> CompletableFuture<U> futureFactory(U value) {
 	@Override
 	public CompletableFuture<Either<List<? extends SymbolInformation>, List<? extends WorkspaceSymbol>>> symbol(
 			WorkspaceSymbolParams params) {
-		return null;
+		symbolQueries.add(params.getQuery());
+		if (workspaceSymbols == null) {
+			return null;
+		}
+		return futureFactory(Either.forRight(workspaceSymbols));
+	}
+
+	public void setWorkspaceSymbols(List<? extends WorkspaceSymbol> workspaceSymbols) {
+		this.workspaceSymbols = workspaceSymbols;
+	}
+
+	public List<String> getSymbolQueries() {
+		return this.symbolQueries;
 	}
 
 	@Override
@@ -63,6 +79,11 @@ public void didChangeConfiguration(DidChangeConfigurationParams params) {
 
 	@Override
 	public void didChangeWatchedFiles(DidChangeWatchedFilesParams params) {
+		watchedFilesEvents.add(params);
+	}
+
+	public List<DidChangeWatchedFilesParams> getWatchedFilesEvents() {
+		return this.watchedFilesEvents;
 	}
 
 	@Override
@@ -36,8 +36,8 @@
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -46,6 +46,7 @@
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -79,6 +80,7 @@
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.core.runtime.content.IContentType;
 import org.eclipse.core.runtime.content.IContentTypeManager;
 import org.eclipse.jdt.annotation.NonNull;
@@ -94,6 +96,7 @@
 import org.eclipse.jface.viewers.ISelectionProvider;
 import org.eclipse.lsp4e.internal.ArrayUtil;
 import org.eclipse.lsp4e.internal.DocumentInputStream;
+import org.eclipse.lsp4e.internal.ParallelUtil;
 import org.eclipse.lsp4e.refactoring.CreateFileChange;
 import org.eclipse.lsp4e.refactoring.DeleteExternalFile;
 import org.eclipse.lsp4e.refactoring.LSPTextChange;
@@ -131,7 +134,6 @@
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.ltk.core.refactoring.Change;
 import org.eclipse.ltk.core.refactoring.CompositeChange;
-import org.eclipse.ltk.core.refactoring.DocumentChange;
 import org.eclipse.ltk.core.refactoring.PerformChangeOperation;
 import org.eclipse.ltk.core.refactoring.Refactoring;
 import org.eclipse.ltk.core.refactoring.RefactoringCore;
@@ -939,10 +941,12 @@ public static void applyWorkspaceEdit(@Nullable WorkspaceEdit wsEdit, @Nullable
 
 			// multiple documents or some ResourceChanges => create a refactoring
 			final var changedURIs = new HashMap<URI, Range>();
-			CompositeChange change = toCompositeChange(wsEdit, name, changedURIs);
+			CompositeChange change = toCompositeChange(wsEdit, name, changedURIs, null);
 
 			final var changeOperation = new PerformChangeOperation(change);
 			changeOperation.setUndoManager(RefactoringCore.getUndoManager(), name);
+			// load the documents and compute the edits concurrently, so only applying them happens in the workspace operation
+			final Collection<LSPTextChange> preparedChanges = prepareTextChanges(change);
 			try {
 				ResourcesPlugin.getWorkspace().run(changeOperation, new NullProgressMonitor());
 
@@ -958,8 +962,44 @@ public static void applyWorkspaceEdit(@Nullable WorkspaceEdit wsEdit, @Nullable
 				}
 			} catch (CoreException e) {
 				LanguageServerPlugin.logError(e);
+			} finally {
+				for (final LSPTextChange preparedChange : preparedChanges) {
+					try {
+						preparedChange.release(new NullProgressMonitor());
+					} catch (CoreException e) {
+						LanguageServerPlugin.logError(e);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Prepares the text changes of the given change with bounded concurrency,
+	 * unless it also contains resource changes, which text changes may depend
+	 * on.
+	 *
+	 * @return the successfully prepared text changes, to be released once
+	 *         performed
+	 */
+	private static Collection<LSPTextChange> prepareTextChanges(CompositeChange change) {
+		final var textChanges = new ArrayList<LSPTextChange>();
+		for (final Change child : change.getChildren()) {
+			if (!(child instanceof LSPTextChange textChange)) {
+				return List.of();
 			}
+			textChanges.add(textChange);
 		}
+		final var preparedChanges = new ConcurrentLinkedQueue<LSPTextChange>();
+		ParallelUtil.forEach(textChanges, ParallelUtil.DEFAULT_PARALLELISM, null, textChange -> {
+			try {
+				textChange.prepare(new NullProgressMonitor());
+				preparedChanges.add(textChange);
+			} catch (CoreException e) {
+				LanguageServerPlugin.logError(e);
+			}
+		});
+		return preparedChanges;
 	}
 
 	private static void runRefactorWizardOperation(Change change) {
@@ -1071,7 +1111,21 @@ private static boolean applyWorkspaceEditIfSingleOpenFile(WorkspaceEdit wsEdit)
 	 * @return a ltk {@link CompositeChange} from a lsp {@link WorkspaceEdit}.
 	 */
 	public static CompositeChange toCompositeChange(WorkspaceEdit wsEdit, String name) {
-		return toCompositeChange(wsEdit, name, null);
+		return toCompositeChange(wsEdit, name, null, null);
+	}
+
+	/**
+	 * Returns a ltk {@link CompositeChange} from a lsp {@link WorkspaceEdit},
+	 * reporting the conversion of each document change to the given monitor.
+	 *
+	 * @param wsEdit
+	 * @param name
+	 * @param monitor
+	 * @return a ltk {@link CompositeChange} from a lsp {@link WorkspaceEdit}.
+	 * @throws OperationCanceledException if the monitor is cancelled
+	 */
+	public static CompositeChange toCompositeChange(WorkspaceEdit wsEdit, String name, @Nullable IProgressMonitor monitor) {
+		return toCompositeChange(wsEdit, name, null, monitor);
 	}
 
 	/**
@@ -1080,16 +1134,20 @@ public static CompositeChange toCompositeChange(WorkspaceEdit wsEdit, String nam
 	 * @param wsEdit
 	 * @param name
 	 * @param collector A map of URI to Range entries collected from WorkspaceEdit
+	 * @param monitor
 	 * @return a ltk {@link CompositeChange} from a lsp {@link WorkspaceEdit}.
 	 */
-	private static CompositeChange toCompositeChange(WorkspaceEdit wsEdit, String name, @Nullable Map<URI, Range> collector) {
+	private static CompositeChange toCompositeChange(WorkspaceEdit wsEdit, String name, @Nullable Map<URI, Range> collector,
+			@Nullable IProgressMonitor monitor) {
 		final var change = new CompositeChange(name);
 		List<Either<TextDocumentEdit, ResourceOperation>> documentChanges = wsEdit.getDocumentChanges();
 		if (documentChanges != null) {
 			// documentChanges are present, the latter are preferred over changes
 			// see specification at
 			// https://microsoft.github.io/language-server-protocol/specifications/lsp/3.17/specification/#workspaceEdit
+			final var subMonitor = SubMonitor.convert(monitor, documentChanges.size());
 			documentChanges.forEach(action -> {
+				subMonitor.split(1);
 				if (action.isLeft()) {
 					TextDocumentEdit edit = action.getLeft();
 					VersionedTextDocumentIdentifier id = edit.getTextDocument();
@@ -1182,7 +1240,9 @@ private static CompositeChange toCompositeChange(WorkspaceEdit wsEdit, String na
 		} else {
 			Map<String, List<TextEdit>> changes = wsEdit.getChanges();
 			if (changes != null) {
+				final var subMonitor = SubMonitor.convert(monitor, changes.size());
 				for (java.util.Map.Entry<String, List<TextEdit>> edit : changes.entrySet()) {
+					subMonitor.split(1);
 					URI uri = URI.create(edit.getKey());
 					List<TextEdit> textEdits = edit.getValue();
 					change.add(toChanges(uri, textEdits));
@@ -1236,21 +1296,16 @@ private static boolean rangeStartIsLessThan(@Nullable Range range, @Nullable Ran
 
 
 	/**
-	 * Transform LSP {@link TextEdit} list into ltk {@link DocumentChange} and add
-	 * it in the given ltk {@link CompositeChange}.
+	 * Transform LSP {@link TextEdit} list into a single {@link LSPTextChange}
+	 * applying all the edits of the document at once.
 	 *
 	 * @param uri
 	 *            document URI to update
 	 * @param textEdits
-	 *            CompositeChange with LSP text edits
+	 *            LSP text edits of the document
 	 */
 	private static Change toChanges(URI uri, List<TextEdit> textEdits) {
-		LSPTextChange[] changes = textEdits.stream()
-				.sorted(Comparator.comparing((TextEdit edit) -> edit.getRange().getStart(),
-						Comparator.comparingInt(Position::getLine).thenComparingInt(Position::getCharacter).reversed()))
-				.map(te -> new LSPTextChange("Line: %d".formatted(te.getRange().getStart().getLine() + 1), uri, te)) //$NON-NLS-1$
-				.toArray(LSPTextChange[]::new);
-		return new CompositeChange(uri.toString(), changes);
+		return new LSPTextChange(uri.toString(), uri, textEdits);
 	}
 
 	public static URI toUri(IPath absolutePath) {
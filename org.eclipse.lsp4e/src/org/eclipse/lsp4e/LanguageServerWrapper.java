@@ -24,6 +24,7 @@
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +35,7 @@
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -80,6 +82,7 @@
 import org.eclipse.lsp4j.ClientCapabilities;
 import org.eclipse.lsp4j.ClientInfo;
 import org.eclipse.lsp4j.CodeActionOptions;
+import org.eclipse.lsp4j.DidChangeWatchedFilesRegistrationOptions;
 import org.eclipse.lsp4j.DidChangeWorkspaceFoldersParams;
 import org.eclipse.lsp4j.DocumentFormattingOptions;
 import org.eclipse.lsp4j.DocumentRangeFormattingOptions;
@@ -103,7 +106,9 @@
 import org.eclipse.lsp4j.WorkspaceSymbolOptions;
 import org.eclipse.lsp4j.jsonrpc.Launcher;
 import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.RemoteEndpoint;
 import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.lsp4j.jsonrpc.messages.Message;
 import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
@@ -119,6 +124,8 @@
 
 public class LanguageServerWrapper {
 
+	private static final Gson LSP_GSON = new MessageJsonHandler(Collections.emptyMap()).getGson();
+
 	private final IFileBufferListener fileBufferListener = new FileBufferListenerAdapter() {
 		@Override
 		public void bufferDisposed(IFileBuffer buffer) {
@@ -154,10 +161,17 @@ public void dirtyStateChanged(IFileBuffer buffer, boolean isDirty) {
 	private static class LanguageServerContext {
 		boolean cancelled = false;
 
+		/** requests of this session only, as the request ids restart with each launcher */
+		final PendingRequests pendingRequests;
+
 		@Nullable Future<?> launcherFuture;
 		@Nullable StreamConnectionProvider lspStreamProvider;
 		@Nullable LanguageServer languageServer;
 
+		LanguageServerContext(String serverDefinitionId, Executor dispatcher) {
+			this.pendingRequests = new PendingRequests(serverDefinitionId, dispatcher);
+		}
+
 		synchronized void close() {
 			if (languageServer != null) {
 				CompletableFuture<Object> shutdown = languageServer.shutdown();
@@ -183,6 +197,8 @@ synchronized void close() {
 				lspStreamProvider.stop();
 			}
 
+			// only once shutdown and exit were sent
+			pendingRequests.clear();
 		}
 	}
 
@@ -197,13 +213,20 @@ synchronized void close() {
 	private final int initializeFutureNumberOfStages = 7;
 	private @Nullable LanguageClientImpl languageClient;
 	private @Nullable ServerCapabilities serverCapabilities;
+	/**
+	 * immutable copy of {@link #serverCapabilities}, replaced on initialization
+	 * and on each dynamic (un)registration, so that capability filters can be
+	 * evaluated without locking nor waiting
+	 */
+	private volatile @Nullable ServerCapabilities publishedCapabilities;
+	private final ResponsivenessWatchdog watchdog;
 	private final Timer timer = new Timer("Stop Language Server Task Processor"); //$NON-NLS-1$
 	private @Nullable TimerTask stopTimerTask;
 
 	private final ExecutorService dispatcher;
 	private final ExecutorService listener;
 
-	private LanguageServerContext context = new LanguageServerContext();
+	private LanguageServerContext context;
 
 	/**
 	 * Map containing unregistration handlers for dynamic capability registrations.
@@ -227,11 +250,13 @@ private LanguageServerWrapper(@Nullable IProject project, LanguageServerDefiniti
 		this.initialProject = project;
 		this.initialPath = initialPath;
 		this.serverDefinition = serverDefinition;
+		this.watchdog = new ResponsivenessWatchdog(this);
 		this.connectedDocuments = new HashMap<>();
 		String projectName = (project != null && !serverDefinition.isSingleton) ? ("@" + project.getName()) : "";  //$NON-NLS-1$//$NON-NLS-2$
 		final var dispatcherThreadNameFormat = "LS-" + serverDefinition.id + projectName + "#dispatcher"; //$NON-NLS-1$ //$NON-NLS-2$
 		this.dispatcher = Executors
 				.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat(dispatcherThreadNameFormat).build());
+		this.context = new LanguageServerContext(serverDefinition.id, dispatcher);
 
 		// Executor service passed through to the LSP4j layer when we attempt to start the LS. It will be used
 		// to create a listener that sits on the input stream and processes inbound messages (responses, or server-initiated
@@ -351,14 +376,27 @@ private synchronized void start(boolean forceRestart) {
 						initParams.setRootPath(rootURI.getPath());
 					}
 
-					UnaryOperator<MessageConsumer> wrapper = consumer -> message -> {
-						logMessage(message);
-						consumer.consume(message);
-						final var lspStreamProvider = workingContext.lspStreamProvider;
-						final var languageServer = workingContext.languageServer;
-						if (lspStreamProvider != null && isActive() &&  languageServer != null) {
-							lspStreamProvider.handleMessage(message, languageServer, rootURI);
+					final PendingRequests pendingRequests = workingContext.pendingRequests;
+					UnaryOperator<MessageConsumer> wrapper = consumer -> {
+						// the remote endpoint consumes the messages received from the language server
+						final boolean incoming = consumer instanceof RemoteEndpoint;
+						final MessageConsumer wrappedConsumer = message -> {
+							logMessage(message);
+							pendingRequests.onMessage(message, incoming);
+							consumer.consume(message);
+							final var lspStreamProvider = workingContext.lspStreamProvider;
+							final var languageServer = workingContext.languageServer;
+							if (lspStreamProvider != null && isActive() &&  languageServer != null) {
+								lspStreamProvider.handleMessage(message, languageServer, rootURI);
+							}
+						};
+						if (incoming) {
+							pendingRequests.connect(consumer, true);
+							return wrappedConsumer;
 						}
+						// background requests are held back while the language server lags
+						pendingRequests.connect(wrappedConsumer, false);
+						return pendingRequests::send;
 					};
 					initParams.setWorkspaceFolders(getRelevantWorkspaceFolders());
 					final var lspStreamProvider= castNonNull(workingContext.lspStreamProvider);
@@ -382,6 +420,9 @@ private synchronized void start(boolean forceRestart) {
 					markInitializationProgress(workingContext);
 					serverCapabilities = res.getCapabilities();
 					this.initiallySupportsWorkspaceFolders = supportsWorkspaceFolders(serverCapabilities);
+					ServerCapabilitiesSnapshots.update(serverDefinition, res.getCapabilities());
+					publishCapabilities();
+					watchdog.start(workingContext.pendingRequests);
 				}
 			}).thenRun(() -> {
 				synchronized (workingContext) {
@@ -544,6 +585,15 @@ public synchronized boolean startupFailed() {
 		return this.initializeFuture != null && this.initializeFuture.isCompletedExceptionally();
 	}
 
+	/**
+	 * @return whether the language server doesn't answer its requests anymore, in
+	 *         which case the requests go to other language servers when possible
+	 * @see ResponsivenessWatchdog
+	 */
+	public boolean isDegraded() {
+		return watchdog.isDegraded();
+	}
+
 	private void removeStopTimerTask() {
 		synchronized (timer) {
 			if (stopTimerTask != null) {
@@ -585,7 +635,7 @@ public synchronized void stop() {
 		}
 
 		LanguageServerContext contextToStop = context;
-		context = new LanguageServerContext();
+		context = new LanguageServerContext(serverDefinition.id, dispatcher);
 		synchronized(contextToStop) {
 			contextToStop.cancelled = true;
 		}
@@ -601,7 +651,10 @@ private void shutdown(LanguageServerContext workingContext) {
 		}
 
 		this.serverCapabilities = null;
+		this.publishedCapabilities = null;
+		this.watchdog.stop();
 		this.dynamicRegistrations.clear();
+		WatchedFilesNotifier.INSTANCE.unregisterAll(this);
 
 		ResourcesPlugin.getWorkspace().removeResourceChangeListener(workspaceFolderUpdater);
 
@@ -935,6 +988,40 @@ public void sendNotification(Consumer<LanguageServer> fn) {
 		return this.serverCapabilities;
 	}
 
+	/**
+	 * Doesn't wait for the server to be initialized.
+	 *
+	 * @return the capabilities of the server if it's initialized, otherwise the
+	 *         capabilities it had the last time it was initialized, if known.
+	 *         They must not be modified.
+	 * @noreference internal so far
+	 */
+	public @Nullable ServerCapabilities getKnownServerCapabilities() {
+		final var publishedCapabilities = this.publishedCapabilities;
+		if (publishedCapabilities != null) {
+			return publishedCapabilities;
+		}
+		return ServerCapabilitiesSnapshots.get(serverDefinition);
+	}
+
+	/**
+	 * Doesn't wait for the server to be initialized.
+	 *
+	 * @return the current capabilities of the server, including its dynamic
+	 *         registrations, or null if it's not initialized. They must not be
+	 *         modified.
+	 * @noreference internal so far
+	 */
+	public @Nullable ServerCapabilities getPublishedServerCapabilities() {
+		return this.publishedCapabilities;
+	}
+
+	private void publishCapabilities() {
+		final var serverCapabilities = this.serverCapabilities;
+		this.publishedCapabilities = serverCapabilities == null ? null
+				: ServerCapabilitiesSnapshots.copy(serverCapabilities);
+	}
+
 	public CompletableFuture<ServerCapabilities> getServerCapabilitiesAsync() {
 		return getInitializedServer().thenApply(ls -> castNonNull(this.serverCapabilities));
 	}
@@ -972,6 +1059,15 @@ void registerCapability(RegistrationParams params) {
 					setWorkspaceFoldersEnablement(true);
 				}
 				break;
+			case "workspace/didChangeWatchedFiles": //$NON-NLS-1$
+				// the watchers' glob patterns are Eithers, which need the LSP4J type adapters
+				final DidChangeWatchedFilesRegistrationOptions watchedFilesOptions = LSP_GSON.fromJson(
+						(JsonObject) reg.getRegisterOptions(), DidChangeWatchedFilesRegistrationOptions.class);
+				if (watchedFilesOptions != null && watchedFilesOptions.getWatchers() != null) {
+					addRegistration(reg, () -> WatchedFilesNotifier.INSTANCE.unregister(this, reg.getId()));
+					WatchedFilesNotifier.INSTANCE.register(this, reg.getId(), watchedFilesOptions.getWatchers());
+				}
+				break;
 			case "workspace/executeCommand": //$NON-NLS-1$
 				final var gson = new Gson(); // TODO? retrieve the GSon used by LS
 				ExecuteCommandOptions executeCommandOptions = castNonNull(gson.fromJson((JsonObject) reg.getRegisterOptions(),
@@ -1033,6 +1129,7 @@ void registerCapability(RegistrationParams params) {
 				addRegistration(reg, () -> serverCapabilities.setTypeHierarchyProvider(typeHierarchyBeforeRegistration));
 				break;
 		}});
+		publishCapabilities();
 	}
 
 	private void addRegistration(Registration reg, Runnable unregistrationHandler) {
@@ -1100,6 +1197,7 @@ void unregisterCapability(UnregistrationParams params) {
 				unregistrator.run();
 			}
 		});
+		publishCapabilities();
 	}
 
 	void unregisterCommands(List<String> cmds) {
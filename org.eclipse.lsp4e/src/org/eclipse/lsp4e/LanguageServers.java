@@ -20,9 +20,10 @@
 import java.util.Optional;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -129,6 +130,66 @@ public <T> CompletableFuture<List<T>> collectAll(BiFunction<? super LanguageServ
 				}).toList();
 	}
 
+	/**
+	 * Runs an operation on all applicable language servers, delivering each non-null individual result to the
+	 * given consumer as soon as the server answers, so that the results of fast servers can be used without
+	 * waiting for slower ones
+	 *
+	 * @param <T> Type of result being computed on the language server(s)
+	 * @param fn An individual operation to be performed on the language server, which following the LSP4j API
+	 * will return a <code>CompletableFuture&lt;T&gt;</code>.
+	 * @param consumer Receives the individual results, one at a time for a given server
+	 * @param executor Executor on which the consumer is called, e.g. to update a UI
+	 *
+	 * @return An asynchronous result that completes once all servers answered and the consumer received their results,
+	 * exceptionally if one of them failed. Cancelling it cancels the requests still pending on all servers, and no
+	 * further result is delivered.
+	 */
+	public <T> CompletableFuture<@Nullable Void> streamAll(Function<LanguageServer, ? extends CompletableFuture<T>> fn,
+			Consumer<? super T> consumer, Executor executor) {
+		return streamAll((w, ls) -> fn.apply(ls), consumer, executor);
+	}
+
+	/**
+	 * Runs an operation on all applicable language servers, delivering each non-null individual result to the
+	 * given consumer as soon as the server answers, so that the results of fast servers can be used without
+	 * waiting for slower ones
+	 *
+	 * @param <T> Type of result being computed on the language server(s)
+	 * @param fn An individual operation to be performed on the language server, which following the LSP4j API
+	 * will return a <code>CompletableFuture&lt;T&gt;</code>. This function additionally receives a {@link LanguageServerWrapper }
+	 * allowing fine-grained interrogation of server capabilities, or the construction of objects that can use this
+	 * handle to make further calls on the same server
+	 * @param consumer Receives the individual results, one at a time for a given server
+	 * @param executor Executor on which the consumer is called, e.g. to update a UI
+	 *
+	 * @return An asynchronous result that completes once all servers answered and the consumer received their results,
+	 * exceptionally if one of them failed. Cancelling it cancels the requests still pending on all servers, and no
+	 * further result is delivered.
+	 */
+	public <T> CompletableFuture<@Nullable Void> streamAll(BiFunction<? super LanguageServerWrapper, LanguageServer, ? extends CompletableFuture<T>> fn,
+			Consumer<? super T> consumer, Executor executor) {
+		final var result = new CompletableFuture<@Nullable Void>();
+		final List<CompletableFuture<T>> requests = executeOnServers(fn).toList();
+		final CompletableFuture<?>[] deliveries = requests.stream()
+				.map(request -> request.thenAcceptAsync(t -> {
+					// results may already be queued on the executor when the stream gets cancelled
+					if (t != null && !result.isDone()) {
+						consumer.accept(t);
+					}
+				}, executor)).toArray(CompletableFuture[]::new);
+		CompletableFuture.allOf(deliveries).whenComplete((v, t) -> {
+			if (t != null) {
+				result.completeExceptionally(t);
+			} else {
+				result.complete(null);
+			}
+		});
+		// single point of cancellation for all requests
+		forwardCancellation(result, requests.toArray(CompletableFuture[]::new));
+		return result;
+	}
+
 	/**
 	 * Runs an operation on all applicable language servers, returning an async result that will receive the first
 	 * non-null response
@@ -219,24 +280,26 @@ public Predicate<ServerCapabilities> getFilter() {
 		return this.filter;
 	}
 
+	/**
+	 * Doesn't wait for the server: if it's not known yet, it is assumed that it
+	 * would be matching, and we rely on the next call of the executor to filter
+	 * the server if needed.
+	 */
 	protected Boolean matches(CompletableFuture<@Nullable LanguageServerWrapper> wrapperFuture) {
+		if (!wrapperFuture.isDone()) {
+			return Boolean.TRUE;
+		}
 		try {
-			return wrapperFuture.thenApply(Objects::nonNull).get(50, TimeUnit.MILLISECONDS);
-		} catch (java.util.concurrent.ExecutionException e) {
+			return wrapperFuture.join() != null;
+		} catch (CompletionException | CancellationException e) {
 			LanguageServerPlugin.logError(e);
-		} catch (InterruptedException e) {
-			LanguageServerPlugin.logError(e);
-			Thread.currentThread().interrupt();
-		} catch (TimeoutException e) {
-			LanguageServerPlugin.logWarning("Could not get language server due to timeout after 50 milliseconds", e); //$NON-NLS-1$
-			return Boolean.TRUE;
 		}
 		return Boolean.FALSE;
 	}
 
 	/**
-	 *  Waits if necessary for at most 50 milliseconds for getting a server, if that is not enough it is assumed that
-	 *  the server would be matching, and we rely on the next call of to executor to filter the server if needed.
+	 * Doesn't block: servers which aren't known yet are assumed to be matching,
+	 * and we rely on the next call of the executor to filter them if needed.
 	 *
 	 * @return True if there is a language server for this project/document & server capabilities.
 	 */
@@ -285,14 +348,28 @@ public IDocument getDocument() {
 		@Override
 		protected List<CompletableFuture<@Nullable LanguageServerWrapper>> getServers() {
 			// Compute list of servers from document & filter
-			Collection<LanguageServerWrapper> wrappers = LanguageServiceAccessor.getLSWrappers(document);
+			Collection<LanguageServerWrapper> wrappers = excludeDegraded(LanguageServiceAccessor.getLSWrappers(document));
 			return order(wrappers).stream().map(this::filter).map(this::connect).toList();
 		}
 
 		@Override
 		public boolean anyMatching() {
-			return LanguageServiceAccessor.getLSWrappers(document).stream()
-					.map(this::filter).anyMatch(this::matches);
+			return LanguageServiceAccessor.getLSWrappers(document).stream().anyMatch(wrapper -> {
+				final ServerCapabilities publishedCapabilities = wrapper.getPublishedServerCapabilities();
+				if (publishedCapabilities != null) {
+					// initialized server: its capabilities, dynamic registrations included, are up to date
+					return getFilter().test(publishedCapabilities);
+				}
+				// while the server initializes, the capabilities of its last run allow to answer at once
+				final ServerCapabilities knownCapabilities = wrapper.getKnownServerCapabilities();
+				if (knownCapabilities != null && getFilter().test(knownCapabilities)) {
+					// the start is synchronized with the other lifecycle operations of the server
+					CompletableFuture.runAsync(wrapper::start);
+					return true;
+				}
+				// the server may have gained the capability since its last run
+				return matches(filter(wrapper));
+			});
 		}
 	}
 
@@ -328,7 +405,7 @@ public LanguageServerProjectExecutor excludeInactive() {
 		@Override
 		protected List<CompletableFuture<@Nullable LanguageServerWrapper>> getServers() {
 			// Compute list of servers from project & filter
-			Collection<LanguageServerWrapper> startedWrappers = order(LanguageServiceAccessor.getStartedWrappers(project, getFilter(), !restartStopped));
+			Collection<LanguageServerWrapper> startedWrappers = order(excludeDegraded(LanguageServiceAccessor.getStartedWrappers(project, getFilter(), !restartStopped)));
 			final var wrappers = new ArrayList<CompletableFuture<@Nullable LanguageServerWrapper>>(startedWrappers.size());
 			for (LanguageServerWrapper wrapper :  startedWrappers) {
 				wrappers.add(wrapper.getInitializedServer().thenApply(ls -> wrapper));
@@ -356,6 +433,21 @@ protected Collection<LanguageServerWrapper> order(Collection<LanguageServerWrapp
 	}
 
 
+	/**
+	 * Routes the requests away from the unresponsive language servers, unless no
+	 * other language server may answer them.
+	 */
+	protected Collection<LanguageServerWrapper> excludeDegraded(Collection<LanguageServerWrapper> wrappers) {
+		if (wrappers.stream().noneMatch(LanguageServerWrapper::isDegraded)) {
+			return wrappers;
+		}
+		final List<LanguageServerWrapper> responsive = wrappers.stream().filter(wrapper -> !wrapper.isDegraded()).toList();
+		return responsive.stream().anyMatch(wrapper -> {
+			final ServerCapabilities knownCapabilities = wrapper.getKnownServerCapabilities();
+			return knownCapabilities == null || getFilter().test(knownCapabilities);
+		}) ? responsive : wrappers;
+	}
+
 	/** Pluggable strategy for getting the set of LSWrappers to dispatch operations on */
 	protected abstract List<CompletableFuture<@Nullable LanguageServerWrapper>> getServers();
 
@@ -121,6 +121,14 @@ public <S extends LanguageServer> Launcher.Builder<S> createLauncherBuilder() {
 			return new Launcher.Builder<>();
 		}
 
+		/**
+		 * @return the version of the integration of the language server, or null if
+		 *         unknown
+		 */
+		@Nullable String getVersion() {
+			return null;
+		}
+
 	}
 
 	static class ExtensionLanguageServerDefinition extends LanguageServerDefinition {
@@ -161,6 +169,12 @@ public ExtensionLanguageServerDefinition(IConfigurationElement element) {
 			this.extension = element;
 		}
 
+		@Override
+		@Nullable String getVersion() {
+			Bundle bundle = Platform.getBundle(extension.getContributor().getName());
+			return bundle != null ? bundle.getVersion().toString() : null;
+		}
+
 		@Override
 		public StreamConnectionProvider createConnectionProvider() {
 			try {
@@ -196,12 +196,25 @@ public static void enableLanguageServerContentType(
 	 */
 	private static boolean capabilitiesComply(LanguageServerWrapper wrapper,
 			@Nullable Predicate<ServerCapabilities> capabilitiesPredicate) {
-		return capabilitiesPredicate == null
-				/*
-				 * next null check is workaround for https://github.com/TypeFox/ls-api/issues/47
-				 */
-				|| wrapper.getServerCapabilities() == null
-				|| capabilitiesPredicate.test(castNonNull(wrapper.getServerCapabilities()));
+		if (capabilitiesPredicate == null) {
+			return true;
+		}
+		final ServerCapabilities publishedCapabilities = wrapper.getPublishedServerCapabilities();
+		if (publishedCapabilities != null) {
+			// initialized server: its capabilities, dynamic registrations included, are up to date
+			return capabilitiesPredicate.test(publishedCapabilities);
+		}
+		// while the server initializes, the capabilities of its last run allow to answer at once
+		final ServerCapabilities knownCapabilities = wrapper.getKnownServerCapabilities();
+		if (knownCapabilities != null) {
+			return capabilitiesPredicate.test(knownCapabilities);
+		}
+		// only waits for a server which never initialized before
+		/*
+		 * next null check is workaround for https://github.com/TypeFox/ls-api/issues/47
+		 */
+		final ServerCapabilities capabilities = wrapper.getServerCapabilities();
+		return capabilities == null || capabilitiesPredicate.test(capabilities);
 	}
 
 	/**
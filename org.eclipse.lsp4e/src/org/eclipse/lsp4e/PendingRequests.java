@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.lsp4e.RequestLimits.RequestClass;
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.messages.CancelParams;
+import org.eclipse.lsp4j.jsonrpc.messages.Message;
+import org.eclipse.lsp4j.jsonrpc.messages.NotificationMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.RequestMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseError;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseMessage;
+
+/**
+ * The requests sent to a language server which weren't answered yet, tracked
+ * from the messages exchanged with it. The latencies of the answered requests
+ * are recorded in {@link RequestDeadlines}.
+ * <p>
+ * Background requests are held back while the language server lags, within
+ * the {@link RequestLimits}.
+ */
+final class PendingRequests {
+
+	private record PendingRequest(String method, RequestClass requestClass, long startNanos) {
+	}
+
+	/** deferred requests beyond which the oldest ones are shed */
+	private static final int MAX_DEFERRED = 16;
+
+	private static final String CANCEL_REQUEST = "$/cancelRequest"; //$NON-NLS-1$
+	private static final String DID_CHANGE = "textDocument/didChange"; //$NON-NLS-1$
+	private static final String DID_CLOSE = "textDocument/didClose"; //$NON-NLS-1$
+
+	private final String serverDefinitionId;
+	/** sends the deferred requests, off the thread reading the messages of the language server */
+	private final Executor flushExecutor;
+
+	// guarded by this
+	private final Map<String, PendingRequest> pending = new HashMap<>();
+	private final Map<RequestClass, Integer> outstanding = new EnumMap<>(RequestClass.class);
+	private final Deque<RequestMessage> deferred = new ArrayDeque<>();
+	private @Nullable MessageConsumer out;
+	private @Nullable MessageConsumer remoteEndpoint;
+	private long lastResponseNanos = System.nanoTime();
+	private boolean flushScheduled;
+
+	PendingRequests(String serverDefinitionId, Executor flushExecutor) {
+		this.serverDefinitionId = serverDefinitionId;
+		this.flushExecutor = flushExecutor;
+	}
+
+	/**
+	 * Connects to a consumer of the messages exchanged with a newly started
+	 * language server.
+	 *
+	 * @param consumer
+	 *            either sends the messages to the language server, or receives
+	 *            the messages from it, then used to answer the shed requests
+	 * @param incoming
+	 *            whether the consumer receives the messages from the language
+	 *            server
+	 */
+	synchronized void connect(MessageConsumer consumer, boolean incoming) {
+		if (incoming) {
+			this.remoteEndpoint = consumer;
+		} else {
+			this.out = consumer;
+		}
+	}
+
+	/**
+	 * Sends a message to the language server, unless it's a background request
+	 * which has to be deferred.
+	 */
+	void send(Message message) {
+		final var toShed = new ArrayList<RequestMessage>();
+		@Nullable String cancelledId = null;
+		boolean forward = false;
+		final MessageConsumer out;
+		synchronized (this) {
+			out = this.out;
+			if (message instanceof RequestMessage request
+					&& RequestClass.of(request.getMethod()) == RequestClass.BACKGROUND && isLagging()) {
+				if (deferred.size() >= MAX_DEFERRED) {
+					toShed.add(deferred.removeFirst());
+				}
+				deferred.addLast(request);
+				RequestLimits.recordDeferred(serverDefinitionId);
+			} else if (message instanceof NotificationMessage notification
+					&& CANCEL_REQUEST.equals(notification.getMethod())
+					&& notification.getParams() instanceof CancelParams cancel && removeDeferred(cancel.getId())) {
+				// the language server never saw the request, the remote endpoint still waits for its answer
+				cancelledId = cancel.getId();
+			} else {
+				if (message instanceof NotificationMessage notification
+						&& (DID_CHANGE.equals(notification.getMethod()) || DID_CLOSE.equals(notification.getMethod()))) {
+					// the editors ask again for the changed document
+					toShed.addAll(deferred);
+					deferred.clear();
+				}
+				forward = true;
+			}
+		}
+		if (forward && out != null) {
+			out.consume(message);
+		}
+		if (cancelledId != null) {
+			answerCancelled(cancelledId);
+		}
+		toShed.forEach(this::shed);
+	}
+
+	/**
+	 * @param incoming
+	 *            whether the message was received from the language server,
+	 *            rather than sent to it
+	 */
+	void onMessage(Message message, boolean incoming) {
+		if (!incoming && message instanceof RequestMessage request) {
+			final RequestClass requestClass = RequestClass.of(request.getMethod());
+			synchronized (this) {
+				pending.put(request.getId(), new PendingRequest(request.getMethod(), requestClass, System.nanoTime()));
+				outstanding.merge(requestClass, 1, Integer::sum);
+			}
+		} else if (incoming && message instanceof ResponseMessage response && response.getId() != null) {
+			final PendingRequest request;
+			synchronized (this) {
+				lastResponseNanos = System.nanoTime();
+				request = pending.remove(response.getId());
+				if (request != null) {
+					outstanding.merge(request.requestClass(), -1, Integer::sum);
+				}
+			}
+			// a cancelled request says nothing about how long the server would have taken
+			if (request != null && (response.getError() == null
+					|| response.getError().getCode() != ResponseErrorCode.RequestCancelled.getValue())) {
+				RequestDeadlines.record(serverDefinitionId, request.method(),
+						TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - request.startNanos()));
+			}
+			if (request != null) {
+				scheduleSendDeferred();
+			}
+		}
+	}
+
+	/**
+	 * Schedules the sending of the deferred requests, so that the thread reading
+	 * the answers of the language server doesn't write to it.
+	 */
+	private void scheduleSendDeferred() {
+		synchronized (this) {
+			if (deferred.isEmpty() || flushScheduled) {
+				return;
+			}
+			flushScheduled = true;
+		}
+		try {
+			flushExecutor.execute(this::sendDeferred);
+		} catch (RejectedExecutionException e) {
+			// the language server is being stopped, the deferred requests get shed
+			synchronized (this) {
+				flushScheduled = false;
+			}
+		}
+	}
+
+	/**
+	 * Sends the deferred requests the language server has room for.
+	 */
+	private void sendDeferred() {
+		final var toSend = new ArrayList<RequestMessage>();
+		final MessageConsumer out;
+		synchronized (this) {
+			flushScheduled = false;
+			out = this.out;
+			if (out == null) {
+				return;
+			}
+			final int background = outstanding.getOrDefault(RequestClass.BACKGROUND, 0);
+			while (!deferred.isEmpty() && !isLagging(background + toSend.size())) {
+				toSend.add(deferred.removeFirst());
+			}
+		}
+		// sent through the wrapped consumer, so that they are logged and tracked like any request
+		toSend.forEach(out::consume);
+	}
+
+	private boolean isLagging() {
+		return isLagging(outstanding.getOrDefault(RequestClass.BACKGROUND, 0));
+	}
+
+	private boolean isLagging(int background) {
+		return background >= RequestLimits.getLimit(serverDefinitionId, RequestClass.BACKGROUND)
+				|| outstanding.getOrDefault(RequestClass.INTERACTIVE, 0) >= RequestLimits
+						.getLimit(serverDefinitionId, RequestClass.INTERACTIVE);
+	}
+
+	private boolean removeDeferred(String id) {
+		for (final Iterator<RequestMessage> iterator = deferred.iterator(); iterator.hasNext();) {
+			if (id.equals(iterator.next().getId())) {
+				iterator.remove();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Answers a request with no result, as if the language server had nothing to
+	 * say.
+	 */
+	private void shed(RequestMessage request) {
+		RequestLimits.recordShed(serverDefinitionId);
+		final var response = new ResponseMessage();
+		response.setRawId(request.getRawId());
+		response.setResult(null);
+		answer(response);
+	}
+
+	private void answerCancelled(String id) {
+		final var response = new ResponseMessage();
+		response.setId(id);
+		response.setError(new ResponseError(ResponseErrorCode.RequestCancelled, "Request cancelled before being sent", null)); //$NON-NLS-1$
+		answer(response);
+	}
+
+	private void answer(ResponseMessage response) {
+		final MessageConsumer remoteEndpoint;
+		synchronized (this) {
+			remoteEndpoint = this.remoteEndpoint;
+		}
+		if (remoteEndpoint != null) {
+			remoteEndpoint.consume(response);
+		}
+	}
+
+	/**
+	 * @return how long the language server has been silent while requests were
+	 *         pending, in milliseconds: the age of the oldest pending request,
+	 *         or the time since the last answer if more recent. 0 if no request
+	 *         is pending.
+	 */
+	synchronized long getUnansweredMs() {
+		if (pending.isEmpty()) {
+			return 0;
+		}
+		long oldestNanos = Long.MAX_VALUE;
+		for (final PendingRequest request : pending.values()) {
+			oldestNanos = Math.min(oldestNanos, request.startNanos());
+		}
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - Math.max(oldestNanos, lastResponseNanos));
+	}
+
+	/**
+	 * @return the number of requests sent to the language server or deferred,
+	 *         which weren't answered yet
+	 */
+	synchronized int getQueued() {
+		return pending.size() + deferred.size();
+	}
+
+	/**
+	 * Forgets the pending requests, e.g. when the language server is stopped.
+	 */
+	void clear() {
+		final List<RequestMessage> toShed;
+		synchronized (this) {
+			pending.clear();
+			outstanding.clear();
+			toShed = new ArrayList<>(deferred);
+			deferred.clear();
+			out = null;
+			lastResponseNanos = System.nanoTime();
+		}
+		toShed.forEach(this::shed);
+		synchronized (this) {
+			remoteEndpoint = null;
+		}
+	}
+}
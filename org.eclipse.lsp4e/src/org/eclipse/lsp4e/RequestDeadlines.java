@@ -0,0 +1,275 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * How long the IDE waits for the answer of a language server before giving up,
+ * per language server and per LSP method.
+ * <p>
+ * The latencies of the requests of each language server are sampled as the
+ * answers arrive. Once enough samples are known, the deadline of a method is
+ * derived from the 95th percentile of its recent latencies, within a floor and
+ * a cap which can be configured in the preferences. Until then, the default
+ * deadline of the method applies. This way fast servers don't make the UI wait
+ * on generous timeouts, and slow servers don't always hit a wall.
+ * <p>
+ * The UI thread never waits longer than the default deadline of a method
+ * though, whatever the latencies and the configured cap, so that a slow server
+ * can't freeze the UI for longer than it used to.
+ */
+public final class RequestDeadlines {
+
+	/**
+	 * @param defaultMs
+	 *            deadline while the latencies of a server aren't known
+	 * @param floorMs
+	 *            default minimum of the learned deadlines
+	 * @param capMs
+	 *            default maximum of the learned deadlines
+	 */
+	public record Policy(long defaultMs, long floorMs, long capMs) {
+	}
+
+	/**
+	 * @param samples
+	 *            number of latencies the statistics are based on
+	 * @param p50Ms
+	 *            median latency
+	 * @param p95Ms
+	 *            95th percentile of the latencies
+	 * @param deadlineMs
+	 *            the resulting deadline
+	 */
+	public record Stats(int samples, long p50Ms, long p95Ms, long deadlineMs) {
+	}
+
+	/** number of latencies kept per server and method */
+	private static final int WINDOW_SIZE = 64;
+	/** number of latencies needed before the deadline is derived from them */
+	private static final int MIN_SAMPLES = 5;
+	/** head room given to the 95th percentile */
+	private static final double MARGIN = 1.5;
+
+	private static final Policy DEFAULT_POLICY = new Policy(1000, 100, 10_000);
+
+	private static final Map<String, Policy> POLICIES = Map.ofEntries( //
+			Map.entry("textDocument/hover", new Policy(1000, 250, 3000)), //$NON-NLS-1$
+			Map.entry("textDocument/completion", new Policy(5000, 500, 10_000)), //$NON-NLS-1$
+			Map.entry("completionItem/resolve", new Policy(2000, 200, 5000)), //$NON-NLS-1$
+			// asked from the UI thread only
+			Map.entry("textDocument/codeAction", new Policy(300, 100, 300)), //$NON-NLS-1$
+			Map.entry("textDocument/definition", new Policy(800, 200, 800)), //$NON-NLS-1$
+			Map.entry("textDocument/declaration", new Policy(800, 200, 800)), //$NON-NLS-1$
+			Map.entry("textDocument/typeDefinition", new Policy(800, 200, 800)), //$NON-NLS-1$
+			Map.entry("textDocument/implementation", new Policy(800, 200, 800)), //$NON-NLS-1$
+			Map.entry("textDocument/documentLink", new Policy(4000, 500, 10_000)), //$NON-NLS-1$
+			Map.entry("textDocument/prepareTypeHierarchy", new Policy(500, 200, 3000)), //$NON-NLS-1$
+			Map.entry("typeHierarchy/supertypes", new Policy(500, 200, 3000)), //$NON-NLS-1$
+			Map.entry("typeHierarchy/subtypes", new Policy(500, 200, 3000))); //$NON-NLS-1$
+
+	private static final String PREFERENCE_PREFIX = "requestDeadline."; //$NON-NLS-1$
+	private static final String FLOOR_SUFFIX = ".floor"; //$NON-NLS-1$
+	private static final String CAP_SUFFIX = ".cap"; //$NON-NLS-1$
+
+	/** latencies per method, per language server definition id */
+	private static final Map<String, Map<String, LatencyWindow>> LATENCIES = new ConcurrentHashMap<>();
+
+	/**
+	 * The most recent latencies of the requests of a method to a language
+	 * server.
+	 */
+	private static final class LatencyWindow {
+
+		private final long[] latencies = new long[WINDOW_SIZE];
+		private int count;
+		private int next;
+
+		synchronized void add(long latencyMs) {
+			latencies[next] = latencyMs;
+			next = (next + 1) % WINDOW_SIZE;
+			count = Math.min(count + 1, WINDOW_SIZE);
+		}
+
+		/**
+		 * @return the latencies, sorted
+		 */
+		synchronized long[] sorted() {
+			final long[] sorted = Arrays.copyOf(latencies, count);
+			Arrays.sort(sorted);
+			return sorted;
+		}
+	}
+
+	private RequestDeadlines() {
+		// this class shouldn't be instantiated
+	}
+
+	/**
+	 * Records the time a language server took to answer a request.
+	 */
+	static void record(String serverDefinitionId, String method, long latencyMs) {
+		LATENCIES.computeIfAbsent(serverDefinitionId, id -> new ConcurrentHashMap<>())
+				.computeIfAbsent(method, m -> new LatencyWindow()).add(latencyMs);
+	}
+
+	/**
+	 * @return how long to wait for the answer of the given language server to a
+	 *         request of the given method, in milliseconds
+	 */
+	public static long get(LanguageServerWrapper wrapper, String method) {
+		final Stats stats = getStats(wrapper.serverDefinition.id, method);
+		return stats != null ? clampForUiThread(method, stats.deadlineMs()) : getDefault(method);
+	}
+
+	/**
+	 * @return how long to wait for the answers of the language servers of the
+	 *         given document to requests of the given methods, in milliseconds:
+	 *         the longest deadline of the servers which already answered such
+	 *         requests, otherwise the default deadline of the methods
+	 */
+	public static long get(@Nullable IDocument document, String... methods) {
+		long deadline = -1;
+		if (document != null) {
+			for (final LanguageServerWrapper wrapper : LanguageServiceAccessor.getStartedWrappers(document,
+					capabilities -> true, true)) {
+				for (final String method : methods) {
+					final Stats stats = getStats(wrapper.serverDefinition.id, method);
+					if (stats != null) {
+						deadline = Math.max(deadline, clampForUiThread(method, stats.deadlineMs()));
+					}
+				}
+			}
+		}
+		if (deadline < 0) {
+			for (final String method : methods) {
+				deadline = Math.max(deadline, getDefault(method));
+			}
+		}
+		return deadline;
+	}
+
+	/**
+	 * @return the statistics of the requests of the given method to the language
+	 *         server with the given definition id, or null if not enough of them
+	 *         were answered yet
+	 */
+	public static @Nullable Stats getStats(String serverDefinitionId, String method) {
+		final Map<String, LatencyWindow> serverLatencies = LATENCIES.get(serverDefinitionId);
+		final LatencyWindow window = serverLatencies == null ? null : serverLatencies.get(method);
+		if (window == null) {
+			return null;
+		}
+		final long[] sorted = window.sorted();
+		if (sorted.length < MIN_SAMPLES) {
+			return null;
+		}
+		final long p95 = percentile(sorted, 95);
+		final long deadline = Math.min(Math.max((long) (p95 * MARGIN), getFloor(method)), getCap(method));
+		return new Stats(sorted.length, percentile(sorted, 50), p95, deadline);
+	}
+
+	/**
+	 * @return the statistics per method of the language server with the given
+	 *         definition id, sorted by method
+	 */
+	public static Map<String, Stats> getStats(String serverDefinitionId) {
+		final Map<String, LatencyWindow> serverLatencies = LATENCIES.get(serverDefinitionId);
+		if (serverLatencies == null) {
+			return Collections.emptyMap();
+		}
+		final var stats = new TreeMap<String, Stats>();
+		serverLatencies.keySet().forEach(method -> {
+			final Stats methodStats = getStats(serverDefinitionId, method);
+			if (methodStats != null) {
+				stats.put(method, methodStats);
+			}
+		});
+		return stats;
+	}
+
+	/**
+	 * @return the methods which have a specific policy, sorted
+	 */
+	public static List<String> getMethods() {
+		return POLICIES.keySet().stream().sorted().toList();
+	}
+
+	public static Policy getPolicy(String method) {
+		return POLICIES.getOrDefault(method, DEFAULT_POLICY);
+	}
+
+	public static long getFloor(String method) {
+		return getPreference(method + FLOOR_SUFFIX, getPolicy(method).floorMs());
+	}
+
+	public static long getCap(String method) {
+		return getPreference(method + CAP_SUFFIX, getPolicy(method).capMs());
+	}
+
+	public static void setFloor(String method, long floorMs) {
+		setPreference(method + FLOOR_SUFFIX, floorMs, getPolicy(method).floorMs());
+	}
+
+	public static void setCap(String method, long capMs) {
+		setPreference(method + CAP_SUFFIX, capMs, getPolicy(method).capMs());
+	}
+
+	/**
+	 * @return the given deadline, at most the default one of the method when
+	 *         called from the UI thread
+	 */
+	private static long clampForUiThread(String method, long deadlineMs) {
+		return Display.getCurrent() != null ? Math.min(deadlineMs, getPolicy(method).defaultMs()) : deadlineMs;
+	}
+
+	/**
+	 * Forgets the latencies recorded so far, e.g. between tests.
+	 */
+	public static void clearLatencies() {
+		LATENCIES.clear();
+	}
+
+	private static long getDefault(String method) {
+		return clampForUiThread(method,
+				Math.min(Math.max(getPolicy(method).defaultMs(), getFloor(method)), getCap(method)));
+	}
+
+	private static long getPreference(String key, long defaultValue) {
+		final IPreferenceStore store = LanguageServerPlugin.getDefault().getPreferenceStore();
+		return store.contains(PREFERENCE_PREFIX + key) ? store.getLong(PREFERENCE_PREFIX + key) : defaultValue;
+	}
+
+	private static void setPreference(String key, long value, long defaultValue) {
+		final IPreferenceStore store = LanguageServerPlugin.getDefault().getPreferenceStore();
+		if (value == defaultValue) {
+			store.setToDefault(PREFERENCE_PREFIX + key);
+		} else {
+			store.setValue(PREFERENCE_PREFIX + key, value);
+		}
+	}
+
+	private static long percentile(long[] sorted, int percentile) {
+		return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+	}
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.preference.IPreferenceStore;
+
+/**
+ * How many requests may be outstanding on a language server, per class of
+ * request.
+ * <p>
+ * Interactive requests, which the user waits for, are always sent. Background
+ * requests, which refresh decorations of the editors like code lenses, inlay
+ * hints, document links or colors, are deferred while the language server lags,
+ * i.e. while it didn't answer as many background requests as allowed, or as
+ * many interactive requests as it's expected to handle at once. The deferred
+ * requests are sent once the language server catches up, and are shed, i.e.
+ * answered with no result, when too many of them pile up or when a document
+ * changes, as the editors then ask again anyway.
+ * <p>
+ * The limits can be configured in the preferences, for all language servers
+ * and per language server definition.
+ */
+public final class RequestLimits {
+
+	public enum RequestClass {
+		INTERACTIVE, BACKGROUND;
+
+		public static RequestClass of(String method) {
+			return BACKGROUND_METHODS.contains(method) ? BACKGROUND : INTERACTIVE;
+		}
+	}
+
+	/**
+	 * @param deferred
+	 *            number of background requests which were held back because the
+	 *            language server lagged
+	 * @param shed
+	 *            number of background requests which were answered with no
+	 *            result instead of being sent
+	 */
+	public record Stats(long deferred, long shed) {
+	}
+
+	private static final Set<String> BACKGROUND_METHODS = Set.of( //
+			"textDocument/codeLens", //$NON-NLS-1$
+			"textDocument/inlayHint", //$NON-NLS-1$
+			"textDocument/documentLink", //$NON-NLS-1$
+			"textDocument/documentColor"); //$NON-NLS-1$
+
+	/** outstanding interactive requests beyond which a language server lags */
+	public static final int DEFAULT_INTERACTIVE_LIMIT = 8;
+	/** outstanding background requests beyond which background requests are deferred */
+	public static final int DEFAULT_BACKGROUND_LIMIT = 4;
+
+	private static final String PREFERENCE_PREFIX = "requestLimit."; //$NON-NLS-1$
+
+	private static final Map<String, Stats> STATS = new ConcurrentHashMap<>();
+
+	private RequestLimits() {
+		// this class shouldn't be instantiated
+	}
+
+	/**
+	 * @return how many requests of the given class may be outstanding on the
+	 *         language server with the given definition id before background
+	 *         requests are deferred
+	 */
+	public static int getLimit(String serverDefinitionId, RequestClass requestClass) {
+		final IPreferenceStore store = LanguageServerPlugin.getDefault().getPreferenceStore();
+		final String serverKey = getKey(serverDefinitionId, requestClass);
+		if (store.contains(serverKey)) {
+			return store.getInt(serverKey);
+		}
+		final String key = getKey(null, requestClass);
+		if (store.contains(key)) {
+			return store.getInt(key);
+		}
+		return getDefaultLimit(requestClass);
+	}
+
+	/**
+	 * Sets how many requests of the given class may be outstanding on the
+	 * language server with the given definition id, or on all language servers
+	 * if the id is null.
+	 */
+	public static void setLimit(@Nullable String serverDefinitionId, RequestClass requestClass, int limit) {
+		final IPreferenceStore store = LanguageServerPlugin.getDefault().getPreferenceStore();
+		store.setValue(getKey(serverDefinitionId, requestClass), Math.max(1, limit));
+	}
+
+	/**
+	 * Removes the limit of the given class for the language server with the
+	 * given definition id, or for all language servers if the id is null.
+	 */
+	public static void resetLimit(@Nullable String serverDefinitionId, RequestClass requestClass) {
+		LanguageServerPlugin.getDefault().getPreferenceStore().setToDefault(getKey(serverDefinitionId, requestClass));
+	}
+
+	private static int getDefaultLimit(RequestClass requestClass) {
+		return switch (requestClass) {
+		case INTERACTIVE -> DEFAULT_INTERACTIVE_LIMIT;
+		case BACKGROUND -> DEFAULT_BACKGROUND_LIMIT;
+		};
+	}
+
+	private static String getKey(@Nullable String serverDefinitionId, RequestClass requestClass) {
+		final String requestClassKey = requestClass.name().toLowerCase(Locale.ROOT);
+		return serverDefinitionId == null ? PREFERENCE_PREFIX + requestClassKey
+				: PREFERENCE_PREFIX + serverDefinitionId + '.' + requestClassKey;
+	}
+
+	static void recordDeferred(String serverDefinitionId) {
+		STATS.merge(serverDefinitionId, new Stats(1, 0), RequestLimits::add);
+	}
+
+	static void recordShed(String serverDefinitionId) {
+		STATS.merge(serverDefinitionId, new Stats(0, 1), RequestLimits::add);
+	}
+
+	private static Stats add(Stats stats, Stats added) {
+		return new Stats(stats.deferred() + added.deferred(), stats.shed() + added.shed());
+	}
+
+	/**
+	 * @return the statistics of the language server definition with the given
+	 *         id, or null if none of its requests was ever deferred
+	 */
+	public static @Nullable Stats getStats(String serverDefinitionId) {
+		return STATS.get(serverDefinitionId);
+	}
+}
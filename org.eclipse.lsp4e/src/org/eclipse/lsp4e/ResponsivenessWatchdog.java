@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.preference.IPreferenceStore;
+
+/**
+ * Watches whether a language server keeps answering its requests.
+ * <p>
+ * A language server is unresponsive when it didn't answer any request for a
+ * while although requests are pending, or when its queue of pending requests
+ * keeps growing beyond a limit. It's then marked as degraded: requests go to
+ * the other language servers which can answer them, if any, so that the
+ * features don't wait on it. Optionally, the language server is restarted, its
+ * connected documents being reopened. The server is not degraded anymore once
+ * it answers again.
+ * <p>
+ * The thresholds and the restart can be configured in the preferences.
+ */
+public final class ResponsivenessWatchdog {
+
+	/** time without answer while requests are pending, in milliseconds */
+	public static final String UNRESPONSIVE_MS = "watchdog.unresponsiveMs"; //$NON-NLS-1$
+	/** number of queued requests beyond which a growing queue is unresponsive */
+	public static final String MAX_QUEUED_REQUESTS = "watchdog.maxQueuedRequests"; //$NON-NLS-1$
+	/** whether to restart the unresponsive language servers */
+	public static final String RESTART = "watchdog.restart"; //$NON-NLS-1$
+
+	private static final long DEFAULT_UNRESPONSIVE_MS = 15_000;
+	private static final int DEFAULT_MAX_QUEUED_REQUESTS = 32;
+
+	private static final long CHECK_INTERVAL_MS = 1_000;
+	/** consecutive checks the queue has to grow for */
+	private static final int GROWTH_CHECKS = 5;
+	/** minimum time between two restarts of a language server */
+	private static final long RESTART_INTERVAL_MS = TimeUnit.MINUTES.toMillis(5);
+
+	private final LanguageServerWrapper wrapper;
+	private final Job job;
+	private volatile @Nullable PendingRequests pendingRequests;
+
+	private volatile boolean watching;
+	private volatile boolean degraded;
+	// only accessed by the job
+	private int lastQueued;
+	private int growingChecks;
+	private long lastRestartNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(RESTART_INTERVAL_MS);
+
+	ResponsivenessWatchdog(LanguageServerWrapper wrapper) {
+		this.wrapper = wrapper;
+		this.job = new Job("LSP4E Watchdog " + wrapper.serverDefinition.id) { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				check();
+				if (watching) {
+					schedule(CHECK_INTERVAL_MS);
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+	}
+
+	/**
+	 * Starts watching the language server, once initialized.
+	 *
+	 * @param pendingRequests
+	 *            the requests of the current session of the language server
+	 */
+	void start(PendingRequests pendingRequests) {
+		this.pendingRequests = pendingRequests;
+		lastQueued = 0;
+		growingChecks = 0;
+		watching = true;
+		job.schedule(CHECK_INTERVAL_MS);
+	}
+
+	/**
+	 * Stops watching the language server, e.g. when it's stopped.
+	 */
+	void stop() {
+		watching = false;
+		degraded = false;
+		pendingRequests = null;
+		job.cancel();
+	}
+
+	/**
+	 * @return whether the language server is unresponsive, and shouldn't be
+	 *         asked when other language servers can answer
+	 */
+	boolean isDegraded() {
+		return degraded;
+	}
+
+	private void check() {
+		final PendingRequests pendingRequests = this.pendingRequests;
+		if (pendingRequests == null) {
+			return;
+		}
+		final long unansweredMs = pendingRequests.getUnansweredMs();
+		final int queued = pendingRequests.getQueued();
+		growingChecks = queued > lastQueued ? growingChecks + 1 : 0;
+		lastQueued = queued;
+
+		final boolean unresponsive = unansweredMs >= getUnresponsiveMs()
+				|| (growingChecks >= GROWTH_CHECKS && queued >= getMaxQueuedRequests());
+		if (unresponsive == degraded) {
+			return;
+		}
+		degraded = unresponsive;
+		if (!unresponsive) {
+			LanguageServerPlugin.logInfo("Language server " + wrapper.serverDefinition.id + " answers again"); //$NON-NLS-1$ //$NON-NLS-2$
+			return;
+		}
+		LanguageServerPlugin.logWarning("Language server " + wrapper.serverDefinition.id + " is unresponsive: " //$NON-NLS-1$ //$NON-NLS-2$
+				+ queued + " queued requests, no answer for " + unansweredMs + " ms", null); //$NON-NLS-1$ //$NON-NLS-2$
+		if (isRestartEnabled() && System.nanoTime() - lastRestartNanos >= TimeUnit.MILLISECONDS
+				.toNanos(RESTART_INTERVAL_MS)) {
+			lastRestartNanos = System.nanoTime();
+			LanguageServerPlugin.logWarning("Restarting unresponsive language server " + wrapper.serverDefinition.id, null); //$NON-NLS-1$
+			wrapper.restart();
+		}
+	}
+
+	public static long getUnresponsiveMs() {
+		final IPreferenceStore store = LanguageServerPlugin.getDefault().getPreferenceStore();
+		return store.contains(UNRESPONSIVE_MS) ? store.getLong(UNRESPONSIVE_MS) : DEFAULT_UNRESPONSIVE_MS;
+	}
+
+	public static int getMaxQueuedRequests() {
+		final IPreferenceStore store = LanguageServerPlugin.getDefault().getPreferenceStore();
+		return store.contains(MAX_QUEUED_REQUESTS) ? store.getInt(MAX_QUEUED_REQUESTS) : DEFAULT_MAX_QUEUED_REQUESTS;
+	}
+
+	public static boolean isRestartEnabled() {
+		return LanguageServerPlugin.getDefault().getPreferenceStore().getBoolean(RESTART);
+	}
+}
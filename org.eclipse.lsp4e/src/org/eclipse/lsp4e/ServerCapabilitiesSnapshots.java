@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.lsp4e.LanguageServersRegistry.LanguageServerDefinition;
+import org.eclipse.lsp4j.ServerCapabilities;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * The capabilities each language server had the last time it was initialized,
+ * persisted in the state location of the plug-in and keyed by the server
+ * definition ID and version.
+ * <p>
+ * They answer capability filters while a server is still initializing, e.g.
+ * right after startup, and are replaced by the actual capabilities once the
+ * server is initialized. Language servers whose version is unknown have no
+ * snapshot, as their capabilities may change at any time.
+ */
+public final class ServerCapabilitiesSnapshots {
+
+	private static final String FOLDER = "serverCapabilities"; //$NON-NLS-1$
+	private static final String VERSION = "version"; //$NON-NLS-1$
+	private static final String CAPABILITIES = "capabilities"; //$NON-NLS-1$
+
+	/** capabilities contain Eithers, which need the LSP4J type adapters */
+	private static final Gson GSON = new MessageJsonHandler(Collections.emptyMap()).getGson();
+
+	/**
+	 * @param capabilities
+	 *            null if no snapshot is known
+	 * @param json
+	 *            the serialized capabilities, to detect changes
+	 */
+	private record Snapshot(@Nullable ServerCapabilities capabilities, @Nullable JsonElement json) {
+	}
+
+	private static final Snapshot NONE = new Snapshot(null, null);
+
+	private static final Map<String, Snapshot> SNAPSHOTS = new ConcurrentHashMap<>();
+
+	private ServerCapabilitiesSnapshots() {
+		// this class shouldn't be instantiated
+	}
+
+	/**
+	 * @return the capabilities the language server had the last time it was
+	 *         initialized with the same version of its definition, or null if
+	 *         they aren't known. They must not be modified.
+	 * @noreference This method is currently internal and should only be referenced
+	 *              for testing
+	 */
+	public static @Nullable ServerCapabilities get(LanguageServerDefinition definition) {
+		if (definition.getVersion() == null) {
+			return null;
+		}
+		return SNAPSHOTS.computeIfAbsent(definition.id, id -> load(definition)).capabilities();
+	}
+
+	/**
+	 * Records the capabilities the language server returned on initialization,
+	 * persisting them if they changed.
+	 */
+	static void update(LanguageServerDefinition definition, ServerCapabilities capabilities) {
+		if (definition.getVersion() == null) {
+			return;
+		}
+		final JsonElement json = GSON.toJsonTree(capabilities);
+		final Snapshot previous = SNAPSHOTS.get(definition.id);
+		if (previous != null && json.equals(previous.json())) {
+			return;
+		}
+		// a copy, as dynamic registrations modify the capabilities of the server
+		SNAPSHOTS.put(definition.id, new Snapshot(GSON.fromJson(json, ServerCapabilities.class), json));
+		CompletableFuture.runAsync(() -> save(definition, json));
+	}
+
+	/**
+	 * Forgets the snapshots read so far, so that they are read from the disk
+	 * again. This is meant for test code, it isn't meant to be used in
+	 * production code.
+	 */
+	public static void clearCache() {
+		SNAPSHOTS.clear();
+	}
+
+	/**
+	 * @return a deep copy of the given capabilities
+	 */
+	static ServerCapabilities copy(ServerCapabilities capabilities) {
+		return GSON.fromJson(GSON.toJsonTree(capabilities), ServerCapabilities.class);
+	}
+
+	private static Snapshot load(LanguageServerDefinition definition) {
+		final Path file = getFile(definition);
+		try (Reader reader = Files.newBufferedReader(file, UTF_8)) {
+			final JsonObject snapshot = JsonParser.parseReader(reader).getAsJsonObject();
+			final JsonElement version = snapshot.get(VERSION);
+			if (version == null || version.isJsonNull() || !version.getAsString().equals(definition.getVersion())) {
+				// another version of the language server may have other capabilities
+				return NONE;
+			}
+			final JsonElement json = snapshot.get(CAPABILITIES);
+			return new Snapshot(GSON.fromJson(json, ServerCapabilities.class), json);
+		} catch (NoSuchFileException e) {
+			return NONE;
+		} catch (IOException | JsonParseException | IllegalStateException e) {
+			LanguageServerPlugin.logWarning("Could not read the capabilities of " + definition.id + " from " + file, e); //$NON-NLS-1$ //$NON-NLS-2$
+			return NONE;
+		}
+	}
+
+	private static void save(LanguageServerDefinition definition, JsonElement json) {
+		final var snapshot = new JsonObject();
+		snapshot.addProperty(VERSION, definition.getVersion());
+		snapshot.add(CAPABILITIES, json);
+		final Path file = getFile(definition);
+		try {
+			Files.createDirectories(file.getParent());
+			Files.writeString(file, GSON.toJson(snapshot), UTF_8);
+		} catch (IOException e) {
+			LanguageServerPlugin.logWarning("Could not save the capabilities of " + definition.id + " to " + file, e); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private static Path getFile(LanguageServerDefinition definition) {
+		return LanguageServerPlugin.getDefault().getStateLocation().append(FOLDER)
+				.append(URLEncoder.encode(definition.id, UTF_8) + ".json").toFile().toPath(); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.lsp4e.internal.GlobMatcher;
+import org.eclipse.lsp4j.DidChangeWatchedFilesParams;
+import org.eclipse.lsp4j.FileChangeType;
+import org.eclipse.lsp4j.FileEvent;
+import org.eclipse.lsp4j.FileSystemWatcher;
+import org.eclipse.lsp4j.RelativePattern;
+import org.eclipse.lsp4j.WatchKind;
+
+/**
+ * Sends {@code workspace/didChangeWatchedFiles} notifications to the language
+ * servers which registered file system watchers.
+ * <p>
+ * A single resource change listener matches the resource deltas against the
+ * glob patterns of all watchers, compiled on registration. Matching events are
+ * coalesced per language server over a short window and sent as one
+ * notification, so that a workspace refresh touching thousands of files only
+ * results in a few notifications.
+ */
+final class WatchedFilesNotifier implements IResourceChangeListener {
+
+	static final WatchedFilesNotifier INSTANCE = new WatchedFilesNotifier();
+
+	/** time during which file events are collected before being sent */
+	private static final long COALESCE_DELAY_MS = 200;
+	private static final int ALL_KINDS = WatchKind.Create | WatchKind.Change | WatchKind.Delete;
+
+	private record Watcher(GlobMatcher glob, @Nullable IPath baseLocation, int kind) {
+
+		boolean matches(IPath location, FileChangeType type) {
+			if ((kind & toWatchKind(type)) == 0) {
+				return false;
+			}
+			final var baseLocation = this.baseLocation;
+			if (baseLocation == null) {
+				return glob.matches(location.toString());
+			}
+			return baseLocation.isPrefixOf(location) && glob.matches(location.makeRelativeTo(baseLocation).toString());
+		}
+	}
+
+	/** watchers per registration id, per language server */
+	private final Map<LanguageServerWrapper, Map<String, List<Watcher>>> registrations = new HashMap<>();
+	/** immutable snapshot of the registered watchers, read by the resource change listener */
+	private volatile Map<LanguageServerWrapper, List<Watcher>> watchers = Map.of();
+
+	/** events not sent yet, per language server */
+	private final Map<LanguageServerWrapper, Map<URI, FileChangeType>> pendingEvents = new LinkedHashMap<>();
+
+	private final Job sendJob = Job.createSystem("LSP4E Watched Files", monitor -> { //$NON-NLS-1$
+		sendPendingEvents();
+		return Status.OK_STATUS;
+	});
+
+	private WatchedFilesNotifier() {
+		// use INSTANCE
+	}
+
+	/**
+	 * Registers file system watchers of a language server.
+	 */
+	synchronized void register(LanguageServerWrapper wrapper, String registrationId,
+			List<FileSystemWatcher> fileSystemWatchers) {
+		final var compiled = new ArrayList<Watcher>(fileSystemWatchers.size());
+		for (final FileSystemWatcher fileSystemWatcher : fileSystemWatchers) {
+			final Watcher watcher = compile(fileSystemWatcher);
+			if (watcher != null) {
+				compiled.add(watcher);
+			}
+		}
+		registrations.computeIfAbsent(wrapper, w -> new HashMap<>()).put(registrationId, compiled);
+		updateWatchers();
+	}
+
+	/**
+	 * Removes the file system watchers of a registration of a language server.
+	 */
+	synchronized void unregister(LanguageServerWrapper wrapper, String registrationId) {
+		final Map<String, List<Watcher>> serverRegistrations = registrations.get(wrapper);
+		if (serverRegistrations != null && serverRegistrations.remove(registrationId) != null) {
+			if (serverRegistrations.isEmpty()) {
+				registrations.remove(wrapper);
+			}
+			updateWatchers();
+		}
+	}
+
+	/**
+	 * Removes all the file system watchers of a language server, e.g. when it's
+	 * stopped.
+	 */
+	synchronized void unregisterAll(LanguageServerWrapper wrapper) {
+		if (registrations.remove(wrapper) != null) {
+			updateWatchers();
+		}
+		synchronized (pendingEvents) {
+			pendingEvents.remove(wrapper);
+		}
+	}
+
+	private void updateWatchers() {
+		final var newWatchers = new HashMap<LanguageServerWrapper, List<Watcher>>();
+		registrations.forEach((wrapper, serverRegistrations) -> {
+			final var serverWatchers = new ArrayList<Watcher>();
+			serverRegistrations.values().forEach(serverWatchers::addAll);
+			if (!serverWatchers.isEmpty()) {
+				newWatchers.put(wrapper, List.copyOf(serverWatchers));
+			}
+		});
+		final boolean wasListening = !watchers.isEmpty();
+		watchers = Map.copyOf(newWatchers);
+		if (!wasListening && !newWatchers.isEmpty()) {
+			ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+		} else if (wasListening && newWatchers.isEmpty()) {
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+		}
+	}
+
+	private static @Nullable Watcher compile(FileSystemWatcher fileSystemWatcher) {
+		final int kind = fileSystemWatcher.getKind() != null ? fileSystemWatcher.getKind() : ALL_KINDS;
+		try {
+			if (fileSystemWatcher.getGlobPattern().isLeft()) {
+				return new Watcher(GlobMatcher.compile(fileSystemWatcher.getGlobPattern().getLeft()), null, kind);
+			}
+			final RelativePattern relativePattern = fileSystemWatcher.getGlobPattern().getRight();
+			final String baseUri = relativePattern.getBaseUri().map(folder -> folder.getUri(), uri -> uri);
+			final IPath baseLocation = Path.fromOSString(LSPEclipseUtils.fromUri(URI.create(baseUri)).getAbsolutePath());
+			return new Watcher(GlobMatcher.compile(relativePattern.getPattern()), baseLocation, kind);
+		} catch (IllegalArgumentException e) {
+			// also covers PatternSyntaxException
+			LanguageServerPlugin.logWarning("Ignoring invalid file system watcher " + fileSystemWatcher, e); //$NON-NLS-1$
+			return null;
+		}
+	}
+
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		final Map<LanguageServerWrapper, List<Watcher>> watchers = this.watchers;
+		final IResourceDelta delta = event.getDelta();
+		if (watchers.isEmpty() || delta == null) {
+			return;
+		}
+		final var matchedEvents = new HashMap<LanguageServerWrapper, Map<URI, FileChangeType>>();
+		try {
+			delta.accept(child -> {
+				final FileChangeType type = toFileChangeType(child);
+				final IPath location = child.getResource().getLocation();
+				if (type == null || location == null) {
+					return true;
+				}
+				watchers.forEach((wrapper, serverWatchers) -> {
+					for (final Watcher watcher : serverWatchers) {
+						if (watcher.matches(location, type)) {
+							matchedEvents.computeIfAbsent(wrapper, w -> new LinkedHashMap<>())
+									.put(LSPEclipseUtils.toUri(location), type);
+							return;
+						}
+					}
+				});
+				return true;
+			});
+		} catch (CoreException e) {
+			LanguageServerPlugin.logError(e);
+		}
+		if (matchedEvents.isEmpty()) {
+			return;
+		}
+		synchronized (pendingEvents) {
+			matchedEvents.forEach((wrapper, events) -> {
+				final Map<URI, FileChangeType> serverEvents = pendingEvents.computeIfAbsent(wrapper,
+						w -> new LinkedHashMap<>());
+				events.forEach((uri, type) -> serverEvents.compute(uri, (u, previous) -> coalesce(previous, type)));
+			});
+		}
+		// events keep accumulating while the job waits, so it runs at most once per window
+		if (sendJob.getState() != Job.SLEEPING && sendJob.getState() != Job.WAITING) {
+			sendJob.schedule(COALESCE_DELAY_MS);
+		}
+	}
+
+	private void sendPendingEvents() {
+		final Map<LanguageServerWrapper, Map<URI, FileChangeType>> toSend;
+		synchronized (pendingEvents) {
+			toSend = new LinkedHashMap<>(pendingEvents);
+			pendingEvents.clear();
+		}
+		toSend.forEach((wrapper, serverEvents) -> {
+			if (serverEvents.isEmpty() || !wrapper.isActive()) {
+				return;
+			}
+			final var fileEvents = new ArrayList<FileEvent>(serverEvents.size());
+			serverEvents.forEach((uri, type) -> fileEvents.add(new FileEvent(uri.toString(), type)));
+			final var params = new DidChangeWatchedFilesParams(fileEvents);
+			wrapper.sendNotification(ls -> ls.getWorkspaceService().didChangeWatchedFiles(params));
+		});
+	}
+
+	/**
+	 * @return the change resulting from the given changes of a file in a row, or
+	 *         null if they cancel out
+	 */
+	static @Nullable FileChangeType coalesce(@Nullable FileChangeType previous, FileChangeType next) {
+		if (previous == null) {
+			return next;
+		}
+		return switch (previous) {
+		// a file created and deleted in the same window was never seen by the server
+		case Created -> next == FileChangeType.Deleted ? null : FileChangeType.Created;
+		case Changed -> next == FileChangeType.Deleted ? FileChangeType.Deleted : FileChangeType.Changed;
+		case Deleted -> next == FileChangeType.Deleted ? FileChangeType.Deleted : FileChangeType.Changed;
+		};
+	}
+
+	private static @Nullable FileChangeType toFileChangeType(IResourceDelta delta) {
+		return switch (delta.getKind()) {
+		case IResourceDelta.ADDED -> FileChangeType.Created;
+		case IResourceDelta.REMOVED -> FileChangeType.Deleted;
+		case IResourceDelta.CHANGED -> delta.getResource().getType() == IResource.FILE
+				&& (delta.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) != 0
+						? FileChangeType.Changed
+						: null;
+		default -> null;
+		};
+	}
+
+	private static int toWatchKind(FileChangeType type) {
+		return switch (type) {
+		case Created -> WatchKind.Create;
+		case Changed -> WatchKind.Change;
+		case Deleted -> WatchKind.Delete;
+		};
+	}
+}
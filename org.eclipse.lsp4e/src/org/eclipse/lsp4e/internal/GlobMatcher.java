@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.internal;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A glob pattern of the language server protocol, compiled once into a regular
+ * expression so that matching paths doesn't parse the pattern again.
+ * <p>
+ * Supported syntax:
+ * <ul>
+ * <li>{@code *} matches zero or more characters in a path segment</li>
+ * <li>{@code ?} matches one character in a path segment</li>
+ * <li>{@code **} matches any number of path segments, including none</li>
+ * <li>{@code {a,b}} matches one of the alternatives, which may contain globs</li>
+ * <li>{@code [a-z]} matches a character of the range, {@code [!a-z]} one out of
+ * it</li>
+ * </ul>
+ * Paths are matched with {@code /} as separator.
+ */
+public final class GlobMatcher {
+
+	private final String glob;
+	private final Pattern pattern;
+
+	private GlobMatcher(String glob, Pattern pattern) {
+		this.glob = glob;
+		this.pattern = pattern;
+	}
+
+	/**
+	 * @throws PatternSyntaxException
+	 *             if the glob is invalid
+	 */
+	public static GlobMatcher compile(String glob) {
+		return new GlobMatcher(glob, Pattern.compile(toRegex(glob)));
+	}
+
+	public boolean matches(String path) {
+		return pattern.matcher(path).matches();
+	}
+
+	@Override
+	public String toString() {
+		return glob;
+	}
+
+	private static String toRegex(String glob) {
+		final var regex = new StringBuilder(glob.length() * 2);
+		int braceDepth = 0;
+		int i = 0;
+		while (i < glob.length()) {
+			final char c = glob.charAt(i);
+			switch (c) {
+			case '*':
+				if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+					final boolean atSegmentStart = i == 0 || glob.charAt(i - 1) == '/';
+					if (atSegmentStart && i + 2 < glob.length() && glob.charAt(i + 2) == '/') {
+						// "**/" matches any number of leading segments, including none
+						regex.append("(?:.*/)?"); //$NON-NLS-1$
+						i += 3;
+					} else if (atSegmentStart && i > 0 && i + 2 == glob.length()) {
+						// trailing "/**" matches the folder itself and anything below it
+						regex.setLength(regex.length() - 1);
+						regex.append("(?:/.*)?"); //$NON-NLS-1$
+						i += 2;
+					} else {
+						regex.append(".*"); //$NON-NLS-1$
+						i += 2;
+					}
+					continue;
+				}
+				regex.append("[^/]*"); //$NON-NLS-1$
+				break;
+			case '?':
+				regex.append("[^/]"); //$NON-NLS-1$
+				break;
+			case '{':
+				braceDepth++;
+				regex.append("(?:"); //$NON-NLS-1$
+				break;
+			case '}':
+				if (braceDepth > 0) {
+					braceDepth--;
+					regex.append(')');
+				} else {
+					regex.append("\\}"); //$NON-NLS-1$
+				}
+				break;
+			case ',':
+				regex.append(braceDepth > 0 ? "|" : ","); //$NON-NLS-1$ //$NON-NLS-2$
+				break;
+			case '[':
+				final int end = glob.indexOf(']', i + 2);
+				if (end < 0) {
+					regex.append("\\["); //$NON-NLS-1$
+					break;
+				}
+				regex.append('[');
+				int start = i + 1;
+				if (glob.charAt(start) == '!') {
+					regex.append('^');
+					start++;
+				}
+				for (int j = start; j < end; j++) {
+					final char rangeChar = glob.charAt(j);
+					if (rangeChar == '\\' || rangeChar == '[' || rangeChar == '^' || rangeChar == '&') {
+						regex.append('\\');
+					}
+					regex.append(rangeChar);
+				}
+				regex.append(']');
+				i = end + 1;
+				continue;
+			case '\\':
+				if (i + 1 < glob.length()) {
+					// escaped character
+					i++;
+					regex.append(Pattern.quote(String.valueOf(glob.charAt(i))));
+				} else {
+					regex.append("\\\\"); //$NON-NLS-1$
+				}
+				break;
+			default:
+				if (".()+|^$".indexOf(c) >= 0) { //$NON-NLS-1$
+					regex.append('\\');
+				}
+				regex.append(c);
+			}
+			i++;
+		}
+		if (braceDepth > 0) {
+			throw new PatternSyntaxException("Unclosed group", glob, glob.length()); //$NON-NLS-1$
+		}
+		return regex.toString();
+	}
+}
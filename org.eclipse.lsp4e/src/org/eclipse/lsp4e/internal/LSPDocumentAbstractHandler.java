@@ -12,10 +12,9 @@
  *******************************************************************************/
 package org.eclipse.lsp4e.internal;
 
-import java.util.Objects;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.CompletionException;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -32,6 +31,7 @@
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServers.LanguageServerDocumentExecutor;
+import org.eclipse.lsp4e.LanguageServiceAccessor;
 import org.eclipse.lsp4e.ui.UI;
 import org.eclipse.lsp4j.ServerCapabilities;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
@@ -46,8 +46,9 @@ private static class LanguageServerDocumentHandlerExecutor extends LanguageServe
 		}
 
 		/**
-		 * Waits if necessary for at most 50 milliseconds for getting a server, if that
-		 * is not enough:
+		 * Answers from the capabilities published by the initialized servers, or
+		 * from the capabilities of their last run while they initialize. Doesn't
+		 * wait for getting a server, if its capabilities are not known yet:
 		 * <li>It is assumed that the server would not be matching.
 		 * <li>The server is get asynchronously and then a runner will be called if
 		 * the call completes with true as final result.
@@ -56,7 +57,19 @@ private static class LanguageServerDocumentHandlerExecutor extends LanguageServe
 		 *         capabilities.
 		 */
 		boolean anyMatching(Runnable runner) {
-			return getServers().stream().anyMatch(wF -> matches(wF, runner));
+			return LanguageServiceAccessor.getLSWrappers(getDocument()).stream().anyMatch(wrapper -> {
+				final ServerCapabilities publishedCapabilities = wrapper.getPublishedServerCapabilities();
+				if (publishedCapabilities != null) {
+					return getFilter().test(publishedCapabilities);
+				}
+				final ServerCapabilities knownCapabilities = wrapper.getKnownServerCapabilities();
+				if (knownCapabilities != null && getFilter().test(knownCapabilities)) {
+					CompletableFuture.runAsync(wrapper::start);
+					return true;
+				}
+				return matches(wrapper.getServerCapabilitiesAsync().<@Nullable LanguageServerWrapper> thenApply(
+						capabilities -> getFilter().test(capabilities) ? wrapper : null), runner);
+			});
 		}
 
 		@Override
@@ -65,19 +78,18 @@ public LanguageServerDocumentHandlerExecutor withFilter(final Predicate<ServerCa
 		}
 
 		private boolean matches(CompletableFuture<@Nullable LanguageServerWrapper> wrapperFuture, Runnable runner) {
-			try {
-				return wrapperFuture.thenApply(Objects::nonNull).get(50, TimeUnit.MILLISECONDS);
-			} catch (java.util.concurrent.ExecutionException e) {
-				LanguageServerPlugin.logError(e);
-			} catch (InterruptedException e) {
-				LanguageServerPlugin.logError(e);
-				Thread.currentThread().interrupt();
-			} catch (TimeoutException e) {
+			if (!wrapperFuture.isDone()) {
 				wrapperFuture.thenAcceptAsync(w -> {
 					if (w != null) {
 						runner.run();
 					}
 				});
+				return false;
+			}
+			try {
+				return wrapperFuture.join() != null;
+			} catch (CompletionException | CancellationException e) {
+				LanguageServerPlugin.logError(e);
 			}
 			return false;
 		}
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.internal;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.lsp4e.LanguageServerPlugin;
+
+public final class ParallelUtil {
+
+	/** default limit of items processed concurrently, leaving room for other work on the common pool */
+	public static final int DEFAULT_PARALLELISM = Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors() - 1));
+
+	private ParallelUtil() {
+		// this class shouldn't be instantiated
+	}
+
+	/**
+	 * Applies the action to all items, processing at most
+	 * {@code maxParallelism} items concurrently on the common pool. The calling
+	 * thread takes part in the processing and this method returns once all
+	 * items are processed.
+	 * <p>
+	 * Items not yet started when the monitor gets cancelled are skipped. Runtime
+	 * exceptions thrown by the action are logged and don't prevent the
+	 * processing of the other items.
+	 */
+	public static <T> void forEach(Collection<? extends T> items, int maxParallelism,
+			@Nullable IProgressMonitor monitor, Consumer<? super T> action) {
+		forEach(items, maxParallelism, monitor, ForkJoinPool.commonPool(), action);
+	}
+
+	/**
+	 * Same as {@link #forEach(Collection, int, IProgressMonitor, Consumer)}, the
+	 * other items being processed on the given executor, e.g. when the action
+	 * blocks on I/O.
+	 */
+	public static <T> void forEach(Collection<? extends T> items, int maxParallelism,
+			@Nullable IProgressMonitor monitor, Executor executor, Consumer<? super T> action) {
+		final var queue = new ConcurrentLinkedQueue<T>(items);
+		final Runnable worker = () -> {
+			T item;
+			while ((monitor == null || !monitor.isCanceled()) && (item = queue.poll()) != null) {
+				try {
+					action.accept(item);
+				} catch (RuntimeException ex) {
+					LanguageServerPlugin.logError(ex);
+				}
+			}
+		};
+		final int helpers = Math.max(0, Math.min(maxParallelism, items.size()) - 1);
+		final var helperFutures = new CompletableFuture<?>[helpers];
+		for (int i = 0; i < helpers; i++) {
+			helperFutures[i] = CompletableFuture.runAsync(worker, executor);
+		}
+		worker.run();
+		CompletableFuture.allOf(helperFutures).join();
+	}
+}
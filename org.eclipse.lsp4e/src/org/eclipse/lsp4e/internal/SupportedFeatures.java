@@ -28,6 +28,7 @@
 import org.eclipse.lsp4j.CompletionItemResolveSupportCapabilities;
 import org.eclipse.lsp4j.CompletionListCapabilities;
 import org.eclipse.lsp4j.DefinitionCapabilities;
+import org.eclipse.lsp4j.DidChangeWatchedFilesCapabilities;
 import org.eclipse.lsp4j.DocumentHighlightCapabilities;
 import org.eclipse.lsp4j.DocumentLinkCapabilities;
 import org.eclipse.lsp4j.DocumentSymbolCapabilities;
@@ -138,6 +139,9 @@ public static WorkspaceClientCapabilities getWorkspaceClientCapabilities() {
 		workspaceClientCapabilities.setExecuteCommand(new ExecuteCommandCapabilities(true));
 		workspaceClientCapabilities.setSymbol(new SymbolCapabilities(true));
 		workspaceClientCapabilities.setWorkspaceFolders(true);
+		final var didChangeWatchedFilesCapabilities = new DidChangeWatchedFilesCapabilities(true);
+		didChangeWatchedFilesCapabilities.setRelativePatternSupport(true);
+		workspaceClientCapabilities.setDidChangeWatchedFiles(didChangeWatchedFilesCapabilities);
 		final var editCapabilities = new WorkspaceEditCapabilities();
 		editCapabilities.setDocumentChanges(true);
 		editCapabilities.setResourceOperations(List.of( //
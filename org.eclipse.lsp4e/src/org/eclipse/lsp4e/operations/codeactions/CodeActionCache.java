@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.codeactions;
+
+import static org.eclipse.lsp4e.internal.NullSafetyHelper.castNonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.LanguageServerPlugin;
+import org.eclipse.lsp4e.LanguageServers;
+import org.eclipse.lsp4j.CodeActionContext;
+import org.eclipse.lsp4j.CodeActionParams;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.ServerCapabilities;
+
+/**
+ * The quick assist code actions received for the selections of a document, as
+ * long as the document isn't modified. Invoking quick assist on a selection
+ * whose code actions were prefetched, or invoking it again, doesn't send
+ * another request.
+ */
+final class CodeActionCache {
+
+	/** maximum number of selections whose code actions are kept per document */
+	private static final int MAX_ENTRIES_PER_DOCUMENT = 20;
+
+	private static final Map<IDocument, DocumentCodeActions> DOCUMENT_CODE_ACTIONS = Collections
+			.synchronizedMap(new WeakHashMap<>());
+
+	private record Selection(int offset, int length) {
+	}
+
+	/**
+	 * The code actions of a selection, one future per language server.
+	 */
+	static final class Entry {
+
+		final List<CompletableFuture<List<CodeActionCompletionProposal>>> proposals;
+		final CompletableFuture<@Nullable Void> all;
+		private volatile boolean shown;
+
+		private Entry(List<CompletableFuture<List<CodeActionCompletionProposal>>> proposals) {
+			this.proposals = proposals;
+			this.all = CompletableFuture.allOf(proposals.toArray(CompletableFuture[]::new));
+		}
+
+		/**
+		 * @return the proposals of the language servers which already answered
+		 */
+		List<CodeActionCompletionProposal> getReceivedProposals() {
+			final var received = new ArrayList<CodeActionCompletionProposal>();
+			for (final var future : proposals) {
+				if (future.isDone() && !future.isCompletedExceptionally()) {
+					received.addAll(future.join());
+				}
+			}
+			return received;
+		}
+
+		/**
+		 * Marks the code actions as shown by quick assist, so that they aren't
+		 * cancelled as a stale prefetch.
+		 */
+		void markShown() {
+			shown = true;
+		}
+
+		boolean isShown() {
+			return shown;
+		}
+
+		/**
+		 * Cancels the requests still pending. The entry is then dropped from the
+		 * cache.
+		 */
+		void cancel() {
+			proposals.forEach(future -> future.cancel(true));
+		}
+	}
+
+	private static final class DocumentCodeActions extends LinkedHashMap<Selection, Entry> {
+		private static final long serialVersionUID = 1L;
+
+		final long modificationStamp;
+
+		DocumentCodeActions(long modificationStamp) {
+			super(16, 0.75f, true);
+			this.modificationStamp = modificationStamp;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.@Nullable Entry<Selection, Entry> eldest) {
+			return size() > MAX_ENTRIES_PER_DOCUMENT;
+		}
+	}
+
+	private CodeActionCache() {
+		// this class shouldn't be instantiated
+	}
+
+	/**
+	 * @return the code actions of the given selection for the current version of
+	 *         the document, requested from the language servers if they aren't
+	 *         known yet, or null if the selection is invalid
+	 */
+	static @Nullable Entry get(IDocument document, int offset, int length) {
+		final CodeActionParams params;
+		try {
+			params = prepareCodeActionParams(document, offset, length);
+		} catch (BadLocationException e) {
+			LanguageServerPlugin.logError(e);
+			return null;
+		}
+		final long modificationStamp = document instanceof IDocumentExtension4 extension
+				? extension.getModificationStamp()
+				: IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+		if (modificationStamp == IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP) {
+			// versions can't be told apart, don't cache
+			return new Entry(request(document, params));
+		}
+		final var selection = new Selection(offset, Math.max(length, 0));
+		synchronized (DOCUMENT_CODE_ACTIONS) {
+			var documentCodeActions = DOCUMENT_CODE_ACTIONS.get(document);
+			if (documentCodeActions == null || documentCodeActions.modificationStamp != modificationStamp) {
+				documentCodeActions = new DocumentCodeActions(modificationStamp);
+				DOCUMENT_CODE_ACTIONS.put(document, documentCodeActions);
+			}
+			var entry = documentCodeActions.get(selection);
+			if (entry == null) {
+				final var newEntry = entry = new Entry(request(document, params));
+				documentCodeActions.put(selection, newEntry);
+				final var codeActions = documentCodeActions;
+				newEntry.all.whenComplete((result, error) -> {
+					if (error != null) {
+						// failed or cancelled requests are sent again on next use
+						synchronized (DOCUMENT_CODE_ACTIONS) {
+							codeActions.remove(selection, newEntry);
+						}
+					}
+				});
+			}
+			return entry;
+		}
+	}
+
+	private static List<CompletableFuture<List<CodeActionCompletionProposal>>> request(IDocument document,
+			CodeActionParams params) {
+		return LanguageServers.forDocument(document) //
+				.withCapability(ServerCapabilities::getCodeActionProvider) //
+				.computeAll((w, ls) -> {
+					final var request = ls.getTextDocumentService().codeAction(params);
+					final CompletableFuture<List<CodeActionCompletionProposal>> proposals = request
+							.thenApply(actions -> LanguageServers.streamSafely(actions)
+									.filter(LSPCodeActionMarkerResolution::canPerform)
+									.map(action -> new CodeActionCompletionProposal(action, w)).toList());
+					proposals.whenComplete((result, error) -> {
+						if (proposals.isCancelled()) {
+							request.cancel(true);
+						}
+					});
+					return proposals;
+				});
+	}
+
+	private static CodeActionParams prepareCodeActionParams(final IDocument doc, int offset, int length)
+			throws BadLocationException {
+		final var params = new CodeActionParams();
+		params.setTextDocument(castNonNull(LSPEclipseUtils.toTextDocumentIdentifier(doc)));
+		params.setRange(new Range(LSPEclipseUtils.toPosition(offset, doc),
+				LSPEclipseUtils.toPosition(offset + (length > 0 ? length : 0), doc)));
+		params.setContext(new CodeActionContext(Collections.emptyList()));
+		return params;
+	}
+}
@@ -11,10 +11,14 @@
  *******************************************************************************/
 package org.eclipse.lsp4e.operations.codeactions;
 
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.contentassist.ContextInformation;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
+import org.eclipse.jface.text.contentassist.ICompletionProposalExtension5;
 import org.eclipse.jface.text.contentassist.IContextInformation;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerWrapper;
@@ -28,9 +32,10 @@
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Point;
 
-public class CodeActionCompletionProposal implements ICompletionProposal {
+public class CodeActionCompletionProposal implements ICompletionProposal, ICompletionProposalExtension5 {
 
 	private @Nullable CodeAction fcodeAction;
+	private @Nullable CompletableFuture<@Nullable CodeAction> fresolvedCodeAction;
 	private @Nullable Command fcommand;
 	private String fdisplayString;
 	private final LanguageServerWrapper serverWrapper;
@@ -65,9 +70,9 @@ static boolean isCodeActionResolveSupported(@Nullable ServerCapabilities capabil
 	public void apply(IDocument document) {
 		final var fcodeAction = this.fcodeAction;
 		if (fcodeAction != null) {
-			if (isCodeActionResolveSupported(serverWrapper.getServerCapabilities()) && fcodeAction.getEdit() == null) {
-				// Unresolved code action "edit" property. Resolve it.
-				serverWrapper.execute(ls -> ls.getTextDocumentService().resolveCodeAction(fcodeAction)).thenAccept(this::apply);
+			final var resolvedCodeAction = resolve(fcodeAction);
+			if (resolvedCodeAction != null) {
+				resolvedCodeAction.thenAccept(this::apply);
 			} else {
 				apply(fcodeAction);
 			}
@@ -78,6 +83,26 @@ public void apply(IDocument document) {
 		}
 	}
 
+	/**
+	 * Resolves the "edit" property of the code action on first use only, so
+	 * that the list of code actions is cheap to get.
+	 *
+	 * @return the resolved code action, or null if it doesn't need to be
+	 *         resolved
+	 */
+	private synchronized @Nullable CompletableFuture<@Nullable CodeAction> resolve(CodeAction codeAction) {
+		if (!isCodeActionResolveSupported(serverWrapper.getServerCapabilities()) || codeAction.getEdit() != null) {
+			return null;
+		}
+		var resolvedCodeAction = fresolvedCodeAction;
+		if (resolvedCodeAction == null || resolvedCodeAction.isCompletedExceptionally()) {
+			// Unresolved code action "edit" property. Resolve it.
+			resolvedCodeAction = fresolvedCodeAction = serverWrapper
+					.execute(ls -> ls.getTextDocumentService().resolveCodeAction(codeAction));
+		}
+		return resolvedCodeAction;
+	}
+
 	private void apply(@Nullable CodeAction codeaction) {
 		if (codeaction != null) {
 			if (codeaction.getEdit() != null) {
@@ -99,6 +124,16 @@ private void apply(@Nullable CodeAction codeaction) {
 		return null;
 	}
 
+	@Override
+	public @Nullable Object getAdditionalProposalInfo(IProgressMonitor monitor) {
+		// Called in the background once the proposal is selected: resolve it ahead of its application
+		final var fcodeAction = this.fcodeAction;
+		if (fcodeAction != null) {
+			resolve(fcodeAction);
+		}
+		return null;
+	}
+
 	@Override
 	public String getDisplayString() {
 		return this.fdisplayString;
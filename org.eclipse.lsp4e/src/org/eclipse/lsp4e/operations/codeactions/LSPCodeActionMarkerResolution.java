@@ -16,17 +16,16 @@
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.net.URI;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
-import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
-import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.resource.JFaceResources;
@@ -41,19 +40,12 @@
 import org.eclipse.jface.text.source.ISourceViewerExtension3;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
-import org.eclipse.lsp4e.LanguageServers;
-import org.eclipse.lsp4e.LanguageServers.LanguageServerProjectExecutor;
-import org.eclipse.lsp4e.LanguageServersRegistry;
-import org.eclipse.lsp4e.operations.diagnostics.LSPDiagnosticsToMarkers;
+import org.eclipse.lsp4e.RequestDeadlines;
 import org.eclipse.lsp4e.ui.Messages;
 import org.eclipse.lsp4e.ui.UI;
 import org.eclipse.lsp4j.CodeAction;
-import org.eclipse.lsp4j.CodeActionContext;
-import org.eclipse.lsp4j.CodeActionParams;
 import org.eclipse.lsp4j.Command;
-import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.ResourceOperation;
-import org.eclipse.lsp4j.ServerCapabilities;
 import org.eclipse.lsp4j.TextDocumentEdit;
 import org.eclipse.lsp4j.TextEdit;
 import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
@@ -70,7 +62,14 @@ public class LSPCodeActionMarkerResolution implements IMarkerResolutionGenerator
 
 	private static final IMarkerResolution[] NO_MARKER_RESOLUTIONS = new IMarkerResolution[0];
 
-	private static final String LSP_REMEDIATION = "lspCodeActions"; //$NON-NLS-1$
+	/**
+	 * method of which the {@link RequestDeadlines deadline} is the time to wait for
+	 * the code actions of a marker before showing them as being computed
+	 */
+	private static final String CODE_ACTION = "textDocument/codeAction"; //$NON-NLS-1$
+
+	/** code actions being computed, whose completion re-invokes the quick fix proposals */
+	private static final Set<CompletableFuture<?>> PENDING_CODE_ACTIONS = ConcurrentHashMap.newKeySet();
 
 	private static final IMarkerResolution2 COMPUTING = new IMarkerResolution2() {
 
@@ -98,13 +97,9 @@ public String getDescription() {
 
 	@Override
 	public IMarkerResolution[] getResolutions(IMarker marker) {
-		Object att = null;
+		final List<Either<Command, CodeAction>> codeActions;
 		try {
-			att = marker.getAttribute(LSP_REMEDIATION);
-			if (att == null) {
-				checkMarkerResolution(marker);
-				att = marker.getAttribute(LSP_REMEDIATION);
-			}
+			codeActions = getCodeActions(marker);
 		} catch (InterruptedException e) {
 			LanguageServerPlugin.logError(e);
 			Thread.currentThread().interrupt();
@@ -113,57 +108,47 @@ public IMarkerResolution[] getResolutions(IMarker marker) {
 			LanguageServerPlugin.logError(e);
 			return NO_MARKER_RESOLUTIONS;
 		}
-		if (att == COMPUTING) {
+		if (codeActions == null) {
 			return new IMarkerResolution[] { COMPUTING };
-		} else if (att == null) {
-			return NO_MARKER_RESOLUTIONS;
 		}
-		return ((List<Either<Command, CodeAction>>) att).stream().filter(LSPCodeActionMarkerResolution::canPerform)
+		return codeActions.stream().filter(LSPCodeActionMarkerResolution::canPerform)
 				.map(command -> command.map(CommandMarkerResolution::new, CodeActionMarkerResolution::new))
 				.toArray(IMarkerResolution[]::new);
 	}
 
-	private void checkMarkerResolution(IMarker marker) throws CoreException, InterruptedException, ExecutionException {
-		IResource res = marker.getResource();
-		if (res instanceof IFile file) {
-			Object[] attributes = marker.getAttributes(new String[]{LSPDiagnosticsToMarkers.LANGUAGE_SERVER_ID, LSPDiagnosticsToMarkers.LSP_DIAGNOSTIC});
-			LanguageServerProjectExecutor executor = LanguageServers.forProject(file.getProject())
-					.withCapability(ServerCapabilities::getCodeActionProvider)
-					// try to use same LS as the one that created the marker
-					.withPreferredServer(LanguageServersRegistry.getInstance().getDefinition((String) attributes[0]));
-			if (executor.anyMatching()) {
-				final var diagnostic = (Diagnostic) attributes[1];
-				final var context = new CodeActionContext(List.of(diagnostic));
-				final var params = new CodeActionParams();
-				params.setContext(context);
-				params.setTextDocument(castNonNull(LSPEclipseUtils.toTextDocumentIdentifier(res)));
-				params.setRange(diagnostic.getRange());
-				if (marker.exists()) { // otherwise the marker has been removed by now
-					marker.setAttribute(LSP_REMEDIATION, COMPUTING);
-					try {
-						executor.computeFirst(ls -> ls.getTextDocumentService().codeAction(params)).thenAccept(optional -> {
-							try {
-								marker.setAttribute(LSP_REMEDIATION, optional.orElse(Collections.emptyList()));
-							} catch (CoreException e) {
-								LanguageServerPlugin.logError(e);
-							}
-						}).thenRun(() -> {
-							Display display = UI.getDisplay();
-							display.asyncExec(() -> {
-								ITextViewer textViewer = UI.getActiveTextViewer();
-								if (textViewer != null) {
-									// Do not re-invoke hover right away as hover may not be showing at all yet
-									display.timerExec(500, () -> reinvokeQuickfixProposalsIfNecessary(textViewer));
-								}
-							});
-						}).get(300, TimeUnit.MILLISECONDS);
-						// wait a bit to avoid showing too much "Computing" without looking like a freeze
-					} catch (TimeoutException e) {
-						LanguageServerPlugin.logWarning(
-								"Could not get code actions due to timeout after 300 milliseconds in `textDocument/codeAction`", e); //$NON-NLS-1$
-					}
-				}
+	/**
+	 * @return the code actions of the marker, or null if they're still being
+	 *         computed
+	 */
+	private @Nullable List<Either<Command, CodeAction>> getCodeActions(IMarker marker)
+			throws CoreException, InterruptedException, ExecutionException {
+		final var codeActions = MarkerCodeActionCache.get(marker);
+		if (codeActions == null) {
+			return List.of();
+		}
+		final long timeoutMs = RequestDeadlines.get(LSPEclipseUtils.getExistingDocument(marker.getResource()),
+				CODE_ACTION);
+		try {
+			// wait a bit to avoid showing too much "Computing" without looking like a freeze
+			return codeActions.get(timeoutMs, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			if (PENDING_CODE_ACTIONS.add(codeActions)) {
+				LanguageServerPlugin.logWarning(
+						"Could not get code actions due to timeout after " + timeoutMs //$NON-NLS-1$
+								+ " milliseconds in `textDocument/codeAction`", e); //$NON-NLS-1$
+				codeActions.whenComplete((result, error) -> {
+					PENDING_CODE_ACTIONS.remove(codeActions);
+					Display display = UI.getDisplay();
+					display.asyncExec(() -> {
+						ITextViewer textViewer = UI.getActiveTextViewer();
+						if (textViewer != null) {
+							// Do not re-invoke hover right away as hover may not be showing at all yet
+							display.timerExec(500, () -> reinvokeQuickfixProposalsIfNecessary(textViewer));
+						}
+					});
+				});
 			}
+			return null;
 		}
 	}
 
@@ -205,12 +190,11 @@ private void reinvokeQuickfixProposalsIfNecessary(ITextViewer textViewer) {
 	@Override
 	public boolean hasResolutions(IMarker marker) {
 		try {
-			Object remediation = marker.getAttribute(LSP_REMEDIATION);
-			if (remediation == null) {
-				checkMarkerResolution(marker);
-				remediation = marker.getAttribute(LSP_REMEDIATION);
-			}
-			return remediation == COMPUTING || (remediation instanceof Collection<?> collection && !collection.isEmpty());
+			final var codeActions = getCodeActions(marker);
+			return codeActions == null || !codeActions.isEmpty();
+		} catch (InterruptedException e) {
+			LanguageServerPlugin.logError(e);
+			Thread.currentThread().interrupt();
 		} catch (Exception ex) {
 			LanguageServerPlugin.logError(ex);
 		}
@@ -11,11 +11,7 @@
  *******************************************************************************/
 package org.eclipse.lsp4e.operations.codeactions;
 
-import static org.eclipse.lsp4e.internal.NullSafetyHelper.castNonNull;
-
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -23,7 +19,6 @@
 
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.resource.JFaceResources;
-import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 import org.eclipse.jface.text.contentassist.IContextInformation;
@@ -31,14 +26,10 @@
 import org.eclipse.jface.text.quickassist.IQuickAssistProcessor;
 import org.eclipse.jface.text.source.Annotation;
 import org.eclipse.jface.text.source.ISourceViewer;
-import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServers;
 import org.eclipse.lsp4e.LanguageServers.LanguageServerDocumentExecutor;
 import org.eclipse.lsp4e.ui.Messages;
-import org.eclipse.lsp4j.CodeActionContext;
-import org.eclipse.lsp4j.CodeActionParams;
-import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.ServerCapabilities;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Point;
@@ -46,10 +37,11 @@
 
 public class LSPCodeActionQuickAssistProcessor implements IQuickAssistProcessor {
 
-	// Data necessary for caching proposals
-	private final Object lock = new Object();
-	private @Nullable IQuickAssistInvocationContext cachedContext;
-	private List<ICompletionProposal> proposals = Collections.synchronizedList(new ArrayList<>());
+	/** time to wait for the code actions before showing the ones received so far */
+	private static final long CODE_ACTIONS_TIMEOUT_MS = 200;
+
+	// The code actions whose late answers refresh the proposals
+	private @Nullable CodeActionCache.Entry refreshedEntry;
 
 	private static final ICompletionProposal COMPUTING = new ICompletionProposal() {
 
@@ -115,69 +107,40 @@ public boolean canAssist(IQuickAssistInvocationContext invocationContext) {
 			return null;
 		}
 
-		// If context has changed, i.e. new quick assist invocation rather than old
-		// proposals computed and calling this method artificially to show proposals in
-		// the UI
-		boolean needNewQuery = true;
-		synchronized (lock) {
-			final var cachedContext = this.cachedContext;
-			needNewQuery = cachedContext == null ||
-				cachedContext.getClass() != invocationContext.getClass() ||
-				cachedContext.getSourceViewer() != invocationContext.getSourceViewer() ||
-				cachedContext.getOffset() != invocationContext.getOffset() ||
-				cachedContext.getLength() != invocationContext.getLength();
-				// should also check whether (same) document content changed
-			if (needNewQuery) {
-				this.cachedContext = invocationContext;
-			}
-		}
-
-		if (needNewQuery) {
-			// Get the codeActions
-			CodeActionParams params = prepareCodeActionParams(document, invocationContext.getOffset(), invocationContext.getLength());
-			// Prevent infinite re-entrance by only computing proposals if there aren't any
-			proposals.clear();
-			// Start all the servers computing actions - each server will append any code actions to the ongoing list of proposals
-			// as a side effect of this request
-			List<CompletableFuture<@Nullable Void>> futures = executor.computeAll((w, ls) -> ls.getTextDocumentService()
-					.codeAction(params)
-					.thenAccept(actions -> LanguageServers.streamSafely(actions)
-							.filter(LSPCodeActionMarkerResolution::canPerform)
-							.forEach(action -> processNewProposal(invocationContext, new CodeActionCompletionProposal(action, w)))));
-
-			CompletableFuture<?> aggregateFutures = CompletableFuture
-					.allOf(futures.toArray(CompletableFuture[]::new));
+		QuickAssistPrefetcher.install(invocationContext.getSourceViewer());
 
+		// The code actions are cached per document version and selection, so the proposals of a prefetch or of a
+		// previous invocation are reused, and refreshing the proposals doesn't send new requests
+		final var entry = CodeActionCache.get(document, invocationContext.getOffset(), invocationContext.getLength());
+		if (entry == null) {
+			return null;
+		}
+		entry.markShown();
+		// A refresh shows the proposals received so far, the stragglers trigger another refresh when they arrive
+		if (refreshedEntry != entry) {
 			try {
-					// If the result completes quickly without blocking the UI, then return result directly
-					aggregateFutures.get(200, TimeUnit.MILLISECONDS);
-			} catch (InterruptedException | ExecutionException e) {
+				// If the result completes quickly without blocking the UI, then return result directly
+				entry.all.get(CODE_ACTIONS_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				LanguageServerPlugin.logError(e);
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
 				LanguageServerPlugin.logError(e);
 			} catch (TimeoutException e) {
-				// Server calls didn't complete in time;  those that did will have added their results to <code>this.proposals</code> and can be returned
-				// as an intermediate result; as we're returning control to the UI, we need any stragglers to trigger a refresh when they arrive later on
-				proposals.add(COMPUTING);
-				for (CompletableFuture<@Nullable Void> future : futures) {
-					// Refresh will effectively re-enter this method with the same invocationContext and already computed proposals simply to show the proposals in the UI
-					future.whenComplete((r, t) -> {
-						if (futures.stream().allMatch(CompletableFuture::isDone)) {
-							proposals.remove(COMPUTING);
-						}
-						this.refreshProposals(invocationContext);
-					});
+				// Server calls didn't complete in time; those that did can be returned as an intermediate result; as
+				// we're returning control to the UI, we need any stragglers to trigger a refresh when they arrive later on
+				refreshedEntry = entry;
+				for (CompletableFuture<?> future : entry.proposals) {
+					// Refresh will effectively re-enter this method with the same selection and already computed proposals
+					future.whenComplete((r, t) -> this.refreshProposals(invocationContext));
 				}
 			}
 		}
-		return proposals.toArray(ICompletionProposal[]::new);
-	}
-
-	private void processNewProposal(IQuickAssistInvocationContext invocationContext, ICompletionProposal p) {
-		// non-ui thread. Context might have changed (quick assist at a different spot) by the time time proposals are computed
-		synchronized(lock) {
-			if (cachedContext == invocationContext) {
-				proposals.add(p);
-			}
+		final var proposals = new ArrayList<ICompletionProposal>(entry.getReceivedProposals());
+		if (!entry.all.isDone()) {
+			proposals.add(COMPUTING);
 		}
+		return proposals.toArray(ICompletionProposal[]::new);
 	}
 
 	/**
@@ -192,18 +155,4 @@ private void refreshProposals(IQuickAssistInvocationContext invocationContext) {
 				.getSourceViewer().getTextOperationTarget().doOperation(ISourceViewer.QUICK_ASSIST));
 	}
 
-	private static CodeActionParams prepareCodeActionParams(final IDocument doc, int offset, int length) {
-		final var context = new CodeActionContext(Collections.emptyList());
-		final var params = new CodeActionParams();
-		params.setTextDocument(castNonNull(LSPEclipseUtils.toTextDocumentIdentifier(doc)));
-		try {
-			params.setRange(new Range(LSPEclipseUtils.toPosition(offset, doc), LSPEclipseUtils
-					.toPosition(offset + (length > 0 ? length : 0), doc)));
-		} catch (BadLocationException e) {
-			LanguageServerPlugin.logError(e);
-		}
-		params.setContext(context);
-		return params;
-	}
-
 }
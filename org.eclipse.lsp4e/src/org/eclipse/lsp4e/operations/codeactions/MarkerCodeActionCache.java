@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.codeactions;
+
+import static org.eclipse.lsp4e.internal.NullSafetyHelper.castNonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.LanguageServers;
+import org.eclipse.lsp4e.LanguageServers.LanguageServerProjectExecutor;
+import org.eclipse.lsp4e.LanguageServersRegistry;
+import org.eclipse.lsp4e.operations.diagnostics.LSPDiagnosticsToMarkers;
+import org.eclipse.lsp4j.CodeAction;
+import org.eclipse.lsp4j.CodeActionContext;
+import org.eclipse.lsp4j.CodeActionParams;
+import org.eclipse.lsp4j.Command;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.ServerCapabilities;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+
+/**
+ * The code actions of the diagnostic markers of files, as long as the files
+ * aren't modified.
+ * <p>
+ * The code actions of a marker are requested together with those of the other
+ * markers of the same language server on the same lines: a single
+ * {@code textDocument/codeAction} request covers the union of their ranges with
+ * all their diagnostics in its context, and the returned code actions are
+ * mapped back to the markers through their {@code diagnostics}. Commands and
+ * code actions which don't name their diagnostics are offered for all the
+ * markers of the request.
+ */
+final class MarkerCodeActionCache {
+
+	/** maximum number of files whose code actions are kept */
+	private static final int MAX_FILES = 20;
+
+	private static final Map<IFile, FileCodeActions> FILE_CODE_ACTIONS = new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.@Nullable Entry<IFile, FileCodeActions> eldest) {
+			return size() > MAX_FILES;
+		}
+	};
+
+	/**
+	 * Modification stamps of the document of a file, if it's open, and of the
+	 * file
+	 */
+	private record Version(long documentStamp, long fileStamp) {
+	}
+
+	private static final class FileCodeActions {
+
+		final Version version;
+		final Map<Diagnostic, CompletableFuture<List<Either<Command, CodeAction>>>> codeActions = new HashMap<>();
+
+		FileCodeActions(Version version) {
+			this.version = version;
+		}
+	}
+
+	private MarkerCodeActionCache() {
+		// this class shouldn't be instantiated
+	}
+
+	/**
+	 * @return the code actions of the diagnostic of the given marker for the
+	 *         current version of its file, requested from the language server if
+	 *         they aren't known yet, or null if the marker has no diagnostic or
+	 *         no language server provides code actions for it
+	 */
+	static @Nullable CompletableFuture<List<Either<Command, CodeAction>>> get(IMarker marker) throws CoreException {
+		if (!(marker.getResource() instanceof IFile file) || !marker.exists()) {
+			return null;
+		}
+		final Object[] attributes = marker.getAttributes(
+				new String[] { LSPDiagnosticsToMarkers.LANGUAGE_SERVER_ID, LSPDiagnosticsToMarkers.LSP_DIAGNOSTIC });
+		if (!(attributes[1] instanceof Diagnostic diagnostic)) {
+			return null;
+		}
+		final var languageServerId = (String) attributes[0];
+		final Version version = getVersion(file);
+
+		var codeActions = getCached(file, version, diagnostic);
+		if (codeActions != null) {
+			return codeActions;
+		}
+
+		final LanguageServerProjectExecutor executor = LanguageServers.forProject(file.getProject())
+				.withCapability(ServerCapabilities::getCodeActionProvider)
+				// try to use same LS as the one that created the marker
+				.withPreferredServer(LanguageServersRegistry.getInstance().getDefinition(languageServerId));
+		if (!executor.anyMatching()) {
+			return null;
+		}
+
+		final var response = new CompletableFuture<List<Either<Command, CodeAction>>>();
+		final List<Diagnostic> diagnostics;
+		synchronized (FILE_CODE_ACTIONS) {
+			var fileCodeActions = FILE_CODE_ACTIONS.get(file);
+			if (fileCodeActions == null || !fileCodeActions.version.equals(version)) {
+				fileCodeActions = new FileCodeActions(version);
+				FILE_CODE_ACTIONS.put(file, fileCodeActions);
+			}
+			codeActions = fileCodeActions.codeActions.get(diagnostic);
+			if (codeActions != null) {
+				// requested meanwhile
+				return codeActions;
+			}
+			diagnostics = getDiagnosticsOnSameLines(file, languageServerId, diagnostic,
+					fileCodeActions.codeActions.keySet());
+			for (final Diagnostic batchedDiagnostic : diagnostics) {
+				fileCodeActions.codeActions.put(batchedDiagnostic,
+						response.thenApply(actions -> forDiagnostic(actions, batchedDiagnostic, diagnostics.size())));
+			}
+			codeActions = castNonNull(fileCodeActions.codeActions.get(diagnostic));
+			final var requested = fileCodeActions;
+			response.whenComplete((actions, error) -> {
+				if (error != null) {
+					// failed or cancelled requests are sent again on next use
+					synchronized (FILE_CODE_ACTIONS) {
+						diagnostics.forEach(requested.codeActions::remove);
+					}
+				}
+			});
+		}
+
+		final var params = new CodeActionParams();
+		params.setContext(new CodeActionContext(diagnostics));
+		params.setTextDocument(castNonNull(LSPEclipseUtils.toTextDocumentIdentifier(file)));
+		params.setRange(getUnionRange(diagnostics));
+		executor.computeFirst(ls -> ls.getTextDocumentService().codeAction(params)).whenComplete((result, error) -> {
+			if (error != null) {
+				response.completeExceptionally(error);
+			} else {
+				response.complete(result.orElse(List.of()));
+			}
+		});
+		return codeActions;
+	}
+
+	private static @Nullable CompletableFuture<List<Either<Command, CodeAction>>> getCached(IFile file,
+			Version version, Diagnostic diagnostic) {
+		synchronized (FILE_CODE_ACTIONS) {
+			final var fileCodeActions = FILE_CODE_ACTIONS.get(file);
+			return fileCodeActions != null && fileCodeActions.version.equals(version)
+					? fileCodeActions.codeActions.get(diagnostic)
+					: null;
+		}
+	}
+
+	private static Version getVersion(IFile file) {
+		final IDocument document = LSPEclipseUtils.getExistingDocument(file);
+		return new Version(document instanceof IDocumentExtension4 extension
+				? extension.getModificationStamp()
+				: IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP, file.getModificationStamp());
+	}
+
+	/**
+	 * @return the given diagnostic, followed by the diagnostics of the other
+	 *         markers of the same language server which overlap its lines and
+	 *         whose code actions aren't known yet
+	 */
+	private static List<Diagnostic> getDiagnosticsOnSameLines(IFile file, @Nullable String languageServerId,
+			Diagnostic diagnostic, Set<Diagnostic> known) throws CoreException {
+		final var diagnostics = new ArrayList<Diagnostic>();
+		diagnostics.add(diagnostic);
+		final int firstLine = diagnostic.getRange().getStart().getLine();
+		final int lastLine = diagnostic.getRange().getEnd().getLine();
+		for (final IMarker other : file.findMarkers(null, true, IResource.DEPTH_ZERO)) {
+			if (!Objects.equals(other.getAttribute(LSPDiagnosticsToMarkers.LANGUAGE_SERVER_ID), languageServerId)
+					|| !(other.getAttribute(LSPDiagnosticsToMarkers.LSP_DIAGNOSTIC) instanceof Diagnostic otherDiagnostic)
+					|| diagnostics.contains(otherDiagnostic) || known.contains(otherDiagnostic)) {
+				continue;
+			}
+			final Range range = otherDiagnostic.getRange();
+			if (range.getStart().getLine() <= lastLine && range.getEnd().getLine() >= firstLine) {
+				diagnostics.add(otherDiagnostic);
+			}
+		}
+		return diagnostics;
+	}
+
+	private static Range getUnionRange(List<Diagnostic> diagnostics) {
+		Position start = diagnostics.get(0).getRange().getStart();
+		Position end = diagnostics.get(0).getRange().getEnd();
+		for (final Diagnostic diagnostic : diagnostics) {
+			if (compare(diagnostic.getRange().getStart(), start) < 0) {
+				start = diagnostic.getRange().getStart();
+			}
+			if (compare(diagnostic.getRange().getEnd(), end) > 0) {
+				end = diagnostic.getRange().getEnd();
+			}
+		}
+		return new Range(start, end);
+	}
+
+	private static int compare(Position position1, Position position2) {
+		final int result = Integer.compare(position1.getLine(), position2.getLine());
+		return result != 0 ? result : Integer.compare(position1.getCharacter(), position2.getCharacter());
+	}
+
+	/**
+	 * @return the code actions of the response which fix the given diagnostic,
+	 *         or don't tell which diagnostics they fix
+	 */
+	private static List<Either<Command, CodeAction>> forDiagnostic(List<Either<Command, CodeAction>> codeActions,
+			Diagnostic diagnostic, int requestedDiagnostics) {
+		if (requestedDiagnostics == 1) {
+			return codeActions;
+		}
+		final var result = new ArrayList<Either<Command, CodeAction>>(codeActions.size());
+		for (final Either<Command, CodeAction> codeAction : codeActions) {
+			if (codeAction == null) {
+				continue;
+			}
+			final List<Diagnostic> fixedDiagnostics = codeAction.isRight() ? codeAction.getRight().getDiagnostics() : null;
+			if (fixedDiagnostics == null || fixedDiagnostics.isEmpty()
+					|| fixedDiagnostics.stream().anyMatch(fixed -> isSame(fixed, diagnostic))) {
+				result.add(codeAction);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Diagnostics sent back by the language server may not be equal to the
+	 * published ones after a round trip of their additional data, so they're
+	 * compared on their range and message.
+	 */
+	private static boolean isSame(Diagnostic diagnostic1, Diagnostic diagnostic2) {
+		return Objects.equals(diagnostic1.getRange(), diagnostic2.getRange())
+				&& Objects.equals(diagnostic1.getMessage(), diagnostic2.getMessage());
+	}
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.codeactions;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.ITextSelection;
+import org.eclipse.jface.text.source.ISourceViewer;
+import org.eclipse.jface.viewers.IPostSelectionProvider;
+import org.eclipse.jface.viewers.ISelectionChangedListener;
+import org.eclipse.jface.viewers.SelectionChangedEvent;
+import org.eclipse.lsp4e.LanguageServers;
+import org.eclipse.lsp4j.ServerCapabilities;
+import org.eclipse.swt.custom.StyledText;
+
+/**
+ * Requests the quick assist code actions of the selection once the caret
+ * rests, so that they're usually known when quick assist is invoked.
+ */
+final class QuickAssistPrefetcher implements ISelectionChangedListener {
+
+	private static final String KEY = QuickAssistPrefetcher.class.getName();
+
+	private final ISourceViewer viewer;
+	/** the code actions of the last selection the caret rested on */
+	private CodeActionCache.@Nullable Entry prefetched;
+
+	private QuickAssistPrefetcher(ISourceViewer viewer) {
+		this.viewer = viewer;
+	}
+
+	/**
+	 * Installs the prefetching of quick assist code actions in the given
+	 * viewer, if not done yet.
+	 */
+	static void install(ISourceViewer viewer) {
+		final StyledText textWidget = viewer.getTextWidget();
+		if (textWidget == null || textWidget.isDisposed()) {
+			return;
+		}
+		if (textWidget.getDisplay().getThread() != Thread.currentThread()) {
+			textWidget.getDisplay().asyncExec(() -> install(viewer));
+			return;
+		}
+		if (textWidget.getData(KEY) != null
+				|| !(viewer.getSelectionProvider() instanceof IPostSelectionProvider selectionProvider)) {
+			return;
+		}
+		final var prefetcher = new QuickAssistPrefetcher(viewer);
+		textWidget.setData(KEY, prefetcher);
+		// post selection events are sent once the caret rests
+		selectionProvider.addPostSelectionChangedListener(prefetcher);
+		textWidget.addDisposeListener(event -> selectionProvider.removePostSelectionChangedListener(prefetcher));
+	}
+
+	@Override
+	public void selectionChanged(SelectionChangedEvent event) {
+		final IDocument document = viewer.getDocument();
+		if (document != null && event.getSelection() instanceof ITextSelection selection
+				&& LanguageServers.forDocument(document).withCapability(ServerCapabilities::getCodeActionProvider)
+						.anyMatching()) {
+			final CodeActionCache.@Nullable Entry previous = prefetched;
+			prefetched = CodeActionCache.get(document, selection.getOffset(), selection.getLength());
+			// the caret moved on, the code actions of the previous selection are stale
+			if (previous != null && previous != prefetched && !previous.isShown()) {
+				previous.cancel();
+			}
+		}
+	}
+}
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.completion;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.lsp4j.CompletionItem;
+
+/**
+ * Resolves the completion items of a completion session with
+ * {@code completionItem/resolve}, so that the additional information of a
+ * proposal is usually available when the proposal gets selected.
+ * <p>
+ * The top ranked proposals are resolved in the background as soon as the
+ * proposals are computed, and the proposals following the selected one as the
+ * user moves through the list. At most {@link #MAX_CONCURRENT_RESOLVES}
+ * prefetch requests are pending at any time. Each item is resolved at most
+ * once per session; the session ends with {@link #cancel()}.
+ */
+final class CompletionItemResolver {
+
+	/** number of top ranked proposals resolved once the proposals are computed */
+	static final int PREFETCH_TOP_COUNT = 10;
+	/** number of proposals following the selected one which are resolved */
+	static final int PREFETCH_NEXT_COUNT = 5;
+	static final int MAX_CONCURRENT_RESOLVES = 3;
+
+	private final Map<CompletionItem, CompletableFuture<@Nullable Void>> resolutions = Collections
+			.synchronizedMap(new IdentityHashMap<>());
+	/** proposals waiting to be prefetched, guarded by this */
+	private final Deque<LSCompletionProposal> queue = new ArrayDeque<>();
+	/** number of pending prefetch requests, guarded by this */
+	private int running;
+	private volatile List<LSCompletionProposal> proposals = List.of();
+	private volatile boolean cancelled;
+
+	/**
+	 * Sets the sorted proposals of the session and starts resolving the top
+	 * ranked ones.
+	 */
+	void setProposals(List<LSCompletionProposal> sortedProposals) {
+		// proposals are shown again in this session
+		cancelled = false;
+		proposals = List.copyOf(sortedProposals);
+		for (final LSCompletionProposal proposal : sortedProposals) {
+			proposal.setResolver(this);
+		}
+		prefetch(sortedProposals.subList(0, Math.min(PREFETCH_TOP_COUNT, sortedProposals.size())));
+	}
+
+	/**
+	 * @return the resolution of the item of the given proposal, started right
+	 *         away without waiting for pending prefetch requests if needed
+	 */
+	CompletableFuture<@Nullable Void> resolve(LSCompletionProposal proposal) {
+		synchronized (resolutions) {
+			// a resolution cancelled with the end of the session is started again
+			return resolutions.compute(proposal.getItem(),
+					(item, resolution) -> resolution == null || resolution.isCancelled() ? proposal.resolve() : resolution);
+		}
+	}
+
+	void selected(LSCompletionProposal proposal) {
+		if (cancelled) {
+			return;
+		}
+		if (proposal.isResolvable()) {
+			resolve(proposal);
+		}
+		final List<LSCompletionProposal> proposals = this.proposals;
+		final int index = proposals.indexOf(proposal);
+		if (index >= 0) {
+			prefetch(proposals.subList(index + 1, Math.min(index + 1 + PREFETCH_NEXT_COUNT, proposals.size())));
+		}
+	}
+
+	/**
+	 * Ends the session: pending prefetch requests are cancelled, already
+	 * resolved items keep their resolved content.
+	 */
+	void cancel() {
+		cancelled = true;
+		synchronized (this) {
+			queue.clear();
+		}
+		final List<CompletableFuture<@Nullable Void>> pendingResolutions;
+		synchronized (resolutions) {
+			pendingResolutions = List.copyOf(resolutions.values());
+		}
+		pendingResolutions.forEach(resolution -> resolution.cancel(true));
+	}
+
+	private void prefetch(List<LSCompletionProposal> proposalsToResolve) {
+		synchronized (this) {
+			for (final LSCompletionProposal proposal : proposalsToResolve) {
+				if (proposal.isResolvable() && !resolutions.containsKey(proposal.getItem())) {
+					queue.add(proposal);
+				}
+			}
+		}
+		startPrefetches();
+	}
+
+	private void startPrefetches() {
+		while (true) {
+			final LSCompletionProposal proposal;
+			synchronized (this) {
+				if (cancelled || running >= MAX_CONCURRENT_RESOLVES || queue.isEmpty()) {
+					return;
+				}
+				proposal = queue.poll();
+				if (resolutions.containsKey(proposal.getItem())) {
+					continue;
+				}
+				running++;
+			}
+			resolve(proposal).whenComplete((result, error) -> {
+				synchronized (this) {
+					running--;
+				}
+				startPrefetches();
+			});
+		}
+	}
+}
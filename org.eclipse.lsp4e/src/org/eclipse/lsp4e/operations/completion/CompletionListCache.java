@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.completion;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionItemDefaults;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+
+/**
+ * The complete completion lists received from the language servers for a
+ * completion requested at a given offset of a document.
+ * <p>
+ * As long as the document is only changed by typing or deleting word
+ * characters right after this anchor offset, the lists remain complete for the
+ * word being typed, so proposals can be computed by filtering and ranking them
+ * again instead of asking the language servers. Any other change of the
+ * document invalidates the cache.
+ * <p>
+ * The cache belongs to a content assist session: it only listens to the
+ * document once {@link #attach() attached}, and stops when it's invalidated or
+ * disposed at the end of the session.
+ */
+final class CompletionListCache implements IDocumentListener {
+
+	private record CompleteList(List<CompletionItem> items, @Nullable CompletionItemDefaults defaults) {
+	}
+
+	private final IDocument document;
+	private final int anchorOffset;
+	private final char[] triggerChars;
+	private final Map<LanguageServerWrapper, CompleteList> completeLists = new ConcurrentHashMap<>();
+	private final Map<LanguageServerWrapper, CompletableFuture<?>> pendingRequests = new ConcurrentHashMap<>();
+	/** end of the word characters typed after the anchor offset */
+	private volatile int endOffset;
+	/** modification stamp of the document after the last change the cache was kept valid for */
+	private volatile long documentStamp;
+	private volatile boolean valid = true;
+	// guarded by this
+	private boolean attached;
+
+	CompletionListCache(IDocument document, int anchorOffset, char[] triggerChars) {
+		this.document = document;
+		this.anchorOffset = anchorOffset;
+		this.endOffset = anchorOffset;
+		this.triggerChars = triggerChars;
+		this.documentStamp = getModificationStamp(document);
+	}
+
+	/**
+	 * Starts tracking the changes of the document, which keep the cache valid
+	 * or invalidate it.
+	 */
+	synchronized void attach() {
+		if (valid && !attached) {
+			attached = true;
+			document.addDocumentListener(this);
+		}
+	}
+
+	int getAnchorOffset() {
+		return anchorOffset;
+	}
+
+	/**
+	 * @return true if the cached lists still apply to a completion at the given
+	 *         offset of the given document
+	 */
+	boolean isValidFor(IDocument document, int offset) {
+		return valid && this.document == document && offset >= anchorOffset && offset <= endOffset
+				&& documentStamp == getModificationStamp(document);
+	}
+
+	/**
+	 * Caches a completion list received for the anchor offset.
+	 */
+	void put(LanguageServerWrapper wrapper, List<CompletionItem> items, @Nullable CompletionItemDefaults defaults) {
+		if (valid) {
+			completeLists.put(wrapper, new CompleteList(List.copyOf(items), defaults));
+		}
+	}
+
+	/**
+	 * Tracks a completion request sent for the anchor offset until it's
+	 * answered, so that a computation refreshing the proposals once a late
+	 * language server answered can wait for the other late ones. The request is
+	 * cancelled with the cache.
+	 */
+	<T> CompletableFuture<T> track(LanguageServerWrapper wrapper, CompletableFuture<T> request) {
+		pendingRequests.put(wrapper, request);
+		request.whenComplete((result, error) -> pendingRequests.remove(wrapper, request));
+		if (!valid) {
+			request.cancel(true);
+		}
+		return request;
+	}
+
+	/**
+	 * @return the request sent to the given language server for the anchor
+	 *         offset which is still awaited, if any
+	 */
+	@Nullable
+	CompletableFuture<?> getPendingRequest(LanguageServerWrapper wrapper) {
+		return pendingRequests.get(wrapper);
+	}
+
+	/**
+	 * @return the proposals of the cached list of the given language server
+	 *         which are valid at the given offset, or null if there is no cached
+	 *         list for this language server
+	 */
+	@Nullable
+	CompletionProposalList getProposals(LanguageServerWrapper wrapper, int offset, CancelChecker cancelChecker) {
+		final CompleteList completeList = completeLists.get(wrapper);
+		if (completeList == null) {
+			return null;
+		}
+		// the item ranges refer to the document as it was at the anchor offset
+		return new CompletionProposalList(document, anchorOffset, offset, completeList.items(),
+				completeList.defaults(), wrapper, false, cancelChecker);
+	}
+
+	void dispose() {
+		valid = false;
+		completeLists.clear();
+		pendingRequests.values().forEach(request -> request.cancel(true));
+		pendingRequests.clear();
+		synchronized (this) {
+			if (attached) {
+				attached = false;
+				document.removeDocumentListener(this);
+			}
+		}
+	}
+
+	@Override
+	public void documentAboutToBeChanged(DocumentEvent event) {
+		// nothing to do
+	}
+
+	@Override
+	public void documentChanged(DocumentEvent event) {
+		final int eventOffset = event.getOffset();
+		final int eventLength = event.getLength();
+		final String text = event.getText() == null ? "" : event.getText(); //$NON-NLS-1$
+		final boolean wordTyped = eventLength == 0 && eventOffset == endOffset && isWord(text);
+		final boolean wordCharsDeleted = text.isEmpty() && eventOffset >= anchorOffset
+				&& eventOffset + eventLength <= endOffset;
+		if (valid && (wordTyped || wordCharsDeleted)) {
+			endOffset += text.length() - eventLength;
+			documentStamp = getModificationStamp(document);
+		} else {
+			dispose();
+		}
+	}
+
+	private boolean isWord(String text) {
+		if (text.isEmpty()) {
+			return false;
+		}
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			if (!Character.isUnicodeIdentifierPart(c) || isTriggerChar(c)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isTriggerChar(char c) {
+		for (final char triggerChar : triggerChars) {
+			if (triggerChar == c) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static long getModificationStamp(IDocument document) {
+		return document instanceof IDocumentExtension4 extension
+				? extension.getModificationStamp()
+				: IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+	}
+}
@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.completion;
+
+import static org.eclipse.lsp4e.internal.NullSafetyHelper.castNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.lsp4e.LanguageServerPlugin;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionItemDefaults;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+
+/**
+ * The completion items received from a language server, seen as a list of
+ * rows sorted like {@link LSCompletionProposalComparator} sorts proposals.
+ * <p>
+ * Filtering and ranking are computed on the raw items into primitive sort keys
+ * indexed by item, and only the rows matching the document filter are kept.
+ * {@link LSCompletionProposal}s are created for the kept rows only, once
+ * merged with the rows of the other language servers, and receive the already
+ * computed filter and ranking.
+ */
+final class CompletionProposalList {
+
+	private final IDocument document;
+	private final int initialOffset;
+	private final int offset;
+	private final List<CompletionItem> items;
+	private final LanguageServerWrapper wrapper;
+	private final boolean isIncomplete;
+
+	// sort keys and filter state, indexed by item
+	private final int[] bestOffsets;
+	private final int[] categories;
+	private final int[] scores;
+	private final int[] documentFilterLengths;
+	private final FuzzyScorer.@Nullable Candidate[] candidates;
+	/** lower case text between the start of an item and the offset, reused for all items */
+	private final FuzzyScorer.Query prefixToOffset = new FuzzyScorer.Query();
+
+	/** indices of the matching items, in display order */
+	private final int[] rows;
+
+	/**
+	 * @param initialOffset
+	 *            the offset the items were requested for
+	 * @param offset
+	 *            the offset the rows are filtered and ranked for, the initial
+	 *            offset or a later offset while typing the same word
+	 * @param cancelChecker
+	 *            checked for each item, to stop computing the rows once the
+	 *            completion got cancelled
+	 */
+	CompletionProposalList(IDocument document, int initialOffset, int offset, List<CompletionItem> items,
+			@Nullable CompletionItemDefaults defaults, LanguageServerWrapper wrapper, boolean isIncomplete,
+			CancelChecker cancelChecker) {
+		this.document = document;
+		this.initialOffset = initialOffset;
+		this.offset = offset;
+		this.items = items;
+		this.wrapper = wrapper;
+		this.isIncomplete = isIncomplete;
+		final int size = items.size();
+		bestOffsets = new int[size];
+		categories = new int[size];
+		scores = new int[size];
+		documentFilterLengths = new int[size];
+		candidates = new FuzzyScorer.Candidate[size];
+		final var matching = new int[size];
+		int matchingCount = 0;
+		for (int i = 0; i < size; i++) {
+			cancelChecker.checkCanceled();
+			final CompletionItem item = items.get(i);
+			if (item == null) {
+				continue;
+			}
+			bestOffsets[i] = LSCompletionProposal.getPrefixCompletionStart(document, item, initialOffset);
+			LSCompletionProposal.applyDefaults(item, defaults);
+			if (computeKeys(i, item)) {
+				matching[matchingCount++] = i;
+			}
+		}
+		rows = Arrays.copyOf(matching, matchingCount);
+		sort(rows, new int[matchingCount], 0, matchingCount);
+	}
+
+	/**
+	 * Computes the filter and ranking of the item, following
+	 * {@link LSCompletionProposal#validate}.
+	 *
+	 * @return true if the item matches the document filter
+	 */
+	private boolean computeKeys(int index, CompletionItem item) {
+		if (item.getLabel() == null || item.getLabel().isEmpty() || offset < bestOffsets[index]) {
+			return false;
+		}
+		final var candidate = new FuzzyScorer.Candidate(LSCompletionProposal.getFilterString(item));
+		final int documentFilterLength;
+		try {
+			documentFilterLength = CompletionProposalTools.getFilterLengthFromDocument(document, offset, candidate,
+					bestOffsets[index], prefixToOffset);
+		} catch (BadLocationException e) {
+			LanguageServerPlugin.logError(e);
+			return false;
+		}
+		// the document filter is the end of the prefix
+		final char[] query = prefixToOffset.chars;
+		final int queryEnd = prefixToOffset.length;
+		final int queryStart = queryEnd - documentFilterLength;
+		if (documentFilterLength > 0) {
+			if ((isIncomplete && offset != initialOffset)
+					|| !FuzzyScorer.matches(query, queryStart, queryEnd, candidate)) {
+				return false;
+			}
+		} else if (item.getTextEdit() != null
+				// the start of the text edit, which may come from the defaults
+				&& offset != LSCompletionProposal.getPrefixCompletionStart(document, item, offset)) {
+			return false;
+		}
+		candidates[index] = candidate;
+		documentFilterLengths[index] = documentFilterLength;
+		categories[index] = FuzzyScorer.category(query, queryStart, queryEnd, candidate);
+		scores[index] = FuzzyScorer.score(query, queryStart, queryEnd, candidate);
+		return true;
+	}
+
+	/**
+	 * Stable merge sort of the item indices between {@code from} and
+	 * {@code to}, without boxing them.
+	 */
+	private void sort(int[] indices, int[] buffer, int from, int to) {
+		if (to - from < 2) {
+			return;
+		}
+		final int middle = (from + to) >>> 1;
+		sort(indices, buffer, from, middle);
+		sort(indices, buffer, middle, to);
+		if (compare(indices[middle - 1], indices[middle]) <= 0) {
+			return;
+		}
+		System.arraycopy(indices, from, buffer, from, to - from);
+		int left = from;
+		int right = middle;
+		for (int i = from; i < to; i++) {
+			if (right >= to || (left < middle && compare(buffer[left], buffer[right]) <= 0)) {
+				indices[i] = buffer[left++];
+			} else {
+				indices[i] = buffer[right++];
+			}
+		}
+	}
+
+	/**
+	 * Same order as {@link LSCompletionProposalComparator}, on the keys of two
+	 * items of this list.
+	 */
+	private int compare(int index1, int index2) {
+		return LSCompletionProposalComparator.compare(documentFilterLengths[index1],
+				categories[index1], scores[index1], LSCompletionProposal.getSortText(items.get(index1)),
+				documentFilterLengths[index2], categories[index2], scores[index2],
+				LSCompletionProposal.getSortText(items.get(index2)));
+	}
+
+	/**
+	 * @return the number of items matching the document filter
+	 */
+	int size() {
+		return rows.length;
+	}
+
+	/**
+	 * Same order as {@link LSCompletionProposalComparator}, on the keys of a
+	 * row of this list and a row of another list.
+	 */
+	private int compareRows(int row, CompletionProposalList other, int otherRow) {
+		final int index1 = rows[row];
+		final int index2 = other.rows[otherRow];
+		return LSCompletionProposalComparator.compare(documentFilterLengths[index1], categories[index1],
+				scores[index1], LSCompletionProposal.getSortText(items.get(index1)),
+				other.documentFilterLengths[index2], other.categories[index2], other.scores[index2],
+				LSCompletionProposal.getSortText(other.items.get(index2)));
+	}
+
+	/**
+	 * @return a new proposal for the given row
+	 */
+	LSCompletionProposal createProposal(int row) {
+		final int index = rows[row];
+		return new LSCompletionProposal(document, initialOffset, items.get(index), wrapper, isIncomplete,
+				bestOffsets[index], castNonNull(candidates[index]), documentFilterLengths[index], offset,
+				categories[index], scores[index]);
+	}
+
+	/**
+	 * Merges the rows of lists which are each sorted, without sorting them
+	 * again, and creates their proposals. The proposals of a list come before
+	 * the equal proposals of the next lists.
+	 */
+	static List<LSCompletionProposal> merge(List<CompletionProposalList> lists) {
+		int size = 0;
+		for (final CompletionProposalList list : lists) {
+			size += list.size();
+		}
+		final var merged = new ArrayList<LSCompletionProposal>(size);
+		// next row of each list, there are as many lists as language servers
+		final var nextRows = new int[lists.size()];
+		while (merged.size() < size) {
+			int best = -1;
+			for (int i = 0; i < nextRows.length; i++) {
+				final CompletionProposalList list = lists.get(i);
+				if (nextRows[i] < list.size() && (best < 0
+						|| list.compareRows(nextRows[i], lists.get(best), nextRows[best]) < 0)) {
+					best = i;
+				}
+			}
+			merged.add(lists.get(best).createProposal(nextRows[best]++));
+		}
+		return merged;
+	}
+}
@@ -34,20 +34,36 @@ private CompletionProposalTools() {
 	 */
 	public static String getFilterFromDocument(IDocument document, int cursorOffset, String completionItemFilter,
 			int completionInsertionOffset) throws BadLocationException {
+		final int length = getFilterLengthFromDocument(document, cursorOffset,
+				new FuzzyScorer.Candidate(completionItemFilter), completionInsertionOffset, new FuzzyScorer.Query());
+		return document.get(cursorOffset - length, length);
+	}
+
+	/**
+	 * Same as {@link #getFilterFromDocument(IDocument, int, String, int)}, read
+	 * in place from the document.
+	 *
+	 * @param prefixToCursor
+	 *            receives the lower case characters between the insertion
+	 *            offset and the cursor, the filter being the last ones
+	 * @return the length of the filter, which ends at the cursor
+	 */
+	static int getFilterLengthFromDocument(IDocument document, int cursorOffset,
+			FuzzyScorer.Candidate completionItemFilter, int completionInsertionOffset,
+			FuzzyScorer.Query prefixToCursor) throws BadLocationException {
 		if (completionInsertionOffset >= cursorOffset) {
-			return ""; //$NON-NLS-1$
+			prefixToCursor.length = 0;
+			return 0;
 		}
-		int prefixToCursorLength = cursorOffset - completionInsertionOffset;
-		String prefixToCursor = document.get(completionInsertionOffset, prefixToCursorLength);
+		prefixToCursor.set(document, completionInsertionOffset, cursorOffset - completionInsertionOffset);
+		final int prefixLength = prefixToCursor.length;
 		int i;
-		for (i = 0; i < prefixToCursor.length(); i++) {
-			if (!isSubstringFoundOrderedInString(
-					prefixToCursor.substring(prefixToCursorLength - i - 1, prefixToCursorLength),
-					completionItemFilter)) {
+		for (i = 0; i < prefixLength; i++) {
+			if (!FuzzyScorer.matches(prefixToCursor.chars, prefixLength - i - 1, prefixLength, completionItemFilter)) {
 				break;
 			}
 		}
-		return prefixToCursor.substring(prefixToCursor.length() - i);
+		return i;
 	}
 
 	/**
@@ -59,15 +75,15 @@ public static String getFilterFromDocument(IDocument document, int cursorOffset,
 	 */
 	public static boolean isSubstringFoundOrderedInString(String subString, String string) {
 		int lastIndex = 0;
-		subString = subString.toLowerCase();
-		string = string.toLowerCase();
-		for (Character c : subString.toCharArray()) {
-			int index = string.indexOf(c, lastIndex);
-			if (index < 0) {
+		for (int i = 0; i < subString.length(); i++) {
+			final char c = Character.toLowerCase(subString.charAt(i));
+			while (lastIndex < string.length() && Character.toLowerCase(string.charAt(lastIndex)) != c) {
+				lastIndex++;
+			}
+			if (lastIndex == string.length()) {
 				return false;
-			} else {
-				lastIndex = index + 1;
 			}
+			lastIndex++;
 		}
 		return true;
 	}
@@ -95,31 +111,8 @@ public static boolean isSubstringFoundOrderedInString(String subString, String s
 	 * @return the category integer
 	 */
 	public static int getCategoryOfFilterMatch(String documentFilter, String completionFilter) {
-		if (documentFilter.isEmpty()) {
-			return 5;
-		}
-		documentFilter = documentFilter.toLowerCase();
-		completionFilter = completionFilter.toLowerCase();
-		int subIndex = completionFilter.indexOf(documentFilter);
-		int topCategory = 5;
-		if (subIndex == -1) {
-			return isSubstringFoundOrderedInString(documentFilter, completionFilter) ? 4 : 5;
-		}
-		while (subIndex != -1) {
-			if (subIndex > 0 && Character.isLetterOrDigit(completionFilter.charAt(subIndex - 1))) {
-				topCategory = Math.min(topCategory, 3);
-			} else if (subIndex + documentFilter.length() < completionFilter.length() - 1
-					&& Character.isLetterOrDigit(completionFilter.charAt(subIndex + documentFilter.length() + 1))) {
-				topCategory = Math.min(topCategory, 2);
-			} else {
-				topCategory = 1;
-			}
-			if (topCategory == 1) {
-				break;
-			}
-			subIndex = completionFilter.indexOf(documentFilter, subIndex + 1);
-		}
-		return topCategory;
+		final var query = new FuzzyScorer.Query().set(documentFilter);
+		return FuzzyScorer.category(query.chars, 0, query.length, new FuzzyScorer.Candidate(completionFilter));
 	}
 
 	/**
@@ -144,56 +137,7 @@ public static int getCategoryOfFilterMatch(String documentFilter, String complet
 	 *         and -1 mean there was no match
 	 */
 	public static int getScoreOfFilterMatch(String documentFilter, String completionFilter) {
-		documentFilter = documentFilter.toLowerCase();
-		completionFilter = completionFilter.toLowerCase();
-		return getScoreOfFilterMatchHelper(0, documentFilter, completionFilter);
-	}
-
-	private static int getScoreOfFilterMatchHelper(int prefixLength, String documentFilter, String completionFilter) {
-		if (documentFilter.isEmpty()) {
-			return 0;
-		}
-		char searchChar = documentFilter.charAt(0);
-		int i = completionFilter.indexOf(searchChar);
-		if (i == -1) {
-			return -1;
-		}
-		if (documentFilter.length() == 1) {
-			return i + prefixLength;
-		}
-
-		int matchLength = lengthOfPrefixMatch(documentFilter, completionFilter.substring(i));
-		if (matchLength == documentFilter.length()) {
-			return i + prefixLength;
-		}
-		int bestScore = i + getScoreOfFilterMatchHelper(prefixLength + i + matchLength,
-				documentFilter.substring(matchLength),
-				completionFilter.substring(i + matchLength));
-
-		i = completionFilter.indexOf(searchChar, i + 1);
-		while (i != -1) {
-			matchLength = lengthOfPrefixMatch(documentFilter, completionFilter.substring(i));
-			if (matchLength == documentFilter.length()) {
-				return i + prefixLength;
-			}
-			int score = i + getScoreOfFilterMatchHelper(prefixLength + i + matchLength,
-					documentFilter.substring(matchLength),
-					completionFilter.substring(i + matchLength));
-			if (score == i - 1) {
-				break;
-			}
-			bestScore = Math.min(bestScore, score);
-			i = completionFilter.indexOf(searchChar, i + 1);
-		}
-		return prefixLength + bestScore;
-	}
-
-	private static int lengthOfPrefixMatch(String first, String second) {
-		int i;
-		for (i = 0; i < Math.min(first.length(), second.length()); i++) {
-			if (first.charAt(i) != second.charAt(i))
-				break;
-		}
-		return i;
+		final var query = new FuzzyScorer.Query().set(documentFilter);
+		return FuzzyScorer.score(query.chars, 0, query.length, new FuzzyScorer.Candidate(completionFilter));
 	}
 }
@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.completion;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+
+/**
+ * Counts, per language server definition, how often a language server
+ * contributed to content assist or context information before the
+ * contribution deadline, and how late it was otherwise.
+ */
+public final class ContributionMetrics {
+
+	/**
+	 * @param contributions
+	 *            number of answers received from the language server
+	 * @param lateContributions
+	 *            number of answers received after the contribution deadline
+	 * @param maxLatenessMs
+	 *            the longest time an answer arrived after the deadline
+	 */
+	public record Stats(long contributions, long lateContributions, long maxLatenessMs) {
+	}
+
+	private static final Map<String, Stats> STATS = new ConcurrentHashMap<>();
+
+	private ContributionMetrics() {
+		// this class shouldn't be instantiated
+	}
+
+	/**
+	 * Records an answer of the language server, received after the given time
+	 * since the request was sent.
+	 */
+	static void record(LanguageServerWrapper wrapper, long elapsedMs, long deadlineMs) {
+		final long lateness = Math.max(0, elapsedMs - deadlineMs);
+		STATS.merge(wrapper.serverDefinition.id, new Stats(1, lateness > 0 ? 1 : 0, lateness),
+				(stats, added) -> new Stats(stats.contributions() + added.contributions(),
+						stats.lateContributions() + added.lateContributions(),
+						Math.max(stats.maxLatenessMs(), added.maxLatenessMs())));
+	}
+
+	/**
+	 * @return the statistics of the language server definition with the given
+	 *         id, or null if it never contributed
+	 */
+	public static @Nullable Stats get(String serverDefinitionId) {
+		return STATS.get(serverDefinitionId);
+	}
+}
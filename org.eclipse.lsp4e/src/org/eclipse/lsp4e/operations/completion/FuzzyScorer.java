@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.completion;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+
+/**
+ * Allocation free implementation of the matching and ranking rules of
+ * {@link CompletionProposalTools}.
+ * <p>
+ * A {@link Candidate} holds the lower case characters of a completion filter
+ * and a bitmap of its word characters, computed once per proposal. Queries are
+ * ranges of lower case character arrays, filled in place from the document
+ * into a reused {@link Query} buffer, so scoring the candidates again for
+ * every typed character doesn't allocate. Lower casing is done per character,
+ * so indices in the lower case arrays match those of the original strings.
+ */
+final class FuzzyScorer {
+
+	static final int WORST_CATEGORY = 5;
+	static final int NO_MATCH_SCORE = -1;
+
+	static final class Candidate {
+
+		final char[] chars;
+		/** bit i is set if the character at index i is a letter or digit */
+		private final long[] wordChars;
+
+		Candidate(String filter) {
+			chars = new char[filter.length()];
+			wordChars = new long[(chars.length + 63) >>> 6];
+			for (int i = 0; i < chars.length; i++) {
+				chars[i] = Character.toLowerCase(filter.charAt(i));
+				if (Character.isLetterOrDigit(chars[i])) {
+					wordChars[i >>> 6] |= 1L << i;
+				}
+			}
+		}
+
+		boolean isWordChar(int index) {
+			return (wordChars[index >>> 6] & (1L << index)) != 0;
+		}
+	}
+
+	/**
+	 * Reusable buffer of the lower case characters of a query, grown only when
+	 * a longer query doesn't fit.
+	 */
+	static final class Query {
+
+		char[] chars = new char[16];
+		int length;
+
+		/**
+		 * Sets the query to the lower case characters of the document between
+		 * {@code offset} and {@code offset + length}, read in place.
+		 */
+		Query set(IDocument document, int offset, int length) throws BadLocationException {
+			ensureCapacity(length);
+			for (int i = 0; i < length; i++) {
+				chars[i] = Character.toLowerCase(document.getChar(offset + i));
+			}
+			this.length = length;
+			return this;
+		}
+
+		Query set(CharSequence string) {
+			final int length = string.length();
+			ensureCapacity(length);
+			for (int i = 0; i < length; i++) {
+				chars[i] = Character.toLowerCase(string.charAt(i));
+			}
+			this.length = length;
+			return this;
+		}
+
+		private void ensureCapacity(int length) {
+			if (chars.length < length) {
+				chars = new char[Math.max(length, chars.length * 2)];
+			}
+		}
+	}
+
+	private FuzzyScorer() {
+		// this class shouldn't be instantiated
+	}
+
+	/**
+	 * @return true if the characters of the query between {@code queryStart}
+	 *         and {@code queryEnd} are all found in the candidate, in order
+	 */
+	static boolean matches(char[] query, int queryStart, int queryEnd, Candidate candidate) {
+		final char[] chars = candidate.chars;
+		int index = 0;
+		for (int i = queryStart; i < queryEnd; i++) {
+			index = indexOf(chars, query[i], index);
+			if (index < 0) {
+				return false;
+			}
+			index++;
+		}
+		return true;
+	}
+
+	/**
+	 * See {@link CompletionProposalTools#getCategoryOfFilterMatch(String, String)}
+	 */
+	static int category(char[] query, int queryStart, int queryEnd, Candidate candidate) {
+		final int queryLength = queryEnd - queryStart;
+		if (queryLength == 0) {
+			return WORST_CATEGORY;
+		}
+		final char[] chars = candidate.chars;
+		int subIndex = indexOf(chars, query, queryStart, queryEnd, 0);
+		if (subIndex == -1) {
+			return matches(query, queryStart, queryEnd, candidate) ? 4 : WORST_CATEGORY;
+		}
+		int topCategory = WORST_CATEGORY;
+		while (subIndex != -1) {
+			if (subIndex > 0 && candidate.isWordChar(subIndex - 1)) {
+				topCategory = Math.min(topCategory, 3);
+			} else if (subIndex + queryLength < chars.length - 1
+					&& candidate.isWordChar(subIndex + queryLength + 1)) {
+				topCategory = Math.min(topCategory, 2);
+			} else {
+				return 1;
+			}
+			subIndex = indexOf(chars, query, queryStart, queryEnd, subIndex + 1);
+		}
+		return topCategory;
+	}
+
+	/**
+	 * See {@link CompletionProposalTools#getScoreOfFilterMatch(String, String)}
+	 */
+	static int score(char[] query, int queryStart, int queryEnd, Candidate candidate) {
+		return score(0, query, queryStart, queryEnd, candidate.chars, 0);
+	}
+
+	/**
+	 * Scores the query between {@code queryStart} and {@code queryEnd} against
+	 * the candidate characters from {@code start}. Indices are relative to
+	 * these starts.
+	 */
+	private static int score(int prefixLength, char[] query, int queryStart, int queryEnd, char[] chars, int start) {
+		final int queryLength = queryEnd - queryStart;
+		if (queryLength == 0) {
+			return 0;
+		}
+		final char searchChar = query[queryStart];
+		int i = relativeIndexOf(chars, searchChar, start, start);
+		if (i == -1) {
+			return NO_MATCH_SCORE;
+		}
+		if (queryLength == 1) {
+			return i + prefixLength;
+		}
+
+		int matchLength = lengthOfPrefixMatch(query, queryStart, queryEnd, chars, start + i);
+		if (matchLength == queryLength) {
+			return i + prefixLength;
+		}
+		int bestScore = i + score(prefixLength + i + matchLength, query, queryStart + matchLength, queryEnd, chars,
+				start + i + matchLength);
+
+		i = relativeIndexOf(chars, searchChar, start + i + 1, start);
+		while (i != -1) {
+			matchLength = lengthOfPrefixMatch(query, queryStart, queryEnd, chars, start + i);
+			if (matchLength == queryLength) {
+				return i + prefixLength;
+			}
+			final int score = i + score(prefixLength + i + matchLength, query, queryStart + matchLength, queryEnd,
+					chars, start + i + matchLength);
+			if (score == i - 1) {
+				break;
+			}
+			bestScore = Math.min(bestScore, score);
+			i = relativeIndexOf(chars, searchChar, start + i + 1, start);
+		}
+		return prefixLength + bestScore;
+	}
+
+	private static int lengthOfPrefixMatch(char[] query, int queryStart, int queryEnd, char[] chars, int start) {
+		final int max = Math.min(queryEnd - queryStart, chars.length - start);
+		int i;
+		for (i = 0; i < max; i++) {
+			if (query[queryStart + i] != chars[start + i]) {
+				break;
+			}
+		}
+		return i;
+	}
+
+	private static int relativeIndexOf(char[] chars, char c, int from, int start) {
+		final int index = indexOf(chars, c, from);
+		return index == -1 ? -1 : index - start;
+	}
+
+	private static int indexOf(char[] chars, char c, int from) {
+		for (int i = from; i < chars.length; i++) {
+			if (chars[i] == c) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int indexOf(char[] chars, char[] sub, int subStart, int subEnd, int from) {
+		final int subLength = subEnd - subStart;
+		final int last = chars.length - subLength;
+		outer: for (int i = from; i <= last; i++) {
+			for (int j = 0; j < subLength; j++) {
+				if (chars[i + j] != sub[subStart + j]) {
+					continue outer;
+				}
+			}
+			return i;
+		}
+		return -1;
+	}
+}
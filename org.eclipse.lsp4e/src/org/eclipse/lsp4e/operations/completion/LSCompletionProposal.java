@@ -23,6 +23,8 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -64,7 +66,9 @@
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4e.RequestDeadlines;
 import org.eclipse.lsp4e.command.CommandExecutor;
+import org.eclipse.lsp4e.internal.CancellationUtil;
 import org.eclipse.lsp4e.internal.StyleUtil;
 import org.eclipse.lsp4e.operations.hover.FocusableBrowserInformationControl;
 import org.eclipse.lsp4e.ui.LSPImages;
@@ -95,7 +99,14 @@
 		ICompletionProposalExtension5, ICompletionProposalExtension6, ICompletionProposalExtension7,
 		IContextInformation {
 
-	private static final int RESOLVE_TIMEOUT = 500;
+	/**
+	 * Method of which the {@link RequestDeadlines deadline} is the maximum time to
+	 * wait for the resolution of the item when computing the additional
+	 * information, which happens in the background. The resolution usually was
+	 * already prefetched by the {@link CompletionItemResolver}.
+	 */
+	private static final String RESOLVE = "completionItem/resolve"; //$NON-NLS-1$
+	private static final int RESOLVE_POLL_INTERVAL = 50;
 	// Those variables should be defined in LSP4J and reused here whenever done there
 	// See https://github.com/eclipse/lsp4j/issues/149
 	/** The currently selected text or the empty string */
@@ -129,9 +140,18 @@
 	// private LSPDocumentInfo info;
 	private @Nullable Integer rankCategory;
 	private @Nullable Integer rankScore;
-	private @Nullable String documentFilter;
-	private String documentFilterAddition = ""; //$NON-NLS-1$
+	/** start of the document filter, -1 until it's computed */
+	private int documentFilterStart = -1;
+	/** end of the document filter at the offset it was computed for */
+	private int documentFilterEnd;
+	/** the document filter at the current offset, and its lower case characters, computed on demand */
+	private @Nullable String currentDocumentFilter;
+	private FuzzyScorer.@Nullable Query currentDocumentFilterChars;
+	private boolean currentDocumentFilterCharsValid;
+	private FuzzyScorer.@Nullable Candidate filterCandidate;
 	private final LanguageServerWrapper languageServerWrapper;
+	private @Nullable CompletionItemResolver resolver;
+	private @Nullable CompletableFuture<@Nullable Void> resolution;
 
 	public LSCompletionProposal(IDocument document, int offset, CompletionItem item,
 			LanguageServerWrapper languageServerWrapper) {
@@ -147,6 +167,33 @@ public LSCompletionProposal(IDocument document, int offset, CompletionItem item,
 		this.currentOffset = offset;
 		this.bestOffset = getPrefixCompletionStart(document, offset);
 		this.isIncomplete = isIncomplete;
+		applyDefaults(item, defaults);
+	}
+
+	/**
+	 * Creates the proposal of a row of a {@link CompletionProposalList}: the
+	 * defaults are already applied to the item and the filter and ranking were
+	 * already computed for the current offset.
+	 */
+	LSCompletionProposal(IDocument document, int offset, CompletionItem item,
+			LanguageServerWrapper languageServerWrapper, boolean isIncomplete, int bestOffset,
+			FuzzyScorer.Candidate filterCandidate, int documentFilterLength, int currentOffset, int rankCategory,
+			int rankScore) {
+		this.item = item;
+		this.document = document;
+		this.languageServerWrapper = languageServerWrapper;
+		this.initialOffset = offset;
+		this.isIncomplete = isIncomplete;
+		this.bestOffset = bestOffset;
+		this.filterCandidate = filterCandidate;
+		this.documentFilterStart = currentOffset - documentFilterLength;
+		this.documentFilterEnd = currentOffset;
+		this.currentOffset = currentOffset;
+		this.rankCategory = rankCategory;
+		this.rankScore = rankScore;
+	}
+
+	static void applyDefaults(CompletionItem item, @Nullable CompletionItemDefaults defaults) {
 		if (defaults != null) {
 			if (item.getInsertTextFormat() == null) {
 				item.setInsertTextFormat(defaults.getInsertTextFormat());
@@ -173,19 +220,20 @@ public LSCompletionProposal(IDocument document, int offset, CompletionItem item,
 	 * @return The document filter for the given offset
 	 */
 	public String getDocumentFilter(int offset) throws BadLocationException {
-		if (documentFilter != null) {
-			if (offset != currentOffset) {
-				currentOffset = offset;
-				rankScore = null;
-				rankCategory = null;
-				documentFilterAddition = offset > initialOffset ? document.get(initialOffset, offset - initialOffset) : ""; //$NON-NLS-1$
-			}
-			return documentFilter + documentFilterAddition;
-		}
-		currentOffset = offset;
+		setCurrentOffset(offset);
 		return getDocumentFilter();
 	}
 
+	private void setCurrentOffset(int offset) {
+		if (offset != currentOffset) {
+			currentOffset = offset;
+			rankScore = null;
+			rankCategory = null;
+			currentDocumentFilter = null;
+			currentDocumentFilterCharsValid = false;
+		}
+	}
+
 	/**
 	 * See {@link CompletionProposalTools#getFilterFromDocument} for filter
 	 * generation logic
@@ -193,17 +241,73 @@ public String getDocumentFilter(int offset) throws BadLocationException {
 	 * @return The document filter for the last given offset
 	 */
 	public String getDocumentFilter() throws BadLocationException {
-		if (documentFilter != null) {
-			return documentFilter + documentFilterAddition;
+		var currentDocumentFilter = this.currentDocumentFilter;
+		if (currentDocumentFilter == null) {
+			final int start = getDocumentFilterStart();
+			currentDocumentFilter = this.currentDocumentFilter = document.get(start, getDocumentFilterEnd() - start);
+		}
+		return currentDocumentFilter;
+	}
+
+	/**
+	 * @return the length of {@link #getDocumentFilter()}, without reading it
+	 *         from the document
+	 */
+	int getDocumentFilterLength() throws BadLocationException {
+		return getDocumentFilterEnd() - getDocumentFilterStart();
+	}
+
+	private int getDocumentFilterStart() throws BadLocationException {
+		if (documentFilterStart < 0) {
+			// the filter is computed once, then extended or shortened with the offset
+			final int length = CompletionProposalTools.getFilterLengthFromDocument(document, currentOffset,
+					getFilterCandidate(), bestOffset, getDocumentFilterChars());
+			documentFilterStart = currentOffset - length;
+			documentFilterEnd = currentOffset;
+			currentDocumentFilterCharsValid = false;
+		}
+		return documentFilterStart;
+	}
+
+	private int getDocumentFilterEnd() throws BadLocationException {
+		final int start = getDocumentFilterStart();
+		return Math.max(start, currentOffset > initialOffset ? currentOffset : documentFilterEnd);
+	}
+
+	/**
+	 * @return the lower case characters of {@link #getDocumentFilter()}, as
+	 *         expected by the {@link FuzzyScorer}, read in place from the
+	 *         document into a buffer reused for every offset
+	 */
+	private FuzzyScorer.Query getLowerCaseDocumentFilter() throws BadLocationException {
+		final FuzzyScorer.Query chars = getDocumentFilterChars();
+		if (!currentDocumentFilterCharsValid) {
+			final int start = getDocumentFilterStart();
+			chars.set(document, start, getDocumentFilterEnd() - start);
+			currentDocumentFilterCharsValid = true;
+		}
+		return chars;
+	}
+
+	private FuzzyScorer.Query getDocumentFilterChars() {
+		var chars = currentDocumentFilterChars;
+		if (chars == null) {
+			chars = currentDocumentFilterChars = new FuzzyScorer.Query();
 		}
-		final var documentFilter = this.documentFilter = CompletionProposalTools.getFilterFromDocument(document,
-				currentOffset, getFilterString(), bestOffset);
-		documentFilterAddition = ""; //$NON-NLS-1$
-		return documentFilter;
+		return chars;
+	}
+
+	private FuzzyScorer.Candidate getFilterCandidate() {
+		var filterCandidate = this.filterCandidate;
+		if (filterCandidate == null) {
+			filterCandidate = this.filterCandidate = new FuzzyScorer.Candidate(getFilterString());
+		}
+		return filterCandidate;
 	}
 
 	/**
-	 * See {@link CompletionProposalTools#getScoreOfFilterMatch} for ranking logic
+	 * See {@link CompletionProposalTools#getScoreOfFilterMatch} for ranking logic,
+	 * implemented by {@link FuzzyScorer}
 	 *
 	 * @return The rank of the match between the document's filter and this
 	 *         completion's filter.
@@ -213,8 +317,8 @@ public int getRankScore() {
 			return rankScore;
 		int rankScore;
 		try {
-			rankScore = CompletionProposalTools.getScoreOfFilterMatch(getDocumentFilter(),
-					getFilterString());
+			final FuzzyScorer.Query documentFilter = getLowerCaseDocumentFilter();
+			rankScore = FuzzyScorer.score(documentFilter.chars, 0, documentFilter.length, getFilterCandidate());
 		} catch (BadLocationException e) {
 			LanguageServerPlugin.logError(e);
 			rankScore = -1;
@@ -236,8 +340,9 @@ public int getRankCategory() {
 		}
 		int rankCategory;
 		try {
-			rankCategory = CompletionProposalTools.getCategoryOfFilterMatch(getDocumentFilter(),
-					getFilterString());
+			final FuzzyScorer.Query documentFilter = getLowerCaseDocumentFilter();
+			rankCategory = FuzzyScorer.category(documentFilter.chars, 0, documentFilter.length,
+					getFilterCandidate());
 		} catch (BadLocationException e) {
 			LanguageServerPlugin.logError(e);
 			rankCategory = 5;
@@ -273,8 +378,8 @@ public StyledString getStyledDisplayString(IDocument document, int offset, BoldS
 				String subString = getDocumentFilter(offset).toLowerCase();
 				int lastIndex = 0;
 				String lowerRawString = rawString.toLowerCase();
-				for (Character c : subString.toCharArray()) {
-					int index = lowerRawString.indexOf(c, lastIndex);
+				for (int i = 0; i < subString.length(); i++) {
+					int index = lowerRawString.indexOf(subString.charAt(i), lastIndex);
 					if (index < 0) {
 						return res;
 					} else {
@@ -334,8 +439,8 @@ protected IInformationControl doCreateInformationControl(Shell parent) {
 
 	@Override
 	public String getAdditionalProposalInfo(IProgressMonitor monitor) {
-		if (languageServerWrapper.isActive() && resolvesCompletionItem(languageServerWrapper.getServerCapabilities())) {
-			resolveItem();
+		if (isResolvable()) {
+			resolveItem(monitor);
 		}
 
 		final var res = new StringBuilder();
@@ -366,17 +471,74 @@ private boolean resolvesCompletionItem(final @Nullable ServerCapabilities capabi
 		return false;
 	}
 
-	private void resolveItem() {
+	boolean isResolvable() {
+		// the proposals come from an initialized server, whose capabilities are published
+		return languageServerWrapper.isActive()
+				&& resolvesCompletionItem(languageServerWrapper.getPublishedServerCapabilities());
+	}
+
+	void setResolver(@Nullable CompletionItemResolver resolver) {
+		this.resolver = resolver;
+	}
+
+	/**
+	 * Sends {@code completionItem/resolve} for the item of this proposal and
+	 * updates the item with the result. Cancelling the returned future cancels
+	 * the request.
+	 */
+	CompletableFuture<@Nullable Void> resolve() {
+		final var request = languageServerWrapper
+				.execute(ls -> ls.getTextDocumentService().resolveCompletionItem(item));
+		final CompletableFuture<@Nullable Void> resolution = request.thenAccept(this::updateCompletionItem);
+		resolution.exceptionally(t -> {
+			if (t instanceof CancellationException) {
+				request.cancel(true);
+			}
+			return null;
+		});
+		return resolution;
+	}
+
+	private synchronized CompletableFuture<@Nullable Void> getResolution() {
+		final var resolver = this.resolver;
+		if (resolver != null) {
+			return resolver.resolve(this);
+		}
+		var resolution = this.resolution;
+		if (resolution == null) {
+			resolution = this.resolution = resolve();
+		}
+		return resolution;
+	}
+
+	private void resolveItem(IProgressMonitor monitor) {
+		final CompletableFuture<@Nullable Void> resolution = getResolution();
+		final long timeoutMs = RequestDeadlines.get(languageServerWrapper, RESOLVE);
+		final long deadline = System.currentTimeMillis() + timeoutMs;
 		try {
-			languageServerWrapper.execute(ls -> ls.getTextDocumentService().resolveCompletionItem(item).thenAccept(this::updateCompletionItem))
-					.get(RESOLVE_TIMEOUT, TimeUnit.MILLISECONDS);
-		} catch (ExecutionException e) {
-			LanguageServerPlugin.logError(e);
+			while (!resolution.isDone()) {
+				final long remaining = deadline - System.currentTimeMillis();
+				if (monitor.isCanceled() || remaining <= 0) {
+					if (remaining <= 0) {
+						LanguageServerPlugin.logWarning("Could not resolve completion items due to timeout after " + timeoutMs + " milliseconds in `completionItem/resolve`", null);  //$NON-NLS-1$//$NON-NLS-2$
+					}
+					// the resolution goes on in the background, the item gets updated once it completes
+					return;
+				}
+				try {
+					resolution.get(Math.min(remaining, RESOLVE_POLL_INTERVAL), TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					// check the monitor again
+				}
+			}
+			resolution.get();
+		} catch (ExecutionException | CancellationException e) {
+			if (!CancellationUtil.isRequestCancelledException(e)) {
+				LanguageServerPlugin.logError(e);
+			}
 		} catch (InterruptedException e) {
 			LanguageServerPlugin.logError(e);
 			Thread.currentThread().interrupt();
-		} catch (TimeoutException e) {
-			LanguageServerPlugin.logWarning("Could not resolve completion items due to timeout after " + RESOLVE_TIMEOUT + " milliseconds in `completionItem/resolve`", e);  //$NON-NLS-1$//$NON-NLS-2$
 		}
 	}
 
@@ -417,15 +579,20 @@ private void updateCompletionItem(@Nullable CompletionItem resolvedItem) {
 
 	@Override
 	public int getPrefixCompletionStart(IDocument document, int completionOffset) {
+		return getPrefixCompletionStart(document, item, completionOffset);
+	}
+
+	static int getPrefixCompletionStart(IDocument document, CompletionItem item, int completionOffset) {
 		Either<TextEdit, InsertReplaceEdit> textEdit = item.getTextEdit();
 		if (textEdit != null) {
 			try {
-				return LSPEclipseUtils.toOffset(getTextEditRange().getStart(), document);
+				return LSPEclipseUtils.toOffset(textEdit.map(TextEdit::getRange, InsertReplaceEdit::getInsert).getStart(),
+						document);
 			} catch (BadLocationException e) {
 				LanguageServerPlugin.logError(e);
 			}
 		}
-		String insertText = getInsertText();
+		String insertText = getInsertText(item);
 		try {
 			String subDoc = document.get(
 					Math.max(0, completionOffset - insertText.length()),
@@ -443,16 +610,22 @@ public int getPrefixCompletionStart(IDocument document, int completionOffset) {
 	}
 
 	protected void apply(IDocument document, char trigger, int stateMask, int offset) {
+		final var resolver = this.resolver;
+		if (resolver != null) {
+			// the session is over, the other proposals won't be shown anymore
+			resolver.cancel();
+		}
 		String insertText = null;
 		Either<TextEdit, InsertReplaceEdit> eitherTextEdit = item.getTextEdit();
 		TextEdit textEdit = null;
 		if (eitherTextEdit != null) {
+			// work on a copy, the item may be reused for proposals at other offsets
 			if(eitherTextEdit.isLeft()) {
-				textEdit = eitherTextEdit.getLeft();
+				textEdit = new TextEdit(copy(eitherTextEdit.getLeft().getRange()), eitherTextEdit.getLeft().getNewText());
 			} else {
 				// trick to partially support the new InsertReplaceEdit from LSP 3.16. Reuse previously code for TextEdit.
 				InsertReplaceEdit insertReplaceEdit = eitherTextEdit.getRight();
-				textEdit = new TextEdit(insertReplaceEdit.getInsert(), insertReplaceEdit.getNewText());
+				textEdit = new TextEdit(copy(insertReplaceEdit.getInsert()), insertReplaceEdit.getNewText());
 			}
 		}
 		try {
@@ -524,8 +697,9 @@ protected void apply(IDocument document, char trigger, int stateMask, int offset
 							int end = LSPEclipseUtils.toOffset(te.getRange().getEnd(), document);
 							if (start > initialOffset && te.getRange().getStart().getLine() == initialPosition.getLine()) {
 								// We need to shift the Range according to the shift (if on the same line)
-								te.getRange().setStart(LSPEclipseUtils.toPosition(start + shift, document));
-								te.getRange().setEnd(LSPEclipseUtils.toPosition(end + shift, document));
+								allEdits.add(new TextEdit(new Range(LSPEclipseUtils.toPosition(start + shift, document),
+										LSPEclipseUtils.toPosition(end + shift, document)), te.getNewText()));
+								return;
 							}
 						} catch (BadLocationException e) {
 							LanguageServerPlugin.logError(e);
@@ -580,6 +754,11 @@ protected void apply(IDocument document, char trigger, int stateMask, int offset
 		}
 	}
 
+	private static Range copy(Range range) {
+		return new Range(new Position(range.getStart().getLine(), range.getStart().getCharacter()),
+				new Position(range.getEnd().getLine(), range.getEnd().getCharacter()));
+	}
+
 	private String adjustIndentation(IDocument document, String insertText, int insertionOffset) throws BadLocationException {
 		int line = document.getLineOfOffset(insertionOffset);
 		int whitespaceOffset = document.getLineOffset(line);
@@ -727,6 +906,10 @@ private String getAbsoluteLocation(IPath path) {
 	}
 
 	protected String getInsertText() {
+		return getInsertText(item);
+	}
+
+	private static String getInsertText(CompletionItem item) {
 		String insertText = item.getInsertText();
 		Either<TextEdit, InsertReplaceEdit> eitherTextEdit = item.getTextEdit();
 		if (eitherTextEdit != null) {
@@ -777,6 +960,10 @@ public String getInformationDisplayString() {
 	}
 
 	public String getSortText() {
+		return getSortText(item);
+	}
+
+	static String getSortText(CompletionItem item) {
 		if (item.getSortText() != null && !item.getSortText().isEmpty()) {
 			return item.getSortText();
 		}
@@ -784,6 +971,10 @@ public String getSortText() {
 	}
 
 	public String getFilterString() {
+		return getFilterString(item);
+	}
+
+	static String getFilterString(CompletionItem item) {
 		if (item.getFilterText() != null && !item.getFilterText().isEmpty()) {
 			return item.getFilterText();
 		}
@@ -798,10 +989,15 @@ public boolean isValidFor(IDocument document, int offset) {
 	@Override
 	public void selected(ITextViewer viewer, boolean smartToggle) {
 		this.viewer = viewer;
+		final var resolver = this.resolver;
+		if (resolver != null) {
+			resolver.selected(this);
+		}
 	}
 
 	@Override
 	public void unselected(ITextViewer viewer) {
+		// the prefetching stops with the content assist session, not with the selection
 	}
 
 	@Override
@@ -813,9 +1009,11 @@ public boolean validate(IDocument document, int offset, @Nullable DocumentEvent
 			return false;
 		}
 		try {
-			String documentFilter = getDocumentFilter(offset);
-			if (!documentFilter.isEmpty()) {
-				return !(isIncomplete && currentOffset != initialOffset) && CompletionProposalTools.isSubstringFoundOrderedInString(documentFilter, getFilterString());
+			setCurrentOffset(offset);
+			final FuzzyScorer.Query documentFilter = getLowerCaseDocumentFilter();
+			if (documentFilter.length > 0) {
+				return !(isIncomplete && currentOffset != initialOffset)
+						&& FuzzyScorer.matches(documentFilter.chars, 0, documentFilter.length, getFilterCandidate());
 			} else if (item.getTextEdit() != null) {
 				return offset == LSPEclipseUtils.toOffset(getTextEditRange().getStart(), document);
 			}
@@ -14,42 +14,86 @@
 package org.eclipse.lsp4e.operations.completion;
 
 import java.util.Comparator;
+import java.util.function.ToIntFunction;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.lsp4e.LanguageServerPlugin;
 
 final class LSCompletionProposalComparator implements Comparator<LSCompletionProposal> {
+
+	private final ToIntFunction<LSCompletionProposal> rankCategory;
+	private final ToIntFunction<LSCompletionProposal> rankScore;
+
+	LSCompletionProposalComparator() {
+		this(LSCompletionProposal::getRankCategory, LSCompletionProposal::getRankScore);
+	}
+
+	/**
+	 * @param rankCategory
+	 *            the category of the match of a proposal, from 1 (best) to
+	 *            {@link FuzzyScorer#WORST_CATEGORY}
+	 * @param rankScore
+	 *            the score of the match of a proposal, lower is better,
+	 *            {@link FuzzyScorer#NO_MATCH_SCORE} if the proposal doesn't match
+	 */
+	LSCompletionProposalComparator(ToIntFunction<LSCompletionProposal> rankCategory,
+			ToIntFunction<LSCompletionProposal> rankScore) {
+		this.rankCategory = rankCategory;
+		this.rankScore = rankScore;
+	}
+
 	@Override
 	public int compare(LSCompletionProposal o1, LSCompletionProposal o2) {
+		int docFilterLen1 = 0;
+		int docFilterLen2 = 0;
 		try {
-			int docFilterLen1 = o1.getDocumentFilter().length();
-			int docFilterLen2 = o2.getDocumentFilter().length();
-			if (docFilterLen1 > docFilterLen2) {
-				return -1;
-			} else if (docFilterLen1 < docFilterLen2) {
-				return +1;
-			}
+			docFilterLen1 = o1.getDocumentFilterLength();
+			docFilterLen2 = o2.getDocumentFilterLength();
 		} catch (BadLocationException e) {
 			LanguageServerPlugin.logError(e);
+			docFilterLen1 = docFilterLen2 = 0;
+		}
+		final int category1 = rankCategory.applyAsInt(o1);
+		final int category2 = rankCategory.applyAsInt(o2);
+		// the scores only matter between proposals of the same category
+		final boolean compareScores = docFilterLen1 == docFilterLen2 && category1 == category2
+				&& category1 < FuzzyScorer.WORST_CATEGORY;
+		return compare(docFilterLen1, category1, compareScores ? rankScore.applyAsInt(o1) : 0, o1.getSortText(),
+				docFilterLen2, category2, compareScores ? rankScore.applyAsInt(o2) : 0, o2.getSortText());
+	}
+
+	/**
+	 * Compares two proposals by their sort keys, so that proposals can be sorted
+	 * without being created.
+	 *
+	 * @return a negative integer, zero, or a positive integer as the first
+	 *         proposal is displayed before, with, or after the second one
+	 */
+	static int compare(int docFilterLen1, int category1, int score1, @Nullable String sortText1, int docFilterLen2,
+			int category2, int score2, @Nullable String sortText2) {
+		if (docFilterLen1 > docFilterLen2) {
+			return -1;
+		} else if (docFilterLen1 < docFilterLen2) {
+			return +1;
 		}
-		if (o1.getRankCategory() < o2.getRankCategory()) {
+		if (category1 < category2) {
 			return -1;
-		} else if (o1.getRankCategory() > o2.getRankCategory()) {
+		} else if (category1 > category2) {
 			return +1;
 		}
-		if ((o1.getRankCategory() < 5 && o2.getRankCategory() < 5)
-				&& (!(o1.getRankScore() == -1 && o2.getRankScore() == -1))) {
-			if (o2.getRankScore() == -1 || o1.getRankScore() < o2.getRankScore()) {
-				return -1;
-			} else if (o1.getRankScore() == -1 || o1.getRankScore() > o2.getRankScore()) {
-				return +1;
+		if (category1 < FuzzyScorer.WORST_CATEGORY && category2 < FuzzyScorer.WORST_CATEGORY) {
+			if (!(score1 == FuzzyScorer.NO_MATCH_SCORE && score2 == FuzzyScorer.NO_MATCH_SCORE)) {
+				if (score2 == FuzzyScorer.NO_MATCH_SCORE || score1 < score2) {
+					return -1;
+				} else if (score1 == FuzzyScorer.NO_MATCH_SCORE || score1 > score2) {
+					return +1;
+				}
 			}
 		}
-		String c1 = o1.getSortText();
-		String c2 = o2.getSortText();
-		if (c1 == null) {
+		if (sortText1 == null) {
 			return -1;
 		}
-		return c1.compareToIgnoreCase(c2);
+		return sortText1.compareToIgnoreCase(sortText2);
 	}
-}
\ No newline at end of file
+}
@@ -20,33 +20,39 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.ITextOperationTarget;
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.contentassist.CompletionProposal;
+import org.eclipse.jface.text.contentassist.ContentAssistEvent;
+import org.eclipse.jface.text.contentassist.ContentAssistantFacade;
 import org.eclipse.jface.text.contentassist.ContextInformation;
 import org.eclipse.jface.text.contentassist.ContextInformationValidator;
+import org.eclipse.jface.text.contentassist.ICompletionListener;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 import org.eclipse.jface.text.contentassist.IContentAssistProcessor;
 import org.eclipse.jface.text.contentassist.IContextInformation;
 import org.eclipse.jface.text.contentassist.IContextInformationValidator;
+import org.eclipse.jface.text.source.ISourceViewer;
+import org.eclipse.jface.text.source.ISourceViewerExtension4;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServers;
+import org.eclipse.lsp4e.RequestDeadlines;
 import org.eclipse.lsp4e.internal.CancellationSupport;
 import org.eclipse.lsp4e.internal.CancellationUtil;
 import org.eclipse.lsp4e.ui.Messages;
@@ -60,6 +66,7 @@
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.swt.custom.StyledText;
 import org.eclipse.ui.texteditor.ITextEditor;
 
 import com.google.common.base.Functions;
@@ -70,6 +77,13 @@ public class LSContentAssistProcessor implements IContentAssistProcessor {
 	private static final ICompletionProposal[] NO_COMPLETION_PROPOSALS = new ICompletionProposal[0];
 	private static final long TRIGGERS_TIMEOUT = 50;
 	private static final long CONTEXT_INFORMATION_TIMEOUT = 1000;
+	/**
+	 * Time the language servers have to contribute proposals before the
+	 * proposals received so far are shown. The proposals of late language
+	 * servers are merged into the popup when they arrive.
+	 */
+	private static final long CONTRIBUTION_DEADLINE = 250;
+	private static final String COMPLETION = "textDocument/completion"; //$NON-NLS-1$
 
 	private @Nullable IDocument currentDocument;
 	private @Nullable String errorMessage;
@@ -79,12 +93,51 @@ public class LSContentAssistProcessor implements IContentAssistProcessor {
 	private @Nullable CompletableFuture<List<@Nullable Void>> contextInformationLanguageServersFuture;
 	private volatile char[] contextTriggerChars = NO_CHARS;
 	private final boolean incompleteAsCompletionItem;
+	private volatile @Nullable CompletionListCache completionListCache;
+	/** the content assistant whose sessions the completion list cache lives for */
+	private @Nullable ContentAssistantFacade contentAssistant;
+	/**
+	 * Whether the popup of the content assistant is open. Always false without
+	 * content assistant to listen to, the proposals are then never refreshed.
+	 */
+	private volatile boolean sessionActive;
+	private final ICompletionListener sessionListener = new ICompletionListener() {
+
+		@Override
+		public void assistSessionStarted(ContentAssistEvent event) {
+			// the cache is created by the first computation of the session
+			sessionActive = true;
+		}
+
+		@Override
+		public void assistSessionEnded(ContentAssistEvent event) {
+			sessionActive = false;
+			// the proposals of the session won't be selected anymore
+			completionItemResolver.cancel();
+			disposeCompletionListCache();
+		}
+
+		@Override
+		public void selectionChanged(ICompletionProposal proposal, boolean smartToggle) {
+			// nothing to do
+		}
+	};
+	private volatile CompletionItemResolver completionItemResolver = new CompletionItemResolver();
 
 	/**
 	 * The cancellation support used to cancel previous LSP requests
 	 * 'textDocument/completion' when completion is retriggered
 	 */
-	private CancellationSupport completionCancellationSupport;
+	private volatile CancellationSupport completionCancellationSupport;
+	/**
+	 * The cancellation support of the computation whose proposals are computed
+	 * again because a language server answered late. The content assistant
+	 * doesn't tell a refresh from a new computation, this field does: the
+	 * computation it triggers keeps this cancellation support, rather than
+	 * cancelling the requests of the late language servers it waits for. It is
+	 * reset by the next computation, so it only applies to the refresh.
+	 */
+	private volatile @Nullable CancellationSupport refreshedCancellationSupport;
 	/**
 	 * The cancellation support used to cancel previous LSP requests
 	 * for fetching the trigger characters
@@ -106,8 +159,6 @@ public LSContentAssistProcessor(boolean errorAsCompletionItem, boolean incomplet
 		this.incompleteAsCompletionItem = incompleteAsCompletionItem;
 	}
 
-	private final Comparator<LSCompletionProposal> proposalComparator = new LSCompletionProposalComparator();
-
 	@Override
 	public ICompletionProposal @Nullable [] computeCompletionProposals(ITextViewer viewer, int offset) {
 		IDocument document = viewer.getDocument();
@@ -121,6 +172,7 @@ public LSContentAssistProcessor(boolean errorAsCompletionItem, boolean incomplet
 		}
 
 		initiateLanguageServers(document);
+		listenToSessions(viewer);
 		CompletionParams param;
 
 		try {
@@ -131,27 +183,90 @@ public LSContentAssistProcessor(boolean errorAsCompletionItem, boolean incomplet
 			return createErrorProposal(offset, e);
 		}
 
-		final var proposals = Collections.synchronizedList(new ArrayList<ICompletionProposal>());
+		// proposals of the language servers which answered before the deadline, guarded by itself
+		final var proposalLists = new ArrayList<CompletionProposalList>();
+		final var deadlinePassed = new AtomicBoolean(false);
+		final var firstContribution = new CompletableFuture<@Nullable Void>();
+		final var refreshScheduled = new AtomicBoolean(false);
 		final var anyIncomplete = new AtomicBoolean(false);
+		final CompletionListCache completionListCache = getCompletionListCache(document, offset);
+		final boolean anchored = completionListCache.getAnchorOffset() == offset;
+		final long start = System.nanoTime();
 		try {
-			// Cancel the previous LSP requests 'textDocument/completions' and
-			// completionLanguageServersFuture
-			this.completionCancellationSupport.cancel();
-
-			// Initialize a new cancel support to register:
-			// - LSP requests 'textDocument/completions'
-			// - completionLanguageServersFuture
-			final var cancellationSupport = new CancellationSupport();
+			final CancellationSupport previousCancellationSupport = this.completionCancellationSupport;
+			final boolean refresh = previousCancellationSupport == refreshedCancellationSupport;
+			refreshedCancellationSupport = null;
+			final CancellationSupport cancellationSupport;
+			if (refresh) {
+				// the late language servers of the refreshed computation are still awaited
+				cancellationSupport = previousCancellationSupport;
+			} else {
+				// Cancel the previous LSP requests 'textDocument/completions' and
+				// completionLanguageServersFuture
+				previousCancellationSupport.cancel();
+
+				// Initialize a new cancel support to register:
+				// - LSP requests 'textDocument/completions'
+				// - completionLanguageServersFuture
+				cancellationSupport = new CancellationSupport();
+			}
+			final Consumer<CompletionProposalList> contribute = proposalList -> {
+				synchronized (proposalLists) {
+					if (!deadlinePassed.get()) {
+						proposalLists.add(proposalList);
+						if (proposalList.size() > 0) {
+							firstContribution.complete(null);
+						}
+						return;
+					}
+				}
+				// the popup already shows the proposals of the faster language servers
+				if (proposalList.size() > 0 && refreshScheduled.compareAndSet(false, true)) {
+					refreshProposals(viewer, cancellationSupport);
+				}
+			};
 			final var completionLanguageServersFuture = this.completionLanguageServersFuture = cancellationSupport.execute(
 					LanguageServers.forDocument(document).withFilter(capabilities -> capabilities.getCompletionProvider() != null) //
-					.collectAll((w, ls) -> cancellationSupport.execute(ls.getTextDocumentService().completion(param)) //
-							.thenAccept(completion -> {
+					.collectAll((w, ls) -> {
+						// a complete list received while typing the current word only needs to be filtered again
+						final CompletionProposalList cachedProposals = completionListCache.getProposals(w, offset,
+								cancellationSupport);
+						if (cachedProposals != null) {
+							contribute.accept(cachedProposals);
+							return CompletableFuture.completedFuture(null);
+						}
+						final CompletableFuture<?> pendingRequest = refresh ? completionListCache.getPendingRequest(w) : null;
+						if (pendingRequest != null) {
+							// the language server is late to answer the refreshed computation, its answer gets cached
+							return pendingRequest.<@Nullable Void>handle((completion, error) -> {
+								final CompletionProposalList lateProposals = completionListCache.getProposals(w, offset,
+										cancellationSupport);
+								if (lateProposals != null) {
+									contribute.accept(lateProposals);
+								}
+								return null;
+							});
+						}
+						CompletableFuture<Either<List<CompletionItem>, CompletionList>> request = cancellationSupport
+								.execute(ls.getTextDocumentService().completion(param));
+						if (anchored) {
+							// a refresh waits for this request instead of sending another one
+							request = completionListCache.track(w, request);
+						}
+						return request.thenAccept(completion -> {
+								ContributionMetrics.record(w, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+										CONTRIBUTION_DEADLINE);
 								boolean isIncomplete = completion != null && completion.isRight()
 										&& completion.getRight().isIncomplete();
-								proposals.addAll(toProposals(document, offset, completion, w, cancellationSupport,
-										isIncomplete));
 								if (isIncomplete) {
 									anyIncomplete.set(true);
+								} else if (completion != null && anchored) {
+									completionListCache.put(w, completion.map(Functions.identity(), CompletionList::getItems),
+											completion.map(items -> null, CompletionList::getItemDefaults));
+								}
+								if (completion != null) {
+									contribute.accept(toProposals(document, offset, completion, w, cancellationSupport,
+											isIncomplete));
 								}
 							}).exceptionally(t -> {
 								if (!CancellationUtil.isRequestCancelledException(t)) {
@@ -159,12 +274,28 @@ public LSContentAssistProcessor(boolean errorAsCompletionItem, boolean incomplet
 											.formatted(w.serverDefinition.label), t);
 								}
 								return null;
-							})));
+							});
+					}));
 			this.completionCancellationSupport = cancellationSupport;
 
-			// Wait for the result of all LSP requests 'textDocument/completions', this
-			// future will be canceled with the next completion
-			completionLanguageServersFuture.get();
+			// Wait for the result of all LSP requests 'textDocument/completions' until
+			// the deadline, then for the first language server contributing proposals,
+			// within the deadline of the method. The futures will be canceled with the
+			// next completion
+			try {
+				completionLanguageServersFuture.get(CONTRIBUTION_DEADLINE, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				final long timeoutMs = Math.max(0, RequestDeadlines.get(document, COMPLETION) - CONTRIBUTION_DEADLINE);
+				try {
+					CompletableFuture.anyOf(firstContribution, completionLanguageServersFuture).get(timeoutMs,
+							TimeUnit.MILLISECONDS);
+				} catch (TimeoutException ex) {
+					// the popup is refreshed with the proposals of the language servers which answer later
+				}
+			}
+			synchronized (proposalLists) {
+				deadlinePassed.set(true);
+			}
 		} catch (ExecutionException e) {
 			// Ideally exceptions from each LS are handled above and we shouldn't be getting
 			// into this block
@@ -177,14 +308,12 @@ public LSContentAssistProcessor(boolean errorAsCompletionItem, boolean incomplet
 			return createErrorProposal(offset, e);
 		}
 
-		final var completeProposals = new ArrayList<LSCompletionProposal>();
-		for (final ICompletionProposal proposal : proposals) {
-			if (!(proposal instanceof final LSCompletionProposal completeProposal)) {
-				return proposals.toArray(ICompletionProposal[]::new);
-			}
-			completeProposals.add(completeProposal);
+		final List<LSCompletionProposal> completeProposals;
+		synchronized (proposalLists) {
+			// each list is already sorted
+			completeProposals = CompletionProposalList.merge(proposalLists);
 		}
-		completeProposals.sort(proposalComparator);
+		completionItemResolver.setProposals(completeProposals);
 		final ICompletionProposal incompleteProposal = createIncompleteProposal(offset, anyIncomplete.get());
 		if (incompleteProposal != null) {
 			@SuppressWarnings("unchecked")
@@ -195,6 +324,79 @@ public LSContentAssistProcessor(boolean errorAsCompletionItem, boolean incomplet
 		return completeProposals.toArray(ICompletionProposal[]::new);
 	}
 
+	/**
+	 * Computes the proposals again on behalf of a language server which
+	 * answered after the contribution deadline, so that the popup showing the
+	 * proposals of the faster language servers merges the late ones. Nothing
+	 * happens if the popup got closed or a newer computation started meanwhile.
+	 */
+	private void refreshProposals(ITextViewer viewer, CancellationSupport computation) {
+		final StyledText textWidget = viewer.getTextWidget();
+		if (textWidget == null || textWidget.isDisposed()) {
+			return;
+		}
+		textWidget.getDisplay().asyncExec(() -> {
+			if (!textWidget.isDisposed() && computation == completionCancellationSupport && sessionActive
+					&& viewer instanceof ITextOperationTarget target
+					&& target.canDoOperation(ISourceViewer.CONTENTASSIST_PROPOSALS)) {
+				refreshedCancellationSupport = computation;
+				target.doOperation(ISourceViewer.CONTENTASSIST_PROPOSALS);
+			}
+		});
+	}
+
+	/**
+	 * @return the cache of complete completion lists if it still applies at the
+	 *         given offset, otherwise a new one anchored at this offset
+	 */
+	private CompletionListCache getCompletionListCache(IDocument document, int offset) {
+		var completionListCache = this.completionListCache;
+		if (completionListCache != null && completionListCache.isValidFor(document, offset)) {
+			return completionListCache;
+		}
+		if (completionListCache != null) {
+			completionListCache.dispose();
+		}
+		// a new completion session starts
+		completionItemResolver.cancel();
+		completionItemResolver = new CompletionItemResolver();
+		completionListCache = this.completionListCache = new CompletionListCache(document, offset, completionTriggerChars);
+		completionListCache.attach();
+		return completionListCache;
+	}
+
+	/**
+	 * Listens to the content assist sessions of the viewer, so that the
+	 * completion list cache stops tracking the document when the session ends.
+	 * Without content assistant, the cache is only dropped once invalidated.
+	 */
+	private synchronized void listenToSessions(ITextViewer viewer) {
+		final ContentAssistantFacade contentAssistant = viewer instanceof ISourceViewerExtension4 extension
+				? extension.getContentAssistantFacade()
+				: null;
+		final ContentAssistantFacade previousContentAssistant = this.contentAssistant;
+		if (contentAssistant == previousContentAssistant) {
+			return;
+		}
+		if (previousContentAssistant != null) {
+			previousContentAssistant.removeCompletionListener(sessionListener);
+		}
+		if (contentAssistant != null) {
+			contentAssistant.addCompletionListener(sessionListener);
+		}
+		this.contentAssistant = contentAssistant;
+		// the session computing the proposals started before being listened to
+		sessionActive = contentAssistant != null;
+	}
+
+	private void disposeCompletionListCache() {
+		final CompletionListCache completionListCache = this.completionListCache;
+		if (completionListCache != null) {
+			this.completionListCache = null;
+			completionListCache.dispose();
+		}
+	}
+
 	private ICompletionProposal[] createErrorProposal(int offset, Exception ex) {
 		if (errorAsCompletionItem) {
 			return new ICompletionProposal[] {
@@ -254,25 +456,16 @@ private void initiateLanguageServers() {
 		}
 	}
 
-	private static List<ICompletionProposal> toProposals(IDocument document, int offset,
-			@Nullable Either<List<CompletionItem>, CompletionList> completionList,
+	private static CompletionProposalList toProposals(IDocument document, int offset,
+			Either<List<CompletionItem>, CompletionList> completionList,
 			LanguageServerWrapper languageServerWrapper, CancelChecker cancelChecker, boolean isIncomplete) {
-		if (completionList == null) {
-			return Collections.emptyList();
-		}
 		// Stop the compute of ICompletionProposal if the completion has been cancelled
 		cancelChecker.checkCanceled();
 		CompletionItemDefaults defaults = completionList.map(o -> null, CompletionList::getItemDefaults);
-		return completionList.map( Functions.identity(), CompletionList::getItems).stream() //
-				.filter(Objects::nonNull) //
-				.map(item -> new LSCompletionProposal(document, offset, item, defaults, languageServerWrapper, isIncomplete))
-				.filter(proposal -> {
-					// Stop the compute of ICompletionProposal if the completion has been cancelled
-					cancelChecker.checkCanceled();
-					return true;
-				}).filter(proposal -> proposal.validate(document, offset, null)) //
-				.map(ICompletionProposal.class::cast)
-				.toList();
+		// proposals are only created for the items matching the document filter
+		return new CompletionProposalList(document, offset, offset,
+				completionList.map(Functions.identity(), CompletionList::getItems), defaults, languageServerWrapper,
+				isIncomplete, cancelChecker);
 	}
 
 	@Override
@@ -290,10 +483,13 @@ private static List<ICompletionProposal> toProposals(IDocument document, int off
 			return new IContextInformation[] { /* TODO? show error in context information */ };
 		}
 		List<IContextInformation> contextInformations = Collections.synchronizedList(new ArrayList<>());
+		final long start = System.nanoTime();
 		try {
 			this.contextInformationLanguageServersFuture = LanguageServers.forDocument(document)
 					.withFilter(capabilities -> capabilities.getSignatureHelpProvider() != null)
-					.collectAll(ls -> ls.getTextDocumentService().signatureHelp(param).thenAccept(signatureHelp -> {
+					.collectAll((w, ls) -> ls.getTextDocumentService().signatureHelp(param).thenAccept(signatureHelp -> {
+						ContributionMetrics.record(w, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+								CONTEXT_INFORMATION_TIMEOUT);
 						if (signatureHelp != null) {
 							signatureHelp.getSignatures().stream().map(LSContentAssistProcessor::toContextInformation)
 									.forEach(contextInformations::add);
@@ -311,9 +507,9 @@ private static List<ICompletionProposal> toProposals(IDocument document, int off
 			Thread.currentThread().interrupt();
 			return new IContextInformation[] { /* TODO? show error in context information */ };
 		} catch (TimeoutException e) {
-			LanguageServerPlugin.logWarning("Could not compute  context information due to timeout after " //$NON-NLS-1$
+			LanguageServerPlugin.logWarning("Could not compute  context information of all language servers due to timeout after " //$NON-NLS-1$
 					+ CONTEXT_INFORMATION_TIMEOUT + " milliseconds", e); //$NON-NLS-1$
-			return new IContextInformation[] { /* TODO? show error in context information */ };
+			// show the context information of the language servers which answered in time
 		}
 		return contextInformations.toArray(IContextInformation[]::new);
 	}
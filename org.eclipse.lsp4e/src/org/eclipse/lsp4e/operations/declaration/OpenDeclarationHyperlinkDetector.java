@@ -34,6 +34,7 @@
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServers;
+import org.eclipse.lsp4e.RequestDeadlines;
 import org.eclipse.lsp4e.internal.Pair;
 import org.eclipse.lsp4e.ui.Messages;
 import org.eclipse.lsp4j.Location;
@@ -59,6 +60,8 @@ public class OpenDeclarationHyperlinkDetector extends AbstractHyperlinkDetector
 			return null;
 		}
 		final var allLinks = new LinkedHashMap<Either<Location, LocationLink>,LSBasedHyperlink>();
+		final long timeoutMs = RequestDeadlines.get(document, "textDocument/definition", "textDocument/declaration", //$NON-NLS-1$ //$NON-NLS-2$
+				"textDocument/typeDefinition", "textDocument/implementation"); //$NON-NLS-1$ //$NON-NLS-2$
 		try {
 			var definitions = LanguageServers.forDocument(document).withCapability(ServerCapabilities::getDefinitionProvider)
 				.collectAll(ls -> ls.getTextDocumentService().definition(LSPEclipseUtils.toDefinitionParams(params)).thenApply(l -> Pair.of(Messages.definitionHyperlinkLabel, l)));
@@ -69,7 +72,7 @@ public class OpenDeclarationHyperlinkDetector extends AbstractHyperlinkDetector
 			var implementations = LanguageServers.forDocument(document).withCapability(ServerCapabilities::getImplementationProvider)
 				.collectAll(ls -> ls.getTextDocumentService().implementation(LSPEclipseUtils.toImplementationParams(params)).thenApply(l -> Pair.of(Messages.implementationHyperlinkLabel, l)));
 			LanguageServers.addAll(LanguageServers.addAll(LanguageServers.addAll(definitions, declarations), typeDefinitions), implementations)
-				.get(800, TimeUnit.MILLISECONDS)
+				.get(timeoutMs, TimeUnit.MILLISECONDS)
 				.stream().flatMap(locations -> toHyperlinks(document, region, locations.first(), locations.second()).stream())
 				.forEach(link -> allLinks.putIfAbsent(link.getLocation(), link));
 		} catch (ExecutionException e) {
@@ -78,7 +81,7 @@ public class OpenDeclarationHyperlinkDetector extends AbstractHyperlinkDetector
 			LanguageServerPlugin.logError(e);
 			Thread.currentThread().interrupt();
 		} catch (TimeoutException e) {
-			LanguageServerPlugin.logWarning("Could not detect hyperlinks due to timeout after 800 milliseconds", e);  //$NON-NLS-1$
+			LanguageServerPlugin.logWarning("Could not detect hyperlinks due to timeout after " + timeoutMs + " milliseconds", e);  //$NON-NLS-1$ //$NON-NLS-2$
 		}
 		if (allLinks.isEmpty()) {
 			return null;
@@ -31,6 +31,7 @@
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServers;
+import org.eclipse.lsp4e.RequestDeadlines;
 import org.eclipse.lsp4j.DocumentLink;
 import org.eclipse.lsp4j.DocumentLinkParams;
 
@@ -79,6 +80,7 @@ public void open() {
 			return null;
 		}
 		final var params = new DocumentLinkParams(LSPEclipseUtils.toTextDocumentIdentifier(uri));
+		final long timeoutMs = RequestDeadlines.get(document, "textDocument/documentLink"); //$NON-NLS-1$
 		try {
 			return LanguageServers.forDocument(document)
 					.withFilter(capabilities -> capabilities.getDocumentLinkProvider() != null)
@@ -92,7 +94,7 @@ public void open() {
 						} else {
 							return res;
 						}
-					}).get(4, TimeUnit.SECONDS);
+					}).get(timeoutMs, TimeUnit.MILLISECONDS);
 		} catch (ExecutionException e) {
 			LanguageServerPlugin.logError(e);
 			return null;
@@ -101,7 +103,7 @@ public void open() {
 			Thread.currentThread().interrupt();
 			return null;
 		} catch (TimeoutException e) {
-			LanguageServerPlugin.logWarning("Could not detect hyperlinks due to timeout after 4 seconds", e); //$NON-NLS-1$
+			LanguageServerPlugin.logWarning("Could not detect hyperlinks due to timeout after " + timeoutMs + " milliseconds", e); //$NON-NLS-1$ //$NON-NLS-2$
 			return null;
 		}
 	}
@@ -11,13 +11,18 @@
  *******************************************************************************/
 package org.eclipse.lsp4e.operations.format;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.commands.AbstractHandler;
@@ -28,6 +33,9 @@
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -38,9 +46,13 @@
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.TextSelection;
+import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
+import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServersRegistry;
+import org.eclipse.lsp4e.LanguageServiceAccessor;
 import org.eclipse.lsp4e.VersionedEdits;
+import org.eclipse.lsp4e.internal.ParallelUtil;
 import org.eclipse.lsp4e.ui.Messages;
 import org.eclipse.lsp4e.ui.UI;
 import org.eclipse.osgi.util.NLS;
@@ -51,8 +63,24 @@
 public class LSPFormatFilesHandler extends AbstractHandler {
 
 	private static final int SINGLE_FILE_TIMEOUT_MS = 5000;
+	/** maximum number of formatting requests in flight per language server */
+	private static final int MAX_PARALLEL_FORMATTINGS = ParallelUtil.DEFAULT_PARALLELISM;
+	/** number of formatted files saved together in one workspace operation */
+	private static final int SAVE_BATCH_SIZE = 50;
 	protected final LSPFormatter formatter = new LSPFormatter();
 
+	/**
+	 * A file whose document is connected, and being formatted by the language
+	 * servers.
+	 *
+	 * @param isOpen
+	 *            whether the document was already connected elsewhere, in an
+	 *            editor for instance, before being connected for the formatting
+	 */
+	private record PendingFormatting(IFile file, IDocumentProvider docProvider, IDocument document, boolean isOpen,
+			List<LanguageServerWrapper> servers, CompletableFuture<Optional<VersionedEdits>> formatting) {
+	}
+
 	@Override
 	public @Nullable Object execute(final ExecutionEvent event) throws ExecutionException {
 		if (event.getApplicationContext() instanceof final ExpressionContext ctx) {
@@ -62,13 +90,46 @@ public class LSPFormatFilesHandler extends AbstractHandler {
 
 				final var selectedFiles = getSelectedFiles(ctx);
 				final var subMonitor = SubMonitor.convert(monitor, selectedFiles.size());
+				// only the requests to the language servers run concurrently, the documents
+				// are connected, changed, saved and disconnected in this thread
+				final var inFlight = new ArrayDeque<PendingFormatting>();
+				final Map<LanguageServerWrapper, Integer> inFlightPerServer = new HashMap<>();
+				final var toSave = new ArrayList<PendingFormatting>();
+				int processed = 0;
+				final long startTime = System.currentTimeMillis();
 				for (final IFile file : selectedFiles) {
+					if (subMonitor.isCanceled())
+						break;
+					final List<LanguageServerWrapper> servers = getFormattingServers(file);
+					// the file is requested once its language servers have room, while waiting for
+					// the oldest files, so that a slow server doesn't hold back the other ones
+					while (servers.stream().anyMatch(
+							server -> inFlightPerServer.getOrDefault(server, 0) >= MAX_PARALLEL_FORMATTINGS)) {
+						final PendingFormatting oldest = inFlight.removeFirst();
+						oldest.servers().forEach(server -> inFlightPerServer.merge(server, -1, Integer::sum));
+						applyFormatting(oldest, toSave);
+						reportProgress(subMonitor, ++processed, selectedFiles.size(), startTime);
+					}
+					final PendingFormatting pending = servers.isEmpty() ? null : requestFormatting(file, servers);
+					if (pending != null) {
+						inFlight.add(pending);
+						servers.forEach(server -> inFlightPerServer.merge(server, 1, Integer::sum));
+					} else {
+						reportProgress(subMonitor, ++processed, selectedFiles.size(), startTime);
+					}
+				}
+				while (!inFlight.isEmpty()) {
+					final PendingFormatting pending = inFlight.removeFirst();
 					if (subMonitor.isCanceled()) {
-						return;
+						pending.formatting().cancel(true);
+						pending.docProvider().disconnect(pending.file());
+					} else {
+						applyFormatting(pending, toSave);
+						reportProgress(subMonitor, ++processed, selectedFiles.size(), startTime);
 					}
-					formatFile(file, monitor);
-					subMonitor.worked(1);
 				}
+				// also when cancelled, as the formatted documents would otherwise be discarded
+				saveDocuments(toSave);
 				subMonitor.done();
 			});
 			job.setPriority(Job.BUILD);
@@ -77,40 +138,146 @@ public class LSPFormatFilesHandler extends AbstractHandler {
 		return null;
 	}
 
-	protected void formatFile(final IFile file, final IProgressMonitor monitor) {
+	private void reportProgress(SubMonitor subMonitor, int processed, int total, long startTime) {
+		final long elapsedMs = Math.max(1, System.currentTimeMillis() - startTime);
+		subMonitor.worked(1);
+		subMonitor.subTask(NLS.bind(Messages.LSPFormatFilesHandler_FormattingProgress,
+				new Object[] { processed, total, processed * 1000L / elapsedMs }));
+	}
+
+	/**
+	 * @return the language servers which format the given file, empty if the
+	 *         file can't be formatted
+	 */
+	private List<LanguageServerWrapper> getFormattingServers(final IFile file) {
 		if (!file.exists() || !LanguageServersRegistry.getInstance().canUseLanguageServer(file))
-			return;
+			return List.of();
+		return LanguageServiceAccessor.getLSWrappers(file, LSPFormatter::supportsFormatting);
+	}
 
+	/**
+	 * Connects the document of the given file and requests its formatting.
+	 *
+	 * @return the pending formatting, or null if the file can't be formatted
+	 */
+	private @Nullable PendingFormatting requestFormatting(final IFile file, final List<LanguageServerWrapper> servers) {
 		final var docProvider = getDocumentProvider(file);
+		// once connected here, the file always has a document
+		final boolean isOpen = LSPEclipseUtils.getExistingDocument(file) != null;
 		try {
 			docProvider.connect(file);
-			final IDocument doc = docProvider.getDocument(file);
-			if (doc == null)
-				return;
+		} catch (CoreException ex) {
+			LanguageServerPlugin.logError(ex);
+			return null;
+		}
+		final IDocument doc = docProvider.getDocument(file);
+		if (doc == null) {
+			docProvider.disconnect(file);
+			return null;
+		}
+		try {
+			return new PendingFormatting(file, docProvider, doc, isOpen, servers,
+					formatter.requestFormatting(doc, new TextSelection(0, 0)));
+		} catch (final Exception ex) {
+			LanguageServerPlugin.logError(ex);
+			docProvider.disconnect(file);
+			return null;
+		}
+	}
 
-			monitor.setTaskName(NLS.bind(Messages.LSPFormatFilesHandler_FormattingFile, file.getFullPath()));
-			final Optional<VersionedEdits> formatting = formatter.requestFormatting(doc,
-					new TextSelection(0, 0)).get(SINGLE_FILE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
-
-			formatting.ifPresent(edits -> {
-				docProvider.aboutToChange(doc);
-				UI.getDisplay().syncExec(() -> {
-					try {
-						edits.apply();
-					} catch (ConcurrentModificationException | BadLocationException e) {
-						LanguageServerPlugin.logError(e);
-					}
-				});
-				docProvider.changed(doc);
-				saveDocument(docProvider, file, monitor);
-			});
+	/**
+	 * Waits for the formatting of a file and applies it. The formatted files are
+	 * saved by batches, the others are disconnected right away.
+	 */
+	private void applyFormatting(final PendingFormatting pending, final List<PendingFormatting> toSave) {
+		boolean formatted = false;
+		try {
+			final Optional<VersionedEdits> formatting = pending.formatting().get(SINGLE_FILE_TIMEOUT_MS,
+					TimeUnit.MILLISECONDS);
+			if (formatting.isPresent()) {
+				applyEdits(pending.docProvider(), pending.document(), formatting.get(), pending.isOpen());
+				formatted = true;
+			}
 		} catch (InterruptedException ex) {
 			Thread.currentThread().interrupt();
 			LanguageServerPlugin.logError(ex);
 		} catch (final Exception ex) {
 			LanguageServerPlugin.logError(ex);
+		}
+		if (!formatted) {
+			pending.docProvider().disconnect(pending.file());
+			return;
+		}
+		toSave.add(pending);
+		if (toSave.size() >= SAVE_BATCH_SIZE) {
+			saveDocuments(toSave);
+			toSave.clear();
+		}
+	}
+
+	/**
+	 * Applies the edits, in the UI thread only if the document is open
+	 * elsewhere, in an editor for instance.
+	 */
+	private void applyEdits(final IDocumentProvider docProvider, final IDocument doc, final VersionedEdits edits,
+			final boolean isOpen) {
+		final Runnable applyEdits = () -> {
+			try {
+				edits.apply();
+			} catch (ConcurrentModificationException | BadLocationException e) {
+				LanguageServerPlugin.logError(e);
+			}
+		};
+		docProvider.aboutToChange(doc);
+		try {
+			if (isOpen) {
+				UI.getDisplay().syncExec(applyEdits);
+			} else {
+				applyEdits.run();
+			}
 		} finally {
-			docProvider.disconnect(file);
+			docProvider.changed(doc);
+		}
+	}
+
+	/**
+	 * Formats a single file and saves it.
+	 *
+	 * @deprecated {@link #execute(ExecutionEvent)} doesn't format the files one
+	 *             by one anymore but requests their formatting concurrently, so
+	 *             overriding this method has no effect on it. Override
+	 *             {@link #getDocumentProvider(IFile)} or
+	 *             {@link #saveDocument(IDocumentProvider, IFile, IProgressMonitor)}
+	 *             instead.
+	 */
+	@Deprecated
+	protected void formatFile(final IFile file, final IProgressMonitor monitor) {
+		final List<LanguageServerWrapper> servers = getFormattingServers(file);
+		final PendingFormatting pending = servers.isEmpty() ? null : requestFormatting(file, servers);
+		if (pending != null) {
+			final var toSave = new ArrayList<PendingFormatting>(1);
+			applyFormatting(pending, toSave);
+			saveDocuments(toSave);
+		}
+	}
+
+	/**
+	 * Saves the given formatted files in one workspace operation, and
+	 * disconnects their documents.
+	 */
+	private void saveDocuments(final List<PendingFormatting> formattedFiles) {
+		if (formattedFiles.isEmpty())
+			return;
+		try {
+			ResourcesPlugin.getWorkspace().run((IWorkspaceRunnable) monitor -> {
+				for (final PendingFormatting formattedFile : formattedFiles) {
+					saveDocument(formattedFile.docProvider(), formattedFile.file(), monitor);
+				}
+			}, null, IWorkspace.AVOID_UPDATE, new NullProgressMonitor());
+		} catch (CoreException e) {
+			LanguageServerPlugin.logError(e);
+		} finally {
+			formattedFiles.forEach(formattedFile -> formattedFile.docProvider().disconnect(formattedFile.file()));
 		}
 	}
 
@@ -16,10 +16,10 @@
 import static org.eclipse.lsp4e.internal.NullSafetyHelper.lateNonNull;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.core.runtime.ICoreRunnable;
@@ -32,11 +32,13 @@
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ISynchronizable;
 import org.eclipse.jface.text.ITextSelection;
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.ITextViewerLifecycle;
+import org.eclipse.jface.text.Region;
 import org.eclipse.jface.text.reconciler.DirtyRegion;
 import org.eclipse.jface.text.reconciler.IReconcilingStrategy;
 import org.eclipse.jface.text.reconciler.IReconcilingStrategyExtension;
@@ -73,10 +75,39 @@
 	public static final String WRITE_ANNOTATION_TYPE = "org.eclipse.lsp4e.write"; //$NON-NLS-1$
 	public static final String TEXT_ANNOTATION_TYPE = "org.eclipse.lsp4e.text"; //$NON-NLS-1$
 
+	/**
+	 * Delay after the last caret move before the highlights are requested
+	 */
+	private static final long DEBOUNCE_DELAY_MS = 100;
+
+	/**
+	 * Ranges of the highlights shown, for the given modification stamp of the
+	 * document
+	 */
+	private record ShownHighlights(long modificationStamp, List<IRegion> ranges) {
+
+		boolean contains(int offset) {
+			for (final IRegion range : ranges) {
+				if (range.getOffset() <= offset && offset <= range.getOffset() + range.getLength()) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private record AnnotationKey(String type, int offset, int length) {
+	}
+
 	private boolean enabled;
 	private @Nullable ISourceViewer sourceViewer;
 	private @Nullable IDocument document;
-	private @Nullable Job highlightJob;
+	private volatile int caretOffset;
+	/** caret offset of the last requests of 'documentHighlight' */
+	private volatile int requestedOffset = -1;
+	private final Job highlightJob = Job.createSystem("LSP4E Highlight", //$NON-NLS-1$
+			(ICoreRunnable) monitor -> collectHighlights(caretOffset, monitor));
+	private volatile @Nullable ShownHighlights shownHighlights;
 
 	/**
 	 * Holds the current occurrence annotations.
@@ -115,15 +146,32 @@ public void selectionChanged(SelectionChangedEvent event) {
 
 	private void updateHighlights(ISelection selection) {
 		if (selection instanceof ITextSelection textSelection) {
-			if (highlightJob != null) {
+			final int offset = textSelection.getOffset();
+			final var shownHighlights = this.shownHighlights;
+			final long modificationStamp = getModificationStamp();
+			if (shownHighlights != null && modificationStamp != IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP
+					&& shownHighlights.modificationStamp() == modificationStamp && shownHighlights.contains(offset)) {
+				// the caret stays on, or came back to, an occurrence of the same symbol: the
+				// highlights requested for another position meanwhile would replace them
 				highlightJob.cancel();
+				if (!shownHighlights.contains(requestedOffset)) {
+					cancel();
+				}
+				return;
 			}
-			highlightJob = Job.createSystem("LSP4E Highlight", //$NON-NLS-1$
-					(ICoreRunnable)(monitor -> collectHighlights(textSelection.getOffset(), monitor)));
-			highlightJob.schedule();
+			// coalesce the requests while the caret is moving
+			caretOffset = offset;
+			highlightJob.cancel();
+			highlightJob.schedule(DEBOUNCE_DELAY_MS);
 		}
 	}
 
+	private long getModificationStamp() {
+		return document instanceof IDocumentExtension4 extension
+				? extension.getModificationStamp()
+				: IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+	}
+
 	private EditorSelectionChangedListener editorSelectionChangedListener = lateNonNull();
 
 	private List<CompletableFuture<@Nullable List<? extends DocumentHighlight>>> requests = List.of();
@@ -148,6 +196,7 @@ public void uninstall() {
 		}
 		IEclipsePreferences preferences = InstanceScope.INSTANCE.getNode(LanguageServerPlugin.PLUGIN_ID);
 		preferences.removePreferenceChangeListener(this);
+		highlightJob.cancel();
 		cancel();
 	}
 
@@ -190,6 +239,7 @@ private void collectHighlights(int caretOffset, @Nullable IProgressMonitor monit
 			return;
 		}
 		cancel();
+		requestedOffset = caretOffset;
 		Position position;
 		try {
 			position = LSPEclipseUtils.toPosition(caretOffset, document);
@@ -203,12 +253,20 @@ private void collectHighlights(int caretOffset, @Nullable IProgressMonitor monit
 		}
 		final var identifier = LSPEclipseUtils.toTextDocumentIdentifier(uri);
 		final var params = new DocumentHighlightParams(identifier, position);
+		final long modificationStamp = getModificationStamp();
+		// the highlights of all language servers received so far
+		final var allHighlights = new ArrayList<DocumentHighlight>();
 		requests = LanguageServers.forDocument(document)
 				.withCapability(ServerCapabilities::getDocumentHighlightProvider)
 				.computeAll(languageServer -> languageServer.getTextDocumentService().documentHighlight(params));
 		requests.forEach(request -> request.thenAcceptAsync(highlights -> {
-			if (monitor == null || !monitor.isCanceled()) {
-				updateAnnotations(highlights, sourceViewer.getAnnotationModel());
+			if ((monitor == null || !monitor.isCanceled()) && highlights != null) {
+				final List<DocumentHighlight> highlightsToShow;
+				synchronized (allHighlights) {
+					allHighlights.addAll(highlights);
+					highlightsToShow = List.copyOf(allHighlights);
+				}
+				updateAnnotations(highlightsToShow, sourceViewer.getAnnotationModel(), modificationStamp);
 			}
 		}));
 	}
@@ -221,42 +279,66 @@ private void cancel() {
 	}
 
 	/**
-	 * Update the UI annotations with the given list of DocumentHighlight.
+	 * Update the UI annotations with the given list of DocumentHighlight. Only
+	 * the annotations which changed are removed or added.
 	 *
 	 * @param highlights
 	 *            list of DocumentHighlight
 	 * @param annotationModel
 	 *            annotation model to update.
+	 * @param modificationStamp
+	 *            modification stamp of the document the highlights were
+	 *            requested for
 	 */
-	private void updateAnnotations(@Nullable List<? extends DocumentHighlight> highlights, IAnnotationModel annotationModel) {
+	private void updateAnnotations(List<? extends DocumentHighlight> highlights, @Nullable IAnnotationModel annotationModel,
+			long modificationStamp) {
 		final var document = this.document;
-		if (highlights == null || document == null)
+		if (document == null || annotationModel == null)
 			return;
 
-		final var annotationMap = new HashMap<Annotation, org.eclipse.jface.text.Position>(highlights.size());
+		final var newAnnotations = new LinkedHashMap<AnnotationKey, org.eclipse.jface.text.Position>(highlights.size());
+		final var ranges = new ArrayList<IRegion>(highlights.size());
 		for (DocumentHighlight h : highlights) {
 			try {
 				int start = LSPEclipseUtils.toOffset(h.getRange().getStart(), document);
 				int end = LSPEclipseUtils.toOffset(h.getRange().getEnd(), document);
-				annotationMap.put(new Annotation(kindToAnnotationType(h.getKind()), false, null),
+				newAnnotations.put(new AnnotationKey(kindToAnnotationType(h.getKind()), start, end - start),
 						new org.eclipse.jface.text.Position(start, end - start));
+				ranges.add(new Region(start, end - start));
 			} catch (Exception e) {
 				LanguageServerPlugin.logError(e);
 			}
 		}
 
 		synchronized (getLockObject(annotationModel)) {
-			if (annotationModel instanceof IAnnotationModelExtension modelExtension) {
-				modelExtension.replaceAnnotations(fOccurrenceAnnotations, annotationMap);
-			} else {
-				removeOccurrenceAnnotations();
-				Iterator<Entry<Annotation, org.eclipse.jface.text.Position>> iter = annotationMap.entrySet().iterator();
-				while (iter.hasNext()) {
-					Entry<Annotation, org.eclipse.jface.text.Position> mapEntry = iter.next();
-					annotationModel.addAnnotation(mapEntry.getKey(), mapEntry.getValue());
+			final var annotationsToRemove = new ArrayList<Annotation>();
+			final var keptAnnotations = new ArrayList<Annotation>();
+			final var fOccurrenceAnnotations = this.fOccurrenceAnnotations;
+			if (fOccurrenceAnnotations != null) {
+				for (final Annotation annotation : fOccurrenceAnnotations) {
+					// positions of the annotations follow the document changes
+					final org.eclipse.jface.text.Position position = annotationModel.getPosition(annotation);
+					if (position != null && !position.isDeleted() && newAnnotations.remove(new AnnotationKey(
+							annotation.getType(), position.getOffset(), position.getLength())) != null) {
+						keptAnnotations.add(annotation);
+					} else {
+						annotationsToRemove.add(annotation);
+					}
+				}
+			}
+			final var annotationsToAdd = new HashMap<Annotation, org.eclipse.jface.text.Position>(newAnnotations.size());
+			newAnnotations.forEach((key, position) -> annotationsToAdd.put(new Annotation(key.type(), false, null), position));
+			if (!annotationsToRemove.isEmpty() || !annotationsToAdd.isEmpty()) {
+				if (annotationModel instanceof IAnnotationModelExtension modelExtension) {
+					modelExtension.replaceAnnotations(annotationsToRemove.toArray(Annotation[]::new), annotationsToAdd);
+				} else {
+					annotationsToRemove.forEach(annotationModel::removeAnnotation);
+					annotationsToAdd.forEach(annotationModel::addAnnotation);
 				}
 			}
-			fOccurrenceAnnotations = annotationMap.keySet().toArray(Annotation[]::new);
+			keptAnnotations.addAll(annotationsToAdd.keySet());
+			this.fOccurrenceAnnotations = keptAnnotations.toArray(Annotation[]::new);
+			this.shownHighlights = new ShownHighlights(modificationStamp, List.copyOf(ranges));
 		}
 	}
 
@@ -294,6 +376,7 @@ void removeOccurrenceAnnotations() {
 					annotationModel.removeAnnotation(fOccurrenceAnnotation);
 			}
 			this.fOccurrenceAnnotations = null;
+			this.shownHighlights = null;
 		}
 	}
 
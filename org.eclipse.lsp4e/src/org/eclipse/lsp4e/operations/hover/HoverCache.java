@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.hover;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.LanguageServerPlugin;
+import org.eclipse.lsp4e.LanguageServers;
+import org.eclipse.lsp4j.Hover;
+import org.eclipse.lsp4j.HoverParams;
+import org.eclipse.lsp4j.ServerCapabilities;
+
+/**
+ * The hovers received for the words of a document, and their rendering, as
+ * long as the document isn't modified. Hovering the same word again, or a word
+ * whose hover was prefetched, doesn't send another request.
+ */
+final class HoverCache {
+
+	/** maximum number of words whose hovers are kept per document */
+	private static final int MAX_ENTRIES_PER_DOCUMENT = 50;
+
+	private static final Map<IDocument, DocumentHovers> DOCUMENT_HOVERS = Collections
+			.synchronizedMap(new WeakHashMap<>());
+
+	private record Word(int start, int end) {
+	}
+
+	/**
+	 * The hovers of a word, and their rendering computed on first use.
+	 */
+	static final class Entry {
+
+		final CompletableFuture<List<Hover>> hovers;
+		private @Nullable CompletableFuture<@Nullable String> rendering;
+
+		private Entry(CompletableFuture<List<Hover>> hovers) {
+			this.hovers = hovers;
+		}
+
+		synchronized CompletableFuture<@Nullable String> getRendering(
+				Function<List<Hover>, @Nullable String> renderer) {
+			var rendering = this.rendering;
+			if (rendering == null) {
+				rendering = this.rendering = hovers.thenApply(renderer);
+			}
+			return rendering;
+		}
+	}
+
+	private static final class DocumentHovers extends LinkedHashMap<Word, Entry> {
+		private static final long serialVersionUID = 1L;
+
+		final long modificationStamp;
+
+		DocumentHovers(long modificationStamp) {
+			super(16, 0.75f, true);
+			this.modificationStamp = modificationStamp;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.@Nullable Entry<Word, Entry> eldest) {
+			return size() > MAX_ENTRIES_PER_DOCUMENT;
+		}
+	}
+
+	private HoverCache() {
+		// this class shouldn't be instantiated
+	}
+
+	/**
+	 * @return the hovers of the word at the given offset for the current
+	 *         version of the document, requested from the language servers if
+	 *         they aren't known yet, or null if the offset is invalid
+	 */
+	static @Nullable Entry get(IDocument document, int offset) {
+		final Word word;
+		final HoverParams params;
+		try {
+			word = getWord(document, offset);
+			params = LSPEclipseUtils.toHoverParams(offset, document);
+		} catch (BadLocationException e) {
+			LanguageServerPlugin.logError(e);
+			return null;
+		}
+		final long modificationStamp = document instanceof IDocumentExtension4 extension
+				? extension.getModificationStamp()
+				: IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+		if (modificationStamp == IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP) {
+			// versions can't be told apart, don't cache
+			return new Entry(request(document, params));
+		}
+		synchronized (DOCUMENT_HOVERS) {
+			var documentHovers = DOCUMENT_HOVERS.get(document);
+			if (documentHovers == null || documentHovers.modificationStamp != modificationStamp) {
+				documentHovers = new DocumentHovers(modificationStamp);
+				DOCUMENT_HOVERS.put(document, documentHovers);
+			}
+			var entry = documentHovers.get(word);
+			if (entry == null) {
+				final var newEntry = entry = new Entry(request(document, params));
+				documentHovers.put(word, newEntry);
+				final var hovers = documentHovers;
+				newEntry.hovers.whenComplete((result, error) -> {
+					if (error != null) {
+						// failed or cancelled requests are sent again on next hover
+						synchronized (DOCUMENT_HOVERS) {
+							hovers.remove(word, newEntry);
+						}
+					}
+				});
+			}
+			return entry;
+		}
+	}
+
+	private static CompletableFuture<List<Hover>> request(IDocument document, HoverParams params) {
+		return LanguageServers.forDocument(document) //
+				.withCapability(ServerCapabilities::getHoverProvider) //
+				.collectAll(server -> server.getTextDocumentService().hover(params));
+	}
+
+	/**
+	 * @return the identifier around the given offset, or the empty range at the
+	 *         offset if there's none
+	 */
+	private static Word getWord(IDocument document, int offset) throws BadLocationException {
+		int start = offset;
+		while (start > 0 && Character.isUnicodeIdentifierPart(document.getChar(start - 1))) {
+			start--;
+		}
+		int end = offset;
+		final int length = document.getLength();
+		while (end < length && Character.isUnicodeIdentifierPart(document.getChar(end))) {
+			end++;
+		}
+		return new Word(start, end);
+	}
+}
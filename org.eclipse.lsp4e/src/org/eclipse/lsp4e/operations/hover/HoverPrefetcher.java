@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.hover;
+
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.JFaceTextUtil;
+import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.events.MouseEvent;
+import org.eclipse.swt.events.MouseMoveListener;
+import org.eclipse.swt.graphics.Point;
+
+/**
+ * Requests the hover of the word under the mouse pointer once the pointer
+ * settles, before the platform hover delay expires, so that the hover is
+ * usually known when the platform asks for it.
+ */
+final class HoverPrefetcher implements MouseMoveListener, Runnable {
+
+	/** time the pointer must rest on the text before the hover is prefetched, below the platform hover delay */
+	private static final int DWELL_DELAY_MS = 150;
+	private static final String KEY = HoverPrefetcher.class.getName();
+
+	private final ITextViewer viewer;
+	private final StyledText textWidget;
+	private int x;
+	private int y;
+
+	private HoverPrefetcher(ITextViewer viewer, StyledText textWidget) {
+		this.viewer = viewer;
+		this.textWidget = textWidget;
+	}
+
+	/**
+	 * Installs the prefetching of hovers in the given viewer, if not done yet.
+	 */
+	static void install(ITextViewer viewer) {
+		final StyledText textWidget = viewer.getTextWidget();
+		if (textWidget == null || textWidget.isDisposed()) {
+			return;
+		}
+		if (textWidget.getDisplay().getThread() != Thread.currentThread()) {
+			// hovers are computed in a background thread
+			textWidget.getDisplay().asyncExec(() -> install(viewer));
+			return;
+		}
+		if (textWidget.getData(KEY) != null) {
+			return;
+		}
+		final var prefetcher = new HoverPrefetcher(viewer, textWidget);
+		textWidget.setData(KEY, prefetcher);
+		textWidget.addMouseMoveListener(prefetcher);
+		textWidget.addDisposeListener(event -> textWidget.getDisplay().timerExec(-1, prefetcher));
+	}
+
+	@Override
+	public void mouseMove(MouseEvent event) {
+		x = event.x;
+		y = event.y;
+		// restart the dwell delay
+		textWidget.getDisplay().timerExec(-1, this);
+		textWidget.getDisplay().timerExec(DWELL_DELAY_MS, this);
+	}
+
+	@Override
+	public void run() {
+		if (textWidget.isDisposed()) {
+			return;
+		}
+		final IDocument document = viewer.getDocument();
+		final int widgetOffset = textWidget.getOffsetAtPoint(new Point(x, y));
+		if (document == null || widgetOffset < 0) {
+			return;
+		}
+		final int offset = JFaceTextUtil.widgetOffset2ModelOffset(viewer, widgetOffset);
+		if (offset >= 0) {
+			HoverCache.get(document, offset);
+		}
+	}
+}
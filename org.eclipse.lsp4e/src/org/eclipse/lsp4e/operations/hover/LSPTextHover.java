@@ -44,12 +44,10 @@
 import org.eclipse.jface.text.Region;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
-import org.eclipse.lsp4e.LanguageServers;
+import org.eclipse.lsp4e.RequestDeadlines;
 import org.eclipse.lsp4j.Hover;
-import org.eclipse.lsp4j.HoverParams;
 import org.eclipse.lsp4j.MarkedString;
 import org.eclipse.lsp4j.MarkupContent;
-import org.eclipse.lsp4j.ServerCapabilities;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.swt.widgets.Shell;
 
@@ -60,47 +58,48 @@
 @SuppressWarnings("restriction")
 public class LSPTextHover implements ITextHover, ITextHoverExtension {
 
-	private static final int GET_TIMEOUT_MS = 1000;
-
-	private @Nullable IRegion lastRegion;
-	private @Nullable ITextViewer lastViewer;
-	private @Nullable CompletableFuture<List<Hover>> request;
+	private static final String HOVER = "textDocument/hover"; //$NON-NLS-1$
+	private static final Parser PARSER = Parser.builder().build();
+	private static final HtmlRenderer RENDERER = HtmlRenderer.builder().build();
 
 	@Override
 	public @Nullable String getHoverInfo(ITextViewer textViewer, IRegion hoverRegion) {
 		CompletableFuture<@Nullable String> hoverInfoFuture = getHoverInfoFuture(textViewer, hoverRegion);
+		final long timeoutMs = RequestDeadlines.get(textViewer.getDocument(), HOVER);
 		try {
-			return hoverInfoFuture.get(GET_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+			return hoverInfoFuture.get(timeoutMs, TimeUnit.MILLISECONDS);
 		} catch (ExecutionException e) {
 			LanguageServerPlugin.logError(e);
 		} catch (InterruptedException e) {
 			Thread.currentThread().interrupt();
 		} catch (TimeoutException e) {
-			LanguageServerPlugin.logWarning("Could not get hover information due to timeout after " + GET_TIMEOUT_MS + " milliseconds", e); //$NON-NLS-1$ //$NON-NLS-2$
+			LanguageServerPlugin.logWarning("Could not get hover information due to timeout after " + timeoutMs + " milliseconds", e); //$NON-NLS-1$ //$NON-NLS-2$
 		}
 		return null;
 	}
 
 	public CompletableFuture<@Nullable String> getHoverInfoFuture(ITextViewer textViewer, IRegion hoverRegion) {
-		if (this.request == null || !textViewer.equals(this.lastViewer) || !hoverRegion.equals(this.lastRegion)) {
-			initiateHoverRequest(textViewer, hoverRegion.getOffset());
+		final HoverCache.Entry hovers = getHovers(textViewer, hoverRegion.getOffset());
+		if (hovers == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		// the rendering is cached with the hovers
+		return hovers.getRendering(LSPTextHover::render);
+	}
+
+	private static @Nullable String render(List<Hover> hoversList) {
+		String result = hoversList.stream()
+			.filter(Objects::nonNull)
+			.map(LSPTextHover::getHoverString)
+			.filter(Objects::nonNull)
+			.collect(Collectors.joining("\n\n")) //$NON-NLS-1$
+			.trim();
+		if (!result.isEmpty()) {
+			Node document = PARSER.parse(result);
+			return RENDERER.render(document);
+		} else {
+			return null;
 		}
-		return castNonNull(request).thenApply(hoversList -> {
-			String result = hoversList.stream()
-				.filter(Objects::nonNull)
-				.map(LSPTextHover::getHoverString)
-				.filter(Objects::nonNull)
-				.collect(Collectors.joining("\n\n")) //$NON-NLS-1$
-				.trim();
-			if (!result.isEmpty()) {
-				Parser parser = Parser.builder().build();
-				Node document = parser.parse(result);
-				HtmlRenderer renderer = HtmlRenderer.builder().build();
-				return renderer.render(document);
-			} else {
-				return null;
-			}
-		});
 	}
 
 	protected static @Nullable String getHoverString(Hover hover) {
@@ -135,20 +134,17 @@ public class LSPTextHover implements ITextHover, ITextHoverExtension {
 
 	@Override
 	public @Nullable IRegion getHoverRegion(ITextViewer textViewer, int offset) {
-		final var lastRegion = this.lastRegion;
-		if (this.request == null || lastRegion == null || !textViewer.equals(this.lastViewer)
-				|| offset < lastRegion.getOffset() || offset > lastRegion.getOffset() + lastRegion.getLength()) {
-			initiateHoverRequest(textViewer, offset);
+		final HoverCache.Entry hovers = getHovers(textViewer, offset);
+		if (hovers == null) {
+			return null;
 		}
+		final long timeoutMs = RequestDeadlines.get(textViewer.getDocument(), HOVER);
 		try {
-			final IDocument document = textViewer.getDocument();
-			if (document == null) {
-				return null;
-			}
+			final IDocument document = castNonNull(textViewer.getDocument());
 			final var oneHoverAtLeast = new boolean[] { false };
 			final var regionStartOffset = new int[] { 0 };
 			final var regionEndOffset = new int[] { document.getLength() };
-			castNonNull(this.request).get(GET_TIMEOUT_MS, TimeUnit.MILLISECONDS).stream()
+			hovers.hovers.get(timeoutMs, TimeUnit.MILLISECONDS).stream()
 				.filter(Objects::nonNull)
 				.map(Hover::getRange)
 				.filter(Objects::nonNull)
@@ -164,44 +160,31 @@ public class LSPTextHover implements ITextHover, ITextHoverExtension {
 					}
 				});
 			if (oneHoverAtLeast[0]) {
-				this.lastRegion = new Region(regionStartOffset[0], regionEndOffset[0] - regionStartOffset[0]);
-				return this.lastRegion;
+				return new Region(regionStartOffset[0], regionEndOffset[0] - regionStartOffset[0]);
 			}
 		} catch (ExecutionException e) {
 			LanguageServerPlugin.logError(e);
 		} catch (InterruptedException e) {
 			Thread.currentThread().interrupt();
 		} catch (TimeoutException e) {
-			LanguageServerPlugin.logWarning("Could not get hover region due to timeout after " + GET_TIMEOUT_MS + " milliseconds", e); //$NON-NLS-1$ //$NON-NLS-2$
+			LanguageServerPlugin.logWarning("Could not get hover region due to timeout after " + timeoutMs + " milliseconds", e); //$NON-NLS-1$ //$NON-NLS-2$
 		}
-		this.lastRegion = new Region(offset, 0);
-		return this.lastRegion;
+		return new Region(offset, 0);
 	}
 
 	/**
-	 * Initialize hover requests with hover (if available) and codelens (if
-	 * available).
-	 *
-	 * @param viewer
-	 *            the text viewer.
-	 * @param offset
-	 *            the hovered offset.
+	 * @return the hovers of the word at the given offset, requested from the
+	 *         language servers unless they were already received or prefetched
+	 *         for the current version of the document
 	 */
-	private void initiateHoverRequest(ITextViewer viewer, int offset) {
+	private @Nullable HoverCache.Entry getHovers(ITextViewer viewer, int offset) {
 		final IDocument document = viewer.getDocument();
 		if (document == null) {
-			return;
-		}
-		this.lastViewer = viewer;
-		try {
-			HoverParams params = LSPEclipseUtils.toHoverParams(offset, document);
-
-			this.request = LanguageServers.forDocument(document)
-				.withCapability(ServerCapabilities::getHoverProvider)
-				.collectAll(server -> server.getTextDocumentService().hover(params));
-		} catch (BadLocationException e) {
-			LanguageServerPlugin.logError(e);
+			return null;
 		}
+		// the next hovers in this viewer are requested as soon as the mouse pointer settles
+		HoverPrefetcher.install(viewer);
+		return HoverCache.get(document, offset);
 	}
 
 	@Override
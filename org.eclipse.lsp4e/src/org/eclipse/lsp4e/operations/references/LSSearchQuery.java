@@ -16,9 +16,16 @@
 
 import static org.eclipse.lsp4e.internal.NullSafetyHelper.castNonNull;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 import org.eclipse.core.filebuffers.FileBuffers;
 import org.eclipse.core.filebuffers.LocationKind;
@@ -38,6 +45,7 @@
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServers;
 import org.eclipse.lsp4e.LanguageServers.LanguageServerDocumentExecutor;
+import org.eclipse.lsp4e.internal.ParallelUtil;
 import org.eclipse.lsp4e.ui.Messages;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Position;
@@ -50,11 +58,15 @@
 import org.eclipse.search.ui.ISearchQuery;
 import org.eclipse.search.ui.text.Match;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 /**
  * {@link ISearchQuery} implementation for LSP.
  */
 public class LSSearchQuery extends FileSearchQuery {
 
+	private static final long CANCEL_CHECK_INTERVAL_MS = 100;
+
 	private final IDocument document;
 	private final int offset;
 
@@ -77,6 +89,9 @@ public LSSearchQuery(int offset, IDocument document) {
 	public IStatus run(@Nullable IProgressMonitor monitor) throws OperationCanceledException {
 		getSearchResult().removeAll();
 
+		// the files of the matches are loaded off the common pool, as loading them blocks on I/O
+		final ExecutorService executor = Executors.newCachedThreadPool(
+				new ThreadFactoryBuilder().setNameFormat("LSP4E references search-%d").setDaemon(true).build()); //$NON-NLS-1$
 		try {
 			// Execute LSP "references" service
 			final var params = new ReferenceParams();
@@ -84,79 +99,128 @@ public IStatus run(@Nullable IProgressMonitor monitor) throws OperationCanceledE
 			params.setTextDocument(castNonNull(LSPEclipseUtils.toTextDocumentIdentifier(document)));
 			params.setPosition(LSPEclipseUtils.toPosition(offset, document));
 
-			List<CompletableFuture<@Nullable List<? extends Location>>> requests = LanguageServers.forDocument(document).withCapability(ServerCapabilities::getReferencesProvider)
-				.computeAll(languageServer -> languageServer.getTextDocumentService().references(params));
-			CompletableFuture<?>[] populateUIFutures = requests.stream().map(request ->
-				request.thenAcceptAsync(locations -> {
+			// matches of the fastest servers are shown without waiting for the slower ones
+			final CompletableFuture<@Nullable Void> search = LanguageServers.forDocument(document)
+				.withCapability(ServerCapabilities::getReferencesProvider)
+				.streamAll(languageServer -> languageServer.getTextDocumentService().references(params), locations -> {
 						final var result = this.result;
-						if (locations != null && result != null) {
-							// Convert each LSP Location to a Match search.
-							locations.stream() //
-								.filter(Objects::nonNull) //
-								.map(LSSearchQuery::toMatch) //
+						if (result != null) {
+							// Convert the LSP Locations to search Matches, loading each file only once
+							final Map<String, List<Location>> locationsByUri = locations.stream() //
 								.filter(Objects::nonNull) //
-								.forEach(result::addMatch);
+								.collect(Collectors.groupingBy(Location::getUri, LinkedHashMap::new, Collectors.toList()));
+							ParallelUtil.forEach(locationsByUri.entrySet(), ParallelUtil.DEFAULT_PARALLELISM, monitor,
+									executor, fileLocations -> {
+										final Match[] matches = toMatches(fileLocations.getKey(), fileLocations.getValue());
+										if (matches.length > 0) {
+											result.addMatches(matches);
+										}
+									});
 						}
-				})).toArray(CompletableFuture[]::new);
-			CompletableFuture.allOf(populateUIFutures).join();
+				}, executor);
+			while (!search.isDone()) {
+				if (monitor != null && monitor.isCanceled()) {
+					search.cancel(true);
+					return Status.CANCEL_STATUS;
+				}
+				try {
+					search.get(CANCEL_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					// check the cancellation again
+				}
+			}
+			search.join();
 			return Status.OK_STATUS;
 		} catch (Exception ex) {
 			return new Status(IStatus.ERROR, LanguageServerPlugin.getDefault().getBundle().getSymbolicName(),
 					ex.getMessage(), ex);
+		} finally {
+			executor.shutdown();
 		}
 	}
 
 	/**
-	 * Convert the given LSP {@link Location} to Eclipse search {@link Match}.
+	 * Convert the given LSP {@link Location}s of a file to Eclipse search
+	 * {@link Match}es. The document of the file is loaded only once for all
+	 * locations.
 	 *
-	 * @param location
-	 *            the LSP location to convert.
-	 * @return the converted Eclipse search {@link Match}.
+	 * @param uri
+	 *            the URI of the file
+	 * @param locations
+	 *            the LSP locations in this file to convert.
+	 * @return the converted Eclipse search {@link Match}es.
 	 */
-	private static @Nullable Match toMatch(Location location) {
-		IResource resource = LSPEclipseUtils.findResourceFor(location.getUri());
-		if (resource != null) {
-			IDocument document = LSPEclipseUtils.getExistingDocument(resource);
-			boolean temporaryLoadDocument = document == null;
-			if (temporaryLoadDocument) {
-				document = LSPEclipseUtils.getDocument(resource);
-			}
-			if (document != null) {
-				try {
-					int startOffset = LSPEclipseUtils.toOffset(location.getRange().getStart(), document);
-					int endOffset = LSPEclipseUtils.toOffset(location.getRange().getEnd(), document);
-
-					IRegion lineInformation = document.getLineInformationOfOffset(startOffset);
-					final var lineEntry = new LineElement(resource, document.getLineOfOffset(startOffset) + 1,
-							lineInformation.getOffset(),
-							document.get(lineInformation.getOffset(), lineInformation.getLength()));
-					return new FileMatch((IFile) resource, startOffset, endOffset - startOffset, lineEntry);
-				} catch (BadLocationException ex) {
-					LanguageServerPlugin.logError(ex);
-				} finally {
-					if (temporaryLoadDocument) {
+	private static Match[] toMatches(String uri, List<Location> locations) {
+		IResource resource = LSPEclipseUtils.findResourceFor(uri);
+		if (resource == null) {
+			return locations.stream() //
+					.map(location -> {
 						try {
-							FileBuffers.getTextFileBufferManager().disconnect(resource.getFullPath(), LocationKind.IFILE, new NullProgressMonitor());
-						} catch (CoreException e) {
-							LanguageServerPlugin.logError(e);
+							return URIMatch.create(location);
+						} catch (Exception ex) {
+							LanguageServerPlugin.logError(ex);
+							return null;
 						}
-					}
-				}
-			}
+					}) //
+					.filter(Objects::nonNull) //
+					.toArray(Match[]::new);
+		}
 
-			Position startPosition = location.getRange().getStart();
-			final var lineEntry = new LineElement(resource, startPosition.getLine() + 1, 0,
-					String.format("%s:%s", startPosition.getLine(), startPosition.getCharacter())); //$NON-NLS-1$
-			return new FileMatch((IFile) resource, 0, 0, lineEntry);
+		IDocument document = LSPEclipseUtils.getExistingDocument(resource);
+		boolean temporaryLoadDocument = document == null;
+		if (temporaryLoadDocument) {
+			document = LSPEclipseUtils.getDocument(resource);
 		}
 		try {
-			return URIMatch.create(location);
-		} catch (Exception ex) {
-			LanguageServerPlugin.logError(ex);
-			return null;
+			final var matches = new Match[locations.size()];
+			for (int i = 0; i < matches.length; i++) {
+				matches[i] = toMatch((IFile) resource, document, locations.get(i));
+			}
+			return matches;
+		} finally {
+			if (temporaryLoadDocument && document != null) {
+				try {
+					FileBuffers.getTextFileBufferManager().disconnect(resource.getFullPath(), LocationKind.IFILE, new NullProgressMonitor());
+				} catch (CoreException e) {
+					LanguageServerPlugin.logError(e);
+				}
+			}
 		}
 	}
 
+	/**
+	 * Convert the given LSP {@link Location} to Eclipse search {@link Match}.
+	 *
+	 * @param file
+	 *            the file of the location
+	 * @param document
+	 *            the document of the file, if available
+	 * @param location
+	 *            the LSP location to convert.
+	 * @return the converted Eclipse search {@link Match}.
+	 */
+	private static Match toMatch(IFile file, @Nullable IDocument document, Location location) {
+		if (document != null) {
+			try {
+				int startOffset = LSPEclipseUtils.toOffset(location.getRange().getStart(), document);
+				int endOffset = LSPEclipseUtils.toOffset(location.getRange().getEnd(), document);
+
+				IRegion lineInformation = document.getLineInformationOfOffset(startOffset);
+				final var lineEntry = new LineElement(file, document.getLineOfOffset(startOffset) + 1,
+						lineInformation.getOffset(),
+						document.get(lineInformation.getOffset(), lineInformation.getLength()));
+				return new FileMatch(file, startOffset, endOffset - startOffset, lineEntry);
+			} catch (BadLocationException ex) {
+				LanguageServerPlugin.logError(ex);
+			}
+		}
+
+		Position startPosition = location.getRange().getStart();
+		final var lineEntry = new LineElement(file, startPosition.getLine() + 1, 0,
+				String.format("%s:%s", startPosition.getLine(), startPosition.getCharacter())); //$NON-NLS-1$
+		return new FileMatch(file, 0, 0, lineEntry);
+	}
+
 	@Override
 	public LSSearchResult getSearchResult() {
 		var result = this.result;
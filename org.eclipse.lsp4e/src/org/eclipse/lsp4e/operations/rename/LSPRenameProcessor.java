@@ -18,6 +18,8 @@
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -27,6 +29,7 @@
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
@@ -62,6 +65,9 @@ public class LSPRenameProcessor extends RefactoringProcessor {
 
 	private static final String ID = "org.eclipse.lsp4e.operations.rename"; //$NON-NLS-1$
 
+	/** interval at which the cancellation of the refactoring is checked while waiting for the language server */
+	private static final long CANCEL_CHECK_INTERVAL_MS = 100;
+
 	private final IDocument document;
 	private final int offset;
 
@@ -101,18 +107,21 @@ public boolean isApplicable() throws CoreException {
 	public RefactoringStatus checkInitialConditions(IProgressMonitor pm)
 			throws CoreException, OperationCanceledException {
 		final var status = new RefactoringStatus();
+		final var subMonitor = SubMonitor.convert(pm, Messages.rename_preparing, 1);
 
 		try {
 			final var params = new PrepareRenameParams();
 			params.setTextDocument(castNonNull(LSPEclipseUtils.toTextDocumentIdentifier(document)));
 			params.setPosition(LSPEclipseUtils.toPosition(offset, document));
 
+			// split before sending the request, as splitting a cancelled monitor throws
+			final IProgressMonitor requestMonitor = subMonitor.split(1);
 			@SuppressWarnings("null")
-			List<Pair<LanguageServerWrapper, Either3<Range, PrepareRenameResult, PrepareRenameDefaultBehavior>>> list = LanguageServers
-					.forDocument(document).withFilter(LSPRenameProcessor::isPrepareRenameProvider)
-					.collectAll((w, ls) -> ls.getTextDocumentService().prepareRename(params)
-							.thenApply(result -> new Pair<>(w, result)))
-					.get(1000, TimeUnit.MILLISECONDS);
+			List<Pair<LanguageServerWrapper, Either3<Range, PrepareRenameResult, PrepareRenameDefaultBehavior>>> list = waitFor(
+					LanguageServers.forDocument(document).withFilter(LSPRenameProcessor::isPrepareRenameProvider)
+							.collectAll((w, ls) -> ls.getTextDocumentService().prepareRename(params)
+									.thenApply(result -> new Pair<>(w, result))),
+					requestMonitor);
 
 			Optional<Pair<LanguageServerWrapper, Either3<Range, PrepareRenameResult, PrepareRenameDefaultBehavior>>> tmp = list
 					.stream().filter(Objects::nonNull).filter(t -> t.second() != null).findFirst();
@@ -125,10 +134,8 @@ public RefactoringStatus checkInitialConditions(IProgressMonitor pm)
 					prepareRenameResult = p.second();
 				});
 			}
-		} catch (TimeoutException e) {
-			LanguageServerPlugin.logWarning(
-					"Could not prepare rename due to timeout after 1 seconds in `textDocument/prepareRename`. 'newName' will be used", //$NON-NLS-1$
-					e);
+		} catch (OperationCanceledException e) {
+			throw e;
 		} catch (Exception e) {
 			status.addFatalError(getErrorMessage(e));
 		}
@@ -178,35 +185,61 @@ public RefactoringStatus checkFinalConditions(IProgressMonitor pm, CheckConditio
 		if (newName == null) {
 			return status;
 		}
+		final var subMonitor = SubMonitor.convert(pm, Messages.rename_computing, 1);
 		try {
 			final var params = new RenameParams();
 			params.setPosition(LSPEclipseUtils.toPosition(offset, document));
 			params.setTextDocument(castNonNull(LSPEclipseUtils.toTextDocumentIdentifier(document)));
 			params.setNewName(newName);
 
-			// TODO: how to manage ltk with CompletableFuture? Is 1000 ms is enough?
+			// large renames can take the server a while, wait until it answers or the user cancels
+			final IProgressMonitor requestMonitor = subMonitor.split(1);
 			final var refactoringServer = this.refactoringServer;
 			final WorkspaceEdit rename;
 			if (refactoringServer != null) {
-				rename = this.rename = refactoringServer.execute(ls -> ls.getTextDocumentService().rename(params))
-						.get(1000, TimeUnit.MILLISECONDS);
+				rename = this.rename = waitFor(
+						refactoringServer.execute(ls -> ls.getTextDocumentService().rename(params)), requestMonitor);
 			} else {
-				// Prepare timed out so we don't have a preferred server, so just try all the servers again
-				rename = this.rename = LanguageServers.forDocument(document)
+				// no preferred server is known from prepareRename, so just try all the servers
+				rename = this.rename = waitFor(LanguageServers.forDocument(document)
 						.withCapability(ServerCapabilities::getRenameProvider)
-						.computeFirst(ls -> ls.getTextDocumentService().rename(params)).get(1000, TimeUnit.MILLISECONDS)
+						.computeFirst(ls -> ls.getTextDocumentService().rename(params)), requestMonitor)
 						.orElse(null);
 			}
 			if (!status.hasError()
 					&& (rename == null || (rename.getChanges().isEmpty() && rename.getDocumentChanges().isEmpty()))) {
 				status.addWarning(Messages.rename_empty_message);
 			}
+		} catch (OperationCanceledException e) {
+			throw e;
 		} catch (Exception e) {
 			status.addFatalError(getErrorMessage(e));
 		}
 		return status;
 	}
 
+	/**
+	 * Waits for the given request as long as the language server needs,
+	 * cancelling it if the refactoring is cancelled meanwhile.
+	 *
+	 * @throws OperationCanceledException
+	 *             if the monitor is cancelled before the request completes
+	 */
+	private static <T> T waitFor(CompletableFuture<T> request, IProgressMonitor monitor)
+			throws InterruptedException, ExecutionException {
+		while (true) {
+			if (monitor.isCanceled()) {
+				request.cancel(true);
+				throw new OperationCanceledException();
+			}
+			try {
+				return request.get(CANCEL_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				// not answered yet, check for cancellation again
+			}
+		}
+	}
+
 	private String getErrorMessage(Throwable e) {
 		if (e.getCause() instanceof ResponseErrorException responseErrorException) {
 			ResponseError responseError = responseErrorException.getResponseError();
@@ -224,7 +257,9 @@ public Change createChange(IProgressMonitor pm) throws CoreException, OperationC
 			throw new CoreException(
 					new Status(IStatus.ERROR, LanguageServerPlugin.PLUGIN_ID, Messages.rename_processor_required));
 		}
-		return LSPEclipseUtils.toCompositeChange(rename, Messages.rename_title);
+		// the edits of each file are only computed when the file is previewed or the change is performed
+		return LSPEclipseUtils.toCompositeChange(rename, Messages.rename_title,
+				SubMonitor.convert(pm, Messages.rename_creatingChanges, 1));
 	}
 
 	@Override
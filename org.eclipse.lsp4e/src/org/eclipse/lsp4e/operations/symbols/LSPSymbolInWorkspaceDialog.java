@@ -15,10 +15,6 @@
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 
 import org.eclipse.core.resources.IMarker;
@@ -45,7 +41,6 @@
 import org.eclipse.lsp4j.SymbolInformation;
 import org.eclipse.lsp4j.SymbolTag;
 import org.eclipse.lsp4j.WorkspaceSymbol;
-import org.eclipse.lsp4j.WorkspaceSymbolParams;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
@@ -56,6 +51,9 @@ public class LSPSymbolInWorkspaceDialog extends FilteredItemsSelectionDialog {
 
 	private static final String DIALOG_SETTINGS = LSPSymbolInWorkspaceDialog.class.getName();
 
+	/** delay before a pattern which can't be answered from the cache is sent to the language servers */
+	private static final long REQUEST_DELAY_MS = 200;
+
 	private static final class InternalSymbolsLabelProvider extends SymbolsLabelProvider {
 
 		private @Nullable String pattern;
@@ -120,7 +118,11 @@ public boolean isSubFilter(@Nullable ItemsFilter filter) {
 
 	private final IProject project;
 
-	private @Nullable List<CompletableFuture<@Nullable Either<List<? extends SymbolInformation>, List<? extends WorkspaceSymbol>>>> request;
+	private final WorkspaceSymbolCache cache = new WorkspaceSymbolCache();
+
+	private @Nullable WorkspaceSymbolSearch search;
+
+	private volatile String pattern = ""; //$NON-NLS-1$
 
 	public LSPSymbolInWorkspaceDialog(Shell shell, IProject project, BoldStylerProvider stylerProvider) {
 		super(shell);
@@ -135,44 +137,43 @@ public LSPSymbolInWorkspaceDialog(Shell shell, IProject project, BoldStylerProvi
 	protected ItemsFilter createFilter() {
 		final var itemsFilter = new InternalItemsFilter();
 		labelProvider.setPattern(itemsFilter.getPattern());
+		// results of the previous pattern are stale, don't let servers waste time on it
+		final var search = this.search;
+		if (search != null && !itemsFilter.getPattern().equals(pattern)) {
+			search.cancel();
+		}
+		pattern = itemsFilter.getPattern();
 		return itemsFilter;
 	}
 
 	@Override
 	protected void fillContentProvider(AbstractContentProvider contentProvider, ItemsFilter itemsFilter,
 			IProgressMonitor monitor) throws CoreException {
-		if (request != null) {
-			request.forEach(f -> f.cancel(true));
+		final var previousSearch = search;
+		if (previousSearch != null) {
+			previousSearch.cancel();
 		}
 		if (itemsFilter.getPattern().isEmpty()) {
 			return;
 		}
-		final var params = new WorkspaceSymbolParams(itemsFilter.getPattern());
-		request = LanguageServers.forProject(project) //
-				.withCapability(ServerCapabilities::getWorkspaceSymbolProvider) //
-				.computeAll((w, ls) -> ls.getWorkspaceService().symbol(params));
-		request.stream().map((
-				CompletableFuture<@Nullable Either<List<? extends SymbolInformation>, List<@Nullable ? extends WorkspaceSymbol>>> f) -> f
-						.thenApply(LSPSymbolInWorkspaceDialog::eitherToWorkspaceSymbols))
-				.forEach(cf -> {
-					if (monitor.isCanceled()) {
-						return;
-					}
-					try {
-						for (Object item : cf.get(1, TimeUnit.SECONDS)) {
-							contentProvider.add(item, itemsFilter);
-						}
-					} catch (ExecutionException e) {
-						LanguageServerPlugin.logError(e);
-					} catch (InterruptedException e) {
-						LanguageServerPlugin.logError(e);
-						Thread.currentThread().interrupt();
-					} catch (TimeoutException e) {
-						LanguageServerPlugin.logWarning(
-								"Could not get workspace symbols due to timeout after 1 seconds in `workspace/symbol`", //$NON-NLS-1$
-								e);
-					}
-				});
+		// show the symbols as soon as a server reports them instead of waiting for all servers
+		final var search = this.search = new WorkspaceSymbolSearch(itemsFilter.getPattern(), cache, REQUEST_DELAY_MS, symbols -> {
+			if (monitor.isCanceled()) {
+				return;
+			}
+			for (Object item : symbols) {
+				contentProvider.add(item, itemsFilter);
+			}
+			scheduleRefresh();
+		}).send(LanguageServers.forProject(project) //
+				.withCapability(ServerCapabilities::getWorkspaceSymbolProvider));
+		try {
+			search.await(monitor, Long.MAX_VALUE);
+		} catch (InterruptedException e) {
+			search.cancel();
+			LanguageServerPlugin.logError(e);
+			Thread.currentThread().interrupt();
+		}
 	}
 
 	@Override
@@ -182,7 +183,7 @@ public String getElementName(Object item) {
 
 	@Override
 	protected Comparator<WorkspaceSymbol> getItemsComparator() {
-		return (o1, o2) -> o1.getName().compareToIgnoreCase(o2.getName());
+		return WorkspaceSymbolSearch.rankingComparator(pattern);
 	}
 
 	@Override
@@ -213,7 +214,7 @@ private static List<WorkspaceSymbol> toWorkspaceSymbols(@Nullable List<? extends
 						.toList();
 	}
 
-	private static @Nullable WorkspaceSymbol toWorkspaceSymbol(@Nullable SymbolInformation symbolinformation) {
+	static @Nullable WorkspaceSymbol toWorkspaceSymbol(@Nullable SymbolInformation symbolinformation) {
 		if (symbolinformation == null) {
 			return null;
 		}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.symbols;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4j.WorkspaceSymbol;
+
+/**
+ * Remembers the last complete {@code workspace/symbol} answer of each language
+ * server, to answer queries extending the cached query locally. A language
+ * server returning all symbols matching {@code "foo"} also returned all those
+ * matching {@code "foob"}, so they only need to be filtered.
+ * <p>
+ * Language servers usually limit the number of symbols they return, without
+ * telling whether the answer was truncated. Only answers small enough not to
+ * have been truncated are thus cached, larger ones are asked again to the
+ * language server for the narrower queries.
+ * <p>
+ * The cache doesn't observe changes in the workspace, it is meant to live as
+ * long as a single symbol search session, e.g. an open dialog.
+ */
+public final class WorkspaceSymbolCache {
+
+	/**
+	 * number of symbols from which an answer may have been truncated by the
+	 * language server, below the usual limits of 100 or more symbols
+	 */
+	private static final int MAX_COMPLETE_SIZE = 100;
+
+	private record Entry(String query, List<WorkspaceSymbol> symbols) {
+	}
+
+	private final Map<LanguageServerWrapper, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * @return the symbols of the given language server matching the query if
+	 *         they can be computed from the cache, or null if the query must be
+	 *         sent to the language server
+	 */
+	public @Nullable List<WorkspaceSymbol> get(LanguageServerWrapper wrapper, String query) {
+		final Entry entry = entries.get(wrapper);
+		if (entry == null || !query.startsWith(entry.query())) {
+			return null;
+		}
+		if (query.length() == entry.query().length()) {
+			return entry.symbols();
+		}
+		return entry.symbols().stream() //
+				.filter(symbol -> matches(query, symbol.getName())) //
+				.toList();
+	}
+
+	/**
+	 * Caches the answer of a language server to a query, replacing the previous
+	 * answer of this language server, unless the answer may have been truncated.
+	 */
+	public void put(LanguageServerWrapper wrapper, String query, List<WorkspaceSymbol> symbols) {
+		// the answers to narrower queries may contain symbols missing from a truncated one
+		if (!query.isEmpty() && symbols.size() < MAX_COMPLETE_SIZE) {
+			entries.put(wrapper, new Entry(query, symbols));
+		}
+	}
+
+	/**
+	 * @return true if all characters of the query appear in the name in the same
+	 *         order, ignoring case
+	 */
+	static boolean matches(String query, @Nullable String name) {
+		if (name == null) {
+			return query.isEmpty();
+		}
+		int nameIndex = 0;
+		for (int queryIndex = 0; queryIndex < query.length(); queryIndex++) {
+			final char queryChar = Character.toLowerCase(query.charAt(queryIndex));
+			while (nameIndex < name.length() && Character.toLowerCase(name.charAt(nameIndex)) != queryChar) {
+				nameIndex++;
+			}
+			if (nameIndex == name.length()) {
+				return false;
+			}
+			nameIndex++;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,283 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.symbols;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.lsp4e.LanguageServerPlugin;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4e.LanguageServers.LanguageServerProjectExecutor;
+import org.eclipse.lsp4e.internal.CancellationUtil;
+import org.eclipse.lsp4e.progress.LSPProgressManager;
+import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.WorkspaceSymbol;
+import org.eclipse.lsp4j.WorkspaceSymbolParams;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
+import org.eclipse.lsp4j.services.LanguageServer;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * A {@code workspace/symbol} request sent to several language servers, which
+ * passes the symbols to a consumer as soon as a server reports them, either as
+ * partial results (if the server supports them) or as its final response.
+ * Stale searches are cancelled as a whole with {@link #cancel()}.
+ */
+public final class WorkspaceSymbolSearch {
+
+	private static final Gson GSON = new MessageJsonHandler(Collections.emptyMap()).getGson();
+
+	private static final long POLL_INTERVAL_MS = 50;
+
+	private final String query;
+	private final @Nullable WorkspaceSymbolCache cache;
+	private final long debounceDelayMs;
+	private final Consumer<List<? extends WorkspaceSymbol>> consumer;
+	private volatile List<CompletableFuture<?>> requests = List.of();
+	private volatile boolean cancelled;
+
+	/**
+	 * @param query
+	 *            the query sent to the language servers
+	 * @param consumer
+	 *            receives each batch of symbols, possibly concurrently from
+	 *            several threads
+	 */
+	public WorkspaceSymbolSearch(String query, Consumer<List<? extends WorkspaceSymbol>> consumer) {
+		this(query, null, 0, consumer);
+	}
+
+	/**
+	 * @param query
+	 *            the query sent to the language servers
+	 * @param cache
+	 *            answers the query locally for language servers which
+	 *            completely answered a prefix of it before, and receives the
+	 *            complete answers of this search
+	 * @param debounceDelayMs
+	 *            delay before requests are actually sent to the language
+	 *            servers, so that a search cancelled in the meantime doesn't
+	 *            reach them. Answers from the cache are not delayed.
+	 * @param consumer
+	 *            receives each batch of symbols, possibly concurrently from
+	 *            several threads
+	 */
+	public WorkspaceSymbolSearch(String query, @Nullable WorkspaceSymbolCache cache, long debounceDelayMs,
+			Consumer<List<? extends WorkspaceSymbol>> consumer) {
+		this.query = query;
+		this.cache = cache;
+		this.debounceDelayMs = debounceDelayMs;
+		this.consumer = consumer;
+	}
+
+	public WorkspaceSymbolSearch send(LanguageServerProjectExecutor executor) {
+		requests = List.copyOf(executor.computeAll(this::request));
+		return this;
+	}
+
+	public WorkspaceSymbolSearch send(Collection<LanguageServerWrapper> wrappers) {
+		requests = wrappers.stream().<CompletableFuture<?>>map(w -> w.execute(ls -> request(w, ls))).toList();
+		return this;
+	}
+
+	private CompletableFuture<List<WorkspaceSymbol>> request(LanguageServerWrapper wrapper, LanguageServer ls) {
+		final var cache = this.cache;
+		final List<WorkspaceSymbol> cachedSymbols = cache == null ? null : cache.get(wrapper, query);
+		if (cachedSymbols != null) {
+			if (!cachedSymbols.isEmpty()) {
+				consumer.accept(cachedSymbols);
+			}
+			return CompletableFuture.completedFuture(cachedSymbols);
+		}
+		if (debounceDelayMs <= 0) {
+			return sendRequest(wrapper, ls);
+		}
+		final var delayedRequest = new CompletableFuture<List<WorkspaceSymbol>>();
+		CompletableFuture.delayedExecutor(debounceDelayMs, TimeUnit.MILLISECONDS).execute(() -> {
+			if (cancelled || delayedRequest.isDone()) {
+				delayedRequest.cancel(true);
+				return;
+			}
+			final var request = sendRequest(wrapper, ls);
+			request.whenComplete((symbols, error) -> {
+				if (error != null) {
+					delayedRequest.completeExceptionally(error);
+				} else {
+					delayedRequest.complete(symbols);
+				}
+			});
+			delayedRequest.whenComplete((symbols, error) -> {
+				if (delayedRequest.isCancelled()) {
+					request.cancel(true);
+				}
+			});
+		});
+		return delayedRequest;
+	}
+
+	private CompletableFuture<List<WorkspaceSymbol>> sendRequest(LanguageServerWrapper wrapper, LanguageServer ls) {
+		final var params = new WorkspaceSymbolParams(query);
+		// all symbols reported for this request, to cache them once the request completed
+		final var allSymbols = Collections.synchronizedList(new ArrayList<WorkspaceSymbol>());
+		final var token = LSPProgressManager.createPartialResultToken(partialResult -> {
+			final List<WorkspaceSymbol> symbols = acceptPartialResult(partialResult);
+			allSymbols.addAll(symbols);
+		});
+		params.setPartialResultToken(token);
+		final var request = ls.getWorkspaceService().symbol(params);
+		request.whenComplete((symbols, error) -> {
+			LSPProgressManager.removePartialResultToken(token);
+			if (error != null && !CancellationUtil.isRequestCancelledException(error)) {
+				LanguageServerPlugin.logError(error);
+			}
+		});
+		// the final symbols are delivered to the consumer before the result completes, so
+		// that awaiting the search guarantees they have been received
+		final CompletableFuture<List<WorkspaceSymbol>> result = request.thenApply(symbols -> {
+			if (!cancelled) {
+				final var workspaceSymbols = LSPSymbolInWorkspaceDialog.eitherToWorkspaceSymbols(symbols);
+				if (!workspaceSymbols.isEmpty()) {
+					consumer.accept(workspaceSymbols);
+				}
+				workspaceSymbols.stream().filter(Objects::nonNull).forEach(allSymbols::add);
+				final var cache = this.cache;
+				if (cache != null) {
+					cache.put(wrapper, query, List.copyOf(allSymbols));
+				}
+			}
+			return allSymbols;
+		});
+		result.whenComplete((symbols, error) -> {
+			if (result.isCancelled()) {
+				request.cancel(true);
+			}
+		});
+		return result;
+	}
+
+	private List<WorkspaceSymbol> acceptPartialResult(Object partialResult) {
+		if (cancelled) {
+			return List.of();
+		}
+		try {
+			final List<WorkspaceSymbol> symbols = toWorkspaceSymbols(partialResult);
+			if (!symbols.isEmpty()) {
+				consumer.accept(symbols);
+			}
+			return symbols;
+		} catch (RuntimeException ex) {
+			LanguageServerPlugin.logError("Invalid partial result for `workspace/symbol`", ex); //$NON-NLS-1$
+			return List.of();
+		}
+	}
+
+	/**
+	 * Partial results are not deserialized by LSP4J, as the progress
+	 * notification does not know the request it belongs to.
+	 */
+	static List<WorkspaceSymbol> toWorkspaceSymbols(Object partialResult) {
+		final JsonElement json = partialResult instanceof JsonElement jsonElement ? jsonElement
+				: GSON.toJsonTree(partialResult);
+		if (!json.isJsonArray()) {
+			return List.of();
+		}
+		final var symbols = new ArrayList<WorkspaceSymbol>(json.getAsJsonArray().size());
+		for (final JsonElement element : json.getAsJsonArray()) {
+			if (!(element instanceof JsonObject object)) {
+				continue;
+			}
+			// same discrimination as LSP4J's WorkspaceSymbolResponseAdapter
+			final @Nullable WorkspaceSymbol symbol = object.has("deprecated") //$NON-NLS-1$
+					? LSPSymbolInWorkspaceDialog.toWorkspaceSymbol(GSON.fromJson(object, SymbolInformation.class))
+					: GSON.fromJson(object, WorkspaceSymbol.class);
+			if (symbol != null) {
+				symbols.add(symbol);
+			}
+		}
+		return symbols;
+	}
+
+	/**
+	 * Waits until all language servers answered, the monitor is cancelled or the
+	 * timeout expired. The search is cancelled if the monitor is.
+	 *
+	 * @return true if all language servers answered
+	 */
+	public boolean await(IProgressMonitor monitor, long timeoutMs) throws InterruptedException {
+		final var all = CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new));
+		final long deadline = System.currentTimeMillis() + timeoutMs;
+		while (!all.isDone()) {
+			if (monitor.isCanceled()) {
+				cancel();
+				return false;
+			}
+			final long remaining = deadline - System.currentTimeMillis();
+			if (remaining <= 0) {
+				return false;
+			}
+			try {
+				all.get(Math.min(remaining, POLL_INTERVAL_MS), TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				// check the monitor again
+			} catch (ExecutionException e) {
+				// failures were already logged by the request
+				break;
+			}
+		}
+		return true;
+	}
+
+	public void cancel() {
+		cancelled = true;
+		requests.forEach(request -> request.cancel(true));
+	}
+
+	/**
+	 * @return a comparator ranking exact matches of the query first, then prefix
+	 *         matches, then substring matches and then all others, each group
+	 *         sorted by name
+	 */
+	static Comparator<WorkspaceSymbol> rankingComparator(String query) {
+		final String lowerCaseQuery = query.toLowerCase(Locale.ROOT);
+		return Comparator.<WorkspaceSymbol> comparingInt(symbol -> rank(symbol.getName(), lowerCaseQuery))
+				.thenComparing(WorkspaceSymbol::getName, String.CASE_INSENSITIVE_ORDER);
+	}
+
+	private static int rank(@Nullable String name, String lowerCaseQuery) {
+		if (name == null || lowerCaseQuery.isEmpty()) {
+			return 3;
+		}
+		final String lowerCaseName = name.toLowerCase(Locale.ROOT);
+		if (lowerCaseName.equals(lowerCaseQuery)) {
+			return 0;
+		}
+		if (lowerCaseName.startsWith(lowerCaseQuery)) {
+			return 1;
+		}
+		return lowerCaseName.contains(lowerCaseQuery) ? 2 : 3;
+	}
+}
@@ -14,10 +14,6 @@
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.Nullable;
@@ -25,10 +21,7 @@
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServiceAccessor;
-import org.eclipse.lsp4j.SymbolInformation;
 import org.eclipse.lsp4j.WorkspaceSymbol;
-import org.eclipse.lsp4j.WorkspaceSymbolParams;
-import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.ui.quickaccess.IQuickAccessComputer;
 import org.eclipse.ui.quickaccess.IQuickAccessComputerExtension;
 import org.eclipse.ui.quickaccess.QuickAccessElement;
@@ -62,25 +55,25 @@ public QuickAccessElement[] computeElements(String query, IProgressMonitor monit
 		if (usedLanguageServerWrappers.isEmpty()) {
 			return NO_QUICK_ACCESS_ELEMENTS;
 		}
-		final var params = new WorkspaceSymbolParams(query);
-		final var res = Collections.synchronizedList(new ArrayList<QuickAccessElement>());
-
+		final var res = Collections.synchronizedList(new ArrayList<WorkspaceSymbol>());
+		// the quick access API is synchronous, so partial results can only be collected until the deadline
+		final var search = new WorkspaceSymbolSearch(query, res::addAll).send(usedLanguageServerWrappers);
 		try {
-			CompletableFuture.allOf(usedLanguageServerWrappers.stream()
-					.map(w -> w.execute(ls -> ls.getWorkspaceService().symbol(params).thenAcceptAsync((@Nullable Either<List<? extends SymbolInformation>, List<@Nullable ? extends WorkspaceSymbol>> symbols) -> {
-						if (symbols != null) {
-							res.addAll(LSPSymbolInWorkspaceDialog.eitherToWorkspaceSymbols(symbols).stream().map(WorkspaceSymbolQuickAccessElement::new)
-									.toList());
-						}
-					}))).toArray(CompletableFuture[]::new)).get(1, TimeUnit.SECONDS);
-		}
-		catch (ExecutionException | InterruptedException e) {
+			if (!search.await(monitor, 1000) && !monitor.isCanceled()) {
+				LanguageServerPlugin.logWarning("Could not get all workspace symbols due to timeout after 1 second in `workspace/symbol`", null); //$NON-NLS-1$
+			}
+		} catch (InterruptedException e) {
 			LanguageServerPlugin.logError(e);
-		} catch (TimeoutException e) {
-			LanguageServerPlugin.logWarning("Could not get workspace symbols due to timeout after 1 second in `workspace/symbol`", e); //$NON-NLS-1$
+			Thread.currentThread().interrupt();
 		}
+		search.cancel();
 
-		return res.toArray(QuickAccessElement[]::new);
+		synchronized (res) {
+			return res.stream() //
+					.sorted(WorkspaceSymbolSearch.rankingComparator(query)) //
+					.map(WorkspaceSymbolQuickAccessElement::new) //
+					.toArray(QuickAccessElement[]::new);
+		}
 	}
 
 }
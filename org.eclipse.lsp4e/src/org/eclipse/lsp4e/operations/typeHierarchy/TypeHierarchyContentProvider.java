@@ -24,6 +24,7 @@
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServers;
 import org.eclipse.lsp4e.LanguageServersRegistry.LanguageServerDefinition;
+import org.eclipse.lsp4e.RequestDeadlines;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.TypeHierarchyItem;
 import org.eclipse.lsp4j.TypeHierarchyPrepareParams;
@@ -33,6 +34,9 @@
 
 public class TypeHierarchyContentProvider implements ITreeContentProvider {
 
+	private static final String SUPERTYPES = "typeHierarchy/supertypes"; //$NON-NLS-1$
+	private static final String SUBTYPES = "typeHierarchy/subtypes"; //$NON-NLS-1$
+
 	private final LanguageServerDefinition lsDefinition;
 	private final IDocument document;
 	private boolean showSuperTypes;
@@ -59,7 +63,7 @@ public Object[] getElements(@Nullable Object inputElement) {
 					.thenApply(entry -> {
 						wrapper = entry.map(Entry::getKey).orElse(null);
 						return entry.map(Entry::getValue).map(list -> list.toArray()).orElse(NO_OBJECTS);
-					}).get(500, TimeUnit.MILLISECONDS);
+					}).get(RequestDeadlines.get(document, "textDocument/prepareTypeHierarchy"), TimeUnit.MILLISECONDS); //$NON-NLS-1$
 			} catch (Exception e) {
 				LanguageServerPlugin.logError(e);
 			}
@@ -79,7 +83,7 @@ public Object[] getChildren(Object parentElement) {
 							: textDocumentService.typeHierarchySubtypes(new TypeHierarchySubtypesParams(parentItem));
 				})
 					.thenApply(list -> list == null ? NO_OBJECTS : list.toArray())
-					.get(500, TimeUnit.MILLISECONDS);
+					.get(RequestDeadlines.get(wrapper, showSuperTypes ? SUPERTYPES : SUBTYPES), TimeUnit.MILLISECONDS);
 			} catch (Exception e) {
 				LanguageServerPlugin.logError(e);
 			}
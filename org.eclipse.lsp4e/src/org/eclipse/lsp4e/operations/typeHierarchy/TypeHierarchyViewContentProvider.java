@@ -29,6 +29,7 @@
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServers;
 import org.eclipse.lsp4e.LanguageServers.LanguageServerDocumentExecutor;
+import org.eclipse.lsp4e.RequestDeadlines;
 import org.eclipse.lsp4e.internal.Pair;
 import org.eclipse.lsp4e.ui.Messages;
 import org.eclipse.lsp4e.ui.views.HierarchyViewInput;
@@ -43,6 +44,9 @@
 import org.eclipse.ui.PlatformUI;
 
 public class TypeHierarchyViewContentProvider implements ITreeContentProvider {
+	private static final String SUPERTYPES = "typeHierarchy/supertypes"; //$NON-NLS-1$
+	private static final String SUBTYPES = "typeHierarchy/subtypes"; //$NON-NLS-1$
+
 	private @Nullable TreeViewer treeViewer;
 	private @Nullable LanguageServerWrapper languageServerWrapper;
 	private List<TypeHierarchyItem> hierarchyItems = Collections.emptyList();
@@ -59,6 +63,7 @@ public Object[] getElements(@Nullable Object inputElement) {
 
 	@Override
 	public Object[] getChildren(Object parentElement) {
+		final var languageServerWrapper = this.languageServerWrapper;
 		if (parentElement instanceof TypeHierarchyItem parentItem && languageServerWrapper != null) {
 			try {
 				return languageServerWrapper.execute(ls -> {
@@ -69,7 +74,7 @@ public Object[] getChildren(Object parentElement) {
 							: textDocumentService.typeHierarchySubtypes(new TypeHierarchySubtypesParams(parentItem));
 				})
 					.thenApply(list -> list == null ? NO_OBJECTS : list.toArray())
-					.get(500, TimeUnit.MILLISECONDS);
+					.get(RequestDeadlines.get(languageServerWrapper, showSuperTypes ? SUPERTYPES : SUBTYPES), TimeUnit.MILLISECONDS);
 			} catch (Exception e) {
 				LanguageServerPlugin.logError(e);
 			}
@@ -187,6 +187,10 @@ public static void refreshTreeSelection(TreeViewer viewer, int offset, IDocument
 		if (contentProvider == null) {
 			return;
 		}
+		if (contentProvider instanceof LSSymbolsContentProvider symbolsContentProvider) {
+			refreshTreeSelection(viewer, offset, document, symbolsContentProvider);
+			return;
+		}
 
 		Object[] objects = contentProvider.getElements(null);
 		final var path = new ArrayList<Object>();
@@ -219,6 +223,54 @@ public static void refreshTreeSelection(TreeViewer viewer, int offset, IDocument
 		}
 	}
 
+	/**
+	 * Looks up the symbol enclosing the offset in the index of the symbols model
+	 * instead of walking the tree, as this runs on every caret move.
+	 */
+	private static void refreshTreeSelection(TreeViewer viewer, int offset, IDocument document,
+			LSSymbolsContentProvider contentProvider) {
+		final int line;
+		final int character;
+		try {
+			line = document.getLineOfOffset(offset);
+			character = offset - document.getLineOffset(line);
+		} catch (BadLocationException e) {
+			return;
+		}
+		final SymbolsIndex index = contentProvider.getSymbolsModel().getIndex();
+		int symbol = index.findInnermost(SymbolsIndex.toKey(line, character));
+		// children of hidden symbols are not shown either
+		for (int i = symbol; i >= 0; i = index.getParent(i)) {
+			if (contentProvider.hideElement(index.getElement(i))) {
+				symbol = index.getParent(i);
+			}
+		}
+		if (symbol < 0) {
+			return;
+		}
+		final Object bestNode = index.getElement(symbol);
+		final Object selected = viewer.getStructuredSelection().getFirstElement();
+		if (bestNode == selected || (bestNode instanceof DocumentSymbolWithURI bestSymbol
+				&& selected instanceof DocumentSymbolWithURI selectedSymbol
+				&& bestSymbol.symbol == selectedSymbol.symbol) || bestNode.equals(selected)) {
+			// the symbol to select is the same than current selected symbol, don't select it.
+			return;
+		}
+		int depth = 0;
+		for (int i = symbol; i >= 0; i = index.getParent(i)) {
+			depth++;
+		}
+		final var path = new Object[depth];
+		for (int i = symbol; i >= 0; i = index.getParent(i)) {
+			path[--depth] = index.getElement(i);
+		}
+		Display.getDefault().asyncExec(() -> {
+			final var treePath = new TreePath(path);
+			viewer.reveal(treePath);
+			viewer.setSelection(new TreeSelection(treePath), true);
+		});
+	}
+
 	private static @Nullable Range toRange(Object object) {
 		Range range = null;
 		@Nullable
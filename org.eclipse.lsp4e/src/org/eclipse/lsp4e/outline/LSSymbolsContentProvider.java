@@ -18,10 +18,8 @@
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 
@@ -31,7 +29,9 @@
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.ICoreRunnable;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.PreferenceChangeEvent;
@@ -46,10 +46,7 @@
 import org.eclipse.jface.text.reconciler.DirtyRegion;
 import org.eclipse.jface.text.reconciler.IReconcilingStrategy;
 import org.eclipse.jface.viewers.ITreeContentProvider;
-import org.eclipse.jface.viewers.ITreeSelection;
 import org.eclipse.jface.viewers.StructuredViewer;
-import org.eclipse.jface.viewers.TreePath;
-import org.eclipse.jface.viewers.TreeSelection;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.lsp4e.LSPEclipseUtils;
@@ -76,6 +73,17 @@ public class LSSymbolsContentProvider implements ICommonContentProvider, ITreeCo
 
 	public static final String VIEWER_PROPERTY_IS_QUICK_OUTLINE = "isQuickOutline"; //$NON-NLS-1$
 
+	/**
+	 * Delay after the last document change before the symbols are requested again
+	 */
+	private static final long REFRESH_DELAY_MS = 300;
+
+	/**
+	 * Above this number of changed nodes a single full refresh of the viewer is
+	 * cheaper than refreshing each node on its own
+	 */
+	private static final int MAX_ELEMENTS_TO_REFRESH = 50;
+
 	public static final class OutlineViewerInput {
 
 		public final IDocument document;
@@ -134,6 +142,7 @@ public void install() {
 		@Override
 		public void uninstall() {
 			document.removeDocumentListener(this);
+			refreshJob.cancel();
 		}
 
 		@Override
@@ -143,7 +152,9 @@ public void documentAboutToBeChanged(DocumentEvent event) {
 
 		@Override
 		public void documentChanged(DocumentEvent event) {
-			refreshTreeContentFromLS();
+			// coalesce the refreshes triggered while the user is typing
+			refreshJob.cancel();
+			refreshJob.schedule(REFRESH_DELAY_MS);
 		}
 
 	}
@@ -262,6 +273,9 @@ public void resourceChanged(IResourceChangeEvent event) {
 
 	private final SymbolsModel symbolsModel = new SymbolsModel();
 	private volatile @Nullable CompletableFuture<@Nullable List<Either<SymbolInformation, DocumentSymbol>>> symbols;
+	private volatile boolean symbolsReceived;
+	private final Job refreshJob = Job.createSystem("Refresh LSP outline", //$NON-NLS-1$
+			(ICoreRunnable) monitor -> refreshTreeContentFromLS());
 	private final boolean refreshOnResourceChanged;
 	private boolean isQuickOutline;
 	private @Nullable IOutlineUpdater outlineUpdater;
@@ -298,10 +312,18 @@ public void inputChanged(Viewer viewer, @Nullable Object oldInput, @Nullable Obj
 		// this enables limiting the number of outline entries to mitigate UI freezes
 		WorkbenchViewerSetup.setupViewer(this.viewer);
 
+		// match symbols across refreshes by name, so that tree items and their
+		// expansion state are kept when symbols only moved in the document
+		if (this.viewer.getComparer() == null) {
+			this.viewer.setComparer(new SymbolsModel.SymbolElementComparer(symbolsModel));
+		}
+
 		isQuickOutline = Boolean.TRUE.equals(viewer.getData(VIEWER_PROPERTY_IS_QUICK_OUTLINE));
 
 		outlineViewerInput = (OutlineViewerInput) newInput;
 		symbolsModel.setUri(outlineViewerInput.documentURI);
+		symbolsModel.update(null);
+		symbolsReceived = false;
 
 		// eagerly refresh the content tree, esp. important for the Quick Outline
 		// because otherwise the outline will be blank for 1-2 seconds initially
@@ -324,7 +346,9 @@ private IOutlineUpdater createOutlineUpdater() {
 
 	@Override
 	public Object[] getElements(@Nullable Object inputElement) {
-		if (symbols != null && !symbols.isDone()) {
+		// keep showing the previous symbols while a refresh is pending, so the tree
+		// does not collapse
+		if (symbols != null && !symbols.isDone() && !symbolsReceived) {
 			return new Object[] { new PendingUpdateAdapter() };
 		}
 		if (lastError != null && symbolsModel.getElements().length == 0) {
@@ -338,7 +362,11 @@ public Object[] getChildren(Object parentElement) {
 		return ArrayUtil.filter(symbolsModel.getChildren(parentElement), element -> !hideElement(element));
 	}
 
-	private boolean hideElement(Object element) {
+	SymbolsModel getSymbolsModel() {
+		return symbolsModel;
+	}
+
+	boolean hideElement(Object element) {
 		SymbolKind kind = null;
 
 		if (element instanceof DocumentSymbol documentSymbol) {
@@ -385,8 +413,17 @@ protected void refreshTreeContentFromLS() {
 		final var params = new DocumentSymbolParams(LSPEclipseUtils.toTextDocumentIdentifier(documentURI));
 		final var symbols = this.symbols = outlineViewerInput.wrapper.execute(ls -> ls.getTextDocumentService().documentSymbol(params));
 		symbols.thenAcceptAsync(response -> {
-			symbolsModel.update(response);
+			if (symbols != this.symbols) {
+				// a newer request has been sent meanwhile
+				return;
+			}
+			final boolean isInitialContent = !symbolsReceived || lastError != null;
+			final SymbolsModel.Delta delta = symbolsModel.updateWithDelta(response);
+			symbolsReceived = true;
 			lastError = null;
+			if (delta.isEmpty() && !isInitialContent) {
+				return;
+			}
 
 			final var linkWithEditor = isQuickOutline || InstanceScope.INSTANCE.getNode(LanguageServerPlugin.PLUGIN_ID)
 					.getBoolean(CNFOutlinePage.LINK_WITH_EDITOR_PREFERENCE, true);
@@ -397,22 +434,15 @@ protected void refreshTreeContentFromLS() {
 				}
 
 				final int EXPAND_ROOT_LEVEL = 2;  // Expansion level that displays root node and its children
-				if (isQuickOutline) {
+				if (isQuickOutline || isInitialContent) {
 					viewer.refresh();
 					viewer.expandToLevel(EXPAND_ROOT_LEVEL);
-				} else {
-					TreePath[] expandedElements = viewer.getExpandedTreePaths();
-					TreePath[] initialSelection = ((ITreeSelection) viewer.getSelection()).getPaths();
+				} else if (delta.isRefreshAll() || delta.getElementsToRefresh().size() > MAX_ELEMENTS_TO_REFRESH) {
+					// tree items are matched by SymbolElementComparer, so expanded nodes stay expanded
 					viewer.refresh();
-					if (expandedElements.length > 0) {
-						viewer.setExpandedTreePaths(Arrays.stream(expandedElements)
-								.map(symbolsModel::toUpdatedSymbol)
-								.filter(Objects::nonNull).toArray(TreePath[]::new));
-						viewer.setSelection(new TreeSelection(Arrays.stream(initialSelection)
-								.map(symbolsModel::toUpdatedSymbol)
-								.filter(Objects::nonNull).toArray(TreePath[]::new)));
-					} else {
-						viewer.expandToLevel(EXPAND_ROOT_LEVEL);
+				} else {
+					for (final Object element : delta.getElementsToRefresh()) {
+						viewer.refresh(element);
 					}
 				}
 
@@ -427,6 +457,9 @@ protected void refreshTreeContentFromLS() {
 		});
 
 		symbols.exceptionally(ex -> {
+			if (symbols != this.symbols) {
+				return Collections.emptyList();
+			}
 			if (!(ex instanceof CancellationException || CancellationUtil.isRequestCancelledException(ex))) {
 				lastError = ex;
 				LanguageServerPlugin.logError(ex);
@@ -438,6 +471,7 @@ protected void refreshTreeContentFromLS() {
 
 	@Override
 	public void dispose() {
+		refreshJob.cancel();
 		if (outlineUpdater != null) {
 			outlineUpdater.uninstall();
 		}
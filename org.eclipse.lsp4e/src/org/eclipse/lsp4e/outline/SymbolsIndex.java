@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.outline;
+
+import static org.eclipse.lsp4e.internal.ArrayUtil.NO_OBJECTS;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.lsp4e.outline.SymbolsModel.DocumentSymbolWithURI;
+import org.eclipse.lsp4j.DocumentSymbol;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolInformation;
+
+/**
+ * Immutable index of the symbols of a {@link SymbolsModel}, flattened into
+ * arrays sorted by start position, to find the symbol enclosing a position in
+ * O(log n) without allocating.
+ * <p>
+ * Positions are encoded as longs holding the line in the upper and the
+ * character in the lower 32 bits, so they can be compared without a document.
+ * The lookup assumes that symbols are nested within the range of their parent.
+ */
+final class SymbolsIndex {
+
+	static final SymbolsIndex EMPTY = new SymbolsIndex(NO_OBJECTS, new long[0], new long[0], new int[0]);
+
+	/** the indexed elements, sorted by start position, parents before their children */
+	private final Object[] elements;
+	private final long[] starts;
+	private final long[] ends;
+	/** index of the parent of each element, -1 for root elements */
+	private final int[] parents;
+
+	private SymbolsIndex(Object[] elements, long[] starts, long[] ends, int[] parents) {
+		this.elements = elements;
+		this.starts = starts;
+		this.ends = ends;
+		this.parents = parents;
+	}
+
+	static long toKey(int line, int character) {
+		return ((long) line << 32) | (character & 0xFFFFFFFFL);
+	}
+
+	static long toKey(Position position) {
+		return toKey(position.getLine(), position.getCharacter());
+	}
+
+	/**
+	 * @return the index of the innermost element whose range contains the given
+	 *         position, or -1 if there is none
+	 */
+	int findInnermost(long position) {
+		// last element starting at or before the position...
+		int low = 0;
+		int high = starts.length - 1;
+		int index = -1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			if (starts[mid] <= position) {
+				index = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		// ...is either the enclosing element or one of its descendants
+		while (index >= 0 && ends[index] < position) {
+			index = parents[index];
+		}
+		return index;
+	}
+
+	Object getElement(int index) {
+		return elements[index];
+	}
+
+	int getParent(int index) {
+		return parents[index];
+	}
+
+	int size() {
+		return elements.length;
+	}
+
+	private record Entry(Object element, long start, long end, int depth, int parent) {
+	}
+
+	/**
+	 * @param roots
+	 *            the root elements of the model, as returned by
+	 *            {@link SymbolsModel#getElements()}
+	 * @param model
+	 *            the model providing the children of {@link SymbolInformation}
+	 *            elements
+	 */
+	static SymbolsIndex build(Object[] roots, SymbolsModel model) {
+		final var entries = new ArrayList<Entry>();
+		collect(roots, -1, 0, model, entries);
+		if (entries.isEmpty()) {
+			return EMPTY;
+		}
+
+		final var order = new Integer[entries.size()];
+		Arrays.setAll(order, i -> i);
+		Arrays.sort(order, Comparator.<Integer> comparingLong(i -> entries.get(i).start())
+				.thenComparingInt(i -> entries.get(i).depth()));
+		final var positionInOrder = new int[order.length];
+		for (int i = 0; i < order.length; i++) {
+			positionInOrder[order[i]] = i;
+		}
+
+		final var elements = new Object[order.length];
+		final var starts = new long[order.length];
+		final var ends = new long[order.length];
+		final var parents = new int[order.length];
+		for (int i = 0; i < order.length; i++) {
+			final Entry entry = entries.get(order[i]);
+			elements[i] = entry.element();
+			starts[i] = entry.start();
+			ends[i] = entry.end();
+			parents[i] = entry.parent() < 0 ? -1 : positionInOrder[entry.parent()];
+		}
+		return new SymbolsIndex(elements, starts, ends, parents);
+	}
+
+	private static void collect(Object[] elements, int parent, int depth, SymbolsModel model, List<Entry> entries) {
+		for (final Object element : elements) {
+			final Range range = getRange(element);
+			if (range == null) {
+				continue;
+			}
+			final int index = entries.size();
+			entries.add(new Entry(element, toKey(range.getStart()), toKey(range.getEnd()), depth, parent));
+			collect(model.getChildren(element), index, depth + 1, model, entries);
+		}
+	}
+
+	private static @Nullable Range getRange(Object element) {
+		if (element instanceof DocumentSymbolWithURI symbolWithURI) {
+			return symbolWithURI.symbol.getRange();
+		}
+		if (element instanceof DocumentSymbol symbol) {
+			return symbol.getRange();
+		}
+		if (element instanceof SymbolInformation symbol) {
+			return symbol.getLocation().getRange();
+		}
+		return null;
+	}
+}
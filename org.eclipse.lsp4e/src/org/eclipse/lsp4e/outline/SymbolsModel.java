@@ -20,18 +20,19 @@
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.function.Function;
 
 import org.eclipse.jdt.annotation.Nullable;
-import org.eclipse.jface.viewers.TreePath;
+import org.eclipse.jface.viewers.IElementComparer;
 import org.eclipse.lsp4e.internal.ArrayUtil;
 import org.eclipse.lsp4j.DocumentSymbol;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.SymbolKind;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 
 public class SymbolsModel {
@@ -40,6 +41,13 @@ public class SymbolsModel {
 
 	private volatile Map<SymbolInformation, List<SymbolInformation>> childrenMap = Collections.emptyMap();
 	private volatile List<DocumentSymbol> rootSymbols = Collections.emptyList();
+	private volatile SymbolsIndex index = SymbolsIndex.EMPTY;
+	/**
+	 * index of each symbol among its siblings of the same name and kind, for the
+	 * symbols of the current and of the previous version of the model
+	 */
+	private volatile Map<SymbolInformation, Integer> occurrences = Collections.emptyMap();
+	private Map<SymbolInformation, Integer> currentOccurrences = Collections.emptyMap();
 
 	private @Nullable URI uri;
 
@@ -73,10 +81,18 @@ public static class DocumentSymbolWithURI extends DocumentSymbolWithFile {
 		public final DocumentSymbol symbol;
 		public final URI uri;
 
+		/** index of the symbol among its siblings of the same name and kind */
+		private final int occurrence;
+
 		public DocumentSymbolWithURI(DocumentSymbol symbol, URI uri) {
+			this(symbol, uri, 0);
+		}
+
+		private DocumentSymbolWithURI(DocumentSymbol symbol, URI uri, int occurrence) {
 			super(symbol, uri);
 			this.symbol = symbol;
 			this.uri = uri;
+			this.occurrence = occurrence;
 		}
 
 		@Override
@@ -92,8 +108,96 @@ public int hashCode() {
 		}
 	}
 
+	/**
+	 * Describes which parts of the symbol tree changed during the last
+	 * {@link SymbolsModel#updateWithDelta(List)} call, so that viewers can
+	 * refresh only the affected nodes instead of the whole tree.
+	 */
+	public static final class Delta {
+
+		static final Delta NO_CHANGE = new Delta(false, List.of());
+		static final Delta REFRESH_ALL = new Delta(true, List.of());
+
+		private final boolean refreshAll;
+		private final List<Object> elementsToRefresh;
+
+		private Delta(boolean refreshAll, List<Object> elementsToRefresh) {
+			this.refreshAll = refreshAll;
+			this.elementsToRefresh = elementsToRefresh;
+		}
+
+		/**
+		 * @return true if the root elements changed and the whole tree must be
+		 *         refreshed
+		 */
+		public boolean isRefreshAll() {
+			return refreshAll;
+		}
+
+		/**
+		 * @return the top-most elements whose label or subtree changed, only
+		 *         meaningful if {@link #isRefreshAll()} is false
+		 */
+		public List<Object> getElementsToRefresh() {
+			return elementsToRefresh;
+		}
+
+		public boolean isEmpty() {
+			return !refreshAll && elementsToRefresh.isEmpty();
+		}
+	}
+
+	/**
+	 * Viewer element comparer matching symbols of two successive versions of the
+	 * model by name, kind and rank among the siblings of the same name and kind
+	 * rather than by range, so that tree items (and their expansion state) are
+	 * reused when the symbols only moved in the document, while overloads stay
+	 * distinct.
+	 */
+	public static final class SymbolElementComparer implements IElementComparer {
+
+		private final @Nullable SymbolsModel model;
+
+		/**
+		 * A comparer which tells apart the {@link SymbolInformation}s of the same
+		 * name and kind of the given model.
+		 */
+		public SymbolElementComparer(@Nullable SymbolsModel model) {
+			this.model = model;
+		}
+
+		public SymbolElementComparer() {
+			this(null);
+		}
+
+		@Override
+		public boolean equals(@Nullable Object a, @Nullable Object b) {
+			if ((a instanceof DocumentSymbolWithURI || a instanceof SymbolInformation) && b != null) {
+				return SymbolKey.of(a, model).equals(SymbolKey.of(b, model));
+			}
+			return Objects.equals(a, b);
+		}
+
+		@Override
+		public int hashCode(@Nullable Object element) {
+			if (element instanceof DocumentSymbolWithURI || element instanceof SymbolInformation) {
+				return SymbolKey.of(element, model).hashCode();
+			}
+			return Objects.hashCode(element);
+		}
+	}
+
 	public synchronized boolean update(@Nullable List<Either<SymbolInformation, DocumentSymbol>> response) {
-		// TODO update model only on real change
+		return !updateWithDelta(response).isEmpty();
+	}
+
+	/**
+	 * Updates the model with the given response and computes which elements
+	 * changed compared to the previous content of the model.
+	 */
+	public synchronized Delta updateWithDelta(@Nullable List<Either<SymbolInformation, DocumentSymbol>> response) {
+		final Map<SymbolInformation, List<SymbolInformation>> oldChildrenMap = childrenMap;
+		final List<DocumentSymbol> oldRootSymbols = rootSymbols;
 		if (response == null || response.isEmpty()) {
 			childrenMap = Collections.emptyMap();
 			rootSymbols = Collections.emptyList();
@@ -136,7 +240,150 @@ public synchronized boolean update(@Nullable List<Either<SymbolInformation, Docu
 			childrenMap = newChildrenMap;
 			rootSymbols = newRootSymbols;
 		}
-		return true;
+		updateOccurrences();
+		final Delta delta = computeDelta(oldChildrenMap, oldRootSymbols);
+		if (!delta.isEmpty()) {
+			index = SymbolsIndex.build(getElements(), this);
+		}
+		return delta;
+	}
+
+	/**
+	 * Ranks the symbol informations among their siblings, keeping the ranks of
+	 * the previous version of the model to match its symbols.
+	 */
+	private void updateOccurrences() {
+		final var newOccurrences = new IdentityHashMap<SymbolInformation, Integer>();
+		for (final List<SymbolInformation> children : childrenMap.values()) {
+			final var counts = new HashMap<SymbolKey, Integer>();
+			for (final SymbolInformation child : children) {
+				newOccurrences.put(child, counts.merge(SymbolKey.of(child, 0), 1, Integer::sum) - 1);
+			}
+		}
+		final var allOccurrences = new IdentityHashMap<SymbolInformation, Integer>(currentOccurrences);
+		allOccurrences.putAll(newOccurrences);
+		currentOccurrences = newOccurrences;
+		occurrences = allOccurrences;
+	}
+
+	private Delta computeDelta(Map<SymbolInformation, List<SymbolInformation>> oldChildrenMap,
+			List<DocumentSymbol> oldRootSymbols) {
+		final Object[] oldElements = getElements(oldChildrenMap, oldRootSymbols);
+		final Object[] newElements = getElements(childrenMap, rootSymbols);
+		final var symbolKeyCounts = new HashMap<SymbolKey, Integer>();
+		countSymbolKeys(oldElements, oldChildrenMap, symbolKeyCounts);
+		countSymbolKeys(newElements, childrenMap, symbolKeyCounts);
+
+		final var elementsToRefresh = new ArrayList<Object>();
+		if (diffChildren(oldElements, newElements, oldChildrenMap, symbolKeyCounts, elementsToRefresh)) {
+			return Delta.REFRESH_ALL;
+		}
+		return elementsToRefresh.isEmpty() ? Delta.NO_CHANGE : new Delta(false, elementsToRefresh);
+	}
+
+	/**
+	 * Compares the children of one node in the old and in the new model.
+	 *
+	 * @return true if the parent node itself must be refreshed, false if the
+	 *         changes (if any) were collected into elementsToRefresh
+	 */
+	private boolean diffChildren(Object[] oldChildren, Object[] newChildren,
+			Map<SymbolInformation, List<SymbolInformation>> oldChildrenMap, Map<SymbolKey, Integer> symbolKeyCounts,
+			List<Object> elementsToRefresh) {
+		if (oldChildren.length != newChildren.length) {
+			return true;
+		}
+		for (int i = 0; i < newChildren.length; i++) {
+			if (!SymbolKey.of(oldChildren[i], this).equals(SymbolKey.of(newChildren[i], this))) {
+				return true;
+			}
+		}
+		final int sizeBefore = elementsToRefresh.size();
+		for (int i = 0; i < newChildren.length; i++) {
+			final Object newChild = newChildren[i];
+			if (!isSameContent(oldChildren[i], newChild) || diffChildren(getChildren(oldChildrenMap, oldChildren[i]),
+					getChildren(childrenMap, newChild), oldChildrenMap, symbolKeyCounts, elementsToRefresh)) {
+				// the viewer looks up tree items using the SymbolElementComparer, so an
+				// element can only be refreshed on its own if no other symbol of the old
+				// or new tree is matched as equal to it
+				if (symbolKeyCounts.getOrDefault(SymbolKey.of(newChild, this), 0) != 2) {
+					elementsToRefresh.subList(sizeBefore, elementsToRefresh.size()).clear();
+					return true;
+				}
+				elementsToRefresh.add(newChild);
+			}
+		}
+		return false;
+	}
+
+	private void countSymbolKeys(Object[] elements, Map<SymbolInformation, List<SymbolInformation>> childrenMap,
+			Map<SymbolKey, Integer> symbolKeyCounts) {
+		for (final Object element : elements) {
+			symbolKeyCounts.merge(SymbolKey.of(element, this), 1, Integer::sum);
+			countSymbolKeys(getChildren(childrenMap, element), childrenMap, symbolKeyCounts);
+		}
+	}
+
+	/**
+	 * Identity of a symbol as seen by the {@link SymbolElementComparer}.
+	 */
+	private record SymbolKey(@Nullable Object uri, @Nullable String name, @Nullable SymbolKind kind,
+			@Nullable String containerName, int occurrence) {
+
+		/**
+		 * @param model
+		 *            the model ranking the symbol informations, if known
+		 */
+		static SymbolKey of(Object element, @Nullable SymbolsModel model) {
+			if (element instanceof DocumentSymbolWithURI symbolWithURI) {
+				return new SymbolKey(symbolWithURI.uri, symbolWithURI.symbol.getName(),
+						symbolWithURI.symbol.getKind(), null, symbolWithURI.occurrence);
+			}
+			if (element instanceof SymbolInformation symbol) {
+				return of(symbol, model == null ? 0 : model.occurrences.getOrDefault(symbol, 0));
+			}
+			return new SymbolKey(element, null, null, null, 0);
+		}
+
+		static SymbolKey of(SymbolInformation symbol, int occurrence) {
+			return new SymbolKey(symbol.getLocation().getUri(), symbol.getName(), symbol.getKind(),
+					symbol.getContainerName(), occurrence);
+		}
+
+		static SymbolKey of(DocumentSymbol symbol, URI uri) {
+			return new SymbolKey(uri, symbol.getName(), symbol.getKind(), null, 0);
+		}
+	}
+
+	/**
+	 * @return the symbols as elements of the given document, ranked among the
+	 *         symbols of the same name and kind
+	 */
+	private static Object[] toElements(List<DocumentSymbol> symbols, URI uri) {
+		final var elements = new Object[symbols.size()];
+		final var counts = new HashMap<SymbolKey, Integer>();
+		for (int i = 0; i < elements.length; i++) {
+			final DocumentSymbol symbol = symbols.get(i);
+			elements[i] = new DocumentSymbolWithURI(symbol, uri,
+					counts.merge(SymbolKey.of(symbol, uri), 1, Integer::sum) - 1);
+		}
+		return elements;
+	}
+
+	/**
+	 * Compares everything but the children of two symbols.
+	 */
+	private static boolean isSameContent(Object a, Object b) {
+		if (a instanceof DocumentSymbolWithURI symbolA && b instanceof DocumentSymbolWithURI symbolB) {
+			final DocumentSymbol docSymbolA = symbolA.symbol;
+			final DocumentSymbol docSymbolB = symbolB.symbol;
+			return Objects.equals(docSymbolA.getRange(), docSymbolB.getRange())
+					&& Objects.equals(docSymbolA.getSelectionRange(), docSymbolB.getSelectionRange())
+					&& Objects.equals(docSymbolA.getDetail(), docSymbolB.getDetail())
+					&& Objects.equals(docSymbolA.getTags(), docSymbolB.getTags())
+					&& Objects.equals(docSymbolA.getDeprecated(), docSymbolB.getDeprecated());
+		}
+		return a.equals(b);
 	}
 
 	private boolean isIncluded(@Nullable SymbolInformation parent, @Nullable SymbolInformation symbol) {
@@ -167,15 +414,27 @@ private void addChild(Map<SymbolInformation, List<SymbolInformation>> newChildre
 	}
 
 	public Object[] getElements() {
-		final var res = ArrayUtil.asArrayList(getChildren(ROOT_SYMBOL_INFORMATION));
+		return getElements(childrenMap, rootSymbols);
+	}
+
+	private Object[] getElements(Map<SymbolInformation, List<SymbolInformation>> childrenMap,
+			List<DocumentSymbol> rootSymbols) {
+		final var res = ArrayUtil.asArrayList(getChildren(childrenMap, ROOT_SYMBOL_INFORMATION));
 		final URI current = this.uri;
-		Function<DocumentSymbol, Object> mapper = current != null ? symbol -> new DocumentSymbolWithURI(symbol, current)
-				: symbol -> symbol;
-		rootSymbols.stream().map(mapper).forEach(res::add);
+		if (current != null) {
+			Collections.addAll(res, toElements(rootSymbols, current));
+		} else {
+			res.addAll(rootSymbols);
+		}
 		return res.toArray();
 	}
 
 	public Object[] getChildren(@Nullable Object parentElement) {
+		return getChildren(childrenMap, parentElement);
+	}
+
+	private static Object[] getChildren(Map<SymbolInformation, List<SymbolInformation>> childrenMap,
+			@Nullable Object parentElement) {
 		if (parentElement != null) {
 			if (parentElement instanceof SymbolInformation) {
 				List<SymbolInformation> children = childrenMap.get(parentElement);
@@ -185,8 +444,7 @@ public Object[] getChildren(@Nullable Object parentElement) {
 			} else if (parentElement instanceof DocumentSymbolWithURI element) {
 				List<DocumentSymbol> children = element.symbol.getChildren();
 				if (children != null && !children.isEmpty()) {
-					return element.symbol.getChildren().stream()
-							.map(symbol -> new DocumentSymbolWithURI(symbol, element.uri)).toArray();
+					return toElements(children, element.uri);
 				}
 			}
 		}
@@ -221,33 +479,27 @@ public boolean hasChildren(@Nullable Object parentElement) {
 		return null;
 	}
 
-	public void setUri(@Nullable URI uri) {
+	public synchronized void setUri(@Nullable URI uri) {
 		this.uri = uri;
+		index = SymbolsIndex.build(getElements(), this);
 	}
 
-	public @Nullable TreePath toUpdatedSymbol(TreePath initialSymbol) {
-		final var res = new ArrayList<Object>(initialSymbol.getSegmentCount());
-		Object currentSymbol = null;
-		for (int i = 0; i < initialSymbol.getSegmentCount(); i++) {
-			String name = getName(initialSymbol.getSegment(i));
-			Object[] currentChildren = (currentSymbol == null ? getElements() : getChildren(currentSymbol));
-			currentSymbol = ArrayUtil.findFirstMatching(currentChildren, child -> Objects.equals(getName(child), name));
-			if (currentSymbol == null) {
-				return null;
-			}
-			res.add(currentSymbol);
-		}
-		return new TreePath(res.toArray());
+	/**
+	 * Returns the innermost symbol whose range contains the given position. The
+	 * lookup is backed by an index rebuilt on each change of the model, so it is
+	 * cheap enough to be performed on every caret move.
+	 *
+	 * @return the innermost symbol containing the given position, or null if the
+	 *         position is outside of all symbols
+	 */
+	public @Nullable Object getSymbolAt(int line, int character) {
+		final SymbolsIndex index = this.index;
+		final int symbol = index.findInnermost(SymbolsIndex.toKey(line, character));
+		return symbol < 0 ? null : index.getElement(symbol);
 	}
 
-	private @Nullable String getName(Object segment) {
-		if (segment instanceof DocumentSymbolWithURI symbolWithURI) {
-			segment = symbolWithURI.symbol;
-		}
-		if (segment instanceof DocumentSymbol documentSymbol) {
-			return documentSymbol.getName();
-		}
-		return null;
+	SymbolsIndex getIndex() {
+		return index;
 	}
 
 }
@@ -14,6 +14,7 @@
 import static org.eclipse.lsp4e.internal.NullSafetyHelper.castNullable;
 
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -21,6 +22,7 @@
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import org.eclipse.core.runtime.ICoreRunnable;
@@ -42,9 +44,13 @@
 import org.eclipse.lsp4j.WorkDoneProgressKind;
 import org.eclipse.lsp4j.WorkDoneProgressNotification;
 import org.eclipse.lsp4j.WorkDoneProgressReport;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.lsp4j.services.LanguageServer;
 
 public class LSPProgressManager {
+	/** consumers of partial results, by partial result token, shared by all language servers */
+	private static final ConcurrentMap<String, Consumer<Object>> PARTIAL_RESULT_CONSUMERS = new ConcurrentHashMap<>();
+
 	private final ConcurrentMap<String, BlockingQueue<ProgressParams>> progressMap;
 	private final ConcurrentMap<IProgressMonitor, Integer> percentageMap;
 	private @Nullable LanguageServer languageServer;
@@ -188,6 +194,13 @@ private void report(final WorkDoneProgressReport report, final IProgressMonitor
 	 */
 	public void notifyProgress(final ProgressParams params) {
 		String jobIdentifier = params.getToken().map(Function.identity(), Object::toString);
+		if (params.getValue().isRight()) {
+			final Consumer<Object> partialResultConsumer = PARTIAL_RESULT_CONSUMERS.get(jobIdentifier);
+			if (partialResultConsumer != null) {
+				partialResultConsumer.accept(params.getValue().getRight());
+			}
+			return;
+		}
 		BlockingQueue<ProgressParams> progress = progressMap.get(jobIdentifier);
 		if (progress != null) { // may happen if the server does not wait on the return value of the future of createProgress
 			progress.add(params);
@@ -199,6 +212,36 @@ public void notifyProgress(final ProgressParams params) {
 		}
 	}
 
+	/**
+	 * Creates a unique partial result token to be passed to a request supporting
+	 * partial results. Partial results reported by the language server for this
+	 * token are passed to the given consumer, on the thread receiving the
+	 * notification, until the token is removed.
+	 *
+	 * @param consumer
+	 *            the consumer of the partial results, which are not yet
+	 *            deserialized into the type of the response
+	 * @return the partial result token
+	 * @see #removePartialResultToken(Either)
+	 */
+	public static Either<String, Integer> createPartialResultToken(final Consumer<Object> consumer) {
+		final String token = UUID.randomUUID().toString();
+		PARTIAL_RESULT_CONSUMERS.put(token, consumer);
+		return Either.forLeft(token);
+	}
+
+	/**
+	 * Removes a partial result token created by
+	 * {@link #createPartialResultToken(Consumer)}, usually once the request
+	 * completed.
+	 *
+	 * @param token
+	 *            the partial result token
+	 */
+	public static void removePartialResultToken(final Either<String, Integer> token) {
+		PARTIAL_RESULT_CONSUMERS.remove(token.map(Function.identity(), Object::toString));
+	}
+
 	/**
 	 * Dispose the progress manager.
 	 */
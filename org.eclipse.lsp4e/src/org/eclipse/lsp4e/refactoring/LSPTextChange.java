@@ -14,6 +14,7 @@
 import static org.eclipse.lsp4e.internal.NullSafetyHelper.*;
 
 import java.net.URI;
+import java.util.List;
 
 import org.eclipse.core.filebuffers.FileBuffers;
 import org.eclipse.core.filebuffers.ITextFileBuffer;
@@ -33,6 +34,7 @@
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
+import org.eclipse.lsp4e.internal.DocumentUtil;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.TextEdit;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
@@ -40,10 +42,13 @@
 import org.eclipse.ltk.core.refactoring.DocumentChange;
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 import org.eclipse.ltk.core.refactoring.TextChange;
+import org.eclipse.ltk.core.refactoring.TextEditBasedChangeGroup;
 import org.eclipse.ltk.core.refactoring.TextFileChange;
 import org.eclipse.ltk.internal.core.refactoring.Changes;
 import org.eclipse.text.edits.MalformedTreeException;
+import org.eclipse.text.edits.MultiTextEdit;
 import org.eclipse.text.edits.ReplaceEdit;
+import org.eclipse.text.edits.TextEditGroup;
 import org.eclipse.text.edits.UndoEdit;
 
 @SuppressWarnings("restriction")
@@ -54,21 +59,32 @@ public class LSPTextChange extends TextChange {
 	private Either<IFile, IFileStore> file = lateNonNull();
 	private int fAcquireCount;
 	private @Nullable ITextFileBuffer fBuffer;
+	private boolean fBufferWasOpen;
+	private org.eclipse.text.edits.@Nullable TextEdit preparedEdit;
+	private long preparedModificationStamp;
 	private String newText;
-	private @Nullable Range range;
+	private @Nullable List<TextEdit> textEdits;
 
 	public LSPTextChange(String name, URI fileUri, TextEdit textEdit) {
+		this(name, fileUri, List.of(textEdit));
+	}
+
+	/**
+	 * Creates a change applying all the given edits of the file at once, so the
+	 * file buffer is acquired and committed only once.
+	 */
+	public LSPTextChange(String name, URI fileUri, List<TextEdit> textEdits) {
 		super(name);
 		this.fileUri = fileUri;
-		this.newText = textEdit.getNewText();
-		this.range = textEdit.getRange();
+		this.newText = ""; //$NON-NLS-1$
+		this.textEdits = textEdits;
 	}
 
 	public LSPTextChange(String name, URI fileUri, String newText) {
 		super(name);
 		this.fileUri = fileUri;
 		this.newText = newText;
-		this.range = null;
+		this.textEdits = null;
 	}
 
 	@Override
@@ -93,6 +109,7 @@ protected IDocument acquireDocument(IProgressMonitor pm) throws CoreException {
 		}
 		if (this.fBuffer != null) {
 			fAcquireCount++; // allows to mark open editor dirty instead of saving
+			fBufferWasOpen = true;
 		} else {
 			if (this.file.isLeft()) {
 				manager.connect(this.file.getLeft().getFullPath(), LocationKind.IFILE, pm);
@@ -109,14 +126,10 @@ protected IDocument acquireDocument(IProgressMonitor pm) throws CoreException {
 		// since we need the document to translate line offsets into character offset. Strictly this would not work then
 		// if the platform called getEdit() prior to this method being traversed, but it seems to be OK in practice.
 		final IDocument document = castNonNull(this.fBuffer).getDocument();
-		int offset = 0;
-		final var range = this.range;
-		if (range != null && getEdit() == null) {
+		if (this.textEdits != null && getEdit() == null) {
 			try {
-				offset = LSPEclipseUtils.toOffset(range.getStart(), document);
-				int length = LSPEclipseUtils.toOffset(range.getEnd(), document) - offset;
-				this.setEdit(new ReplaceEdit(offset, length, newText));
-			} catch (BadLocationException e) {
+				this.setEdit(toEdit(document, true));
+			} catch (BadLocationException | MalformedTreeException e) {
 				// Should not happen
 				LanguageServerPlugin.logError(e);
 			}
@@ -124,6 +137,78 @@ protected IDocument acquireDocument(IProgressMonitor pm) throws CoreException {
 		return document;
 	}
 
+	/**
+	 * Converts the LSP edits to a single ltk edit, all positions being computed
+	 * against the document before any change, as specified by LSP.
+	 *
+	 * @param withGroups
+	 *            whether to group each edit for the refactoring preview, rather
+	 *            than leaving out the edits whose group was unchecked in it
+	 */
+	private org.eclipse.text.edits.TextEdit toEdit(IDocument document, boolean withGroups)
+			throws BadLocationException {
+		final var textEdits = this.textEdits;
+		if (textEdits == null) {
+			return new ReplaceEdit(0, document.getLength(), newText);
+		}
+		final var edit = new MultiTextEdit();
+		// one group per edit, in the same order, once the preview was computed
+		final TextEditBasedChangeGroup[] groups = withGroups ? new TextEditBasedChangeGroup[0] : getChangeGroups();
+		for (int i = 0; i < textEdits.size(); i++) {
+			if (i < groups.length && !groups[i].isEnabled()) {
+				continue;
+			}
+			final TextEdit textEdit = textEdits.get(i);
+			final Range range = textEdit.getRange();
+			final int offset = LSPEclipseUtils.toOffset(range.getStart(), document);
+			final int length = LSPEclipseUtils.toOffset(range.getEnd(), document) - offset;
+			final var replaceEdit = new ReplaceEdit(offset, length, textEdit.getNewText());
+			edit.addChild(replaceEdit);
+			if (withGroups) {
+				addTextEditGroup(new TextEditGroup("Line: %d".formatted(range.getStart().getLine() + 1), replaceEdit)); //$NON-NLS-1$
+			}
+		}
+		return edit;
+	}
+
+	/**
+	 * Acquires the document and computes the edit ahead of {@link #perform},
+	 * which then only has to apply it. This is thread-safe for distinct changes,
+	 * so the changes of several files can be prepared concurrently. A
+	 * successful preparation must be followed by {@link #release}.
+	 */
+	public void prepare(IProgressMonitor pm) throws CoreException {
+		final IDocument document = acquireDocument(pm);
+		try {
+			preparedModificationStamp = DocumentUtil.getDocumentModificationStamp(document);
+			preparedEdit = toEdit(document, false);
+		} catch (BadLocationException | MalformedTreeException e) {
+			LanguageServerPlugin.logError(e);
+		}
+	}
+
+	/**
+	 * Releases the document acquired by {@link #prepare}.
+	 */
+	public void release(IProgressMonitor pm) throws CoreException {
+		preparedEdit = null;
+		releaseDocument(castNonNull(this.fBuffer).getDocument(), pm);
+	}
+
+	/**
+	 * @return the prepared edit if the document didn't change since, otherwise a
+	 *         newly computed one
+	 */
+	private org.eclipse.text.edits.TextEdit getEditToPerform(IDocument document) throws BadLocationException {
+		final var preparedEdit = this.preparedEdit;
+		this.preparedEdit = null;
+		if (preparedEdit != null
+				&& preparedModificationStamp == DocumentUtil.getDocumentModificationStamp(document)) {
+			return preparedEdit;
+		}
+		return toEdit(document, false);
+	}
+
 	@Override
 	protected void commit(IDocument document, IProgressMonitor pm) throws CoreException {
 		castNonNull(this.fBuffer).commit(pm, true);
@@ -179,14 +264,6 @@ public RefactoringStatus isValid(IProgressMonitor pm) throws CoreException {
 		try {
 			document = acquireDocument(SubMonitor.convert(pm, 1));
 
-			int offset = 0;
-			int length = document.getLength();
-			final var range = this.range;
-			if (range != null) {
-				offset = LSPEclipseUtils.toOffset(range.getStart(), document);
-				length = LSPEclipseUtils.toOffset(range.getEnd(), document) - offset;
-			}
-
 			final TextChange delegate;
 			if (this.file.isRight()) {
 				delegate = new DocumentChange("Change in document " + fileUri.getPath(), document); //$NON-NLS-1$
@@ -194,12 +271,12 @@ public RefactoringStatus isValid(IProgressMonitor pm) throws CoreException {
 				delegate = new TextFileChange("Change in file " + this.file.getLeft().getName(), this.file.getLeft()) { //$NON-NLS-1$
 					@Override
 					protected boolean needsSaving() {
-						return fAcquireCount == 1;
+						return !fBufferWasOpen;
 					}
 				};
 			}
 			delegate.initializeValidationData(new NullProgressMonitor());
-			delegate.setEdit(new ReplaceEdit(offset, length, newText));
+			delegate.setEdit(getEditToPerform(document));
 
 			return delegate.perform(pm);
 
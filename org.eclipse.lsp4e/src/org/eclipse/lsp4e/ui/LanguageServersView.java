@@ -19,6 +19,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -27,6 +28,7 @@
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.viewers.ArrayContentProvider;
 import org.eclipse.jface.viewers.ColumnLabelProvider;
+import org.eclipse.jface.viewers.ColumnViewerToolTipSupport;
 import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.jface.viewers.TableViewerColumn;
 import org.eclipse.jface.viewers.Viewer;
@@ -34,6 +36,8 @@
 import org.eclipse.jface.viewers.ViewerComparator;
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServiceAccessor;
+import org.eclipse.lsp4e.RequestDeadlines;
+import org.eclipse.lsp4e.RequestLimits;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.TableEditor;
 import org.eclipse.swt.events.SelectionAdapter;
@@ -57,6 +61,8 @@ public class LanguageServersView extends ViewPart {
 	private final Map<LanguageServerWrapper, ToolBar> actionButtons = new HashMap<>();
 	private final List<ColumnLabelProvider> columnLabelProviders = new ArrayList<>();
 
+	private int deadlinesColumnIndex;
+
 	private int tableSortColumn = 1;
 	private int tableSortDirection = 1; // 1 = ascending, -1 = descending
 	private final ViewerComparator tableSorter = new ViewerComparator() {
@@ -208,6 +214,52 @@ public String getText(Object element) {
 			}
 		});
 
+		deadlinesColumnIndex = columnLabelProviders.size();
+		createColumn("Request Deadlines", 300, new ColumnLabelProvider() { //$NON-NLS-1$
+			@Override
+			public String getText(Object element) {
+				final var lsWrapper = (LanguageServerWrapper) element;
+				final Map<String, RequestDeadlines.Stats> stats = RequestDeadlines.getStats(lsWrapper.serverDefinition.id);
+				if (stats.isEmpty())
+					return NOT_AVAILABLE;
+				return stats.entrySet().stream() //
+						.map(entry -> entry.getKey() + ": " + entry.getValue().deadlineMs() + " ms") //$NON-NLS-1$ //$NON-NLS-2$
+						.collect(Collectors.joining(", ")); //$NON-NLS-1$
+			}
+
+			@Override
+			public @Nullable String getToolTipText(Object element) {
+				final var lsWrapper = (LanguageServerWrapper) element;
+				final Map<String, RequestDeadlines.Stats> stats = RequestDeadlines.getStats(lsWrapper.serverDefinition.id);
+				if (stats.isEmpty())
+					return null;
+				return stats.entrySet().stream() //
+						.map(entry -> String.format("%s: median %d ms, 95th percentile %d ms, deadline %d ms (%d samples)", //$NON-NLS-1$
+								entry.getKey(), entry.getValue().p50Ms(), entry.getValue().p95Ms(),
+								entry.getValue().deadlineMs(), entry.getValue().samples()))
+						.collect(Collectors.joining("\n")); //$NON-NLS-1$
+			}
+		});
+
+		createColumn("Deferred / Shed Requests", 150, new ColumnLabelProvider() { //$NON-NLS-1$
+			@Override
+			public String getText(Object element) {
+				final var lsWrapper = (LanguageServerWrapper) element;
+				final RequestLimits.Stats stats = RequestLimits.getStats(lsWrapper.serverDefinition.id);
+				if (stats == null)
+					return NOT_AVAILABLE;
+				return stats.deferred() + " / " + stats.shed(); //$NON-NLS-1$
+			}
+		});
+
+		createColumn("Responsive", 80, new ColumnLabelProvider() { //$NON-NLS-1$
+			@Override
+			public String getText(Object element) {
+				return ((LanguageServerWrapper) element).isDegraded() ? "no" : "yes"; //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		});
+		ColumnViewerToolTipSupport.enableFor(viewer);
+
 		table.setSortDirection(tableSortDirection == 1 ? SWT.DOWN : SWT.UP);
 		table.setSortColumn(table.getColumn(tableSortColumn));
 
@@ -254,6 +306,17 @@ private void updateViewerInput() {
 				actionButtons.clear();
 				viewer.setInput(newElements);
 			});
+		} else {
+			// the deadlines, request counts and responsiveness change as the language servers answer,
+			// refreshing only their columns keeps the action buttons in place
+			UI.getDisplay().execute(() -> {
+				for (int i = deadlinesColumnIndex; i < columnLabelProviders.size(); i++) {
+					final var labelProvider = columnLabelProviders.get(i);
+					for (final TableItem item : viewer.getTable().getItems()) {
+						item.setText(i, labelProvider.getText(item.getData()));
+					}
+				}
+			});
 		}
 	}
 }
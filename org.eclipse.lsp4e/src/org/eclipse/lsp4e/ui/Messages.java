@@ -47,6 +47,16 @@ public final class Messages extends NLS {
 	public static String PreferencesPage_restartWarning_title;
 	public static String PreferencesPage_restartWarning_message;
 	public static String PreferencesPage_restartWarning_restart;
+	public static String RequestDeadlinesPreferencePage_boundsIntro;
+	public static String RequestDeadlinesPreferencePage_learnedIntro;
+	public static String RequestDeadlinesPreferencePage_method;
+	public static String RequestDeadlinesPreferencePage_default;
+	public static String RequestDeadlinesPreferencePage_floor;
+	public static String RequestDeadlinesPreferencePage_cap;
+	public static String RequestDeadlinesPreferencePage_samples;
+	public static String RequestDeadlinesPreferencePage_median;
+	public static String RequestDeadlinesPreferencePage_p95;
+	public static String RequestDeadlinesPreferencePage_deadline;
 	public static String NewContentTypeLSPLaunchDialog_associateContentType;
 	public static String NewContentTypeLSPLaunchDialog_withLSPLaunch;
 	public static String codeActions_description;
@@ -57,7 +67,7 @@ public final class Messages extends NLS {
 	public static String initializeLanguageServer_job;
 	public static String computing;
 	public static String notImplemented;
-	public static String LSPFormatFilesHandler_FormattingFile;
+	public static String LSPFormatFilesHandler_FormattingProgress;
 	public static String LSPFormatFilesHandler_FormattingSelectedFiles;
 	public static String LSPFormatHandler_DiscardedFormat;
 	public static String LSPFormatHandler_DiscardedFormatResponse;
@@ -72,6 +82,9 @@ public final class Messages extends NLS {
 	public static String serverEdit;
 	public static String rename_empty_message;
 	public static String rename_invalidated;
+	public static String rename_preparing;
+	public static String rename_computing;
+	public static String rename_creatingChanges;
 	public static String completionError;
 	public static String completionIncomplete;
 	public static String continueIncomplete;
@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.ui;
+
+import static org.eclipse.lsp4e.internal.NullSafetyHelper.lateNonNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.preference.PreferencePage;
+import org.eclipse.jface.viewers.ArrayContentProvider;
+import org.eclipse.jface.viewers.CellEditor;
+import org.eclipse.jface.viewers.ColumnLabelProvider;
+import org.eclipse.jface.viewers.EditingSupport;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.TableViewerColumn;
+import org.eclipse.jface.viewers.TextCellEditor;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4e.LanguageServersRegistry.LanguageServerDefinition;
+import org.eclipse.lsp4e.LanguageServiceAccessor;
+import org.eclipse.lsp4e.RequestDeadlines;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPreferencePage;
+
+/**
+ * Shows the deadlines learned from the latencies of the language servers, and
+ * allows to configure their floors and caps per LSP method.
+ */
+public class RequestDeadlinesPreferencePage extends PreferencePage implements IWorkbenchPreferencePage {
+
+	/** learned deadline of a method for a language server */
+	private record LearnedDeadline(LanguageServerDefinition server, String method, RequestDeadlines.Stats stats) {
+	}
+
+	private final class BoundEditingSupport extends EditingSupport {
+
+		private final int bound;
+
+		private BoundEditingSupport(TableViewer viewer, int bound) {
+			super(viewer);
+			this.bound = bound;
+		}
+
+		@Override
+		protected void setValue(@Nullable Object element, @Nullable Object value) {
+			if (element instanceof String method && value instanceof String text) {
+				try {
+					final long ms = Long.parseLong(text.trim());
+					if (ms > 0) {
+						bounds.get(method)[bound] = ms;
+						getViewer().refresh(element);
+					}
+				} catch (NumberFormatException e) {
+					// keep the previous value
+				}
+			}
+		}
+
+		@Override
+		protected @Nullable Object getValue(@Nullable Object element) {
+			if (element instanceof String method)
+				return Long.toString(bounds.get(method)[bound]);
+			return null;
+		}
+
+		@Override
+		protected CellEditor getCellEditor(@Nullable Object element) {
+			return new TextCellEditor(boundsViewer.getTable());
+		}
+
+		@Override
+		protected boolean canEdit(@Nullable Object element) {
+			return true;
+		}
+	}
+
+	private static final int FLOOR = 0;
+	private static final int CAP = 1;
+
+	private TableViewer boundsViewer = lateNonNull();
+	private TableViewer learnedViewer = lateNonNull();
+	/** floor and cap per method, being edited */
+	private final Map<String, long[]> bounds = new TreeMap<>();
+
+	@Override
+	public void init(IWorkbench workbench) {
+		for (final String method : RequestDeadlines.getMethods()) {
+			bounds.put(method, new long[] { RequestDeadlines.getFloor(method), RequestDeadlines.getCap(method) });
+		}
+	}
+
+	@Override
+	protected Control createContents(Composite parent) {
+		final var res = new Composite(parent, SWT.NONE);
+		res.setLayout(new GridLayout(1, false));
+
+		final var boundsIntro = new Label(res, SWT.WRAP);
+		boundsIntro.setLayoutData(new GridData(SWT.FILL, SWT.TOP, true, false));
+		boundsIntro.setText(Messages.RequestDeadlinesPreferencePage_boundsIntro);
+		createBoundsTable(res);
+
+		final var learnedIntro = new Label(res, SWT.WRAP);
+		learnedIntro.setLayoutData(new GridData(SWT.FILL, SWT.TOP, true, false));
+		learnedIntro.setText(Messages.RequestDeadlinesPreferencePage_learnedIntro);
+		createLearnedTable(res);
+		return res;
+	}
+
+	private void createBoundsTable(Composite res) {
+		boundsViewer = new TableViewer(res, SWT.FULL_SELECTION);
+		boundsViewer.getControl().setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true));
+		boundsViewer.setContentProvider(new ArrayContentProvider());
+
+		final var methodColumn = new TableViewerColumn(boundsViewer, SWT.NONE);
+		methodColumn.getColumn().setText(Messages.RequestDeadlinesPreferencePage_method);
+		methodColumn.getColumn().setWidth(250);
+		methodColumn.setLabelProvider(new ColumnLabelProvider() {
+			@Override
+			public String getText(Object element) {
+				return (String) element;
+			}
+		});
+
+		final var defaultColumn = new TableViewerColumn(boundsViewer, SWT.NONE);
+		defaultColumn.getColumn().setText(Messages.RequestDeadlinesPreferencePage_default);
+		defaultColumn.getColumn().setWidth(100);
+		defaultColumn.setLabelProvider(new ColumnLabelProvider() {
+			@Override
+			public String getText(Object element) {
+				return Long.toString(RequestDeadlines.getPolicy((String) element).defaultMs());
+			}
+		});
+
+		final var floorColumn = new TableViewerColumn(boundsViewer, SWT.NONE);
+		floorColumn.getColumn().setText(Messages.RequestDeadlinesPreferencePage_floor);
+		floorColumn.getColumn().setWidth(100);
+		floorColumn.setLabelProvider(new ColumnLabelProvider() {
+			@Override
+			public String getText(Object element) {
+				return Long.toString(bounds.get(element)[FLOOR]);
+			}
+		});
+		floorColumn.setEditingSupport(new BoundEditingSupport(boundsViewer, FLOOR));
+
+		final var capColumn = new TableViewerColumn(boundsViewer, SWT.NONE);
+		capColumn.getColumn().setText(Messages.RequestDeadlinesPreferencePage_cap);
+		capColumn.getColumn().setWidth(100);
+		capColumn.setLabelProvider(new ColumnLabelProvider() {
+			@Override
+			public String getText(Object element) {
+				return Long.toString(bounds.get(element)[CAP]);
+			}
+		});
+		capColumn.setEditingSupport(new BoundEditingSupport(boundsViewer, CAP));
+
+		boundsViewer.getTable().setHeaderVisible(true);
+		boundsViewer.getTable().setLinesVisible(true);
+		boundsViewer.setInput(bounds.keySet());
+	}
+
+	private void createLearnedTable(Composite res) {
+		learnedViewer = new TableViewer(res, SWT.FULL_SELECTION);
+		learnedViewer.getControl().setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true));
+		learnedViewer.setContentProvider(new ArrayContentProvider());
+
+		createLearnedColumn(Messages.PreferencesPage_languageServer, 200, learned -> learned.server().label);
+		createLearnedColumn(Messages.RequestDeadlinesPreferencePage_method, 250, LearnedDeadline::method);
+		createLearnedColumn(Messages.RequestDeadlinesPreferencePage_samples, 70,
+				learned -> Integer.toString(learned.stats().samples()));
+		createLearnedColumn(Messages.RequestDeadlinesPreferencePage_median, 90,
+				learned -> Long.toString(learned.stats().p50Ms()));
+		createLearnedColumn(Messages.RequestDeadlinesPreferencePage_p95, 90,
+				learned -> Long.toString(learned.stats().p95Ms()));
+		createLearnedColumn(Messages.RequestDeadlinesPreferencePage_deadline, 90,
+				learned -> Long.toString(learned.stats().deadlineMs()));
+
+		learnedViewer.getTable().setHeaderVisible(true);
+		learnedViewer.getTable().setLinesVisible(true);
+		updateLearnedDeadlines();
+	}
+
+	private void createLearnedColumn(String title, int width, Function<LearnedDeadline, String> text) {
+		final var column = new TableViewerColumn(learnedViewer, SWT.NONE);
+		column.getColumn().setText(title);
+		column.getColumn().setWidth(width);
+		column.setLabelProvider(new ColumnLabelProvider() {
+			@Override
+			public String getText(Object element) {
+				return text.apply((LearnedDeadline) element);
+			}
+		});
+	}
+
+	private void updateLearnedDeadlines() {
+		final var servers = new LinkedHashSet<LanguageServerDefinition>();
+		for (final LanguageServerWrapper wrapper : LanguageServiceAccessor.getStartedWrappers(capabilities -> true,
+				false)) {
+			servers.add(wrapper.serverDefinition);
+		}
+		final List<LearnedDeadline> learned = new ArrayList<>();
+		for (final LanguageServerDefinition server : servers) {
+			RequestDeadlines.getStats(server.id)
+					.forEach((method, stats) -> learned.add(new LearnedDeadline(server, method, stats)));
+		}
+		learnedViewer.setInput(learned);
+	}
+
+	@Override
+	public void setVisible(boolean visible) {
+		super.setVisible(visible);
+		if (visible) {
+			updateLearnedDeadlines();
+		}
+	}
+
+	@Override
+	protected void performDefaults() {
+		bounds.forEach((method, methodBounds) -> {
+			methodBounds[FLOOR] = RequestDeadlines.getPolicy(method).floorMs();
+			methodBounds[CAP] = RequestDeadlines.getPolicy(method).capMs();
+		});
+		boundsViewer.refresh();
+		super.performDefaults();
+	}
+
+	@Override
+	public boolean performOk() {
+		bounds.forEach((method, methodBounds) -> {
+			RequestDeadlines.setFloor(method, Math.min(methodBounds[FLOOR], methodBounds[CAP]));
+			RequestDeadlines.setCap(method, methodBounds[CAP]);
+		});
+		return super.performOk();
+	}
+}